@@ -0,0 +1,277 @@
+/*
+ * File: ContractDateSetBatchCalculator.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date;
+
+import static org.osframework.contract.date.util.IMM.isIMMCode;
+import static org.osframework.util.DateUtil.isDate;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.osframework.contract.date.calendar.BusinessDayCalendar;
+import org.osframework.contract.date.calendar.BusinessDayCalendars;
+import org.osframework.contract.date.impl.ContractDateSetDefaultImpl;
+import org.osframework.contract.date.util.DateMath;
+
+/**
+ * Calculates <code>ContractDateSet</code> objects for many trades at once
+ * from columnar inputs, such as the rows of a trade blotter. Row
+ * <code>i</code> yields exactly the result of:
+ * <pre>
+ * new ContractDateSetBuilder(tradeDates[i])
+ *     .setIMMRoll(immRolls[i])
+ *     .setEffectiveDate(effectiveNotations[i])
+ *     .setMaturityDate(maturityNotations[i])
+ *     .setHolidayCalendar(calendarIds[i])
+ *     .build();
+ * </pre>
+ * where a <code>null</code> notation or calendar ID omits the corresponding
+ * setter. Holiday calendars are resolved once per distinct ID per batch, and
+ * tenor notations are parsed once via {@link TimePeriod#valueOf(String)}.
+ * Rows whose notations are tenors are calculated on <code>int</code> dates,
+ * with one working <code>Calendar</code> per chunk of rows; rows with date
+ * string or IMM code notations are built by a
+ * <code>ContractDateSetBuilder</code>.
+ * <p>
+ * If constructed with an <code>ExecutorService</code>, rows are divided into
+ * chunks which are calculated concurrently; otherwise rows are calculated on
+ * the calling thread. The executor is owned by the caller, and is not shut
+ * down by this class. Instances of this class are thread-safe.
+ * </p>
+ * 
+ * @author <a href="mailto:david.joyce13@gmail.com">Dave Joyce</a>
+ */
+public class ContractDateSetBatchCalculator {
+
+	/**
+	 * Minimum number of rows per concurrently calculated chunk.
+	 */
+	private static final int MIN_CHUNK_SIZE = 256;
+
+	private final ExecutorService executor;
+	private final int parallelism;
+
+	/**
+	 * Construct a calculator which calculates all rows on the calling thread.
+	 */
+	public ContractDateSetBatchCalculator() {
+		this.executor = null;
+		this.parallelism = 1;
+	}
+
+	/**
+	 * Construct a calculator which spreads rows across the threads of the
+	 * specified executor.
+	 * 
+	 * @param executor executor service on which chunks of rows are calculated
+	 * @param parallelism number of chunks into which a batch is divided;
+	 *                    typically the number of executor threads
+	 * @throws IllegalArgumentException if executor is <code>null</code> or
+	 *         parallelism is less than 1
+	 */
+	public ContractDateSetBatchCalculator(ExecutorService executor, int parallelism) {
+		if (null == executor) {
+			throw new IllegalArgumentException("argument 'executor' cannot be null");
+		}
+		if (1 > parallelism) {
+			throw new IllegalArgumentException("argument 'parallelism' must be 1 or greater");
+		}
+		this.executor = executor;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Calculate the contract date sets of a batch of trades. All arrays must
+	 * be of equal length; elements of the notation and calendar ID arrays may
+	 * be <code>null</code>.
+	 * 
+	 * @param tradeDates trade dates
+	 * @param effectiveNotations effective date notations (tenor, IMM code or
+	 *                           date string)
+	 * @param maturityNotations maturity date notations (tenor, IMM code or
+	 *                          date string)
+	 * @param calendarIds business day calendar IDs; <code>null</code> element
+	 *                    uses the default calendar
+	 * @param immRolls IMM roll convention flags
+	 * @return contract date sets, in row order
+	 * @throws IllegalArgumentException if any array is <code>null</code> or
+	 *         lengths differ, or as thrown by <code>ContractDateSetBuilder</code>
+	 *         for the first failing row
+	 * @throws IllegalStateException as thrown by
+	 *         <code>ContractDateSetBuilder.build()</code> for the first failing
+	 *         row
+	 */
+	public ContractDateSet[] calculate(final Date[] tradeDates,
+	                                   final String[] effectiveNotations,
+	                                   final String[] maturityNotations,
+	                                   final String[] calendarIds,
+	                                   final boolean[] immRolls) {
+		if (null == tradeDates || null == effectiveNotations || null == maturityNotations ||
+			null == calendarIds || null == immRolls) {
+			throw new IllegalArgumentException("Batch column arrays cannot be null");
+		}
+		final int rows = tradeDates.length;
+		if (effectiveNotations.length != rows || maturityNotations.length != rows ||
+			calendarIds.length != rows || immRolls.length != rows) {
+			throw new IllegalArgumentException("Batch column arrays must be of equal length");
+		}
+		final BusinessDayCalendar[] calendars = resolveCalendars(calendarIds);
+		final ContractDateSet[] results = new ContractDateSet[rows];
+		final int chunkSize = Math.max(MIN_CHUNK_SIZE, (rows + parallelism - 1) / parallelism);
+		if (null == executor || rows <= chunkSize) {
+			calculate(tradeDates, effectiveNotations, maturityNotations, calendars, immRolls, results, 0, rows);
+			return results;
+		}
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int from = 0; from < rows; from += chunkSize) {
+			final int start = from, end = Math.min(rows, from + chunkSize);
+			futures.add(executor.submit(new Callable<Object>() {
+				public Object call() {
+					calculate(tradeDates, effectiveNotations, maturityNotations, calendars, immRolls, results, start, end);
+					return null;
+				}
+			}));
+		}
+		try {
+			for (Future<?> f : futures) {
+				f.get();
+			}
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while calculating contract dates", ie);
+		} catch (ExecutionException ee) {
+			Throwable cause = ee.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			} else if (cause instanceof Error) {
+				throw (Error)cause;
+			}
+			throw new IllegalStateException(cause);
+		} finally {
+			for (Future<?> f : futures) {
+				f.cancel(true);
+			}
+		}
+		return results;
+	}
+
+	private void calculate(Date[] tradeDates,
+	                       String[] effectiveNotations,
+	                       String[] maturityNotations,
+	                       BusinessDayCalendar[] calendars,
+	                       boolean[] immRolls,
+	                       ContractDateSet[] results,
+	                       int from,
+	                       int to) {
+		// State shared by the rows of this chunk
+		final Calendar work = Calendar.getInstance();
+		final Map<String, Boolean> tenors = new HashMap<String, Boolean>();
+		final BusinessDayCalendar defaultCalendar = BusinessDayCalendars.getDefault();
+		for (int i = from; i < to; i++) {
+			if (isTenor(effectiveNotations[i], tenors) &&
+				(null == maturityNotations[i] || isTenor(maturityNotations[i], tenors))) {
+				final BusinessDayCalendar hc = (null != calendars[i]) ? calendars[i] : defaultCalendar;
+				results[i] = calculateTenors(work, tradeDates[i], effectiveNotations[i], maturityNotations[i], hc, immRolls[i]);
+				continue;
+			}
+			ContractDateSetBuilder builder = new ContractDateSetBuilder(tradeDates[i]).setIMMRoll(immRolls[i]);
+			if (null != effectiveNotations[i]) {
+				builder.setEffectiveDate(effectiveNotations[i]);
+			}
+			if (null != maturityNotations[i]) {
+				builder.setMaturityDate(maturityNotations[i]);
+			}
+			if (null != calendars[i]) {
+				builder.setHolidayCalendar(calendars[i]);
+			}
+			results[i] = builder.build();
+		}
+	}
+
+	/**
+	 * Calculate a row whose notations are both tenors on <code>int</code>
+	 * dates, as <code>ContractDateSetBuilder.build()</code> would. Only the
+	 * resulting <code>Date</code> objects are created; the work calendar
+	 * supplies their time zone and time of day.
+	 */
+	private ContractDateSet calculateTenors(Calendar work,
+	                                        Date tradeDate,
+	                                        String effectiveNotation,
+	                                        String maturityNotation,
+	                                        BusinessDayCalendar hc,
+	                                        boolean immRoll) {
+		work.setTime(tradeDate);
+		final Date trade = work.getTime();
+		final int effective = ContractDateSetBuilder.calculateEffectiveDate(DateMath.fromCalendar(work),
+		                                                                    TimePeriod.valueOf(effectiveNotation), hc);
+		final Date start = setDate(work, effective);
+		Date end = null;
+		if (null != maturityNotation) {
+			TimePeriod matTP = TimePeriod.valueOf(maturityNotation);
+			end = setDate(work, ContractDateSetBuilder.calculateMaturityDate(effective, matTP, immRoll, hc));
+		}
+		return new ContractDateSetDefaultImpl(trade, start, null, end);
+	}
+
+	private static Date setDate(Calendar work, int date) {
+		work.set(DateMath.year(date), DateMath.month(date) - 1, DateMath.dayOfMonth(date));
+		return work.getTime();
+	}
+
+	/**
+	 * Determine if a notation is a tenor, rather than a date string or IMM
+	 * code, memoizing the answer for the rows of a chunk.
+	 */
+	private static boolean isTenor(String notation, Map<String, Boolean> tenors) {
+		if (null == notation) {
+			return false;
+		}
+		Boolean tenor = tenors.get(notation);
+		if (null == tenor) {
+			tenor = Boolean.valueOf(!isDate(notation) && !isIMMCode(notation));
+			tenors.put(notation, tenor);
+		}
+		return tenor.booleanValue();
+	}
+
+	private BusinessDayCalendar[] resolveCalendars(String[] calendarIds) {
+		final BusinessDayCalendar[] calendars = new BusinessDayCalendar[calendarIds.length];
+		final Map<String, BusinessDayCalendar> resolved = new HashMap<String, BusinessDayCalendar>();
+		for (int i = 0; i < calendarIds.length; i++) {
+			if (null == calendarIds[i]) {
+				continue;
+			}
+			BusinessDayCalendar calendar = resolved.get(calendarIds[i]);
+			if (null == calendar) {
+				calendar = BusinessDayCalendars.get(calendarIds[i]);
+				resolved.put(calendarIds[i], calendar);
+			}
+			calendars[i] = calendar;
+		}
+		return calendars;
+	}
+
+}
@@ -18,7 +18,7 @@
 package org.osframework.contract.date;
 
 import static org.osframework.contract.date.util.IMM.isIMMCode;
-import static org.osframework.contract.date.util.IMM.nextCalendar;
+import static org.osframework.contract.date.util.IMM.nextDate;
 import static org.osframework.contract.date.util.IMM.toCalendar;
 import static org.osframework.util.DateUtil.isDate;
 import static org.osframework.util.DateUtil.parseDate;
@@ -29,9 +29,10 @@ import java.util.TimeZone;
 
 import org.jfin.date.BusinessDayConvention;
 import org.jfin.date.Frequency;
-import org.jfin.date.holiday.HolidayCalendar;
-import org.jfin.date.holiday.HolidayCalendarFactory;
+import org.osframework.contract.date.calendar.BusinessDayCalendar;
+import org.osframework.contract.date.calendar.BusinessDayCalendars;
 import org.osframework.contract.date.impl.ContractDateSetDefaultImpl;
+import org.osframework.contract.date.util.DateMath;
 
 /**
  * Builder for configurable construction of a <code>ContractDateSet</code>
@@ -49,8 +50,21 @@ import org.osframework.contract.date.impl.ContractDateSetDefaultImpl;
  *                                .setMaturityDate("23Y")
  *                                .setIMMRoll()
  *                                .setTimeZone("America/New_York")
+ *                                .setHolidayCalendar("NYB")
  *                                .build();
  * </pre>
+ * <p>
+ * Business days are determined by a <code>BusinessDayCalendar</code>. Unless
+ * one is set, the shared weekends-only calendar
+ * {@link BusinessDayCalendars#DEFAULT_ID} is used. Calendars are shared,
+ * immutable objects: the same instance serves every builder and thread.
+ * </p>
+ * <p>
+ * Calculation is performed on primitive <code>yyyymmdd</code> dates; see
+ * {@link DateMath}. Calculated dates are converted to <code>Calendar</code>
+ * objects only once, carrying the time zone and time of day of the date from
+ * which they were calculated.
+ * </p>
  * 
  * @author <a href="mailto:david.joyce13@gmail.com">Dave Joyce</a>
  */
@@ -62,6 +76,7 @@ public class ContractDateSetBuilder {
 	private TimeZone timeZone = null;
 	private String effectiveDateNotation = null, expirationDateNotation = null, maturityDateNotation = null;
 	private boolean useIMMRoll = false;
+	private BusinessDayCalendar holidayCalendar = null;
 
 	/**
 	 * Default constructor - uses default trade date of today in system default
@@ -461,6 +476,38 @@ public class ContractDateSetBuilder {
 		return this.setIMMRoll(true);
 	}
 
+	/**
+	 * Set the business day calendar against which dates are calculated.
+	 * 
+	 * @param holidayCalendar shared business day calendar
+	 * @return this builder instance
+	 * @throws IllegalArgumentException if argument is <code>null</code>
+	 */
+	public ContractDateSetBuilder setHolidayCalendar(BusinessDayCalendar holidayCalendar) {
+		if (null == holidayCalendar) {
+			throw new IllegalArgumentException("argument 'holidayCalendar' cannot be null");
+		}
+		this.holidayCalendar = holidayCalendar;
+		return this;
+	}
+
+	/**
+	 * Set the business day calendar against which dates are calculated, by
+	 * ID. The calendar is resolved from the shared registry.
+	 * 
+	 * @param holidayCalendarId ID of business day calendar
+	 * @return this builder instance
+	 * @throws IllegalArgumentException if argument is <code>null</code> or
+	 *         cannot be resolved to a calendar
+	 * @see BusinessDayCalendars#get(String)
+	 */
+	public ContractDateSetBuilder setHolidayCalendar(String holidayCalendarId) {
+		if (null == holidayCalendarId) {
+			throw new IllegalArgumentException("argument 'holidayCalendarId' cannot be null");
+		}
+		return this.setHolidayCalendar(BusinessDayCalendars.get(holidayCalendarId));
+	}
+
 	/**
 	 * Build the <code>ContractDateSet</code> object, calculating the requested
 	 * dates as necessary. This method should always be called <b>last</b> on
@@ -469,64 +516,83 @@ public class ContractDateSetBuilder {
 	 * @return constructed <code>ContractDateSet</code> instance
 	 */
 	public ContractDateSet build() {
-		Calendar referenceDate = (Calendar)this.tradeDate.clone();
-		HolidayCalendar<?> hc = null;
+		BusinessDayCalendar hc = null;
 		if (mustCalculateEffectiveDate()) {
-			TimePeriod effTP = new TimePeriod(this.effectiveDateNotation);
+			TimePeriod effTP = TimePeriod.valueOf(this.effectiveDateNotation);
 			hc = createHolidayCalendar();
-			// Is effectiveDate notation denominated in a larger unit than days?
-			// If so, advance reference date by 2B first
-			if (TimeUnit.BUSINESS_DAY != effTP.getTimeUnit() && TimeUnit.DAY != effTP.getTimeUnit()) {
-				int amount = DEFAULT_EFFECTIVE_TP.getAmount();
-				int pu = periodUnitOf(DEFAULT_EFFECTIVE_TP);
-				referenceDate = hc.advance(referenceDate, amount, pu, BusinessDayConvention.MODIFIED_FOLLOWING);
-			}
-			this.effectiveDate = hc.advance(referenceDate, effTP.getAmount(), periodUnitOf(effTP), BusinessDayConvention.MODIFIED_FOLLOWING);
+			int calculated = calculateEffectiveDate(DateMath.fromCalendar(this.tradeDate), effTP, hc);
+			this.effectiveDate = DateMath.toCalendar(this.tradeDate, calculated);
 		}
 		if (mustCalculateExpirationDate()) {
-			TimePeriod expTP = new TimePeriod(this.expirationDateNotation);
+			TimePeriod expTP = TimePeriod.valueOf(this.expirationDateNotation);
 			if (null == hc) {
 				hc = createHolidayCalendar();
 			}
-			referenceDate = (Calendar)this.tradeDate.clone();
-			this.expirationDate = hc.advance(referenceDate, expTP.getAmount(), periodUnitOf(expTP), BusinessDayConvention.MODIFIED_FOLLOWING);
+			int referenceDate = DateMath.fromCalendar(this.tradeDate);
+			int calculated = hc.advance(referenceDate, expTP.getAmount(), periodUnitOf(expTP), BusinessDayConvention.MODIFIED_FOLLOWING);
+			this.expirationDate = DateMath.toCalendar(this.tradeDate, calculated);
 		}
 		if (mustCalculateMaturityDate()) {
 			if (null == this.effectiveDate) {
 				throw new IllegalStateException("Cannot calculate maturityDate without established effectiveDate");
 			}
-			TimePeriod matTP = new TimePeriod(this.maturityDateNotation);
-			if (this.useIMMRoll && (TimeUnit.MONTH != matTP.getTimeUnit() || TimeUnit.YEAR == matTP.getTimeUnit())) {
-				this.maturityDate = calculateMaturityIMMDate(matTP);
-			} else {
-				if (null == hc) {
-					hc = createHolidayCalendar();
-				}
-				this.maturityDate = hc.advance(this.effectiveDate, matTP.getAmount(), periodUnitOf(matTP), BusinessDayConvention.MODIFIED_FOLLOWING);
+			TimePeriod matTP = TimePeriod.valueOf(this.maturityDateNotation);
+			if (null == hc) {
+				hc = createHolidayCalendar();
 			}
+			int calculated = calculateMaturityDate(DateMath.fromCalendar(this.effectiveDate), matTP, this.useIMMRoll, hc);
+			this.maturityDate = DateMath.toCalendar(this.effectiveDate, calculated);
 		}
 		return new ContractDateSetDefaultImpl(this.tradeDate, this.effectiveDate, this.expirationDate, this.maturityDate);
 	}
 
-	private Calendar calculateMaturityIMMDate(TimePeriod mtp) {
-		// Get year of effectiveDate
-		Calendar referenceDate = (Calendar)this.effectiveDate.clone(),
-				 calcMaturityDate = null;
+	/**
+	 * Calculate an effective date from a trade date and tenor. A tenor
+	 * denominated in a larger unit than days is applied after advancing the
+	 * trade date by the default of 2 business days.
+	 * 
+	 * @param tradeDate trade date in <code>yyyymmdd</code> format
+	 * @param effTP effective date tenor
+	 * @param hc business day calendar
+	 * @return effective date in <code>yyyymmdd</code> format
+	 */
+	static int calculateEffectiveDate(int tradeDate, TimePeriod effTP, BusinessDayCalendar hc) {
+		int referenceDate = tradeDate;
+		if (TimeUnit.BUSINESS_DAY != effTP.getTimeUnit() && TimeUnit.DAY != effTP.getTimeUnit()) {
+			int amount = DEFAULT_EFFECTIVE_TP.getAmount();
+			int pu = periodUnitOf(DEFAULT_EFFECTIVE_TP);
+			referenceDate = hc.advance(referenceDate, amount, pu, BusinessDayConvention.MODIFIED_FOLLOWING);
+		}
+		return hc.advance(referenceDate, effTP.getAmount(), periodUnitOf(effTP), BusinessDayConvention.MODIFIED_FOLLOWING);
+	}
+
+	/**
+	 * Calculate a maturity date from an effective date and tenor, optionally
+	 * rolled to an IMM date.
+	 * 
+	 * @param effectiveDate effective date in <code>yyyymmdd</code> format
+	 * @param matTP maturity date tenor
+	 * @param useIMMRoll whether the IMM roll convention is used
+	 * @param hc business day calendar
+	 * @return maturity date in <code>yyyymmdd</code> format
+	 */
+	static int calculateMaturityDate(int effectiveDate, TimePeriod matTP, boolean useIMMRoll, BusinessDayCalendar hc) {
+		if (useIMMRoll && (TimeUnit.MONTH != matTP.getTimeUnit() || TimeUnit.YEAR == matTP.getTimeUnit())) {
+			return calculateMaturityIMMDate(effectiveDate, matTP);
+		}
+		return hc.advance(effectiveDate, matTP.getAmount(), periodUnitOf(matTP), BusinessDayConvention.MODIFIED_FOLLOWING);
+	}
+
+	private static int calculateMaturityIMMDate(int effective, TimePeriod mtp) {
 		switch (mtp.getTimeUnit()) {
 		case MONTH:
-			referenceDate.add(Calendar.MONTH, mtp.getAmount());
-			referenceDate.set(Calendar.DAY_OF_MONTH, 1);
-			calcMaturityDate = nextCalendar(referenceDate, false);
-			break;
 		case YEAR:
-			referenceDate.add(Calendar.YEAR, mtp.getAmount());
-			referenceDate.set(Calendar.DAY_OF_MONTH, 1);
-			calcMaturityDate = nextCalendar(referenceDate, false);
-			break;
+			// IMM date of the month in which the period ends
+			int periodEnd = DateMath.plus(effective, mtp.getAmount(), mtp.getTimeUnit());
+			return nextDate((periodEnd / 100) * 100 + 1, false);
 		default:
 			throw new IllegalArgumentException("Cannot calculate IMM date from time unit: " + mtp.getTimeUnit());
 		}
-		return calcMaturityDate;
 	}
 
 	private boolean mustCalculateEffectiveDate() {
@@ -541,11 +607,11 @@ public class ContractDateSetBuilder {
 		return (null == this.maturityDate && null != this.maturityDateNotation);
 	}
 
-	private HolidayCalendar<?> createHolidayCalendar() {
-		return HolidayCalendarFactory.newInstance().getHolidayCalendar("WE");
+	private BusinessDayCalendar createHolidayCalendar() {
+		return (null != this.holidayCalendar) ? this.holidayCalendar : BusinessDayCalendars.getDefault();
 	}
 
-	private int periodUnitOf(TimePeriod tp) {
+	private static int periodUnitOf(TimePeriod tp) {
 		TimeUnit tu = tp.getTimeUnit();
 		Frequency f = null;
 		switch (tu) {
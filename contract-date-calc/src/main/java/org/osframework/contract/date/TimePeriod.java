@@ -17,6 +17,9 @@
  */
 package org.osframework.contract.date;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * An immutable representation of a finite period of time, denominated in a
  * particular {@link TimeUnit}.
@@ -58,6 +61,12 @@ package org.osframework.contract.date;
  */
 public class TimePeriod {
 
+	/**
+	 * Maximum number of distinct notations held by the parse cache.
+	 */
+	private static final int CACHE_LIMIT = 1024;
+	private static final ConcurrentMap<String, TimePeriod> CACHE = new ConcurrentHashMap<String, TimePeriod>();
+
 	private final int amount;
 	private final TimeUnit timeUnit;
 
@@ -105,6 +114,29 @@ public class TimePeriod {
 		this.timeUnit = TimeUnit.valueOf(symbol);
 	}
 
+	/**
+	 * Get the time period for the specified notation. Parsed periods are
+	 * cached, so repeated notations (tenors such as "2B" or "10Y") are parsed
+	 * only once.
+	 * 
+	 * @param notatedTimePeriod time period notation
+	 * @return shared, immutable time period
+	 * @throws IllegalArgumentException if notation is invalid
+	 */
+	public static TimePeriod valueOf(String notatedTimePeriod) {
+		if (null == notatedTimePeriod) {
+			throw new IllegalArgumentException("argument 'notatedTimePeriod' must be 2 or more non-whitespace characters");
+		}
+		TimePeriod tp = CACHE.get(notatedTimePeriod);
+		if (null == tp) {
+			tp = new TimePeriod(notatedTimePeriod);
+			if (CACHE_LIMIT > CACHE.size()) {
+				CACHE.putIfAbsent(notatedTimePeriod, tp);
+			}
+		}
+		return tp;
+	}
+
 	public TimePeriod(int amount, char timeUnitSymbol) {
 		this(amount, TimeUnit.valueOf(timeUnitSymbol));
 	}
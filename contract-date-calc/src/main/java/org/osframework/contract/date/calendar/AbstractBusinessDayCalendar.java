@@ -0,0 +1,209 @@
+/*
+ * File: AbstractBusinessDayCalendar.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.calendar;
+
+import java.util.Calendar;
+
+import org.jfin.date.BusinessDayConvention;
+import org.osframework.contract.date.util.DateMath;
+
+/**
+ * Base class of <code>BusinessDayCalendar</code> implementations backed by a
+ * business day predicate. Subclasses need only implement
+ * {@link #isBusinessDay(int)}; those with a faster means of counting
+ * business days should also override {@link #addBusinessDays(int, int)},
+ * whose default implementation steps one day at a time.
+ * <p>Dates are represented as <code>int</code> values in
+ * <code>yyyymmdd</code> format, and all arithmetic is performed on them via
+ * {@link DateMath}. The <code>Calendar</code> form of
+ * {@link #advance(Calendar, int, int, BusinessDayConvention)} is an adapter
+ * which preserves the time zone and time of day of its start date.</p>
+ * 
+ * @author <a href="mailto:david.joyce13@gmail.com">Dave Joyce</a>
+ */
+public abstract class AbstractBusinessDayCalendar implements BusinessDayCalendar {
+
+	private final String id;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param id unique identifier of this calendar
+	 * @throws IllegalArgumentException if id is <code>null</code>
+	 */
+	protected AbstractBusinessDayCalendar(final String id) {
+		if (null == id) {
+			throw new IllegalArgumentException("argument 'id' cannot be null");
+		}
+		this.id = id;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Determine if the specified date is a business day.
+	 * 
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return <code>true</code> if date is a business day, <code>false</code>
+	 *         otherwise
+	 */
+	public abstract boolean isBusinessDay(int date);
+
+	/**
+	 * Advance a date by a number of business days. A count of zero returns
+	 * the date unchanged.
+	 * 
+	 * @param date start date in <code>yyyymmdd</code> format
+	 * @param n number of business days to add; may be negative
+	 * @return resulting business day in <code>yyyymmdd</code> format
+	 */
+	public int addBusinessDays(final int date, final int n) {
+		int epochDay = DateMath.toEpochDay(date);
+		int current = date;
+		final int step = (n < 0) ? -1 : 1;
+		for (int remaining = Math.abs(n); remaining > 0; ) {
+			epochDay += step;
+			current = DateMath.fromEpochDay(epochDay);
+			if (isBusinessDay(current)) {
+				remaining--;
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Adjust a date to a business day according to the specified convention.
+	 * <code>MONTH_END_REFERENCE</code> adjusts as
+	 * <code>MODIFIED_FOLLOWING</code>; month-end rolling is applied by
+	 * {@link #advance(Calendar, int, int, BusinessDayConvention)}.
+	 * 
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @param bdc business day convention
+	 * @return adjusted date in <code>yyyymmdd</code> format
+	 * @throws IllegalArgumentException if bdc is <code>null</code>
+	 */
+	public int adjust(final int date, final BusinessDayConvention bdc) {
+		if (null == bdc) {
+			throw new IllegalArgumentException("argument 'bdc' cannot be null");
+		}
+		if (BusinessDayConvention.UNADJUSTED == bdc || isBusinessDay(date)) {
+			return date;
+		}
+		int adjusted;
+		switch (bdc) {
+		case FOLLOWING:
+			adjusted = addBusinessDays(date, 1);
+			break;
+		case PRECEDING:
+			adjusted = addBusinessDays(date, -1);
+			break;
+		case MODIFIED_PRECEDING:
+			adjusted = addBusinessDays(date, -1);
+			if (adjusted / 100 != date / 100) {
+				adjusted = addBusinessDays(date, 1);
+			}
+			break;
+		case MODIFIED_FOLLOWING:
+		case MONTH_END_REFERENCE:
+		default:
+			adjusted = addBusinessDays(date, 1);
+			if (adjusted / 100 != date / 100) {
+				adjusted = addBusinessDays(date, -1);
+			}
+			break;
+		}
+		return adjusted;
+	}
+
+	public Calendar advance(Calendar start, int amount, int periodUnit, BusinessDayConvention bdc) {
+		if (null == start) {
+			throw new IllegalArgumentException("argument 'start' cannot be null");
+		}
+		final int result = advance(toDate(start), amount, periodUnit, bdc);
+		return DateMath.toCalendar(start, result);
+	}
+
+	/**
+	 * Daily period units count business days, and an amount of zero adjusts
+	 * the start date. Monthly, yearly and weekly period units are added as
+	 * calendar periods; other <code>Calendar</code> fields are not
+	 * supported.
+	 * 
+	 * @throws IllegalArgumentException if bdc is <code>null</code> or period
+	 *         unit is not supported
+	 */
+	public int advance(int start, int amount, int periodUnit, BusinessDayConvention bdc) {
+		if (null == bdc) {
+			throw new IllegalArgumentException("argument 'bdc' cannot be null");
+		}
+		if (isDailyUnit(periodUnit)) {
+			return (0 == amount) ? adjust(start, bdc) : addBusinessDays(start, amount);
+		}
+		final int unadjusted;
+		switch (periodUnit) {
+		case Calendar.MONTH:
+			unadjusted = DateMath.plusMonths(start, amount);
+			break;
+		case Calendar.YEAR:
+			unadjusted = DateMath.plusMonths(start, amount * 12);
+			break;
+		case Calendar.WEEK_OF_YEAR:
+		case Calendar.WEEK_OF_MONTH:
+			unadjusted = DateMath.plusDays(start, amount * 7);
+			break;
+		default:
+			throw new IllegalArgumentException("Unsupported period unit: " + periodUnit);
+		}
+		if (BusinessDayConvention.MONTH_END_REFERENCE == bdc && start == lastBusinessDayOfMonth(start)) {
+			return lastBusinessDayOfMonth(unadjusted);
+		}
+		return adjust(unadjusted, bdc);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[" + id + "]";
+	}
+
+	/**
+	 * Find the last business day of the month of the specified date.
+	 */
+	private int lastBusinessDayOfMonth(final int date) {
+		return adjust(DateMath.endOfMonth(date), BusinessDayConvention.PRECEDING);
+	}
+
+	private static boolean isDailyUnit(final int periodUnit) {
+		return (Calendar.DAY_OF_MONTH == periodUnit ||
+				Calendar.DAY_OF_YEAR == periodUnit ||
+				Calendar.DAY_OF_WEEK == periodUnit);
+	}
+
+	/**
+	 * Convert the calendar date of a <code>Calendar</code> object, in its own
+	 * time zone, to <code>yyyymmdd</code> format.
+	 * 
+	 * @param c calendar
+	 * @return date in <code>yyyymmdd</code> format
+	 */
+	protected static int toDate(final Calendar c) {
+		return DateMath.fromCalendar(c);
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * File: BusinessDayCalendar.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.calendar;
+
+import java.util.Calendar;
+
+import org.jfin.date.BusinessDayConvention;
+
+/**
+ * Core behavior of a calendar of business days, against which contract
+ * dates are advanced. Implementations are expected to be immutable, so that
+ * a single instance may be shared by all builders and threads.
+ * 
+ * @author <a href="mailto:david.joyce13@gmail.com">Dave Joyce</a>
+ * @see BusinessDayCalendars
+ */
+public interface BusinessDayCalendar {
+
+	/**
+	 * @return unique identifier of this calendar
+	 */
+	public String getId();
+
+	/**
+	 * Advance a date by the specified amount of a period unit, adjusting the
+	 * result by a business day convention. Daily period units count business
+	 * days; all other units are added as calendar periods and then adjusted.
+	 * The given start date is not modified.
+	 * 
+	 * @param start date from which to advance
+	 * @param amount number of period units to advance; may be negative
+	 * @param periodUnit <code>java.util.Calendar</code> field constant of the
+	 *                   period unit
+	 * @param bdc business day convention with which to adjust the result
+	 * @return new <code>Calendar</code> object for the advanced date
+	 */
+	public Calendar advance(Calendar start, int amount, int periodUnit, BusinessDayConvention bdc);
+
+	/**
+	 * Advance a date by the specified amount of a period unit, adjusting the
+	 * result by a business day convention. This is the primitive form of
+	 * {@link #advance(Calendar, int, int, BusinessDayConvention)}, on dates in
+	 * <code>yyyymmdd</code> format.
+	 * 
+	 * @param start date from which to advance, in <code>yyyymmdd</code> format
+	 * @param amount number of period units to advance; may be negative
+	 * @param periodUnit <code>java.util.Calendar</code> field constant of the
+	 *                   period unit
+	 * @param bdc business day convention with which to adjust the result
+	 * @return advanced date in <code>yyyymmdd</code> format
+	 */
+	public int advance(int start, int amount, int periodUnit, BusinessDayConvention bdc);
+
+}
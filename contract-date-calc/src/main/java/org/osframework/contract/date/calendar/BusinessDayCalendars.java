@@ -0,0 +1,112 @@
+/*
+ * File: BusinessDayCalendars.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.calendar;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jfin.date.holiday.HolidayCalendar;
+import org.jfin.date.holiday.HolidayCalendarFactory;
+
+/**
+ * Shared registry of <code>BusinessDayCalendar</code> objects by ID.
+ * Calendars registered explicitly take precedence; any other ID is resolved
+ * once via a single jFin <code>HolidayCalendarFactory</code> and the
+ * resulting calendar cached. All methods of this class are thread-safe.
+ * 
+ * @author <a href="mailto:david.joyce13@gmail.com">Dave Joyce</a>
+ */
+public final class BusinessDayCalendars {
+
+	/**
+	 * ID of the default, weekends-only calendar.
+	 */
+	public static final String DEFAULT_ID = "WE";
+
+	private static final ConcurrentMap<String, BusinessDayCalendar> CALENDARS = new ConcurrentHashMap<String, BusinessDayCalendar>();
+	private static final HolidayCalendarFactory FACTORY = HolidayCalendarFactory.newInstance();
+
+	/**
+	 * Private constructor - prevents instantiation.
+	 */
+	private BusinessDayCalendars() {}
+
+	/**
+	 * Register the specified calendar under its ID, replacing any calendar
+	 * previously registered or resolved with that ID.
+	 * 
+	 * @param calendar calendar to be registered
+	 * @return previous calendar with the same ID, or <code>null</code>
+	 * @throws IllegalArgumentException if calendar or its ID is
+	 *         <code>null</code>
+	 */
+	public static BusinessDayCalendar register(final BusinessDayCalendar calendar) {
+		if (null == calendar || null == calendar.getId()) {
+			throw new IllegalArgumentException("argument 'calendar' and its ID cannot be null");
+		}
+		return CALENDARS.put(calendar.getId(), calendar);
+	}
+
+	/**
+	 * Remove the calendar with the specified ID from this registry.
+	 * 
+	 * @param id calendar ID
+	 * @return removed calendar, or <code>null</code> if none was registered
+	 */
+	public static BusinessDayCalendar unregister(final String id) {
+		return (null == id) ? null : CALENDARS.remove(id);
+	}
+
+	/**
+	 * Get the calendar with the specified ID.
+	 * 
+	 * @param id calendar ID
+	 * @return shared calendar instance
+	 * @throws IllegalArgumentException if ID is <code>null</code> or cannot
+	 *         be resolved to a calendar
+	 */
+	public static BusinessDayCalendar get(final String id) {
+		if (null == id) {
+			throw new IllegalArgumentException("argument 'id' cannot be null");
+		}
+		BusinessDayCalendar calendar = CALENDARS.get(id);
+		if (null == calendar) {
+			HolidayCalendar<?> hc;
+			synchronized (FACTORY) {
+				hc = FACTORY.getHolidayCalendar(id);
+			}
+			if (null == hc) {
+				throw new IllegalArgumentException("Unknown holiday calendar: " + id);
+			}
+			calendar = new JFinBusinessDayCalendar(id, hc);
+			BusinessDayCalendar existing = CALENDARS.putIfAbsent(id, calendar);
+			if (null != existing) {
+				calendar = existing;
+			}
+		}
+		return calendar;
+	}
+
+	/**
+	 * @return shared default, weekends-only calendar
+	 */
+	public static BusinessDayCalendar getDefault() {
+		return get(DEFAULT_ID);
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * File: JFinBusinessDayCalendar.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.calendar;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import org.jfin.date.BusinessDayConvention;
+import org.jfin.date.holiday.HolidayCalendar;
+import org.osframework.contract.date.util.DateMath;
+
+/**
+ * Adapter of a jFin <code>HolidayCalendar</code> to the
+ * <code>BusinessDayCalendar</code> interface. Instances may be shared across
+ * threads provided the wrapped calendar is not modified after construction.
+ * 
+ * @author <a href="mailto:david.joyce13@gmail.com">Dave Joyce</a>
+ */
+public class JFinBusinessDayCalendar implements BusinessDayCalendar {
+
+	private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+	private final String id;
+	private final HolidayCalendar<?> holidayCalendar;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param id unique identifier of this calendar
+	 * @param holidayCalendar jFin holiday calendar to which date arithmetic
+	 *                        is delegated
+	 * @throws IllegalArgumentException if any argument is <code>null</code>
+	 */
+	public JFinBusinessDayCalendar(final String id, final HolidayCalendar<?> holidayCalendar) {
+		if (null == id) {
+			throw new IllegalArgumentException("argument 'id' cannot be null");
+		}
+		if (null == holidayCalendar) {
+			throw new IllegalArgumentException("argument 'holidayCalendar' cannot be null");
+		}
+		this.id = id;
+		this.holidayCalendar = holidayCalendar;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public Calendar advance(Calendar start, int amount, int periodUnit, BusinessDayConvention bdc) {
+		return holidayCalendar.advance(start, amount, periodUnit, bdc);
+	}
+
+	/**
+	 * jFin calendars operate on <code>Calendar</code> objects only, so the
+	 * start date is converted to a UTC calendar at midnight for delegation.
+	 */
+	public int advance(int start, int amount, int periodUnit, BusinessDayConvention bdc) {
+		Calendar c = new GregorianCalendar(UTC);
+		c.clear();
+		c.set(DateMath.year(start), DateMath.month(start) - 1, DateMath.dayOfMonth(start));
+		return DateMath.fromCalendar(holidayCalendar.advance(c, amount, periodUnit, bdc));
+	}
+
+	/**
+	 * @return wrapped jFin holiday calendar
+	 */
+	public HolidayCalendar<?> getHolidayCalendar() {
+		return holidayCalendar;
+	}
+
+	@Override
+	public String toString() {
+		return "JFinBusinessDayCalendar[" + id + "]";
+	}
+
+}
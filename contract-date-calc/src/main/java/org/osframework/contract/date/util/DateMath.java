@@ -0,0 +1,300 @@
+/*
+ * File: DateMath.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.util;
+
+import java.util.Calendar;
+
+import org.osframework.contract.date.TimeUnit;
+
+/**
+ * Allocation-free date arithmetic on dates packed as <code>int</code> values
+ * in <code>yyyymmdd</code> format, the same representation used for holiday
+ * dates by the financial calendar module. Calculations are pure integer
+ * arithmetic in the proleptic Gregorian calendar, and so are independent of
+ * time zone and time of day.
+ * <p>Methods which accept or return <code>java.util.Calendar</code> objects
+ * are adapters for the existing <code>Calendar</code>-based API.</p>
+ *
+ * @author <a href="mailto:david.joyce13@gmail.com">Dave Joyce</a>
+ */
+public final class DateMath {
+
+	private static final int DAYS_PER_ERA = 146097;
+	private static final int DAYS_0000_TO_1970 = 719468;
+
+	private DateMath() {}
+
+	/**
+	 * Pack the specified year, month and day into <code>yyyymmdd</code>
+	 * format.
+	 * 
+	 * @param year year
+	 * @param month month of year, 1 (January) to 12 (December)
+	 * @param day day of month
+	 * @return date in <code>yyyymmdd</code> format
+	 * @throws IllegalArgumentException if arguments do not form a valid date
+	 */
+	public static int of(final int year, final int month, final int day) {
+		if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+			throw new IllegalArgumentException("Invalid date: " + year + "-" + month + "-" + day);
+		}
+		return year * 10000 + month * 100 + day;
+	}
+
+	/**
+	 * Check that the specified value is a valid date.
+	 * 
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return <code>date</code>
+	 * @throws IllegalArgumentException if date is invalid
+	 */
+	public static int validate(final int date) {
+		return of(year(date), month(date), dayOfMonth(date));
+	}
+
+	/**
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return year of date
+	 */
+	public static int year(final int date) {
+		return date / 10000;
+	}
+
+	/**
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return month of date, 1 (January) to 12 (December)
+	 */
+	public static int month(final int date) {
+		return (date / 100) % 100;
+	}
+
+	/**
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return day of month of date
+	 */
+	public static int dayOfMonth(final int date) {
+		return date % 100;
+	}
+
+	/**
+	 * Convert a date to the number of days since 1970-01-01.
+	 * 
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return epoch day
+	 * @throws IllegalArgumentException if date is invalid
+	 */
+	public static int toEpochDay(final int date) {
+		validate(date);
+		final int year = year(date), month = month(date), day = dayOfMonth(date);
+		final int y = (month <= 2) ? year - 1 : year;
+		final int era = ((y >= 0) ? y : y - 399) / 400;
+		final int yoe = y - era * 400;
+		final int doy = (153 * (month + ((month > 2) ? -3 : 9)) + 2) / 5 + day - 1;
+		final int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+		return era * DAYS_PER_ERA + doe - DAYS_0000_TO_1970;
+	}
+
+	/**
+	 * Convert a number of days since 1970-01-01 to a date.
+	 * 
+	 * @param epochDay epoch day
+	 * @return date in <code>yyyymmdd</code> format
+	 */
+	public static int fromEpochDay(final int epochDay) {
+		final int z = epochDay + DAYS_0000_TO_1970;
+		final int era = ((z >= 0) ? z : z - DAYS_PER_ERA + 1) / DAYS_PER_ERA;
+		final int doe = z - era * DAYS_PER_ERA;
+		final int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		final int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		final int mp = (5 * doy + 2) / 153;
+		final int day = doy - (153 * mp + 2) / 5 + 1;
+		final int month = (mp < 10) ? mp + 3 : mp - 9;
+		final int year = yoe + era * 400 + ((month <= 2) ? 1 : 0);
+		return year * 10000 + month * 100 + day;
+	}
+
+	/**
+	 * Get the day of week of a date.
+	 * 
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return one of the <code>Calendar.SUNDAY</code> through
+	 *         <code>Calendar.SATURDAY</code> constants
+	 * @throws IllegalArgumentException if date is invalid
+	 */
+	public static int dayOfWeek(final int date) {
+		// 1970-01-01 was a Thursday
+		final int dow = (toEpochDay(date) + 4) % 7;
+		return ((dow < 0) ? dow + 7 : dow) + Calendar.SUNDAY;
+	}
+
+	/**
+	 * Determine if a date falls on a Saturday or Sunday.
+	 * 
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return <code>true</code> if date is a weekend day, <code>false</code>
+	 *         otherwise
+	 * @throws IllegalArgumentException if date is invalid
+	 */
+	public static boolean isWeekend(final int date) {
+		final int dow = dayOfWeek(date);
+		return (Calendar.SATURDAY == dow || Calendar.SUNDAY == dow);
+	}
+
+	/**
+	 * @param year year
+	 * @return <code>true</code> if leap year, <code>false</code> otherwise
+	 */
+	public static boolean isLeapYear(final int year) {
+		return ((year & 3) == 0) && ((year % 100) != 0 || (year % 400) == 0);
+	}
+
+	/**
+	 * @param year year
+	 * @param month month of year, 1 (January) to 12 (December)
+	 * @return number of days in month
+	 */
+	public static int lengthOfMonth(final int year, final int month) {
+		switch (month) {
+		case 2:
+			return isLeapYear(year) ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		default:
+			return 31;
+		}
+	}
+
+	/**
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return last day of the month of date, in <code>yyyymmdd</code> format
+	 */
+	public static int endOfMonth(final int date) {
+		return (date / 100) * 100 + lengthOfMonth(year(date), month(date));
+	}
+
+	/**
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return <code>true</code> if date is the last day of its month,
+	 *         <code>false</code> otherwise
+	 */
+	public static boolean isEndOfMonth(final int date) {
+		return (date == endOfMonth(date));
+	}
+
+	/**
+	 * Add a number of days to a date.
+	 * 
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @param days number of days to add; may be negative
+	 * @return resulting date in <code>yyyymmdd</code> format
+	 * @throws IllegalArgumentException if date is invalid
+	 */
+	public static int plusDays(final int date, final int days) {
+		return (0 == days) ? date : fromEpochDay(toEpochDay(date) + days);
+	}
+
+	/**
+	 * Add a number of months to a date. If the day of month does not exist
+	 * in the resulting month, the last day of that month is used, as by
+	 * <code>Calendar.add(Calendar.MONTH, months)</code>.
+	 * 
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @param months number of months to add; may be negative
+	 * @return resulting date in <code>yyyymmdd</code> format
+	 */
+	public static int plusMonths(final int date, final int months) {
+		if (0 == months) {
+			return date;
+		}
+		final int total = year(date) * 12 + (month(date) - 1) + months;
+		final int year = (total >= 0) ? total / 12 : (total - 11) / 12;
+		final int month = total - year * 12 + 1;
+		final int day = Math.min(dayOfMonth(date), lengthOfMonth(year, month));
+		return year * 10000 + month * 100 + day;
+	}
+
+	/**
+	 * Add a period of calendar time to a date.
+	 * 
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @param amount number of time units to add; may be negative
+	 * @param unit calendar time unit
+	 * @return resulting date in <code>yyyymmdd</code> format
+	 * @throws IllegalArgumentException if unit is <code>null</code> or
+	 *         {@link TimeUnit#BUSINESS_DAY}, which requires a business day
+	 *         calendar
+	 */
+	public static int plus(final int date, final int amount, final TimeUnit unit) {
+		if (null == unit) {
+			throw new IllegalArgumentException("argument 'unit' cannot be null");
+		}
+		switch (unit) {
+		case DAY:
+			return plusDays(date, amount);
+		case WEEK:
+			return plusDays(date, amount * 7);
+		case MONTH:
+			return plusMonths(date, amount);
+		case QUARTER:
+			return plusMonths(date, amount * 3);
+		case YEAR:
+			return plusMonths(date, amount * 12);
+		default:
+			throw new IllegalArgumentException("Cannot add time unit without a business day calendar: " + unit);
+		}
+	}
+
+	/**
+	 * Count the days from one date to another.
+	 * 
+	 * @param from start date in <code>yyyymmdd</code> format
+	 * @param to end date in <code>yyyymmdd</code> format
+	 * @return signed number of days
+	 */
+	public static int daysBetween(final int from, final int to) {
+		return toEpochDay(to) - toEpochDay(from);
+	}
+
+	/**
+	 * Get the date of a <code>Calendar</code> object, in its own time zone.
+	 * 
+	 * @param c calendar
+	 * @return date in <code>yyyymmdd</code> format
+	 */
+	public static int fromCalendar(final Calendar c) {
+		return c.get(Calendar.YEAR) * 10000 + (c.get(Calendar.MONTH) + 1) * 100 + c.get(Calendar.DAY_OF_MONTH);
+	}
+
+	/**
+	 * Create a copy of a <code>Calendar</code> object set to the specified
+	 * date. Time zone and time of day are those of the template.
+	 * 
+	 * @param template calendar supplying time zone and time of day
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return new calendar object
+	 */
+	public static Calendar toCalendar(final Calendar template, final int date) {
+		Calendar c = (Calendar)template.clone();
+		c.set(year(date), month(date) - 1, dayOfMonth(date));
+		return c;
+	}
+
+}
@@ -85,6 +85,15 @@ import java.util.Date;
  * 		<td><b>December</b></td>
  * 	</tr>
  * </table>
+ * <p>Calculations are performed on <code>int</code> dates in
+ * <code>yyyymmdd</code> format via {@link DateMath}; methods which accept
+ * <code>Date</code> or <code>Calendar</code> objects are adapters over them.
+ * "Next" IMM dates are the first IMM dates falling on or after the given
+ * day, regardless of time of day.</p>
+ * <p>IMM dates of every month from {@link #FIRST_TABLE_YEAR} through
+ * {@link #LAST_TABLE_YEAR} are precomputed in a table indexed by month, so
+ * that lookups within that range are constant-time array reads. Dates
+ * outside the range are calculated.</p>
  *
  * @see <a href="http://en.wikipedia.org/wiki/IMM_dates">IMM dates</a>
  * @author <a href="mailto:david.joyce13@gmail.com">Dave Joyce</a>
@@ -95,6 +104,27 @@ public class IMM {
 	private static final String MONTHS_MAIN_CYCLE = "hmuzHMUZ";
 	private static final String MONTHS_FULL_CYCLE = "fghjkmnquvxzFGHJKMNQUVXZ";
 
+	/**
+	 * First year of precomputed IMM dates.
+	 */
+	public static final int FIRST_TABLE_YEAR = 1900;
+
+	/**
+	 * Last year of precomputed IMM dates.
+	 */
+	public static final int LAST_TABLE_YEAR = 2200;
+
+	/**
+	 * IMM date of each month, indexed by months since January of
+	 * <code>FIRST_TABLE_YEAR</code>.
+	 */
+	private static final int[] IMM_DATES = createTable();
+
+	/**
+	 * IMM date codes, indexed by <code>(year mod 10) * 12 + month - 1</code>.
+	 */
+	private static final String[] IMM_CODES = createCodes();
+
 	private IMM() {}
 
 	/**
@@ -158,23 +188,21 @@ public class IMM {
 	}
 
 	public static boolean isIMMDate(final Calendar date, final boolean mainCycle) {
-		if (Calendar.WEDNESDAY != date.get(Calendar.DAY_OF_WEEK)) return false;
-		int dayOfMonth = date.get(Calendar.DAY_OF_MONTH);
-		if (15 > dayOfMonth || 21 < dayOfMonth) return false;
-		if (!mainCycle) {
-			return true;
-		} else {
-			int month = date.get(Calendar.MONTH);
-			switch (month) {
-			case Calendar.MARCH:
-			case Calendar.JUNE:
-			case Calendar.SEPTEMBER:
-			case Calendar.DECEMBER:
-				return true;
-			default:
-				return false;
-			}
-		}
+		return isIMMDate(DateMath.fromCalendar(date), mainCycle);
+	}
+
+	/**
+	 * Determine if the specified date is a valid IMM date.
+	 * 
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @param mainCycle flag indicating whether to validate <code>date</code>
+	 *                  against <i>Main cycle</i> or <i>Full cycle</i> months
+	 * @return <code>true</code> if date is a valid IMM date in the
+	 *         specified cycle, <code>false</code> otherwise
+	 */
+	public static boolean isIMMDate(final int date, final boolean mainCycle) {
+		if (mainCycle && 0 != DateMath.month(date) % 3) return false;
+		return (date == thirdWednesday(DateMath.year(date), DateMath.month(date)));
 	}
 
 	/**
@@ -208,28 +236,39 @@ public class IMM {
 	}
 
 	public static Calendar toCalendar(final String immCode, final Calendar referenceDate) {
+		int immDate = toDate(immCode, DateMath.fromCalendar(referenceDate));
+		return DateMath.toCalendar(referenceDate, immDate);
+	}
+
+	/**
+	 * Convert the specified IMM date code to the first IMM date in its decade
+	 * cycle which falls on or after the given reference date.
+	 * 
+	 * @param immCode IMM date code to be converted
+	 * @param referenceDate starting point reference date, in
+	 *                      <code>yyyymmdd</code> format
+	 * @return valid IMM date in <code>yyyymmdd</code> format
+	 * @throws IllegalArgumentException if IMM date code is invalid
+	 */
+	public static int toDate(final String immCode, final int referenceDate) {
 		if (!isIMMCode(immCode)) {
 			throw new IllegalArgumentException("Invalid IMM date code: " + immCode);
 		}
-		int m = getMonthConstant(immCode.charAt(0));
+		int m = getMonthConstant(immCode.charAt(0)) + 1;
 		int y = immCode.charAt(1) - '0';
 		
 		/*
 		 * Years prior or equal to 1909 are not valid IMM years; pre-adjustment
 		 * forward is necessary
 		 */
-		int rdYear = referenceDate.get(Calendar.YEAR);
+		int rdYear = DateMath.year(referenceDate);
 		if (0 == y && 1909 >= rdYear) {
 			y += 10;
 		}
-		int yMod = rdYear % 10;
-		y += (rdYear - yMod);
-		Calendar c = Calendar.getInstance();
-		c.set(y, m, 1);
-		Calendar result = nextCalendar(c, false);
-		if (result.before(referenceDate)) {
-			c.add(Calendar.YEAR, 10);
-			result = nextCalendar(c, false);
+		y += (rdYear - (rdYear % 10));
+		int result = thirdWednesday(y, m);
+		if (result < referenceDate) {
+			result = thirdWednesday(y + 10, m);
 		}
 		return result;
 	}
@@ -254,43 +293,212 @@ public class IMM {
 
 	public static Calendar nextCalendar(final Calendar date, final boolean mainCycle) {
 		Calendar c = (null == date) ? Calendar.getInstance() : date;
-		int y = c.get(Calendar.YEAR);
-		// Add 1 since Calendar months are 0-based indexes
-		int m = c.get(Calendar.MONTH) + 1;
-		int d = c.get(Calendar.DAY_OF_MONTH);
+		return DateMath.toCalendar(c, nextDate(DateMath.fromCalendar(c), mainCycle));
+	}
+
+	/**
+	 * Find the first IMM date which falls on or after the specified date.
+	 * 
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @param mainCycle flag indicating whether to find the next IMM date
+	 *                  in <i>Main cycle</i> or <i>Full cycle</i> months
+	 * @return next IMM date in <code>yyyymmdd</code> format
+	 * @throws IllegalArgumentException if date is invalid
+	 */
+	public static int nextDate(final int date, final boolean mainCycle) {
+		return dateOfMonth(nextMonthIndex(date, mainCycle));
+	}
+
+	/**
+	 * Find the <i>n</i>th IMM date falling on or after the specified date.
+	 * The first such date is that returned by
+	 * {@link #nextDate(int, boolean)}.
+	 * 
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @param n ordinal of IMM date to find, counting from 1
+	 * @param mainCycle flag indicating whether to count IMM dates in
+	 *                  <i>Main cycle</i> or <i>Full cycle</i> months
+	 * @return <i>n</i>th IMM date in <code>yyyymmdd</code> format
+	 * @throws IllegalArgumentException if date is invalid or n is less than 1
+	 */
+	public static int nthDate(final int date, final int n, final boolean mainCycle) {
+		if (1 > n) {
+			throw new IllegalArgumentException("IMM date ordinal must be positive: " + n);
+		}
 		int offset = mainCycle ? 3 : 1;
-		int skipMonths = offset - (m % offset);
-		if (skipMonths != offset || d > 21) {
-			skipMonths += m;
-			if (12 >= skipMonths) {
-				m = skipMonths;
-			} else {
-				m = skipMonths - 12;
-				y += 1;
-			}
+		return dateOfMonth(nextMonthIndex(date, mainCycle) + (n - 1) * offset);
+	}
+
+	/**
+	 * Generate the first <code>count</code> IMM dates falling on or after the
+	 * specified date, in ascending order. This is the strip whose first
+	 * element is {@link #nextDate(int, boolean)} and whose <i>n</i>th element
+	 * is {@link #nthDate(int, int, boolean)}.
+	 * 
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @param count number of IMM dates to generate
+	 * @param mainCycle flag indicating whether to generate IMM dates in
+	 *                  <i>Main cycle</i> or <i>Full cycle</i> months
+	 * @return IMM dates in <code>yyyymmdd</code> format
+	 * @throws IllegalArgumentException if date is invalid or count is
+	 *         negative
+	 */
+	public static int[] nextDates(final int date, final int count, final boolean mainCycle) {
+		if (0 > count) {
+			throw new IllegalArgumentException("IMM date count cannot be negative: " + count);
 		}
-		Calendar increment = Calendar.getInstance();
-		int dayOfMonth = 1, wed = 0;
-		increment.set(y, (m - 1), dayOfMonth);
-		while (wed < 3) {
-			int weekday = increment.get(Calendar.DAY_OF_WEEK);
-			if (Calendar.WEDNESDAY == weekday) {
-				wed += 1;
-			}
-			if (3 == wed) {
-				break;
-			} else {
-				increment.add(Calendar.DAY_OF_MONTH, 1);
-			}
+		int[] dates = new int[count];
+		int offset = mainCycle ? 3 : 1;
+		for (int i = 0, monthIndex = nextMonthIndex(date, mainCycle); i < count; i++, monthIndex += offset) {
+			dates[i] = dateOfMonth(monthIndex);
 		}
-		Calendar result = increment;
-		if (result.before(date) || result.equals(date)) {
-			increment.set(Calendar.DAY_OF_MONTH, 22);
-			increment.set(Calendar.MONTH, (m - 1));
-			increment.set(Calendar.YEAR, y);
-			result = nextCalendar(increment, mainCycle);
+		return dates;
+	}
+
+	/**
+	 * Generate the IMM date codes of the first <code>count</code> IMM dates
+	 * falling on or after the specified date, in ascending date order.
+	 * 
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @param count number of IMM date codes to generate
+	 * @param mainCycle flag indicating whether to generate IMM date codes of
+	 *                  <i>Main cycle</i> or <i>Full cycle</i> months
+	 * @return IMM date codes
+	 * @throws IllegalArgumentException if date is invalid or count is
+	 *         negative
+	 * @see #nextDates(int, int, boolean)
+	 */
+	public static String[] nextCodes(final int date, final int count, final boolean mainCycle) {
+		if (0 > count) {
+			throw new IllegalArgumentException("IMM date code count cannot be negative: " + count);
 		}
-		return result;
+		String[] codes = new String[count];
+		int offset = mainCycle ? 3 : 1;
+		for (int i = 0, monthIndex = nextMonthIndex(date, mainCycle); i < count; i++, monthIndex += offset) {
+			codes[i] = IMM_CODES[monthIndex % 120];
+		}
+		return codes;
+	}
+
+	/**
+	 * Generate all IMM dates falling within the specified window, inclusive,
+	 * in ascending order.
+	 * 
+	 * @param from first date of window in <code>yyyymmdd</code> format
+	 * @param to last date of window in <code>yyyymmdd</code> format
+	 * @param mainCycle flag indicating whether to generate IMM dates in
+	 *                  <i>Main cycle</i> or <i>Full cycle</i> months
+	 * @return IMM dates in <code>yyyymmdd</code> format; empty if the window
+	 *         contains none
+	 * @throws IllegalArgumentException if either date is invalid
+	 */
+	public static int[] datesBetween(final int from, final int to, final boolean mainCycle) {
+		return nextDates(from, countBetween(from, to, mainCycle), mainCycle);
+	}
+
+	/**
+	 * Generate the IMM date codes of all IMM dates falling within the
+	 * specified window, inclusive, in ascending date order. Codes repeat
+	 * every ten years, so a window longer than ten years yields duplicate
+	 * codes, each denoting a different date.
+	 * 
+	 * @param from first date of window in <code>yyyymmdd</code> format
+	 * @param to last date of window in <code>yyyymmdd</code> format
+	 * @param mainCycle flag indicating whether to generate IMM date codes of
+	 *                  <i>Main cycle</i> or <i>Full cycle</i> months
+	 * @return IMM date codes; empty if the window contains no IMM dates
+	 * @throws IllegalArgumentException if either date is invalid
+	 */
+	public static String[] codesBetween(final int from, final int to, final boolean mainCycle) {
+		return nextCodes(from, countBetween(from, to, mainCycle), mainCycle);
+	}
+
+	/**
+	 * Get the IMM date code of the month of the specified date.
+	 * 
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return IMM date code, in upper case
+	 */
+	public static String toIMMCode(final int date) {
+		return IMM_CODES[(DateMath.year(date) % 10) * 12 + DateMath.month(date) - 1];
+	}
+
+	/**
+	 * Count the IMM dates falling within the specified window, inclusive.
+	 */
+	private static int countBetween(final int from, final int to, final boolean mainCycle) {
+		DateMath.validate(to);
+		int first = nextMonthIndex(from, mainCycle);
+		int last = DateMath.year(to) * 12 + DateMath.month(to) - 1;
+		if (dateOfMonth(last) > to) {
+			last--;
+		}
+		if (last < first) {
+			return 0;
+		}
+		int offset = mainCycle ? 3 : 1;
+		return (last - first) / offset + 1;
+	}
+
+	/**
+	 * Find the index, in months since January of year 0, of the month of the
+	 * first IMM date falling on or after the specified date.
+	 */
+	private static int nextMonthIndex(final int date, final boolean mainCycle) {
+		DateMath.validate(date);
+		int y = DateMath.year(date);
+		int m = DateMath.month(date);
+		int monthIndex = y * 12 + (m - 1);
+		int offset = mainCycle ? 3 : 1;
+		if (0 == m % offset && dateOfMonth(monthIndex) >= date) {
+			return monthIndex;
+		}
+		return monthIndex + offset - (m % offset);
+	}
+
+	/**
+	 * Get the IMM date of a month, given as months since January of year 0.
+	 */
+	private static int dateOfMonth(final int monthIndex) {
+		int i = monthIndex - FIRST_TABLE_YEAR * 12;
+		if (0 <= i && i < IMM_DATES.length) {
+			return IMM_DATES[i];
+		}
+		return calculateThirdWednesday(monthIndex / 12, monthIndex % 12 + 1);
+	}
+
+	/**
+	 * Get the IMM date of the specified month.
+	 */
+	private static int thirdWednesday(final int year, final int month) {
+		return dateOfMonth(year * 12 + (month - 1));
+	}
+
+	/**
+	 * Calculate the third Wednesday of the specified month, which is its IMM
+	 * date.
+	 */
+	private static int calculateThirdWednesday(final int year, final int month) {
+		int day15 = DateMath.of(year, month, 15);
+		int dow = DateMath.dayOfWeek(day15);
+		return day15 + ((Calendar.WEDNESDAY - dow + 7) % 7);
+	}
+
+	private static int[] createTable() {
+		int[] table = new int[(LAST_TABLE_YEAR - FIRST_TABLE_YEAR + 1) * 12];
+		for (int i = 0; i < table.length; i++) {
+			table[i] = calculateThirdWednesday(FIRST_TABLE_YEAR + i / 12, i % 12 + 1);
+		}
+		return table;
+	}
+
+	private static String[] createCodes() {
+		String[] codes = new String[120];
+		String letters = MONTHS_FULL_CYCLE.substring(12);
+		for (int i = 0; i < codes.length; i++) {
+			codes[i] = new String(new char[] { letters.charAt(i % 12), YEARS.charAt(i / 12) });
+		}
+		return codes;
 	}
 
 	private static int getMonthConstant(char monthLetter) {
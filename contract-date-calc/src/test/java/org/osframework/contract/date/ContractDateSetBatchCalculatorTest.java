@@ -0,0 +1,160 @@
+/*
+ * File: ContractDateSetBatchCalculatorTest.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date;
+
+import static org.osframework.testng.Assert.assertSameDay;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for <code>ContractDateSetBatchCalculator</code>.
+ * 
+ * @author <a href="mailto:david.joyce13@gmail.com">Dave Joyce</a>
+ */
+public class ContractDateSetBatchCalculatorTest {
+
+	private static final String[] EFFECTIVE = { "2B", "1W", "1M", "3M", "Z9", null };
+	private static final String[] MATURITY = { "5Y", "10Y", "3M", "18M", "1Q" };
+
+	private ExecutorService executor;
+	private Date[] tradeDates;
+	private String[] effectiveNotations, maturityNotations, calendarIds;
+	private boolean[] immRolls;
+
+	@BeforeClass
+	public void setUp() {
+		executor = Executors.newFixedThreadPool(4);
+		Random random = new Random(20130101L);
+		int rows = 5000;
+		tradeDates = new Date[rows];
+		effectiveNotations = new String[rows];
+		maturityNotations = new String[rows];
+		calendarIds = new String[rows];
+		immRolls = new boolean[rows];
+		Calendar c = Calendar.getInstance();
+		for (int i = 0; i < rows; i++) {
+			c.clear();
+			c.set(2012, Calendar.JANUARY, 2);
+			c.add(Calendar.DAY_OF_YEAR, random.nextInt(720));
+			tradeDates[i] = c.getTime();
+			effectiveNotations[i] = EFFECTIVE[random.nextInt(EFFECTIVE.length)];
+			maturityNotations[i] = (null == effectiveNotations[i]) ? null : MATURITY[random.nextInt(MATURITY.length)];
+			calendarIds[i] = random.nextBoolean() ? "WE" : null;
+			immRolls[i] = random.nextBoolean();
+		}
+	}
+
+	@AfterClass
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testSequentialMatchesBuilder() {
+		ContractDateSet[] results = new ContractDateSetBatchCalculator()
+		                                .calculate(tradeDates, effectiveNotations, maturityNotations, calendarIds, immRolls);
+		assertMatchesBuilder(results);
+	}
+
+	@Test
+	public void testParallelMatchesBuilder() {
+		ContractDateSet[] results = new ContractDateSetBatchCalculator(executor, 4)
+		                                .calculate(tradeDates, effectiveNotations, maturityNotations, calendarIds, immRolls);
+		assertMatchesBuilder(results);
+	}
+
+	@Test
+	public void testTenorRowsKeepTimeOfDay() {
+		Calendar c = Calendar.getInstance();
+		c.clear();
+		c.set(2012, Calendar.MARCH, 9, 15, 30);
+		Date[] dates = { c.getTime(), tradeDates[0] };
+		ContractDateSet[] results = new ContractDateSetBatchCalculator().calculate(dates,
+		                                                                            new String[] { "1M", "2013-01-15" },
+		                                                                            new String[] { "5Y", "1Y" },
+		                                                                            new String[] { "WE", null },
+		                                                                            new boolean[] { false, true });
+		ContractDateSet expected = new ContractDateSetBuilder(dates[0]).setEffectiveDate("1M")
+		                                                                .setMaturityDate("5Y")
+		                                                                .setHolidayCalendar("WE")
+		                                                                .build();
+		assertEquals(results[0].getTradeDate(), expected.getTradeDate());
+		assertEquals(results[0].getStartDate(), expected.getStartDate());
+		assertEquals(results[0].getEndDate(), expected.getEndDate());
+		expected = new ContractDateSetBuilder(dates[1]).setIMMRoll(true)
+		                                               .setEffectiveDate("2013-01-15")
+		                                               .setMaturityDate("1Y")
+		                                               .build();
+		assertEquals(results[1].getStartDate(), expected.getStartDate());
+		assertEquals(results[1].getEndDate(), expected.getEndDate());
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testMismatchedColumns() {
+		new ContractDateSetBatchCalculator().calculate(tradeDates, effectiveNotations, maturityNotations, calendarIds, new boolean[1]);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testInvalidNotationPropagates() {
+		new ContractDateSetBatchCalculator(executor, 4).calculate(new Date[] { new Date() },
+		                                                          new String[] { "2X" },
+		                                                          new String[] { null },
+		                                                          new String[] { null },
+		                                                          new boolean[] { false });
+	}
+
+	private void assertMatchesBuilder(ContractDateSet[] results) {
+		assertEquals(results.length, tradeDates.length);
+		for (int i = 0; i < results.length; i++) {
+			ContractDateSetBuilder builder = new ContractDateSetBuilder(tradeDates[i]).setIMMRoll(immRolls[i]);
+			if (null != effectiveNotations[i]) {
+				builder.setEffectiveDate(effectiveNotations[i]);
+			}
+			if (null != maturityNotations[i]) {
+				builder.setMaturityDate(maturityNotations[i]);
+			}
+			if (null != calendarIds[i]) {
+				builder.setHolidayCalendar(calendarIds[i]);
+			}
+			ContractDateSet expected = builder.build();
+			assertEquals(results[i].getTradeDate(), expected.getTradeDate(), "Row " + i);
+			// IMM calculations carry the current time of day; compare days
+			assertSameDayOrNull(results[i].getStartDate(), expected.getStartDate(), "Row " + i);
+			assertSameDayOrNull(results[i].getEndDate(), expected.getEndDate(), "Row " + i);
+		}
+	}
+
+	private void assertSameDayOrNull(Date actual, Date expected, String message) {
+		if (null == expected) {
+			assertNull(actual, message);
+		} else {
+			assertSameDay(actual, expected, message);
+		}
+	}
+
+}
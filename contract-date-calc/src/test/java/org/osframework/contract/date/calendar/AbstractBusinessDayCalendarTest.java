@@ -0,0 +1,111 @@
+/*
+ * File: AbstractBusinessDayCalendarTest.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.calendar;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import org.jfin.date.BusinessDayConvention;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for <code>AbstractBusinessDayCalendar</code> and
+ * <code>BusinessDayCalendars</code>.
+ * 
+ * @author <a href="mailto:david.joyce13@gmail.com">Dave Joyce</a>
+ */
+public class AbstractBusinessDayCalendarTest {
+
+	/**
+	 * Weekends plus 2013-01-21, 2013-05-27, 2013-05-31 and 2013-11-28.
+	 */
+	private static final AbstractBusinessDayCalendar CALENDAR = new AbstractBusinessDayCalendar("TEST") {
+		private final int[] holidays = { 20130121, 20130527, 20130531, 20131128 };
+		@Override
+		public boolean isBusinessDay(int date) {
+			Calendar c = new GregorianCalendar(date / 10000, (date / 100) % 100 - 1, date % 100);
+			int dow = c.get(Calendar.DAY_OF_WEEK);
+			return (Calendar.SATURDAY != dow && Calendar.SUNDAY != dow && Arrays.binarySearch(holidays, date) < 0);
+		}
+	};
+
+	@Test(dataProvider = "adjustments")
+	public void testAdjust(int date, BusinessDayConvention bdc, int expected) {
+		assertEquals(CALENDAR.adjust(date, bdc), expected);
+	}
+
+	@Test(dataProvider = "advances")
+	public void testAdvance(int date, int amount, int periodUnit, BusinessDayConvention bdc, int expected) {
+		Calendar start = new GregorianCalendar(date / 10000, (date / 100) % 100 - 1, date % 100);
+		Calendar result = CALENDAR.advance(start, amount, periodUnit, bdc);
+		assertEquals(AbstractBusinessDayCalendar.toDate(result), expected);
+		assertNotSame(result, start);
+		assertEquals(AbstractBusinessDayCalendar.toDate(start), date);
+	}
+
+	@Test
+	public void testRegistry() {
+		assertSame(BusinessDayCalendars.get(BusinessDayCalendars.DEFAULT_ID), BusinessDayCalendars.getDefault());
+		BusinessDayCalendars.register(CALENDAR);
+		try {
+			assertSame(BusinessDayCalendars.get("TEST"), CALENDAR);
+		} finally {
+			assertSame(BusinessDayCalendars.unregister("TEST"), CALENDAR);
+		}
+	}
+
+	@DataProvider
+	public Object[][] adjustments() {
+		return new Object[][] {
+			new Object[] { 20130122, BusinessDayConvention.FOLLOWING, 20130122 },
+			new Object[] { 20130121, BusinessDayConvention.UNADJUSTED, 20130121 },
+			new Object[] { 20130121, BusinessDayConvention.FOLLOWING, 20130122 },
+			new Object[] { 20130121, BusinessDayConvention.PRECEDING, 20130118 },
+			new Object[] { 20130330, BusinessDayConvention.FOLLOWING, 20130401 },
+			new Object[] { 20130330, BusinessDayConvention.MODIFIED_FOLLOWING, 20130329 },
+			new Object[] { 20130601, BusinessDayConvention.PRECEDING, 20130530 },
+			new Object[] { 20130601, BusinessDayConvention.MODIFIED_PRECEDING, 20130603 },
+		};
+	}
+
+	@DataProvider
+	public Object[][] advances() {
+		return new Object[][] {
+			// Business days
+			new Object[] { 20130117, 2, Calendar.DAY_OF_YEAR, BusinessDayConvention.MODIFIED_FOLLOWING, 20130122 },
+			new Object[] { 20130122, -2, Calendar.DAY_OF_YEAR, BusinessDayConvention.MODIFIED_FOLLOWING, 20130117 },
+			new Object[] { 20130119, 0, Calendar.DAY_OF_MONTH, BusinessDayConvention.FOLLOWING, 20130122 },
+			// Calendar periods, adjusted
+			new Object[] { 20130228, 1, Calendar.MONTH, BusinessDayConvention.MODIFIED_FOLLOWING, 20130328 },
+			new Object[] { 20130130, 4, Calendar.MONTH, BusinessDayConvention.MODIFIED_FOLLOWING, 20130530 },
+			new Object[] { 20121130, 6, Calendar.MONTH, BusinessDayConvention.MODIFIED_FOLLOWING, 20130530 },
+			new Object[] { 20130114, 1, Calendar.WEEK_OF_YEAR, BusinessDayConvention.FOLLOWING, 20130122 },
+			new Object[] { 20130228, 1, Calendar.YEAR, BusinessDayConvention.UNADJUSTED, 20140228 },
+			// Month end roll
+			new Object[] { 20130228, 1, Calendar.MONTH, BusinessDayConvention.MONTH_END_REFERENCE, 20130329 },
+			new Object[] { 20130227, 1, Calendar.MONTH, BusinessDayConvention.MONTH_END_REFERENCE, 20130327 },
+		};
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * File: DateMathTest.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import org.osframework.contract.date.TimeUnit;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for <code>DateMath</code>.
+ * 
+ * @author <a href="mailto:david.joyce13@gmail.com">Dave Joyce</a>
+ */
+public class DateMathTest {
+
+	private static final long MILLIS_PER_DAY = 24L * 60L * 60L * 1000L;
+
+	@Test
+	public void testAgainstGregorianCalendar() {
+		Calendar c = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+		c.clear();
+		c.set(1899, Calendar.JANUARY, 1);
+		while (c.get(Calendar.YEAR) < 2201) {
+			int date = DateMath.fromCalendar(c);
+			int epochDay = (int)(c.getTimeInMillis() / MILLIS_PER_DAY);
+			assertEquals(DateMath.toEpochDay(date), epochDay);
+			assertEquals(DateMath.fromEpochDay(epochDay), date);
+			assertEquals(DateMath.dayOfWeek(date), c.get(Calendar.DAY_OF_WEEK));
+			assertEquals(DateMath.endOfMonth(date) % 100, c.getActualMaximum(Calendar.DAY_OF_MONTH));
+			c.add(Calendar.DAY_OF_MONTH, 1);
+		}
+	}
+
+	@Test(dataProvider = "months")
+	public void testPlusMonths(int date, int months, int expected) {
+		assertEquals(DateMath.plusMonths(date, months), expected);
+		Calendar c = DateMath.toCalendar(Calendar.getInstance(), date);
+		c.add(Calendar.MONTH, months);
+		assertEquals(DateMath.fromCalendar(c), expected);
+	}
+
+	@Test(dataProvider = "periods")
+	public void testPlus(int date, int amount, TimeUnit unit, int expected) {
+		assertEquals(DateMath.plus(date, amount, unit), expected);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testPlusBusinessDays() {
+		DateMath.plus(20130115, 2, TimeUnit.BUSINESS_DAY);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testInvalidDate() {
+		DateMath.toEpochDay(20130229);
+	}
+
+	@Test
+	public void testValidate() {
+		assertEquals(DateMath.validate(20120229), 20120229);
+		for (int date : new int[] { 20130229, 20131301, 20130100, 20130431 }) {
+			try {
+				DateMath.validate(date);
+				fail("Expected IllegalArgumentException for " + date);
+			} catch (IllegalArgumentException expected) {}
+		}
+	}
+
+	@Test
+	public void testEndOfMonth() {
+		assertTrue(DateMath.isEndOfMonth(20120229));
+		assertFalse(DateMath.isEndOfMonth(20120228));
+		assertTrue(DateMath.isEndOfMonth(20130228));
+		assertEquals(DateMath.endOfMonth(21000210), 21000228);
+		assertEquals(DateMath.endOfMonth(20000210), 20000229);
+	}
+
+	@Test
+	public void testToCalendarKeepsTimeOfDay() {
+		Calendar template = new GregorianCalendar(TimeZone.getTimeZone("America/New_York"));
+		template.set(2013, Calendar.MARCH, 8, 14, 30, 15);
+		Calendar result = DateMath.toCalendar(template, 20130311);
+		assertEquals(DateMath.fromCalendar(result), 20130311);
+		assertEquals(result.get(Calendar.HOUR_OF_DAY), 14);
+		assertEquals(result.get(Calendar.MINUTE), 30);
+		assertEquals(result.getTimeZone(), template.getTimeZone());
+		assertEquals(DateMath.fromCalendar(template), 20130308);
+	}
+
+	@DataProvider
+	public Object[][] months() {
+		return new Object[][] {
+			new Object[] { 20130131, 1, 20130228 },
+			new Object[] { 20120131, 1, 20120229 },
+			new Object[] { 20130331, -1, 20130228 },
+			new Object[] { 20131115, 2, 20140115 },
+			new Object[] { 20130115, -13, 20111215 },
+			new Object[] { 20130831, 10, 20140630 },
+			new Object[] { 20130831, 0, 20130831 },
+		};
+	}
+
+	@DataProvider
+	public Object[][] periods() {
+		return new Object[][] {
+			new Object[] { 20131230, 3, TimeUnit.DAY, 20140102 },
+			new Object[] { 20130301, -1, TimeUnit.DAY, 20130228 },
+			new Object[] { 20130225, 2, TimeUnit.WEEK, 20130311 },
+			new Object[] { 20130531, 3, TimeUnit.MONTH, 20130831 },
+			new Object[] { 20131130, 1, TimeUnit.QUARTER, 20140228 },
+			new Object[] { 20120229, 1, TimeUnit.YEAR, 20130228 },
+			new Object[] { 20120229, 4, TimeUnit.YEAR, 20160229 },
+		};
+	}
+
+}
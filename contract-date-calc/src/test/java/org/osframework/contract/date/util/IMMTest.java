@@ -2,9 +2,11 @@ package org.osframework.contract.date.util;
 
 import static org.osframework.testng.Assert.assertSameDay;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import java.util.Calendar;
 import java.util.Date;
+import java.util.GregorianCalendar;
 
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -35,6 +37,98 @@ public class IMMTest {
 		assertSameDay(result, checkDate, "Conversion did not produce correct IMM date");
 	}
 
+	@Test(dataProvider = "nextIMMDates")
+	public void testNextDateInt(int date, boolean mainCycle, int expected) {
+		assertEquals(IMM.nextDate(date, mainCycle), expected);
+		assertTrue(IMM.isIMMDate(expected, mainCycle));
+	}
+
+	@Test
+	public void testTableAgainstCalendar() {
+		Calendar c = new GregorianCalendar(1899, Calendar.DECEMBER, 1);
+		int count = 0;
+		while (c.get(Calendar.YEAR) <= IMM.LAST_TABLE_YEAR + 1) {
+			int date = DateMath.fromCalendar(c);
+			int day = c.get(Calendar.DAY_OF_MONTH);
+			boolean third = (Calendar.WEDNESDAY == c.get(Calendar.DAY_OF_WEEK) && 15 <= day && 21 >= day);
+			assertEquals(IMM.isIMMDate(date, false), third, "IMM date check failed for " + date);
+			if (third) {
+				assertEquals(IMM.nextDate(DateMath.plusDays(date, -27), false), date);
+				count++;
+			}
+			c.add(Calendar.DAY_OF_MONTH, 1);
+		}
+		assertEquals(count, (IMM.LAST_TABLE_YEAR - IMM.FIRST_TABLE_YEAR + 3) * 12 - 11);
+	}
+
+	@Test(dataProvider = "nthIMMDates")
+	public void testNthDate(int date, int n, boolean mainCycle, int expected) {
+		assertEquals(IMM.nthDate(date, n, mainCycle), expected);
+	}
+
+	@Test(expectedExceptions = IllegalArgumentException.class)
+	public void testNthDateZero() {
+		IMM.nthDate(20130101, 0, true);
+	}
+
+	@Test
+	public void testNextDatesStrip() {
+		int[] strip = IMM.nextDates(20121120, 40, true);
+		String[] codes = IMM.nextCodes(20121120, 40, true);
+		assertEquals(strip.length, 40);
+		assertEquals(codes.length, 40);
+		for (int n = 1; n <= 40; n++) {
+			assertEquals(strip[n - 1], IMM.nthDate(20121120, n, true));
+			assertEquals(IMM.toDate(codes[n - 1], 20121120), strip[n - 1]);
+		}
+		assertEquals(codes[0], "Z2");
+		assertEquals(codes[1], "H3");
+		assertEquals(codes[39], "U2");
+		assertEquals(IMM.nextDates(20121120, 0, false).length, 0);
+	}
+
+	@Test
+	public void testBetween() {
+		assertEquals(IMM.datesBetween(20130320, 20131218, true), new int[] { 20130320, 20130619, 20130918, 20131218 });
+		assertEquals(IMM.datesBetween(20130321, 20131217, true), new int[] { 20130619, 20130918 });
+		assertEquals(IMM.codesBetween(20130101, 20130430, false), new String[] { "F3", "G3", "H3", "J3" });
+		assertEquals(IMM.codesBetween(20130321, 20130401, true).length, 0);
+		assertEquals(IMM.codesBetween(20131231, 20130101, false).length, 0);
+	}
+
+	@Test
+	public void testToDateInt() {
+		assertEquals(IMM.toDate("Z9", 20121120), 20191218);
+		assertEquals(IMM.toDate("Z2", 20121219), 20121219);
+		assertEquals(IMM.toDate("Z2", 20121220), 20221221);
+		assertEquals(IMM.toDate("H0", 19050101), 19100316);
+	}
+
+	@DataProvider
+	public Object[][] nextIMMDates() {
+		return new Object[][] {
+			new Object[] { 20121120, true, 20121219 },
+			new Object[] { 20121219, true, 20121219 },
+			new Object[] { 20121220, true, 20130320 },
+			new Object[] { 20121220, false, 20130116 },
+			new Object[] { 20130101, false, 20130116 },
+			new Object[] { 20130117, false, 20130220 },
+			new Object[] { 20130430, true, 20130619 },
+		};
+	}
+
+	@DataProvider
+	public Object[][] nthIMMDates() {
+		return new Object[][] {
+			new Object[] { 20121120, 1, true, 20121219 },
+			new Object[] { 20121120, 2, true, 20130320 },
+			new Object[] { 20121219, 5, true, 20131218 },
+			new Object[] { 20121220, 40, true, 20221221 },
+			new Object[] { 20121220, 3, false, 20130320 },
+			new Object[] { 21991120, 6, true, 22010318 },
+		};
+	}
+
 	@DataProvider
 	public Object[][] immCodes() {
 		return new Object[][] {
@@ -0,0 +1,104 @@
+/*
+ * File: IndexedBusinessDayCalendar.java
+ *
+ * Copyright 2013 OSFramework Project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.support;
+
+import org.apache.commons.lang.Validate;
+import org.osframework.contract.date.calendar.AbstractBusinessDayCalendar;
+import org.osframework.contract.date.calendar.BusinessDayCalendars;
+import org.osframework.contract.date.fincal.holiday.index.CalendarBitmap;
+import org.osframework.contract.date.fincal.holiday.index.HolidayIndex;
+
+/**
+ * Business day calendar backed by the holidays of a financial calendar, as
+ * held in a <code>HolidayIndex</code>. Business day checks and business day
+ * arithmetic are delegated to the calendar's <code>CalendarBitmap</code>,
+ * and so run in near-constant time. Joint calendars obtained from
+ * {@link HolidayIndex#getJointCalendar} are supported equally.
+ * <p>Instances of this class are immutable and thread-safe.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class IndexedBusinessDayCalendar extends AbstractBusinessDayCalendar {
+
+	private final CalendarBitmap bitmap;
+
+	/**
+	 * Construct a business day calendar over the specified bitmap. The
+	 * calendar ID is that of the bitmap.
+	 *
+	 * @param bitmap holiday bitmap of a single or joint financial calendar
+	 * @throws IllegalArgumentException if bitmap is <code>null</code>
+	 */
+	public IndexedBusinessDayCalendar(final CalendarBitmap bitmap) {
+		super(null == bitmap ? null : bitmap.getId());
+		this.bitmap = bitmap;
+	}
+
+	/**
+	 * Construct a business day calendar for a financial calendar in the
+	 * specified index.
+	 *
+	 * @param index holiday index
+	 * @param calendarId financial calendar ID
+	 * @throws IllegalArgumentException if index is <code>null</code> or
+	 *         calendar is not indexed
+	 */
+	public IndexedBusinessDayCalendar(final HolidayIndex index, final String calendarId) {
+		this(indexNotNull(index).getCalendar(calendarId));
+	}
+
+	/**
+	 * Register a business day calendar for every financial calendar in the
+	 * specified index with the shared <code>BusinessDayCalendars</code>
+	 * registry, replacing any previously registered with the same ID.
+	 *
+	 * @param index holiday index
+	 * @return number of calendars registered
+	 * @throws IllegalArgumentException if index is <code>null</code>
+	 */
+	public static int registerAll(final HolidayIndex index) {
+		indexNotNull(index);
+		for (String calendarId : index.getCalendarIds()) {
+			BusinessDayCalendars.register(new IndexedBusinessDayCalendar(index, calendarId));
+		}
+		return index.getCalendarIds().size();
+	}
+
+	/**
+	 * @return holiday bitmap backing this calendar
+	 */
+	public CalendarBitmap getBitmap() {
+		return bitmap;
+	}
+
+	@Override
+	public boolean isBusinessDay(final int date) {
+		return bitmap.isBusinessDay(date);
+	}
+
+	@Override
+	public int addBusinessDays(final int date, final int n) {
+		return bitmap.addBusinessDays(date, n);
+	}
+
+	private static HolidayIndex indexNotNull(final HolidayIndex index) {
+		Validate.notNull(index, "HolidayIndex argument cannot be null");
+		return index;
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * File: IndexedBusinessDayCalendarTest.java
+ *
+ * Copyright 2013 OSFramework Project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.support;
+
+import static org.osframework.testng.Assert.assertSameDay;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Calendar;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jfin.date.BusinessDayConvention;
+import org.osframework.contract.date.ContractDateSet;
+import org.osframework.contract.date.ContractDateSetBuilder;
+import org.osframework.contract.date.calendar.BusinessDayCalendars;
+import org.osframework.contract.date.fincal.definition.CentralBank;
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.definition.HolidayDefinition;
+import org.osframework.contract.date.fincal.definition.HolidayType;
+import org.osframework.contract.date.fincal.holiday.index.HolidayIndex;
+import org.osframework.contract.date.fincal.holiday.index.HolidayIndexBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for <code>IndexedBusinessDayCalendar</code>.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class IndexedBusinessDayCalendarTest {
+
+	private HolidayIndex index;
+
+	@BeforeClass
+	public void setUp() {
+		Set<HolidayDefinition> hds = new HashSet<HolidayDefinition>();
+		hds.add(new HolidayDefinition("MLKDay", "Martin Luther King Day", null, HolidayType.RELATIVE, "JANUARY/MONDAY/3"));
+		hds.add(new HolidayDefinition("MemorialDay", "Memorial Day", null, HolidayType.RELATIVE, "MAY/MONDAY/L"));
+		CentralBank usfr = new CentralBank("USFR", "United States Federal Reserve", "US", Currency.getInstance("USD"));
+		index = new HolidayIndexBuilder(2010, 2030)
+		            .addCalendar(new FinancialCalendar("NYB", "New York bank holidays", usfr, hds))
+		            .build();
+		IndexedBusinessDayCalendar.registerAll(index);
+	}
+
+	@AfterClass
+	public void tearDown() {
+		BusinessDayCalendars.unregister("NYB");
+	}
+
+	@Test
+	public void testBusinessDays() {
+		IndexedBusinessDayCalendar nyb = new IndexedBusinessDayCalendar(index, "NYB");
+		assertEquals(nyb.getId(), "NYB");
+		assertFalse(nyb.isBusinessDay(20130121));
+		assertTrue(nyb.isBusinessDay(20130122));
+		assertEquals(nyb.addBusinessDays(20130117, 2), 20130122);
+		assertEquals(nyb.adjust(20130527, BusinessDayConvention.MODIFIED_FOLLOWING), 20130528);
+	}
+
+	@Test
+	public void testAdvance() {
+		IndexedBusinessDayCalendar nyb = new IndexedBusinessDayCalendar(index, "NYB");
+		Calendar start = Calendar.getInstance();
+		start.clear();
+		start.set(2013, Calendar.APRIL, 26);
+		Calendar result = nyb.advance(start, 1, Calendar.MONTH, BusinessDayConvention.MODIFIED_FOLLOWING);
+		// Sunday 2013-05-26 rolls past Memorial Day to Tuesday
+		assertEquals(result.get(Calendar.DAY_OF_MONTH), 28);
+		assertEquals(result.get(Calendar.MONTH), Calendar.MAY);
+	}
+
+	@Test
+	public void testRegisterAll() {
+		assertTrue(BusinessDayCalendars.get("NYB") instanceof IndexedBusinessDayCalendar);
+		assertSame(((IndexedBusinessDayCalendar)BusinessDayCalendars.get("NYB")).getBitmap(), index.getCalendar("NYB"));
+	}
+
+	@Test
+	public void testContractDateSetBuilder() {
+		Calendar tradeDate = Calendar.getInstance();
+		tradeDate.clear();
+		tradeDate.set(2013, Calendar.JANUARY, 17);
+		ContractDateSet cds = new ContractDateSetBuilder(tradeDate)
+		                          .setEffectiveDate("2B")
+		                          .setHolidayCalendar("NYB")
+		                          .build();
+		Calendar expected = (Calendar)tradeDate.clone();
+		expected.set(2013, Calendar.JANUARY, 22);
+		assertSameDay(cds.getStartDate(), expected.getTime());
+	}
+
+}
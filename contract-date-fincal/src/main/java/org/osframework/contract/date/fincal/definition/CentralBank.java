@@ -59,6 +59,11 @@ public class CentralBank implements Serializable, ImmutableEntity<CentralBank> {
 	 */
 	private static final long serialVersionUID = 4797279366774872436L;
 
+	/**
+	 * Canonical immutable central banks.
+	 */
+	private static final Interner<ImmutableCentralBank> INTERNER = new Interner<ImmutableCentralBank>();
+
 	private String id;
 	private String name;
 	private String country;
@@ -204,8 +209,12 @@ public class CentralBank implements Serializable, ImmutableEntity<CentralBank> {
 		return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
 	}
 
+	/**
+	 * Returns the canonical immutable copy of this central bank. Equal central
+	 * banks yield the same immutable instance.
+	 */
 	public CentralBank toImmutable() {
-		return new ImmutableCentralBank(this.id, this.name, this.country, this.currency);
+		return ImmutableCentralBank.intern(new ImmutableCentralBank(this.id, this.name, this.country, this.currency));
 	}
 
 	@XmlTransient
@@ -244,12 +253,14 @@ public class CentralBank implements Serializable, ImmutableEntity<CentralBank> {
 
 	/**
 	 * Private immutable subclass of CentralBank. This class is final; it is
-	 * intended solely for instantiation by {@link CentralBank#toImmutable()}.
+	 * intended solely for instantiation by {@link CentralBank#toImmutable()},
+	 * which interns each instance; two canonical instances are equal only if
+	 * they are the same object. The hash value is computed at construction.
 	 *
 	 * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
 	 */
 	@XmlTransient
-	private final class ImmutableCentralBank extends CentralBank {
+	private static final class ImmutableCentralBank extends CentralBank {
 	
 		/**
 		 * Serializable UID.
@@ -257,9 +268,15 @@ public class CentralBank implements Serializable, ImmutableEntity<CentralBank> {
 		private static final long serialVersionUID = -5118309327834501135L;
 	
 		/**
-		 * Cached hash value for this instance.
+		 * Hash value of this instance, computed at construction.
+		 */
+		private final transient int hashCode;
+
+		/**
+		 * Flag indicating that this instance is the canonical instance of its
+		 * value.
 		 */
-		private volatile transient int hashCode;
+		private volatile transient boolean canonical;
 	
 		/**
 		 * Constructor. Accepts all fields as arguments, using the parent
@@ -282,6 +299,16 @@ public class CentralBank implements Serializable, ImmutableEntity<CentralBank> {
 			super.setName(name);
 			super.setCountry(country);
 			super.setCurrency(currency);
+			this.hashCode = super.hashCode();
+		}
+
+		/**
+		 * Return the canonical instance equal to the specified candidate.
+		 */
+		static ImmutableCentralBank intern(final ImmutableCentralBank candidate) {
+			final ImmutableCentralBank canonical = INTERNER.intern(candidate);
+			canonical.canonical = true;
+			return canonical;
 		}
 
 		/**
@@ -344,16 +371,34 @@ public class CentralBank implements Serializable, ImmutableEntity<CentralBank> {
 	
 		@Override
 		public int hashCode() {
-			if (0 == hashCode) {
-				hashCode = new HashCodeBuilder()
-                               .append(id)
-                               .append(name)
-                               .append(country)
-                               .append(currency)
-                               .toHashCode();
-			}
 			return hashCode;
 		}
+
+		/**
+		 * Canonical instances are compared by reference. Otherwise, hash
+		 * values are compared before fields.
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			boolean equals;
+			if (this == obj) {
+				equals = true;
+			} else if (obj instanceof ImmutableCentralBank) {
+				final ImmutableCentralBank other = (ImmutableCentralBank)obj;
+				equals = (hashCode == other.hashCode) && !(canonical && other.canonical) && super.equals(other);
+			} else {
+				equals = super.equals(obj);
+			}
+			return equals;
+		}
+
+		/**
+		 * Replace a deserialized instance with the canonical instance of its
+		 * value.
+		 */
+		private Object readResolve() {
+			return intern(new ImmutableCentralBank(getId(), getName(), getCountry(), getCurrency()));
+		}
 	}
 
 }
@@ -34,6 +34,7 @@ import javax.xml.bind.annotation.XmlID;
 import javax.xml.bind.annotation.XmlIDREF;
 import javax.xml.bind.annotation.XmlTransient;
 import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
@@ -63,7 +64,8 @@ import org.osframework.contract.date.fincal.ImmutableEntity;
 @XmlType(name = "calendar", propOrder = {
 	"description",
 	"centralBank",
-	"holidayDefinitions"
+	"holidayDefinitions",
+	"weekendSchedule"
 })
 public class FinancialCalendar implements Serializable, Iterable<HolidayDefinition>, ImmutableEntity<FinancialCalendar> {
 
@@ -72,10 +74,16 @@ public class FinancialCalendar implements Serializable, Iterable<HolidayDefiniti
 	 */
 	private static final long serialVersionUID = 6295632117301841003L;
 
+	/**
+	 * Canonical immutable financial calendars.
+	 */
+	private static final Interner<ImmutableFinancialCalendar> INTERNER = new Interner<ImmutableFinancialCalendar>();
+
 	private String id;
 	private String description;
 	private CentralBank centralBank;
 	private Set<HolidayDefinition> holidayDefinitions = new HashSet<HolidayDefinition>();
+	private WeekendSchedule weekendSchedule = WeekendSchedule.SATURDAY_SUNDAY;
 
 	/**
 	 * Default constructor.
@@ -222,6 +230,29 @@ public class FinancialCalendar implements Serializable, Iterable<HolidayDefiniti
 		this.holidayDefinitions.remove(holidayDefinition);
 	}
 
+	/**
+	 * @return weekend observed by this calendar's market; Saturday and
+	 *         Sunday unless set otherwise
+	 */
+	@XmlElement(name = "weekend", required = false)
+	@XmlJavaTypeAdapter(WeekendScheduleAdapter.class)
+	public WeekendSchedule getWeekendSchedule() {
+		return weekendSchedule;
+	}
+
+	/**
+	 * Set weekend observed by this calendar's market.
+	 * 
+	 * @param weekendSchedule weekend days, and any changes to them over time
+	 * @throws IllegalArgumentException if weekendSchedule is null
+	 */
+	public void setWeekendSchedule(WeekendSchedule weekendSchedule) {
+		if (null == weekendSchedule) {
+			throw new IllegalArgumentException("WeekendSchedule argument cannot be null");
+		}
+		this.weekendSchedule = weekendSchedule;
+	}
+
 	/**
 	 * Determine if this calendar contains the specified holiday definition.
 	 * 
@@ -252,8 +283,20 @@ public class FinancialCalendar implements Serializable, Iterable<HolidayDefiniti
 		return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
 	}
 
+	/**
+	 * Returns the canonical immutable copy of this calendar. Equal calendars
+	 * yield the same immutable instance. The copy references the canonical
+	 * immutable copies of this calendar's central bank and holiday
+	 * definitions.
+	 *
+	 * @throws IllegalArgumentException if central bank is not set, or if the
+	 *                                  expression of any holiday definition is
+	 *                                  not valid for its observance type
+	 */
 	public FinancialCalendar toImmutable() {
-		return new ImmutableFinancialCalendar(this.id, this.description, this.centralBank, this.holidayDefinitions);
+		return ImmutableFinancialCalendar.intern(new ImmutableFinancialCalendar(this.id, this.description, this.centralBank,
+		                                                                        this.holidayDefinitions,
+		                                                                        this.weekendSchedule));
 	}
 
 	@XmlTransient
@@ -268,6 +311,7 @@ public class FinancialCalendar implements Serializable, Iterable<HolidayDefiniti
                    .append(description)
                    .append(centralBank)
                    .append(holidayDefinitions)
+                   .append(weekendSchedule)
                    .toHashCode();
 	}
 
@@ -283,6 +327,7 @@ public class FinancialCalendar implements Serializable, Iterable<HolidayDefiniti
 			             .append(description, other.description)
 			             .append(centralBank, other.centralBank)
 			             .append(holidayDefinitions, other.holidayDefinitions)
+			             .append(weekendSchedule, other.weekendSchedule)
 			             .isEquals();
 		} else {
 			result = false;
@@ -293,12 +338,14 @@ public class FinancialCalendar implements Serializable, Iterable<HolidayDefiniti
 	/**
 	 * Private immutable subclass of FinancialCalendar. This class is final; it
 	 * is intended solely for instantiation by
-	 * {@link FinancialCalendar#toImmutable()}.
+	 * {@link FinancialCalendar#toImmutable()}, which interns each instance;
+	 * two canonical instances are equal only if they are the same object. The
+	 * hash value is computed at construction.
 	 *
 	 * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
 	 */
 	@XmlTransient
-	private final class ImmutableFinancialCalendar extends FinancialCalendar {
+	private static final class ImmutableFinancialCalendar extends FinancialCalendar {
 	
 		/**
 		 * Serializable UID.
@@ -306,28 +353,59 @@ public class FinancialCalendar implements Serializable, Iterable<HolidayDefiniti
 		private static final long serialVersionUID = -7685175750981328587L;
 
 		/**
-		 * Cached hash value for this instance.
+		 * Hash value of this instance, computed at construction.
+		 */
+		private final transient int hashCode;
+
+		/**
+		 * Flag indicating that this instance is the canonical instance of its
+		 * value.
 		 */
-		private volatile transient int hashCode;
+		private volatile transient boolean canonical;
 
 		/**
 		 * Constructor. Accepts all fields as arguments, using the parent
-		 * class's setters for initialization.
+		 * class's setters for initialization. The central bank and holiday
+		 * definitions are replaced by their canonical immutable copies.
 		 * 
 		 * @param id
 		 * @param description
 		 * @param centralBank
 		 * @param holidayDefinitions
+		 * @param weekendSchedule
 		 */
 		ImmutableFinancialCalendar(final String id,
 				                   final String description,
 				                   final CentralBank centralBank,
-				                   final Set<HolidayDefinition> holidayDefinitions) {
+				                   final Set<HolidayDefinition> holidayDefinitions,
+				                   final WeekendSchedule weekendSchedule) {
 			super();
 			super.setId(id);
 			super.setDescription(description);
-			super.setCentralBank(centralBank);
-			super.setHolidayDefinitions(holidayDefinitions);
+			super.setCentralBank((null == centralBank) ? null : centralBank.toImmutable());
+			super.setHolidayDefinitions(immutableCopies(holidayDefinitions));
+			super.setWeekendSchedule(weekendSchedule);
+			this.hashCode = super.hashCode();
+		}
+
+		/**
+		 * Return the canonical instance equal to the specified candidate.
+		 */
+		static ImmutableFinancialCalendar intern(final ImmutableFinancialCalendar candidate) {
+			final ImmutableFinancialCalendar canonical = INTERNER.intern(candidate);
+			canonical.canonical = true;
+			return canonical;
+		}
+
+		private static Set<HolidayDefinition> immutableCopies(final Set<HolidayDefinition> holidayDefinitions) {
+			if (null == holidayDefinitions) {
+				return null;
+			}
+			final Set<HolidayDefinition> immutables = new HashSet<HolidayDefinition>(holidayDefinitions.size());
+			for (HolidayDefinition hd : holidayDefinitions) {
+				immutables.add((null == hd) ? null : hd.toImmutable());
+			}
+			return immutables;
 		}
 
 		/**
@@ -398,6 +476,16 @@ public class FinancialCalendar implements Serializable, Iterable<HolidayDefiniti
 			throw new UnsupportedOperationException(DEFAULT_EXCEPTION_MSG);
 		}
 
+		/**
+		 * Overridden method to prevent mutability of this instance.
+		 * 
+		 * @throws UnsupportedOperationException
+		 */
+		@Override
+		public final void setWeekendSchedule(WeekendSchedule weekendSchedule) {
+			throw new UnsupportedOperationException(DEFAULT_EXCEPTION_MSG);
+		}
+
 		/**
 		 * @return unmodifiable iterator over the holiday definitions in this
 		 *         financial calendar
@@ -417,16 +505,35 @@ public class FinancialCalendar implements Serializable, Iterable<HolidayDefiniti
 
 		@Override
 		public int hashCode() {
-			if (0 == hashCode) {
-				hashCode = new HashCodeBuilder()
-				               .append(id)
-				               .append(description)
-				               .append(centralBank)
-				               .append(holidayDefinitions)
-				               .toHashCode();
-			}
 			return hashCode;
 		}
+
+		/**
+		 * Canonical instances are compared by reference. Otherwise, hash
+		 * values are compared before fields.
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			boolean result;
+			if (this == obj) {
+				result = true;
+			} else if (obj instanceof ImmutableFinancialCalendar) {
+				final ImmutableFinancialCalendar other = (ImmutableFinancialCalendar)obj;
+				result = (hashCode == other.hashCode) && !(canonical && other.canonical) && super.equals(other);
+			} else {
+				result = super.equals(obj);
+			}
+			return result;
+		}
+
+		/**
+		 * Replace a deserialized instance with the canonical instance of its
+		 * value.
+		 */
+		private Object readResolve() {
+			return intern(new ImmutableFinancialCalendar(getId(), getDescription(), getCentralBank(),
+			                                             getHolidayDefinitions(), getWeekendSchedule()));
+		}
 	}
 
 }
@@ -48,19 +48,30 @@ import org.osframework.contract.date.fincal.ImmutableEntity;
 	"observance",
 	"expression"
 })
-public class HolidayDefinition implements Serializable, HolidayExpression, ImmutableEntity<HolidayDefinition> {
+public class HolidayDefinition implements Serializable, PackedHolidayExpression, ImmutableEntity<HolidayDefinition> {
 
 	/**
 	 * Serializable UID.
 	 */
 	private static final long serialVersionUID = -8997298685130920758L;
 
+	/**
+	 * Canonical immutable holiday definitions.
+	 */
+	private static final Interner<ImmutableHolidayDefinition> INTERNER = new Interner<ImmutableHolidayDefinition>();
+
 	private String id;
 	private String name;
 	private String description;
 	private HolidayType observance;
 	private String expression;
 
+	/**
+	 * Compiled expression, parsed on first use and discarded whenever the
+	 * observance or expression string of this definition changes.
+	 */
+	private transient volatile HolidayExpression compiledExpression;
+
 	/**
 	 * Default constructor.
 	 */
@@ -148,6 +159,7 @@ public class HolidayDefinition implements Serializable, HolidayExpression, Immut
 	 */
 	public void setObservance(HolidayType observance) {
 		this.observance = observance;
+		this.compiledExpression = null;
 	}
 
 	/**
@@ -165,6 +177,7 @@ public class HolidayDefinition implements Serializable, HolidayExpression, Immut
 	 */
 	public void setExpression(String expression) {
 		this.expression = expression;
+		this.compiledExpression = null;
 	}
 
 	/**
@@ -179,17 +192,39 @@ public class HolidayDefinition implements Serializable, HolidayExpression, Immut
 		return toHolidayExpression().evaluate(year);
 	}
 
+	/**
+	 * Produce the date of a defined holiday for the specified year, in
+	 * <code>yyyymmdd</code> format. This implementation delegates to the
+	 * object returned by the {@link #toHolidayExpression()} method; a
+	 * subclass which overrides {@link #evaluate(int)} must override this
+	 * method consistently.
+	 * 
+	 * @throws IllegalStateException if this definition is missing required
+	 *                               state
+	 */
+	public int evaluatePacked(int year) {
+		return HolidayExpressions.evaluatePacked(toHolidayExpression(), year);
+	}
+
 	/**
 	 * Returns a <code>HolidayExpression</code> representation of the object.
+	 * The expression string is parsed once; the resulting immutable expression
+	 * is cached and returned by subsequent invocations until the observance
+	 * or expression of this definition is changed.
 	 * 
 	 * @return  a <code>HolidayExpression</code> representation of the object
 	 * @throws IllegalStateException if observance or expression is null at time of invocation
 	 */
 	public HolidayExpression toHolidayExpression() {
-		if (null == observance || null == expression) {
-			throw new IllegalStateException("Not in required state for invocation of method: createHolidayExpression");
+		HolidayExpression compiled = compiledExpression;
+		if (null == compiled) {
+			if (null == observance || null == expression) {
+				throw new IllegalStateException("Not in required state for invocation of method: createHolidayExpression");
+			}
+			compiled = observance.toExpression(expression);
+			compiledExpression = compiled;
 		}
-		return observance.toExpression(expression);
+		return compiled;
 	}
 
 	@Override
@@ -197,8 +232,17 @@ public class HolidayDefinition implements Serializable, HolidayExpression, Immut
 		return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
 	}
 
+	/**
+	 * Returns the canonical immutable copy of this definition. Equal
+	 * definitions yield the same immutable instance. If observance and
+	 * expression are both set, the copy's expression is compiled eagerly.
+	 * 
+	 * @throws IllegalArgumentException if the expression is not valid for the
+	 *                                  observance type
+	 */
 	public HolidayDefinition toImmutable() {
-		return new ImmutableHolidayDefinition(this.id, this.name, this.description, this.observance, this.expression);
+		return ImmutableHolidayDefinition.intern(new ImmutableHolidayDefinition(this.id, this.name, this.description,
+		                                                                        this.observance, this.expression));
 	}
 
 	@XmlTransient
@@ -240,12 +284,14 @@ public class HolidayDefinition implements Serializable, HolidayExpression, Immut
 	/**
 	 * Private immutable subclass of HolidayDefinition. This class is final; it
 	 * is intended solely for instantiation by
-	 * {@link HolidayDefinition#toImmutable()}.
+	 * {@link HolidayDefinition#toImmutable()}, which interns each instance;
+	 * two canonical instances are equal only if they are the same object. The
+	 * hash value is computed at construction.
 	 *
 	 * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
 	 */
 	@XmlTransient
-	private final class ImmutableHolidayDefinition extends HolidayDefinition {
+	private static final class ImmutableHolidayDefinition extends HolidayDefinition {
 
 		/**
 		 * Serializable UID.
@@ -253,9 +299,15 @@ public class HolidayDefinition implements Serializable, HolidayExpression, Immut
 		private static final long serialVersionUID = 6143622333833253558L;
 	
 		/**
-		 * Cached hash value for this instance.
+		 * Hash value of this instance, computed at construction.
+		 */
+		private final transient int hashCode;
+
+		/**
+		 * Flag indicating that this instance is the canonical instance of its
+		 * value.
 		 */
-		private volatile transient int hashCode;
+		private volatile transient boolean canonical;
 
 		ImmutableHolidayDefinition(final String id,
                                    final String name,
@@ -263,6 +315,19 @@ public class HolidayDefinition implements Serializable, HolidayExpression, Immut
                                    final HolidayType observance,
                                    final String expression) {
 			super(id, name, description, observance, expression);
+			if (null != getObservance() && null != getExpression()) {
+				toHolidayExpression();
+			}
+			this.hashCode = super.hashCode();
+		}
+
+		/**
+		 * Return the canonical instance equal to the specified candidate.
+		 */
+		static ImmutableHolidayDefinition intern(final ImmutableHolidayDefinition candidate) {
+			final ImmutableHolidayDefinition canonical = INTERNER.intern(candidate);
+			canonical.canonical = true;
+			return canonical;
 		}
 
 		/**
@@ -325,17 +390,35 @@ public class HolidayDefinition implements Serializable, HolidayExpression, Immut
 	
 		@Override
 		public int hashCode() {
-			if (0 == hashCode) {
-				hashCode = new HashCodeBuilder()
-				               .append(id)
-				               .append(name)
-				               .append(description)
-				               .append(observance)
-				               .append(expression)
-				               .toHashCode();
-			}
 			return hashCode;
 		}
+
+		/**
+		 * Canonical instances are compared by reference. Otherwise, hash
+		 * values are compared before fields.
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			boolean equals;
+			if (this == obj) {
+				equals = true;
+			} else if (obj instanceof ImmutableHolidayDefinition) {
+				final ImmutableHolidayDefinition other = (ImmutableHolidayDefinition)obj;
+				equals = (hashCode == other.hashCode) && !(canonical && other.canonical) && super.equals(other);
+			} else {
+				equals = super.equals(obj);
+			}
+			return equals;
+		}
+
+		/**
+		 * Replace a deserialized instance with the canonical instance of its
+		 * value.
+		 */
+		private Object readResolve() {
+			return intern(new ImmutableHolidayDefinition(getId(), getName(), getDescription(), getObservance(),
+			                                             getExpression()));
+		}
 	}
 
 }
@@ -0,0 +1,55 @@
+/*
+ * File: HolidayExpressions.java
+ * 
+ * Copyright 2012 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.definition;
+
+import java.util.Date;
+
+import org.osframework.util.DateUtil;
+
+/**
+ * Static utility methods for <code>HolidayExpression</code> objects.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public final class HolidayExpressions {
+
+	/**
+	 * Private constructor - prevents instantiation.
+	 */
+	private HolidayExpressions() {}
+
+	/**
+	 * Produce the date of a defined holiday for the specified year, in
+	 * <code>yyyymmdd</code> format. A <code>PackedHolidayExpression</code>
+	 * computes the date directly; any other expression is evaluated to a
+	 * <code>Date</code>, which is then converted.
+	 * 
+	 * @param expression holiday expression
+	 * @param year year for which the holiday date must be produced
+	 * @return date of a defined holiday in the given year, or <code>0</code>
+	 *         if the holiday does not occur in the given year
+	 */
+	public static int evaluatePacked(final HolidayExpression expression, final int year) {
+		if (expression instanceof PackedHolidayExpression) {
+			return ((PackedHolidayExpression)expression).evaluatePacked(year);
+		}
+		final Date date = expression.evaluate(year);
+		return (null == date) ? 0 : DateUtil.formatDateToInt(date);
+	}
+
+}
@@ -0,0 +1,59 @@
+/*
+ * File: Interner.java
+ * 
+ * Copyright 2012 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.definition;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Canonicalising pool of immutable definition entities. Interning a value
+ * returns the single live instance equal to it, so that two interned
+ * immutables are equal if and only if they are the same object. Entries are
+ * weakly held and disappear once the canonical instance is no longer
+ * referenced outside the pool.
+ * <p>Lookup compares the candidate with pooled instances by value; the
+ * candidate must therefore still use deep equality, which is the case until
+ * its owning class marks it canonical.</p>
+ * <p>Instances of this class are thread-safe.</p>
+ *
+ * @param <T> type of interned entity
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+final class Interner<T> {
+
+	private final Map<T, WeakReference<T>> pool = new WeakHashMap<T, WeakReference<T>>();
+
+	/**
+	 * Return the canonical instance equal to the specified candidate. If none
+	 * is pooled, the candidate becomes the canonical instance.
+	 *
+	 * @param candidate immutable instance to canonicalise
+	 * @return canonical instance equal to <code>candidate</code>
+	 */
+	synchronized T intern(final T candidate) {
+		final WeakReference<T> ref = pool.get(candidate);
+		T canonical = (null == ref) ? null : ref.get();
+		if (null == canonical) {
+			pool.put(candidate, new WeakReference<T>(candidate));
+			canonical = candidate;
+		}
+		return canonical;
+	}
+
+}
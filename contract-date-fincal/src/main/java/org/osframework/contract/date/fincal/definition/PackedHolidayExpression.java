@@ -0,0 +1,42 @@
+/*
+ * File: PackedHolidayExpression.java
+ * 
+ * Copyright 2012 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.definition;
+
+/**
+ * Optional behavior of <code>HolidayExpression</code> objects which can
+ * produce the date of a holiday as an <code>int</code> in
+ * <code>yyyymmdd</code> format, without creating <code>Date</code> or
+ * <code>Calendar</code> objects. Holiday producers use this method where
+ * available; see {@link HolidayExpressions#evaluatePacked(HolidayExpression, int)}.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public interface PackedHolidayExpression extends HolidayExpression {
+
+	/**
+	 * Produce the date of a defined holiday for the specified year. The
+	 * result is the same date as {@link #evaluate(int)}.
+	 * 
+	 * @param year year for which this expression must produce the holiday date
+	 * @return date of a defined holiday in the given year, in
+	 *         <code>yyyymmdd</code> format, or <code>0</code> if the holiday
+	 *         does not occur in the given year
+	 */
+	public int evaluatePacked(int year);
+
+}
@@ -0,0 +1,181 @@
+/*
+ * File: WeekendMask.java
+ * 
+ * Copyright 2012 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.definition;
+
+import java.io.Serializable;
+import java.util.Calendar;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * Set of days of the week on which a financial market is closed. Days are
+ * identified by the <code>Calendar.SUNDAY</code> through
+ * <code>Calendar.SATURDAY</code> constants and held as a 7-bit mask, so
+ * membership is a single bit test.
+ * <p>Instances of this class are immutable and thread-safe.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ * @see WeekendSchedule
+ */
+public final class WeekendMask implements Serializable {
+
+	/**
+	 * Serializable UID.
+	 */
+	private static final long serialVersionUID = -2368914406338418215L;
+
+	private static final String[] DAY_NAMES = { "Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat" };
+	private static final String NONE_NAME = "None";
+
+	/**
+	 * Saturday and Sunday, observed by most markets.
+	 */
+	public static final WeekendMask SATURDAY_SUNDAY = of(Calendar.SATURDAY, Calendar.SUNDAY);
+
+	/**
+	 * Friday and Saturday, observed by several Gulf markets.
+	 */
+	public static final WeekendMask FRIDAY_SATURDAY = of(Calendar.FRIDAY, Calendar.SATURDAY);
+
+	/**
+	 * Thursday and Friday, formerly observed by several Gulf markets.
+	 */
+	public static final WeekendMask THURSDAY_FRIDAY = of(Calendar.THURSDAY, Calendar.FRIDAY);
+
+	/**
+	 * Sunday only.
+	 */
+	public static final WeekendMask SUNDAY = of(Calendar.SUNDAY);
+
+	/**
+	 * No weekend days.
+	 */
+	public static final WeekendMask NONE = of();
+
+	private final int bits;
+
+	private WeekendMask(final int bits) {
+		this.bits = bits;
+	}
+
+	/**
+	 * Get the weekend mask of the specified days of the week.
+	 *
+	 * @param daysOfWeek days of the week, as <code>Calendar.SUNDAY</code>
+	 *                   through <code>Calendar.SATURDAY</code>
+	 * @return weekend mask
+	 * @throws IllegalArgumentException if any day of the week is invalid
+	 */
+	public static WeekendMask of(final int... daysOfWeek) {
+		int bits = 0;
+		for (int dow : daysOfWeek) {
+			if (dow < Calendar.SUNDAY || dow > Calendar.SATURDAY) {
+				throw new IllegalArgumentException("Invalid day of week: " + dow);
+			}
+			bits |= (1 << (dow - Calendar.SUNDAY));
+		}
+		return new WeekendMask(bits);
+	}
+
+	/**
+	 * Get the weekend mask represented by the specified text, as produced by
+	 * {@link #format()}. Day names are matched without regard to case.
+	 *
+	 * @param text comma-separated day names (<code>Sun</code> through
+	 *             <code>Sat</code>), or <code>None</code>
+	 * @return weekend mask
+	 * @throws IllegalArgumentException if text is empty or contains an
+	 *         unknown day name
+	 */
+	public static WeekendMask parse(final String text) {
+		Validate.notEmpty(text, "Weekend mask text cannot be empty");
+		int bits = 0;
+		if (!NONE_NAME.equalsIgnoreCase(text.trim())) {
+			for (String name : text.split(",")) {
+				int d = DAY_NAMES.length - 1;
+				while (d >= 0 && !DAY_NAMES[d].equalsIgnoreCase(name.trim())) {
+					d--;
+				}
+				if (d < 0) {
+					throw new IllegalArgumentException("Invalid day of week: " + name);
+				}
+				bits |= (1 << d);
+			}
+		}
+		return new WeekendMask(bits);
+	}
+
+	/**
+	 * Determine if the specified day of the week is a weekend day.
+	 *
+	 * @param dayOfWeek day of the week, as <code>Calendar.SUNDAY</code>
+	 *                  through <code>Calendar.SATURDAY</code>
+	 * @return <code>true</code> if day is a weekend day, <code>false</code>
+	 *         otherwise
+	 */
+	public boolean isWeekend(final int dayOfWeek) {
+		return (0 != (bits & (1 << (dayOfWeek - Calendar.SUNDAY))));
+	}
+
+	/**
+	 * @return mask in which bit <code>n</code> is set if day of week
+	 *         <code>Calendar.SUNDAY + n</code> is a weekend day
+	 */
+	public int getBits() {
+		return bits;
+	}
+
+	/**
+	 * Get the text form of this mask: comma-separated day names, Sunday
+	 * first, or <code>None</code> if there are no weekend days.
+	 *
+	 * @return text form of this mask
+	 * @see #parse(String)
+	 */
+	public String format() {
+		final StringBuilder sb = new StringBuilder();
+		for (int d = 0; d < DAY_NAMES.length; d++) {
+			if (0 != (bits & (1 << d))) {
+				sb.append((0 == sb.length()) ? "" : ",").append(DAY_NAMES[d]);
+			}
+		}
+		return (0 == sb.length()) ? NONE_NAME : sb.toString();
+	}
+
+	@Override
+	public int hashCode() {
+		return bits;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return (this == obj) || ((obj instanceof WeekendMask) && bits == ((WeekendMask)obj).bits);
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder("[");
+		for (int d = 0; d < DAY_NAMES.length; d++) {
+			if (0 != (bits & (1 << d))) {
+				sb.append((1 == sb.length()) ? "" : ",").append(DAY_NAMES[d]);
+			}
+		}
+		return sb.append(']').toString();
+	}
+
+}
@@ -0,0 +1,227 @@
+/*
+ * File: WeekendSchedule.java
+ * 
+ * Copyright 2012 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.definition;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Calendar;
+
+import org.apache.commons.lang.Validate;
+import org.osframework.contract.date.util.DateMath;
+
+/**
+ * Weekend observed by a financial market over time: an initial
+ * {@link WeekendMask}, optionally followed by changes effective from given
+ * dates. Dates are <code>int</code> values in <code>yyyymmdd</code> format.
+ * <p>Weekend dates are computed arithmetically: the day of the week of
+ * January 1 is derived from its {@link DateMath#dayOfWeek(int) epoch day}, and each
+ * following day advances it by one. No <code>Calendar</code> objects are
+ * created.</p>
+ * <p>Instances of this class are immutable and thread-safe.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public final class WeekendSchedule implements Serializable {
+
+	/**
+	 * Serializable UID.
+	 */
+	private static final long serialVersionUID = 4925604233713838418L;
+
+	/**
+	 * Saturday and Sunday at all dates; the default weekend of a financial
+	 * calendar.
+	 */
+	public static final WeekendSchedule SATURDAY_SUNDAY = new WeekendSchedule(WeekendMask.SATURDAY_SUNDAY);
+
+	/**
+	 * Effective dates of masks, ascending. The first is
+	 * <code>Integer.MIN_VALUE</code>.
+	 */
+	private final int[] effectiveDates;
+	private final WeekendMask[] masks;
+
+	/**
+	 * Construct a schedule with the specified weekend at all dates.
+	 *
+	 * @param mask weekend days
+	 * @throws IllegalArgumentException if mask is <code>null</code>
+	 */
+	public WeekendSchedule(final WeekendMask mask) {
+		this(new int[] { Integer.MIN_VALUE }, new WeekendMask[] { mask });
+		Validate.notNull(mask, "WeekendMask argument cannot be null");
+	}
+
+	private WeekendSchedule(final int[] effectiveDates, final WeekendMask[] masks) {
+		this.effectiveDates = effectiveDates;
+		this.masks = masks;
+	}
+
+	/**
+	 * Get the weekend schedule represented by the specified text, as produced
+	 * by {@link #format()}.
+	 *
+	 * @param text initial weekend mask, followed by changes of the form
+	 *             <code>;yyyymmdd:mask</code>
+	 * @return weekend schedule
+	 * @throws IllegalArgumentException if text is not a valid weekend
+	 *         schedule
+	 * @see WeekendMask#parse(String)
+	 */
+	public static WeekendSchedule parse(final String text) {
+		Validate.notEmpty(text, "Weekend schedule text cannot be empty");
+		final String[] parts = text.split(";");
+		WeekendSchedule schedule = new WeekendSchedule(WeekendMask.parse(parts[0]));
+		for (int i = 1; i < parts.length; i++) {
+			final int colon = parts[i].indexOf(':');
+			Validate.isTrue(colon > 0, "Weekend change must be of the form yyyymmdd:mask: " + parts[i]);
+			final int effectiveDate;
+			try {
+				effectiveDate = Integer.parseInt(parts[i].substring(0, colon).trim());
+			} catch (NumberFormatException nfe) {
+				throw new IllegalArgumentException("Invalid weekend change date: " + parts[i]);
+			}
+			schedule = schedule.changeOn(effectiveDate, WeekendMask.parse(parts[i].substring(colon + 1)));
+		}
+		return schedule;
+	}
+
+	/**
+	 * Get a schedule which follows this one until the specified date, and
+	 * observes the specified weekend from that date onward.
+	 *
+	 * @param effectiveDate first date of new weekend, in
+	 *                      <code>yyyymmdd</code> format
+	 * @param mask new weekend days
+	 * @return new weekend schedule
+	 * @throws IllegalArgumentException if mask is <code>null</code>, or
+	 *         effectiveDate is not after the last change of this schedule
+	 */
+	public WeekendSchedule changeOn(final int effectiveDate, final WeekendMask mask) {
+		Validate.notNull(mask, "WeekendMask argument cannot be null");
+		final int n = effectiveDates.length;
+		Validate.isTrue(effectiveDate > effectiveDates[n - 1],
+		                "Weekend change must be after " + effectiveDates[n - 1]);
+		final int[] dates = Arrays.copyOf(effectiveDates, n + 1);
+		final WeekendMask[] m = Arrays.copyOf(masks, n + 1);
+		dates[n] = effectiveDate;
+		m[n] = mask;
+		return new WeekendSchedule(dates, m);
+	}
+
+	/**
+	 * Get the weekend observed on the specified date.
+	 *
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return weekend mask in effect on date
+	 */
+	public WeekendMask getMask(final int date) {
+		int i = effectiveDates.length - 1;
+		while (effectiveDates[i] > date) {
+			i--;
+		}
+		return masks[i];
+	}
+
+	/**
+	 * Determine if the specified date is a weekend day.
+	 *
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return <code>true</code> if date is a weekend day, <code>false</code>
+	 *         otherwise
+	 * @throws IllegalArgumentException if date is not a valid calendar date
+	 */
+	public boolean isWeekend(final int date) {
+		return getMask(date).isWeekend(DateMath.dayOfWeek(date));
+	}
+
+	/**
+	 * Get all weekend dates of the specified year, in ascending order.
+	 *
+	 * @param year year
+	 * @return weekend dates in <code>yyyymmdd</code> format
+	 */
+	public int[] getWeekendDates(final int year) {
+		final int[] dates = new int[366];
+		int count = 0;
+		int change = 1;
+		while (change < effectiveDates.length && effectiveDates[change] <= year * 10000 + 101) {
+			change++;
+		}
+		int bits = masks[change - 1].getBits();
+		int dow = DateMath.dayOfWeek(DateMath.of(year, 1, 1)) - Calendar.SUNDAY;
+		for (int month = 1; month <= 12; month++) {
+			final int length = DateMath.lengthOfMonth(year, month);
+			for (int day = 1; day <= length; day++) {
+				final int date = year * 10000 + month * 100 + day;
+				if (change < effectiveDates.length && effectiveDates[change] <= date) {
+					bits = masks[change++].getBits();
+				}
+				if (0 != (bits & (1 << dow))) {
+					dates[count++] = date;
+				}
+				dow = (6 == dow) ? 0 : dow + 1;
+			}
+		}
+		return Arrays.copyOf(dates, count);
+	}
+
+	/**
+	 * Get the text form of this schedule, for example
+	 * <code>Thu,Fri;20060901:Fri,Sat</code>.
+	 *
+	 * @return text form of this schedule
+	 * @see #parse(String)
+	 */
+	public String format() {
+		final StringBuilder sb = new StringBuilder(masks[0].format());
+		for (int i = 1; i < masks.length; i++) {
+			sb.append(';').append(effectiveDates[i]).append(':').append(masks[i].format());
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(effectiveDates) + Arrays.hashCode(masks);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		boolean result;
+		if (this == obj) {
+			result = true;
+		} else if (obj instanceof WeekendSchedule) {
+			final WeekendSchedule other = (WeekendSchedule)obj;
+			result = Arrays.equals(effectiveDates, other.effectiveDates) && Arrays.equals(masks, other.masks);
+		} else {
+			result = false;
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder().append(masks[0]);
+		for (int i = 1; i < masks.length; i++) {
+			sb.append(", from ").append(effectiveDates[i]).append(' ').append(masks[i]);
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,46 @@
+/*
+ * File: WeekendScheduleAdapter.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.definition;
+
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Adapter for marshaling {@link WeekendSchedule} to XML and vice versa. The
+ * default Saturday and Sunday schedule is marshaled as <code>null</code>, so
+ * the element is omitted; an empty element unmarshals to the default.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ * @see WeekendSchedule#format()
+ */
+@XmlTransient
+public class WeekendScheduleAdapter extends XmlAdapter<String, WeekendSchedule> {
+
+	public WeekendSchedule unmarshal(String text) throws Exception {
+		return StringUtils.isBlank(text) ? WeekendSchedule.SATURDAY_SUNDAY : WeekendSchedule.parse(text);
+	}
+
+	public String marshal(WeekendSchedule weekendSchedule) throws Exception {
+		return (null == weekendSchedule || WeekendSchedule.SATURDAY_SUNDAY.equals(weekendSchedule))
+		       ? null
+		       : weekendSchedule.format();
+	}
+
+}
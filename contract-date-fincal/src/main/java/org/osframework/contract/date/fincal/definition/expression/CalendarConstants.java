@@ -0,0 +1,71 @@
+/*
+ * File: CalendarConstants.java
+ *
+ * Copyright 2013 OSFramework Project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.definition.expression;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lookup of the public static <code>int</code> constants of
+ * <code>java.util.Calendar</code> (month names, weekday names, etc.) by name.
+ * The constants are read reflectively once, when this class is initialized.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+final class CalendarConstants {
+
+	private static final Map<String, Integer> CONSTANTS;
+
+	static {
+		final Map<String, Integer> constants = new HashMap<String, Integer>();
+		for (Field f : Calendar.class.getFields()) {
+			if (!(Modifier.isPublic(f.getModifiers()) && Modifier.isStatic(f.getModifiers())) ||
+				int.class != f.getType()) {
+				continue;
+			}
+			try {
+				constants.put(f.getName(), Integer.valueOf(f.getInt(null)));
+			} catch (IllegalAccessException iae) {
+				// Public static field; not reachable
+				continue;
+			}
+		}
+		CONSTANTS = Collections.unmodifiableMap(constants);
+	}
+
+	/**
+	 * Private constructor - prevents instantiation.
+	 */
+	private CalendarConstants() {}
+
+	/**
+	 * Get the value of the named <code>Calendar</code> constant.
+	 *
+	 * @param name name of constant, in upper case
+	 * @return value of constant, or <code>null</code> if no such constant
+	 *         exists
+	 */
+	static Integer valueOf(final String name) {
+		return CONSTANTS.get(name);
+	}
+
+}
@@ -24,20 +24,25 @@ import java.util.regex.Pattern;
 
 import javax.xml.bind.annotation.XmlTransient;
 
-import org.osframework.contract.date.fincal.definition.HolidayExpression;
+import org.osframework.contract.date.fincal.definition.PackedHolidayExpression;
 import org.osframework.contract.date.fincal.definition.algorithm.HolidayAlgorithm;
 import org.osframework.contract.date.fincal.definition.algorithm.HolidayAlgorithmLoader;
+import org.osframework.contract.date.util.DateMath;
+import org.osframework.util.DateUtil;
 
 /**
  * Produce the date of a holiday calculated via an algorithm and/or formula.
+ * Instances of this class are immutable and thread-safe.
  *
  * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
  */
 @XmlTransient
-public class HolidayExpressionCalculatedImpl implements HolidayExpression {
+public class HolidayExpressionCalculatedImpl implements PackedHolidayExpression {
 
 	public static final String REGEX_CALCULATED_EXPRESSION = "^([a-zA-Z0-9_]+)((\\+|-)(\\d+))?$";
 
+	private static final Pattern CALCULATED_EXPRESSION = Pattern.compile(REGEX_CALCULATED_EXPRESSION);
+
 	private final HolidayAlgorithm algorithm;
 	private final int daysFromCalculated;
 
@@ -52,8 +57,7 @@ public class HolidayExpressionCalculatedImpl implements HolidayExpression {
 		if (null == expression) {
 			throw new IllegalArgumentException("argument 'expression' cannot be null");
 		}
-		Pattern p = Pattern.compile(REGEX_CALCULATED_EXPRESSION);
-		Matcher m = p.matcher(expression.trim());
+		Matcher m = CALCULATED_EXPRESSION.matcher(expression.trim());
 		if (!m.matches()) {
 			throw new IllegalArgumentException("Invalid argument 'expression'");
 		}
@@ -80,4 +84,11 @@ public class HolidayExpressionCalculatedImpl implements HolidayExpression {
 		return c.getTime();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	public int evaluatePacked(int year) {
+		return DateMath.plusDays(DateUtil.formatDateToInt(algorithm.compute(year)), daysFromCalculated);
+	}
+
 }
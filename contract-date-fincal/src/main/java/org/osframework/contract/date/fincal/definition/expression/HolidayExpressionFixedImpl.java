@@ -17,23 +17,22 @@
  */
 package org.osframework.contract.date.fincal.definition.expression;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.Calendar;
 import java.util.Date;
 
 import javax.xml.bind.annotation.XmlTransient;
 
-import org.osframework.contract.date.fincal.definition.HolidayExpression;
+import org.osframework.contract.date.fincal.definition.PackedHolidayExpression;
+import org.osframework.contract.date.util.DateMath;
 
 /**
  * Produce the date of a holiday occurring on a specific date in a month every
- * year.
+ * year. Instances of this class are immutable and thread-safe.
  *
  * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
  */
 @XmlTransient
-public class HolidayExpressionFixedImpl implements HolidayExpression {
+public class HolidayExpressionFixedImpl implements PackedHolidayExpression {
 
 	private final int calendarMonthConst, dayOfMonth;
 
@@ -51,24 +50,10 @@ public class HolidayExpressionFixedImpl implements HolidayExpression {
 		if (2 != parts.length) {
 			throw new IllegalArgumentException("Invalid argument 'expression'");
 		}
-		Class<Calendar> calClass = Calendar.class;
-		Field[] calFields = calClass.getFields();
 		String monthName   = parts[0].trim().toUpperCase(),
 			   dayOfMonth  = parts[1].trim();
-		int monthConstVal   = -1;
-		for (Field f : calFields) {
-			if (!(Modifier.isPublic(f.getModifiers()) && Modifier.isStatic(f.getModifiers()))) {
-				continue;
-			}
-			if (f.getName().equals(monthName)) {
-				try {
-					monthConstVal = f.getInt(null);
-				} catch (IllegalAccessException e) {
-					throw new IllegalArgumentException("Calendar constant '" + monthName + "' not accessible", e);
-				}
-				break;
-			}
-		}
+		Integer monthConst = CalendarConstants.valueOf(monthName);
+		int monthConstVal  = (null == monthConst) ? -1 : monthConst.intValue();
 		this.calendarMonthConst = monthConstVal;
 		this.dayOfMonth = Integer.parseInt(dayOfMonth);
 	}
@@ -84,4 +69,13 @@ public class HolidayExpressionFixedImpl implements HolidayExpression {
 		return c.getTime();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	public int evaluatePacked(int year) {
+		// Month and day beyond their ranges roll over, as in evaluate()
+		final int firstOfMonth = DateMath.plusMonths(DateMath.of(year, 1, 1), calendarMonthConst - Calendar.JANUARY);
+		return DateMath.plusDays(firstOfMonth, dayOfMonth - 1);
+	}
+
 }
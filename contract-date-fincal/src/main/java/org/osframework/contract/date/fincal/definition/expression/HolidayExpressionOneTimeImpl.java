@@ -22,7 +22,8 @@ import java.util.Date;
 
 import javax.xml.bind.annotation.XmlTransient;
 
-import org.osframework.contract.date.fincal.definition.HolidayExpression;
+import org.osframework.contract.date.fincal.definition.PackedHolidayExpression;
+import org.osframework.contract.date.util.DateMath;
 import org.osframework.util.DateUtil;
 
 /**
@@ -32,9 +33,10 @@ import org.osframework.util.DateUtil;
  * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
  */
 @XmlTransient
-public class HolidayExpressionOneTimeImpl implements HolidayExpression {
+public class HolidayExpressionOneTimeImpl implements PackedHolidayExpression {
 
 	private final Date oneTimeHolidayDate;
+	private final int oneTimeHolidayPacked;
 
 	/**
 	 * Constructor - accepts expression argument of the form:
@@ -50,6 +52,7 @@ public class HolidayExpressionOneTimeImpl implements HolidayExpression {
 			throw new IllegalArgumentException("argument 'expression' must be a valid date");
 		}
 		this.oneTimeHolidayDate = DateUtil.parseDate(expression);
+		this.oneTimeHolidayPacked = DateUtil.formatDateToInt(oneTimeHolidayDate);
 	}
 
 	/**
@@ -62,4 +65,11 @@ public class HolidayExpressionOneTimeImpl implements HolidayExpression {
 		return (y == year) ? oneTimeHolidayDate : null;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	public int evaluatePacked(int year) {
+		return (DateMath.year(oneTimeHolidayPacked) == year) ? oneTimeHolidayPacked : 0;
+	}
+
 }
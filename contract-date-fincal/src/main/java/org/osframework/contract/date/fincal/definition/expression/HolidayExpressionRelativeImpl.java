@@ -17,23 +17,23 @@
  */
 package org.osframework.contract.date.fincal.definition.expression;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.Calendar;
 import java.util.Date;
 
 import javax.xml.bind.annotation.XmlTransient;
 
-import org.osframework.contract.date.fincal.definition.HolidayExpression;
+import org.osframework.contract.date.fincal.definition.PackedHolidayExpression;
+import org.osframework.contract.date.util.DateMath;
 
 /**
  * Produce the date of a holiday occurring on the <i>N</i>th named weekday in a
- * month in a given year.
+ * month in a given year. Instances of this class are immutable and
+ * thread-safe.
  *
  * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
  */
 @XmlTransient
-public class HolidayExpressionRelativeImpl implements HolidayExpression {
+public class HolidayExpressionRelativeImpl implements PackedHolidayExpression {
 
 	private static final String LAST = "L";
 
@@ -100,27 +100,28 @@ public class HolidayExpressionRelativeImpl implements HolidayExpression {
 		return c.getTime();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	public int evaluatePacked(int year) {
+		final int firstOfMonth = DateMath.plusMonths(DateMath.of(year, 1, 1), calendarMonthConst - Calendar.JANUARY);
+		if (-1 == weekdayNumInMonth) {
+			// Step back from the end of the month to the specified weekday
+			final int lastOfMonth = DateMath.endOfMonth(firstOfMonth);
+			final int back = (DateMath.dayOfWeek(lastOfMonth) - calendarWeekdayConst + 7) % 7;
+			return DateMath.plusDays(lastOfMonth, -back);
+		}
+		final int forward = (calendarWeekdayConst - DateMath.dayOfWeek(firstOfMonth) + 7) % 7;
+		return DateMath.plusDays(firstOfMonth, forward + 7 * (weekdayNumInMonth - 1));
+	}
+
 	private int nameToConst(final String parsedName) {
 		final String name = parsedName.trim().toUpperCase();
-		final Field[] calFields = Calendar.class.getFields();
-		int constVal = Integer.MIN_VALUE;
-		for (Field f : calFields) {
-			if (!(Modifier.isPublic(f.getModifiers()) && Modifier.isStatic(f.getModifiers()))) {
-				continue;
-			}
-			if (f.getName().equals(name)) {
-				try {
-					constVal = f.getInt(null);
-					break;
-				} catch (IllegalAccessException iae) {
-					throw new IllegalArgumentException("Calendar constant '" + name + "' not accessible", iae);
-				}
-			}
-		}
-		if (Integer.MIN_VALUE == constVal) {
+		final Integer constant = CalendarConstants.valueOf(name);
+		if (null == constant) {
 			throw new IllegalArgumentException("Calendar constant '" + name + "' does not exist");
 		}
-		return constVal;
+		return constant.intValue();
 	}
 
 }
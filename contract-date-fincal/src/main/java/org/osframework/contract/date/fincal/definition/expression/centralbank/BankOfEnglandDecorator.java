@@ -22,6 +22,9 @@ import java.util.Date;
 
 import org.osframework.contract.date.fincal.definition.CentralBank;
 import org.osframework.contract.date.fincal.definition.HolidayExpression;
+import org.osframework.contract.date.fincal.definition.HolidayExpressions;
+import org.osframework.contract.date.fincal.definition.PackedHolidayExpression;
+import org.osframework.contract.date.util.DateMath;
 
 /**
  * Applies date adjustments per Bank of England bank holiday guidelines -
@@ -33,7 +36,7 @@ import org.osframework.contract.date.fincal.definition.HolidayExpression;
  * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
  * @see <a href="https://www.gov.uk/bank-holidays">UK bank holidays</a>
  */
-public class BankOfEnglandDecorator extends CentralBankDecorator {
+public class BankOfEnglandDecorator extends CentralBankDecorator implements PackedHolidayExpression {
 
 	public static final String CENTRAL_BANK = "BoE";
 
@@ -70,4 +73,17 @@ public class BankOfEnglandDecorator extends CentralBankDecorator {
 		return c.getTime();
 	}
 
+	public int evaluatePacked(int year) {
+		final int raw = HolidayExpressions.evaluatePacked(decoratedExpression, year);
+		if (0 == raw) return 0;
+		switch (DateMath.dayOfWeek(raw)) {
+		case Calendar.SATURDAY:
+			return DateMath.plusDays(raw, 2);
+		case Calendar.SUNDAY:
+			return DateMath.plusDays(raw, 1);
+		default:
+			return raw;
+		}
+	}
+
 }
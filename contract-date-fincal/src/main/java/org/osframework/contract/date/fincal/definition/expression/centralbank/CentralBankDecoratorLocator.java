@@ -17,17 +17,14 @@
  */
 package org.osframework.contract.date.fincal.definition.expression.centralbank;
 
-import java.lang.reflect.Constructor;
-import java.util.Iterator;
-
 import org.osframework.contract.date.fincal.definition.CentralBank;
 import org.osframework.contract.date.fincal.definition.HolidayExpression;
-import org.osframework.util.ServiceClassLoader;
 
 /**
  * Provides dynamic, central bank-specific decoration of a
  * <code>HolidayExpression</code> object via lazy provider
- * location.
+ * location. Providers are resolved through the shared
+ * {@link CentralBankDecoratorRegistry}.
  *
  * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
  */
@@ -38,25 +35,18 @@ public final class CentralBankDecoratorLocator {
 	 */
 	private CentralBankDecoratorLocator() {}
 
+	/**
+	 * Decorate the specified expression with the provider that supports the
+	 * given central bank.
+	 *
+	 * @param targetExpr expression to be decorated
+	 * @param bank central bank whose holiday policy is to be applied
+	 * @return decorated expression, or <code>targetExpr</code> if no provider
+	 *         supports the central bank
+	 * @see CentralBankDecoratorRegistry#decorate(HolidayExpression, CentralBank)
+	 */
 	public static HolidayExpression decorate(final HolidayExpression targetExpr, CentralBank bank) {
-		HolidayExpression decoratedExpr = null;
-		ServiceClassLoader<CentralBankDecorator> scl = ServiceClassLoader.load(CentralBankDecorator.class);
-		Iterator<Class<? extends CentralBankDecorator>> it = scl.iterator();
-		while (it.hasNext()) {
-			Class<? extends CentralBankDecorator> cbdClass = it.next();
-			try {
-				Constructor<? extends CentralBankDecorator> c = cbdClass.getConstructor(HolidayExpression.class);
-				CentralBankDecorator cbd = c.newInstance(targetExpr);
-				if (cbd.supports(bank)) {
-					decoratedExpr = cbd;
-					break;
-				}
-			} catch (Exception e) {
-				// FIXME Log the exception?
-				continue;
-			}
-		}
-		return (null != decoratedExpr) ? decoratedExpr : targetExpr;
+		return CentralBankDecoratorRegistry.getInstance().decorate(targetExpr, bank);
 	}
 
 }
@@ -0,0 +1,224 @@
+/*
+ * File: CentralBankDecoratorRegistry.java
+ *
+ * Copyright 2013 OSFramework Project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.definition.expression.centralbank;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.osframework.contract.date.fincal.definition.CentralBank;
+import org.osframework.contract.date.fincal.definition.HolidayExpression;
+import org.osframework.util.ServiceClassLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registry of <code>CentralBankDecorator</code> providers. Provider classes
+ * are located once via <code>ServiceClassLoader</code>; the decorator class
+ * which supports a given <code>CentralBank</code> is resolved on first use
+ * and its constructor cached by central bank ID. Subsequent decoration
+ * requires a single map lookup and constructor invocation.
+ * <p>Decorators are assumed to select central banks by ID, as the built-in
+ * decorators do.</p>
+ * <p>Instances of this class are thread-safe. {@link #reload()} may be called
+ * concurrently with {@link #decorate(HolidayExpression, CentralBank)};
+ * in-flight decorations complete against the provider set they started with.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public final class CentralBankDecoratorRegistry {
+
+	/**
+	 * Placeholder expression used to instantiate prototype decorators, on
+	 * which <code>supports(CentralBank)</code> is queried.
+	 */
+	private static final HolidayExpression PROTOTYPE_EXPRESSION = new HolidayExpression() {
+		public Date evaluate(int year) {
+			return null;
+		}
+	};
+
+	private static final CentralBankDecoratorRegistry DEFAULT_INSTANCE = new CentralBankDecoratorRegistry();
+
+	private final Logger logger = LoggerFactory.getLogger(CentralBankDecoratorRegistry.class);
+
+	/**
+	 * Fixed provider classes, or <code>null</code> if providers are located
+	 * via the service class loader.
+	 */
+	private final List<Class<? extends CentralBankDecorator>> providerClasses;
+
+	private volatile Providers providers;
+
+	/**
+	 * Construct a registry of the <code>CentralBankDecorator</code> providers
+	 * currently visible to the service class loader.
+	 */
+	public CentralBankDecoratorRegistry() {
+		this(null);
+	}
+
+	/**
+	 * Construct a registry of the specified provider classes. Intended for
+	 * unit tests.
+	 *
+	 * @param providerClasses decorator classes to be used as providers, or
+	 *                        <code>null</code> to locate providers via the
+	 *                        service class loader
+	 */
+	CentralBankDecoratorRegistry(final List<Class<? extends CentralBankDecorator>> providerClasses) {
+		this.providerClasses = providerClasses;
+		this.providers = loadProviders();
+	}
+
+	/**
+	 * @return registry shared by all default holiday producers
+	 */
+	public static CentralBankDecoratorRegistry getInstance() {
+		return DEFAULT_INSTANCE;
+	}
+
+	/**
+	 * Decorate the specified expression with the provider that supports the
+	 * given central bank. If no provider supports the central bank, or the
+	 * central bank has no ID, the target expression is returned undecorated.
+	 *
+	 * @param targetExpr expression to be decorated
+	 * @param bank central bank whose holiday policy is to be applied
+	 * @return decorated expression, or <code>targetExpr</code>
+	 */
+	public HolidayExpression decorate(final HolidayExpression targetExpr, final CentralBank bank) {
+		if (null == bank || null == bank.getId()) {
+			return targetExpr;
+		}
+		final Constructor<? extends CentralBankDecorator> c = providers.resolve(bank);
+		if (null == c) {
+			return targetExpr;
+		}
+		try {
+			return c.newInstance(targetExpr);
+		} catch (Exception e) {
+			logger.warn("Cannot instantiate decorator " + c.getDeclaringClass().getName() +
+					    " for central bank '" + bank.getId() + "'", e);
+			return targetExpr;
+		}
+	}
+
+	/**
+	 * Determine if a decorator provider supports the given central bank.
+	 *
+	 * @param bank central bank to be checked
+	 * @return <code>true</code> if expressions would be decorated for the
+	 *         central bank, <code>false</code> otherwise
+	 */
+	public boolean supports(final CentralBank bank) {
+		return (null != bank && null != bank.getId() && null != providers.resolve(bank));
+	}
+
+	/**
+	 * Discard all resolved decorators and locate providers again. Use after
+	 * the set of <code>CentralBankDecorator</code> services on the classpath
+	 * has changed.
+	 */
+	public void reload() {
+		this.providers = loadProviders();
+		logger.debug("Reloaded central bank decorator providers");
+	}
+
+	private Providers loadProviders() {
+		final List<CentralBankDecorator> prototypes = new ArrayList<CentralBankDecorator>();
+		Iterator<Class<? extends CentralBankDecorator>> it = (null == providerClasses)
+		                                                     ? ServiceClassLoader.load(CentralBankDecorator.class).iterator()
+		                                                     : providerClasses.iterator();
+		while (it.hasNext()) {
+			Class<? extends CentralBankDecorator> cbdClass = it.next();
+			try {
+				Constructor<? extends CentralBankDecorator> c = cbdClass.getConstructor(HolidayExpression.class);
+				prototypes.add(c.newInstance(PROTOTYPE_EXPRESSION));
+			} catch (Exception e) {
+				logger.warn("Ignoring central bank decorator " + cbdClass.getName(), e);
+			}
+		}
+		return new Providers(prototypes);
+	}
+
+	/**
+	 * Immutable set of located providers plus the constructors resolved from
+	 * them so far, keyed by central bank ID.
+	 */
+	private static final class Providers {
+
+		private final List<CentralBankDecorator> prototypes;
+		private final ConcurrentMap<String, Resolution> resolved;
+
+		Providers(final List<CentralBankDecorator> prototypes) {
+			this.prototypes = Collections.unmodifiableList(prototypes);
+			this.resolved = new ConcurrentHashMap<String, Resolution>();
+		}
+
+		Constructor<? extends CentralBankDecorator> resolve(final CentralBank bank) {
+			Resolution r = resolved.get(bank.getId());
+			if (null == r) {
+				r = Resolution.NONE;
+				for (CentralBankDecorator prototype : prototypes) {
+					if (prototype.supports(bank)) {
+						r = new Resolution(constructorOf(prototype));
+						break;
+					}
+				}
+				Resolution existing = resolved.putIfAbsent(bank.getId(), r);
+				if (null != existing) {
+					r = existing;
+				}
+			}
+			return r.constructor;
+		}
+
+		@SuppressWarnings("unchecked")
+		private static Constructor<? extends CentralBankDecorator> constructorOf(final CentralBankDecorator prototype) {
+			try {
+				return (Constructor<? extends CentralBankDecorator>)prototype.getClass().getConstructor(HolidayExpression.class);
+			} catch (NoSuchMethodException nsme) {
+				// Prototype was created via this constructor
+				throw new IllegalStateException(nsme);
+			}
+		}
+
+	}
+
+	/**
+	 * Cached outcome of decorator resolution for one central bank ID.
+	 */
+	private static final class Resolution {
+
+		static final Resolution NONE = new Resolution(null);
+
+		final Constructor<? extends CentralBankDecorator> constructor;
+
+		Resolution(final Constructor<? extends CentralBankDecorator> constructor) {
+			this.constructor = constructor;
+		}
+
+	}
+
+}
@@ -22,6 +22,9 @@ import java.util.Date;
 
 import org.osframework.contract.date.fincal.definition.CentralBank;
 import org.osframework.contract.date.fincal.definition.HolidayExpression;
+import org.osframework.contract.date.fincal.definition.HolidayExpressions;
+import org.osframework.contract.date.fincal.definition.PackedHolidayExpression;
+import org.osframework.contract.date.util.DateMath;
 
 /**
  * Applies date adjustments per US Federal Reserve bank holiday guidelines -
@@ -35,7 +38,7 @@ import org.osframework.contract.date.fincal.definition.HolidayExpression;
  * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
  * @see <a href="http://www.federalreserve.gov/aboutthefed/k8.htm">K.8 - Holidays Observed by the Federal Reserve Board</a>
  */
-public class USFederalReserveDecorator extends CentralBankDecorator {
+public class USFederalReserveDecorator extends CentralBankDecorator implements PackedHolidayExpression {
 
 	public static final String CENTRAL_BANK = "USFR";
 
@@ -69,4 +72,15 @@ public class USFederalReserveDecorator extends CentralBankDecorator {
 		return c.getTime();
 	}
 
+	public int evaluatePacked(int year) {
+		final int raw = HolidayExpressions.evaluatePacked(decoratedExpression, year);
+		if (0 == raw) return 0;
+		switch (DateMath.dayOfWeek(raw)) {
+		case Calendar.SUNDAY:
+			return DateMath.plusDays(raw, 1);
+		default:
+			return raw;
+		}
+	}
+
 }
@@ -0,0 +1,178 @@
+/*
+ * File: HolidayBlock.java
+ * 
+ * Copyright 2012 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.holiday;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.definition.HolidayDefinition;
+
+/**
+ * Columnar representation of a sequence of holidays. Holiday <i>i</i> is
+ * described by three parallel <code>int</code> arrays: its date in
+ * <code>yyyymmdd</code> format, and the ordinals of its financial calendar
+ * and holiday definition in lookup tables shared by all holidays of the
+ * block. Holding millions of holidays thus costs three <code>int</code>s
+ * each, rather than one <code>Holiday</code> object each.
+ * <p>For callers which require <code>Holiday</code> objects,
+ * {@link #getHoliday(int)} and {@link #asList()} create them on demand;
+ * nothing is cached.</p>
+ * <p>Instances are created via {@link HolidayBlockBuilder}, and are
+ * immutable and thread-safe.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public final class HolidayBlock {
+
+	private final FinancialCalendar[] calendars;
+	private final HolidayDefinition[] definitions;
+	private final int[] dates;
+	private final int[] calendarOrdinals;
+	private final int[] definitionOrdinals;
+
+	/**
+	 * Constructor. The arrays are owned by the new instance and must not be
+	 * modified by the caller afterwards.
+	 */
+	HolidayBlock(final FinancialCalendar[] calendars, final HolidayDefinition[] definitions,
+	             final int[] dates, final int[] calendarOrdinals, final int[] definitionOrdinals) {
+		this.calendars = calendars;
+		this.definitions = definitions;
+		this.dates = dates;
+		this.calendarOrdinals = calendarOrdinals;
+		this.definitionOrdinals = definitionOrdinals;
+	}
+
+	/**
+	 * @return number of holidays in this block
+	 */
+	public int size() {
+		return dates.length;
+	}
+
+	/**
+	 * @param i index of holiday in this block
+	 * @return date of holiday in <code>yyyymmdd</code> format
+	 * @throws ArrayIndexOutOfBoundsException if index is out of range
+	 */
+	public int getDate(final int i) {
+		return dates[i];
+	}
+
+	/**
+	 * @param i index of holiday in this block
+	 * @return ordinal of holiday's financial calendar in the calendar
+	 *         lookup table
+	 * @throws ArrayIndexOutOfBoundsException if index is out of range
+	 */
+	public int getCalendarOrdinal(final int i) {
+		return calendarOrdinals[i];
+	}
+
+	/**
+	 * @param i index of holiday in this block
+	 * @return ordinal of holiday's definition in the definition lookup table
+	 * @throws ArrayIndexOutOfBoundsException if index is out of range
+	 */
+	public int getDefinitionOrdinal(final int i) {
+		return definitionOrdinals[i];
+	}
+
+	/**
+	 * @return number of entries in the calendar lookup table
+	 */
+	public int getCalendarCount() {
+		return calendars.length;
+	}
+
+	/**
+	 * @param ordinal calendar ordinal
+	 * @return financial calendar with the specified ordinal
+	 * @throws ArrayIndexOutOfBoundsException if ordinal is out of range
+	 */
+	public FinancialCalendar getCalendar(final int ordinal) {
+		return calendars[ordinal];
+	}
+
+	/**
+	 * @return number of entries in the definition lookup table
+	 */
+	public int getDefinitionCount() {
+		return definitions.length;
+	}
+
+	/**
+	 * @param ordinal definition ordinal
+	 * @return holiday definition with the specified ordinal
+	 * @throws ArrayIndexOutOfBoundsException if ordinal is out of range
+	 */
+	public HolidayDefinition getDefinition(final int ordinal) {
+		return definitions[ordinal];
+	}
+
+	/**
+	 * Create a <code>Holiday</code> object for the holiday at the specified
+	 * index.
+	 *
+	 * @param i index of holiday in this block
+	 * @return new holiday object
+	 * @throws ArrayIndexOutOfBoundsException if index is out of range
+	 */
+	public Holiday getHoliday(final int i) {
+		return new Holiday(calendars[calendarOrdinals[i]], dates[i], definitions[definitionOrdinals[i]]);
+	}
+
+	/**
+	 * Get an unmodifiable list view of this block, whose elements are
+	 * created on each access.
+	 *
+	 * @return list of holidays in this block
+	 */
+	public List<Holiday> asList() {
+		return new HolidayList();
+	}
+
+	@Override
+	public String toString() {
+		return "HolidayBlock[" + dates.length + " holidays, " + calendars.length + " calendars, " +
+		       definitions.length + " definitions]";
+	}
+
+	/**
+	 * Lazy list view of the enclosing block.
+	 */
+	private final class HolidayList extends AbstractList<Holiday> implements RandomAccess {
+
+		@Override
+		public Holiday get(int index) {
+			if (index < 0 || index >= dates.length) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + dates.length);
+			}
+			return getHoliday(index);
+		}
+
+		@Override
+		public int size() {
+			return dates.length;
+		}
+
+	}
+
+}
@@ -0,0 +1,270 @@
+/*
+ * File: HolidayBlockBuilder.java
+ * 
+ * Copyright 2012 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.holiday;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.commons.lang.Validate;
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.definition.HolidayDefinition;
+
+/**
+ * Builder of immutable <code>HolidayBlock</code> objects. Holidays are
+ * appended in order, either as <code>Holiday</code> objects or as their
+ * components, the latter creating no object per holiday. Financial
+ * calendars and holiday definitions are assigned ordinals in order of
+ * first appearance, by identity.
+ * <p>Instances of this class are <em>not</em> thread-safe.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class HolidayBlockBuilder {
+
+	private static final int DEFAULT_CAPACITY = 64;
+
+	private final Map<FinancialCalendar, Integer> calendarOrdinals;
+	private final Map<HolidayDefinition, Integer> definitionOrdinals;
+	private FinancialCalendar[] calendars;
+	private HolidayDefinition[] definitions;
+	private int[] dates;
+	private int[] calendarColumn;
+	private int[] definitionColumn;
+	private int size;
+
+	// Most recently added calendar and its ordinal; holidays typically
+	// arrive in runs of the same calendar
+	private FinancialCalendar lastCalendar;
+	private int lastCalendarOrdinal;
+
+	/**
+	 * Construct a builder with default initial capacity.
+	 */
+	public HolidayBlockBuilder() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Construct a builder with the specified initial capacity.
+	 *
+	 * @param capacity expected number of holidays
+	 * @throws IllegalArgumentException if capacity is negative
+	 */
+	public HolidayBlockBuilder(final int capacity) {
+		Validate.isTrue(capacity >= 0, "Capacity cannot be negative");
+		this.calendarOrdinals = new IdentityHashMap<FinancialCalendar, Integer>();
+		this.definitionOrdinals = new IdentityHashMap<HolidayDefinition, Integer>();
+		this.calendars = new FinancialCalendar[4];
+		this.definitions = new HolidayDefinition[16];
+		this.dates = new int[capacity];
+		this.calendarColumn = new int[capacity];
+		this.definitionColumn = new int[capacity];
+		this.size = 0;
+	}
+
+	/**
+	 * Append the specified holidays.
+	 *
+	 * @param holidays holidays to be appended
+	 * @return this builder
+	 * @throws IllegalArgumentException if holidays is <code>null</code>
+	 */
+	public HolidayBlockBuilder add(final Holiday... holidays) {
+		Validate.notNull(holidays, "Holiday array argument cannot be null");
+		for (Holiday h : holidays) {
+			add(h.getFinancialCalendar(), h.getDate(), h.getHolidayDefinition());
+		}
+		return this;
+	}
+
+	/**
+	 * Append all holidays of the specified block.
+	 *
+	 * @param block holidays to be appended
+	 * @return this builder
+	 * @throws IllegalArgumentException if block is <code>null</code>
+	 */
+	public HolidayBlockBuilder add(final HolidayBlock block) {
+		Validate.notNull(block, "HolidayBlock argument cannot be null");
+		for (int i = 0; i < block.size(); i++) {
+			add(block.getCalendar(block.getCalendarOrdinal(i)), block.getDate(i),
+			    block.getDefinition(block.getDefinitionOrdinal(i)));
+		}
+		return this;
+	}
+
+	/**
+	 * Append one holiday, given by its components.
+	 *
+	 * @param calendar financial calendar of holiday
+	 * @param date date of holiday in <code>yyyymmdd</code> format
+	 * @param definition definition of holiday
+	 * @return this builder
+	 * @throws IllegalArgumentException if calendar is <code>null</code>
+	 */
+	public HolidayBlockBuilder add(final FinancialCalendar calendar, final int date, final HolidayDefinition definition) {
+		if (null == calendar) {
+			throw new IllegalArgumentException("FinancialCalendar argument cannot be null");
+		}
+		if (size == dates.length) {
+			final int capacity = Math.max(DEFAULT_CAPACITY, size + (size >> 1));
+			dates = Arrays.copyOf(dates, capacity);
+			calendarColumn = Arrays.copyOf(calendarColumn, capacity);
+			definitionColumn = Arrays.copyOf(definitionColumn, capacity);
+		}
+		dates[size] = date;
+		calendarColumn[size] = calendarOrdinal(calendar);
+		definitionColumn[size] = definitionOrdinal(definition);
+		size++;
+		return this;
+	}
+
+	/**
+	 * @return number of holidays appended so far
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Sort the holidays appended so far into ascending
+	 * <code>HolidayId</code> order: by date, then by calendar ID. The sort
+	 * is stable, so holidays which compare equal keep their order of
+	 * addition.
+	 *
+	 * @return this builder
+	 */
+	public HolidayBlockBuilder sort() {
+		// Rank calendar ordinals by calendar ID; equal IDs share a rank
+		final Integer[] byId = new Integer[calendarOrdinals.size()];
+		for (int c = 0; c < byId.length; c++) {
+			byId[c] = Integer.valueOf(c);
+		}
+		Arrays.sort(byId, new Comparator<Integer>() {
+			public int compare(Integer c1, Integer c2) {
+				return calendars[c1.intValue()].getId().compareTo(calendars[c2.intValue()].getId());
+			}
+		});
+		final int[] rank = new int[byId.length];
+		for (int r = 0, i = 0; i < byId.length; i++) {
+			if (0 < i && !calendars[byId[i].intValue()].getId().equals(calendars[byId[i - 1].intValue()].getId())) {
+				r++;
+			}
+			rank[byId[i].intValue()] = r;
+		}
+		// Stable sort of row indices, then permute each column
+		int[] order = new int[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		order = mergeSort(order, new int[size], rank);
+		final int[] d = new int[size], c = new int[size], h = new int[size];
+		for (int i = 0; i < size; i++) {
+			d[i] = dates[order[i]];
+			c[i] = calendarColumn[order[i]];
+			h[i] = definitionColumn[order[i]];
+		}
+		dates = d;
+		calendarColumn = c;
+		definitionColumn = h;
+		return this;
+	}
+
+	/**
+	 * Build a block of all holidays appended so far. The builder may
+	 * continue to be used afterwards without affecting the returned block.
+	 *
+	 * @return new holiday block
+	 */
+	public HolidayBlock build() {
+		return new HolidayBlock(Arrays.copyOf(calendars, calendarOrdinals.size()),
+		                        Arrays.copyOf(definitions, definitionOrdinals.size()),
+		                        Arrays.copyOf(dates, size),
+		                        Arrays.copyOf(calendarColumn, size),
+		                        Arrays.copyOf(definitionColumn, size));
+	}
+
+	private int calendarOrdinal(final FinancialCalendar calendar) {
+		if (calendar == lastCalendar) {
+			return lastCalendarOrdinal;
+		}
+		Integer ordinal = calendarOrdinals.get(calendar);
+		if (null == ordinal) {
+			ordinal = Integer.valueOf(calendarOrdinals.size());
+			if (calendars.length == ordinal.intValue()) {
+				calendars = Arrays.copyOf(calendars, 2 * calendars.length);
+			}
+			calendars[ordinal.intValue()] = calendar;
+			calendarOrdinals.put(calendar, ordinal);
+		}
+		lastCalendar = calendar;
+		lastCalendarOrdinal = ordinal.intValue();
+		return lastCalendarOrdinal;
+	}
+
+	private int definitionOrdinal(final HolidayDefinition definition) {
+		Integer ordinal = definitionOrdinals.get(definition);
+		if (null == ordinal) {
+			ordinal = Integer.valueOf(definitionOrdinals.size());
+			if (definitions.length == ordinal.intValue()) {
+				definitions = Arrays.copyOf(definitions, 2 * definitions.length);
+			}
+			definitions[ordinal.intValue()] = definition;
+			definitionOrdinals.put(definition, ordinal);
+		}
+		return ordinal.intValue();
+	}
+
+	/**
+	 * Bottom-up stable merge sort of row indices by date, then calendar
+	 * rank, alternating between two buffers. Returns whichever of
+	 * <code>a</code> and <code>tmp</code> holds the sorted indices.
+	 */
+	private int[] mergeSort(final int[] a, final int[] tmp, final int[] rank) {
+		int[] src = a, dst = tmp;
+		for (int width = 1; width < size; width <<= 1) {
+			for (int lo = 0; lo < size; lo += 2 * width) {
+				final int mid = Math.min(lo + width, size), hi = Math.min(lo + 2 * width, size);
+				int i = lo, j = mid, k = lo;
+				while (i < mid && j < hi) {
+					dst[k++] = (compareRows(src[j], src[i], rank) < 0) ? src[j++] : src[i++];
+				}
+				while (i < mid) {
+					dst[k++] = src[i++];
+				}
+				while (j < hi) {
+					dst[k++] = src[j++];
+				}
+			}
+			final int[] swap = src;
+			src = dst;
+			dst = swap;
+		}
+		return src;
+	}
+
+	private int compareRows(final int r1, final int r2, final int[] rank) {
+		if (dates[r1] != dates[r2]) {
+			return (dates[r1] < dates[r2]) ? -1 : 1;
+		}
+		return rank[calendarColumn[r1]] - rank[calendarColumn[r2]];
+	}
+
+}
@@ -17,19 +17,30 @@
  */
 package org.osframework.contract.date.fincal.holiday;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Date;
 
 import org.apache.commons.lang.Validate;
-import org.apache.commons.lang.builder.EqualsBuilder;
-import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.osframework.contract.date.fincal.definition.FinancialCalendar;
 import org.osframework.util.DateUtil;
 
 
 /**
  * Unique composite identifier for a particular observed
- * <code>Holiday</code> on a financial calendar.
+ * <code>Holiday</code> on a financial calendar: its date and the ID of its
+ * calendar, captured at construction. Equality and hashing use only these
+ * two values, never the calendar's holiday definitions.
+ * <p>Identifiers order by date, then by calendar ID. Both are packed into a
+ * <code>long</code> sort key at construction: the date in the high bits and
+ * the first four characters of the calendar ID, one byte each, in the low
+ * bits. Comparison is then a single <code>long</code> comparison; calendar
+ * IDs are compared as strings only when keys are equal, which for the
+ * three-character codes of financialcalendar.com means equal IDs.</p>
+ * <p>The calendar ID and sort key are derived state: they are not
+ * serialized, and are recomputed when an identifier is deserialized.</p>
  * <p>Instances of this class are immutable and thread-safe.</p>
  *
  * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
@@ -40,11 +51,8 @@ public class HolidayId implements Comparable<HolidayId>, Serializable {
 
 	private final FinancialCalendar financialCalendar;
 	private final int date;
-
-	/**
-	 * Cached hash value for this instance.
-	 */
-	private volatile transient int hashCode;
+	private transient String calendarId;
+	private transient long sortKey;
 
 	public HolidayId(final FinancialCalendar financialCalendar, final int date) {
 		if (null == financialCalendar) {
@@ -52,6 +60,52 @@ public class HolidayId implements Comparable<HolidayId>, Serializable {
 		}
 		this.financialCalendar = financialCalendar;
 		this.date = date;
+		this.calendarId = financialCalendar.getId();
+		this.sortKey = sortKey(date, calendarId);
+	}
+
+	/**
+	 * Recompute derived state from the calendar and date read from the
+	 * stream.
+	 */
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if (null == financialCalendar) {
+			throw new InvalidObjectException("FinancialCalendar cannot be null");
+		}
+		this.calendarId = financialCalendar.getId();
+		this.sortKey = sortKey(date, calendarId);
+	}
+
+	/**
+	 * Pack a date and calendar ID into a key whose order is consistent with
+	 * ordering by date, then calendar ID: if the keys of two identifiers
+	 * differ, they order as their keys do. Each of the first four
+	 * characters of the ID takes one byte; from the first character beyond
+	 * <code>0xFF</code> onward, remaining bytes are saturated, so that such
+	 * IDs tie rather than misorder.
+	 *
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @param calendarId financial calendar ID; may be <code>null</code>
+	 * @return sort key
+	 */
+	static long sortKey(final int date, final String calendarId) {
+		long prefix = 0L;
+		boolean saturated = false;
+		for (int i = 0; i < 4; i++) {
+			int b = 0;
+			if (saturated) {
+				b = 0xFF;
+			} else if (null != calendarId && i < calendarId.length()) {
+				b = calendarId.charAt(i);
+				if (b >= 0xFF) {
+					b = 0xFF;
+					saturated = true;
+				}
+			}
+			prefix = (prefix << 8) | b;
+		}
+		return ((long)date << 32) | prefix;
 	}
 
 	/**
@@ -81,11 +135,16 @@ public class HolidayId implements Comparable<HolidayId>, Serializable {
 
 	public int compareTo(HolidayId o) {
 		Validate.notNull(o, "HolidayId to be compared cannot be null");
-		int result = date - o.date;
-		if (0 == result) {
-			result = financialCalendar.getId().compareTo(o.financialCalendar.getId());
+		if (sortKey != o.sortKey) {
+			return (sortKey < o.sortKey) ? -1 : 1;
 		}
-		return result;
+		if (calendarId == o.calendarId) {
+			return 0;
+		}
+		if (null == calendarId || null == o.calendarId) {
+			return (null == calendarId) ? -1 : 1;
+		}
+		return calendarId.compareTo(o.calendarId);
 	}
 
 	@Override
@@ -95,13 +154,7 @@ public class HolidayId implements Comparable<HolidayId>, Serializable {
 
 	@Override
 	public int hashCode() {
-		if (0 == hashCode) {
-			hashCode = new HashCodeBuilder()
-			               .append(date)
-			               .append(financialCalendar)
-			               .toHashCode();
-		}
-		return hashCode;
+		return 31 * date + ((null == calendarId) ? 0 : calendarId.hashCode());
 	}
 
 	@Override
@@ -111,10 +164,9 @@ public class HolidayId implements Comparable<HolidayId>, Serializable {
 			result = true;
 		} else if (obj instanceof HolidayId) {
 			final HolidayId other = (HolidayId)obj;
-			result = new EqualsBuilder()
-			             .append(date, other.date)
-			             .append(financialCalendar, other.financialCalendar)
-			             .isEquals();
+			result = (sortKey == other.sortKey) &&
+			         ((calendarId == other.calendarId) ||
+			          (null != calendarId && calendarId.equals(other.calendarId)));
 		} else {
 			result = false;
 		}
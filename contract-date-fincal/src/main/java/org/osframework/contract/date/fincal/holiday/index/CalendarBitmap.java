@@ -0,0 +1,356 @@
+/*
+ * File: CalendarBitmap.java
+ *
+ * Copyright 2013 OSFramework Project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.holiday.index;
+
+import org.osframework.contract.date.fincal.definition.WeekendSchedule;
+import org.osframework.contract.date.util.DateMath;
+
+/**
+ * Holidays of a financial calendar, or of a joint calendar combining several
+ * (see {@link JointCalendarRule}), over a contiguous range of years, stored
+ * as a bitset with one bit per day. A second bitset marks all non-business
+ * days (holidays plus the weekend days of the calendar's
+ * {@link WeekendSchedule}), so that every query is answered with bit
+ * operations on a <code>long[]</code> and no object allocation.
+ * <p>Per-word prefix counts of holidays and business days are precomputed.
+ * Counting queries are then a rank: one prefix lookup plus one masked
+ * popcount. Business day addition is a rank followed by a select: a binary
+ * search over the prefix counts and a scan of at most one word. Both run in
+ * near-constant time regardless of the span of dates involved.</p>
+ * <p>Instances of this class are immutable and thread-safe.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public final class CalendarBitmap {
+
+	private final String id;
+	private final int firstYear;
+	private final int lastYear;
+	private final int firstDay;
+	private final int lastDay;
+	private final long[] holidays;
+	private final long[] closed;
+
+	/**
+	 * Number of holidays in words <code>[0, w)</code>.
+	 */
+	private final int[] holidayPrefix;
+
+	/**
+	 * Number of business days in words <code>[0, w)</code>. Padding bits past
+	 * the last covered day are counted, and must be excluded by callers.
+	 */
+	private final int[] businessPrefix;
+
+	/**
+	 * Construct a bitmap from holiday words. The array is owned by the new
+	 * instance and must not be modified by the caller afterwards.
+	 *
+	 * @param id financial calendar ID
+	 * @param firstYear first year covered
+	 * @param lastYear last year covered
+	 * @param holidays holiday bits, indexed by days since January 1 of
+	 *                 <code>firstYear</code>
+	 * @param weekends weekend days of the calendar
+	 */
+	CalendarBitmap(final String id, final int firstYear, final int lastYear, final long[] holidays,
+	               final WeekendSchedule weekends) {
+		this(id, firstYear, lastYear, holidays, closedWords(firstYear, lastYear, holidays, weekends));
+	}
+
+	/**
+	 * Construct a bitmap from holiday and non-business day words. The arrays
+	 * are owned by the new instance and must not be modified by the caller
+	 * afterwards.
+	 */
+	CalendarBitmap(final String id, final int firstYear, final int lastYear,
+	               final long[] holidays, final long[] closed) {
+		this.id = id;
+		this.firstYear = firstYear;
+		this.lastYear = lastYear;
+		this.firstDay = DateMath.toEpochDay(DateMath.of(firstYear, 1, 1));
+		this.lastDay = DateMath.toEpochDay(DateMath.of(lastYear, 12, 31));
+		this.holidays = holidays;
+		this.closed = closed;
+		this.holidayPrefix = new int[holidays.length + 1];
+		this.businessPrefix = new int[closed.length + 1];
+		for (int w = 0; w < holidays.length; w++) {
+			holidayPrefix[w + 1] = holidayPrefix[w] + Long.bitCount(holidays[w]);
+			businessPrefix[w + 1] = businessPrefix[w] + Long.bitCount(~closed[w]);
+		}
+	}
+
+	/**
+	 * Combine the bitmaps of several calendars, covering identical years,
+	 * word by word.
+	 *
+	 * @param id ID of joint calendar
+	 * @param rule rule by which bits are combined
+	 * @param members bitmaps to be combined; at least one
+	 * @return joint calendar bitmap
+	 */
+	static CalendarBitmap combine(final String id, final JointCalendarRule rule, final CalendarBitmap... members) {
+		final CalendarBitmap first = members[0];
+		final long[] holidays = first.holidays.clone();
+		final long[] closed = first.closed.clone();
+		for (int m = 1; m < members.length; m++) {
+			final long[] h = members[m].holidays, c = members[m].closed;
+			for (int w = 0; w < holidays.length; w++) {
+				holidays[w] = rule.combine(holidays[w], h[w]);
+				closed[w] = rule.combine(closed[w], c[w]);
+			}
+		}
+		return new CalendarBitmap(id, first.firstYear, first.lastYear, holidays, closed);
+	}
+
+	private static long[] closedWords(final int firstYear, final int lastYear, final long[] holidays,
+	                                  final WeekendSchedule weekends) {
+		final long[] words = holidays.clone();
+		final int firstDay = DateMath.toEpochDay(DateMath.of(firstYear, 1, 1));
+		for (int year = firstYear; year <= lastYear; year++) {
+			final int yearOffset = DateMath.toEpochDay(DateMath.of(year, 1, 1)) - firstDay;
+			for (int date : weekends.getWeekendDates(year)) {
+				final int i = yearOffset + dayOfYear(date);
+				words[i >>> 6] |= (1L << i);
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * Get the zero-based day of year of a date.
+	 */
+	private static int dayOfYear(final int date) {
+		final int year = date / 10000;
+		return DateMath.daysBetween(DateMath.of(year, 1, 1), date);
+	}
+
+	/**
+	 * Allocate an empty word array large enough for the specified years.
+	 */
+	static long[] newWords(final int firstYear, final int lastYear) {
+		final int days = DateMath.daysBetween(DateMath.of(firstYear, 1, 1), DateMath.of(lastYear, 12, 31)) + 1;
+		return new long[(days + 63) >>> 6];
+	}
+
+	/**
+	 * @return holiday words of this bitmap, not to be modified
+	 */
+	long[] holidayWords() {
+		return holidays;
+	}
+
+	/**
+	 * @return non-business day words of this bitmap, not to be modified
+	 */
+	long[] closedWords() {
+		return closed;
+	}
+
+	/**
+	 * @return financial calendar ID, or joint calendar ID
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * @return first year covered by this bitmap
+	 */
+	public int getFirstYear() {
+		return firstYear;
+	}
+
+	/**
+	 * @return last year covered by this bitmap
+	 */
+	public int getLastYear() {
+		return lastYear;
+	}
+
+	/**
+	 * Determine if the specified date lies within the years covered by this
+	 * bitmap.
+	 *
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return <code>true</code> if date is covered, <code>false</code>
+	 *         otherwise
+	 */
+	public boolean covers(final int date) {
+		final int year = date / 10000;
+		return (year >= firstYear && year <= lastYear);
+	}
+
+	/**
+	 * Determine if the specified date is an observed holiday.
+	 *
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return <code>true</code> if date is a holiday, <code>false</code>
+	 *         otherwise
+	 * @throws IllegalArgumentException if date is invalid or not covered
+	 */
+	public boolean isHoliday(final int date) {
+		return isSet(holidays, indexOf(date));
+	}
+
+	/**
+	 * Determine if the specified date is a business day: neither a holiday
+	 * nor a weekend day.
+	 *
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return <code>true</code> if date is a business day,
+	 *         <code>false</code> otherwise
+	 * @throws IllegalArgumentException if date is invalid or not covered
+	 */
+	public boolean isBusinessDay(final int date) {
+		return !isSet(closed, indexOf(date));
+	}
+
+	/**
+	 * Count the observed holidays between two dates, inclusive.
+	 *
+	 * @param from first date in <code>yyyymmdd</code> format
+	 * @param to last date in <code>yyyymmdd</code> format
+	 * @return number of holidays from <code>from</code> through
+	 *         <code>to</code>
+	 * @throws IllegalArgumentException if either date is invalid or not
+	 *         covered, or if <code>from</code> is after <code>to</code>
+	 */
+	public int holidaysBetween(final int from, final int to) {
+		final int a = indexOf(from), b = indexOf(to);
+		if (a > b) {
+			throw new IllegalArgumentException("From date " + from + " is after to date " + to);
+		}
+		return holidayRank(b + 1) - holidayRank(a);
+	}
+
+	/**
+	 * Count the business days after one date, up to and including another.
+	 * If <code>to</code> precedes <code>from</code> the result is the negated
+	 * count of business days after <code>to</code> up to and including
+	 * <code>from</code>. Consequently, for business days <code>from</code> and
+	 * <code>to</code>:
+	 * <pre>
+	 * addBusinessDays(from, businessDaysBetween(from, to)) == to
+	 * </pre>
+	 *
+	 * @param from start date in <code>yyyymmdd</code> format
+	 * @param to end date in <code>yyyymmdd</code> format
+	 * @return signed number of business days in <code>(from, to]</code>
+	 * @throws IllegalArgumentException if either date is invalid or not
+	 *         covered
+	 */
+	public int businessDaysBetween(final int from, final int to) {
+		final int a = indexOf(from), b = indexOf(to);
+		return businessRank(b + 1) - businessRank(a + 1);
+	}
+
+	/**
+	 * Advance a date by a number of business days. A positive count yields
+	 * the <i>n</i>th business day after the date, a negative count the
+	 * <i>n</i>th business day before it. A count of zero returns the date
+	 * unchanged, whether or not it is a business day.
+	 *
+	 * @param date start date in <code>yyyymmdd</code> format
+	 * @param n number of business days to add; may be negative
+	 * @return resulting business day in <code>yyyymmdd</code> format
+	 * @throws IllegalArgumentException if date is invalid or not covered, or
+	 *         if the result lies outside the covered years
+	 */
+	public int addBusinessDays(final int date, final int n) {
+		final int i = indexOf(date);
+		if (0 == n) {
+			return date;
+		}
+		final long k = (n > 0) ? (long)businessRank(i + 1) + n - 1 : (long)businessRank(i) + n;
+		if (k < 0L || k >= businessRank(lastDay - firstDay + 1)) {
+			throw new IllegalArgumentException("Adding " + n + " business days to " + date +
+			                                   " leaves indexed years " + firstYear + "-" + lastYear);
+		}
+		return DateMath.fromEpochDay(firstDay + businessSelect((int)k));
+	}
+
+	/**
+	 * Convert a date to its bit index in this bitmap.
+	 *
+	 * @throws IllegalArgumentException if date is invalid or not covered
+	 */
+	int indexOf(final int date) {
+		final int day = DateMath.toEpochDay(date);
+		if (day < firstDay || day > lastDay) {
+			throw new IllegalArgumentException("Date " + date + " is outside indexed years " +
+			                                   firstYear + "-" + lastYear);
+		}
+		return day - firstDay;
+	}
+
+	static boolean isSet(final long[] words, final int i) {
+		return (0L != (words[i >>> 6] & (1L << i)));
+	}
+
+	/**
+	 * Count holidays at indices <code>[0, i)</code>.
+	 */
+	private int holidayRank(final int i) {
+		final int w = i >>> 6;
+		int rank = holidayPrefix[w];
+		if (0 != (i & 63)) {
+			rank += Long.bitCount(holidays[w] & ((1L << i) - 1L));
+		}
+		return rank;
+	}
+
+	/**
+	 * Count business days at indices <code>[0, i)</code>.
+	 */
+	private int businessRank(final int i) {
+		final int w = i >>> 6;
+		int rank = businessPrefix[w];
+		if (0 != (i & 63)) {
+			rank += Long.bitCount(~closed[w] & ((1L << i) - 1L));
+		}
+		return rank;
+	}
+
+	/**
+	 * Find the index of the <code>k</code>th business day, counting from
+	 * zero. The caller must ensure that such a business day exists.
+	 */
+	private int businessSelect(final int k) {
+		int lo = 0, hi = closed.length - 1;
+		while (lo < hi) {
+			final int mid = (lo + hi + 1) >>> 1;
+			if (businessPrefix[mid] <= k) {
+				lo = mid;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		long word = ~closed[lo];
+		for (int j = k - businessPrefix[lo]; j > 0; j--) {
+			word &= (word - 1L);
+		}
+		return (lo << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	@Override
+	public String toString() {
+		return id + "[" + firstYear + "-" + lastYear + "]";
+	}
+
+}
@@ -0,0 +1,234 @@
+/*
+ * File: HolidayIndex.java
+ *
+ * Copyright 2013 OSFramework Project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.holiday.index;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.Validate;
+
+/**
+ * Index of holidays for one or more financial calendars over a common range
+ * of years. Each calendar is held as a {@link CalendarBitmap}; holiday and
+ * business day checks are constant-time bit tests, while counting and
+ * business day arithmetic use precomputed rank/select prefix counts. Instances are created via
+ * {@link HolidayIndexBuilder}.
+ * <p>Joint calendars, combining several indexed calendars, are built on
+ * first request with word-level OR/AND and cached for the lifetime of the
+ * index.</p>
+ * <p>Instances of this class are immutable and thread-safe.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public final class HolidayIndex {
+
+	private final int firstYear;
+	private final int lastYear;
+	private final Map<String, CalendarBitmap> calendars;
+	private final ConcurrentMap<String, CalendarBitmap> jointCalendars;
+
+	HolidayIndex(final int firstYear, final int lastYear, final Map<String, CalendarBitmap> calendars) {
+		this.firstYear = firstYear;
+		this.lastYear = lastYear;
+		this.calendars = Collections.unmodifiableMap(new HashMap<String, CalendarBitmap>(calendars));
+		this.jointCalendars = new ConcurrentHashMap<String, CalendarBitmap>();
+	}
+
+	/**
+	 * @return first year covered by this index
+	 */
+	public int getFirstYear() {
+		return firstYear;
+	}
+
+	/**
+	 * @return last year covered by this index
+	 */
+	public int getLastYear() {
+		return lastYear;
+	}
+
+	/**
+	 * @return unmodifiable set of IDs of financial calendars in this index
+	 */
+	public Set<String> getCalendarIds() {
+		return calendars.keySet();
+	}
+
+	/**
+	 * Determine if this index contains the specified financial calendar.
+	 *
+	 * @param calendarId financial calendar ID
+	 * @return <code>true</code> if calendar is indexed, <code>false</code>
+	 *         otherwise
+	 */
+	public boolean contains(final String calendarId) {
+		return calendars.containsKey(calendarId);
+	}
+
+	/**
+	 * Get the bitmap of the specified financial calendar.
+	 *
+	 * @param calendarId financial calendar ID
+	 * @return calendar bitmap
+	 * @throws IllegalArgumentException if calendar is not indexed
+	 */
+	public CalendarBitmap getCalendar(final String calendarId) {
+		final CalendarBitmap bitmap = calendars.get(calendarId);
+		if (null == bitmap) {
+			throw new IllegalArgumentException("Financial calendar '" + calendarId + "' is not indexed");
+		}
+		return bitmap;
+	}
+
+	/**
+	 * Get the joint calendar which combines the specified financial calendars
+	 * according to the given rule. The joint calendar answers the same
+	 * queries as a single calendar; its ID has the form
+	 * <code>RULE(id1,id2,...)</code> with member IDs sorted. Order and
+	 * duplication of member IDs are not significant, and a single distinct
+	 * member yields that member's own bitmap.
+	 * <p>Joint calendars are cached by rule and member set. Callers on a hot
+	 * path should retain the returned bitmap, since computing the cache key
+	 * allocates.</p>
+	 *
+	 * @param rule rule by which calendars are combined
+	 * @param calendarIds IDs of member financial calendars
+	 * @return joint calendar bitmap
+	 * @throws IllegalArgumentException if rule is <code>null</code>, no
+	 *         calendar IDs are given, or any calendar is not indexed
+	 */
+	public CalendarBitmap getJointCalendar(final JointCalendarRule rule, final String... calendarIds) {
+		Validate.notNull(rule, "JointCalendarRule argument cannot be null");
+		Validate.notEmpty(calendarIds, "Calendar ID array argument cannot be empty");
+		final SortedSet<String> ids = new TreeSet<String>();
+		for (String calendarId : calendarIds) {
+			ids.add(calendarId);
+		}
+		if (1 == ids.size()) {
+			return getCalendar(ids.first());
+		}
+		final String key = rule.name() + "(" + StringUtils.join(ids, ',') + ")";
+		CalendarBitmap joint = jointCalendars.get(key);
+		if (null == joint) {
+			final CalendarBitmap[] members = new CalendarBitmap[ids.size()];
+			int m = 0;
+			for (String calendarId : ids) {
+				members[m++] = getCalendar(calendarId);
+			}
+			joint = CalendarBitmap.combine(key, rule, members);
+			final CalendarBitmap existing = jointCalendars.putIfAbsent(key, joint);
+			if (null != existing) {
+				joint = existing;
+			}
+		}
+		return joint;
+	}
+
+	/**
+	 * Determine if the specified date is an observed holiday on a financial
+	 * calendar.
+	 *
+	 * @param calendarId financial calendar ID
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return <code>true</code> if date is a holiday, <code>false</code>
+	 *         otherwise
+	 * @throws IllegalArgumentException if calendar is not indexed, or date is
+	 *         invalid or not covered
+	 */
+	public boolean isHoliday(final String calendarId, final int date) {
+		return getCalendar(calendarId).isHoliday(date);
+	}
+
+	/**
+	 * Determine if the specified date is a business day on a financial
+	 * calendar: neither a holiday nor a weekend day of the calendar.
+	 *
+	 * @param calendarId financial calendar ID
+	 * @param date date in <code>yyyymmdd</code> format
+	 * @return <code>true</code> if date is a business day,
+	 *         <code>false</code> otherwise
+	 * @throws IllegalArgumentException if calendar is not indexed, or date is
+	 *         invalid or not covered
+	 */
+	public boolean isBusinessDay(final String calendarId, final int date) {
+		return getCalendar(calendarId).isBusinessDay(date);
+	}
+
+	/**
+	 * Count the observed holidays on a financial calendar between two dates,
+	 * inclusive.
+	 *
+	 * @param calendarId financial calendar ID
+	 * @param from first date in <code>yyyymmdd</code> format
+	 * @param to last date in <code>yyyymmdd</code> format
+	 * @return number of holidays from <code>from</code> through
+	 *         <code>to</code>
+	 * @throws IllegalArgumentException if calendar is not indexed, either
+	 *         date is invalid or not covered, or <code>from</code> is after
+	 *         <code>to</code>
+	 */
+	public int holidaysBetween(final String calendarId, final int from, final int to) {
+		return getCalendar(calendarId).holidaysBetween(from, to);
+	}
+
+	/**
+	 * Count the business days on a financial calendar after one date, up to
+	 * and including another.
+	 *
+	 * @param calendarId financial calendar ID
+	 * @param from start date in <code>yyyymmdd</code> format
+	 * @param to end date in <code>yyyymmdd</code> format
+	 * @return signed number of business days in <code>(from, to]</code>
+	 * @throws IllegalArgumentException if calendar is not indexed, or either
+	 *         date is invalid or not covered
+	 * @see CalendarBitmap#businessDaysBetween(int, int)
+	 */
+	public int businessDaysBetween(final String calendarId, final int from, final int to) {
+		return getCalendar(calendarId).businessDaysBetween(from, to);
+	}
+
+	/**
+	 * Advance a date by a number of business days on a financial calendar.
+	 *
+	 * @param calendarId financial calendar ID
+	 * @param date start date in <code>yyyymmdd</code> format
+	 * @param n number of business days to add; may be negative
+	 * @return resulting business day in <code>yyyymmdd</code> format
+	 * @throws IllegalArgumentException if calendar is not indexed, date is
+	 *         invalid or not covered, or the result lies outside the covered
+	 *         years
+	 * @see CalendarBitmap#addBusinessDays(int, int)
+	 */
+	public int addBusinessDays(final String calendarId, final int date, final int n) {
+		return getCalendar(calendarId).addBusinessDays(date, n);
+	}
+
+	@Override
+	public String toString() {
+		return "HolidayIndex[" + firstYear + "-" + lastYear + ", " + calendars.keySet() + "]";
+	}
+
+}
@@ -0,0 +1,172 @@
+/*
+ * File: HolidayIndexBuilder.java
+ *
+ * Copyright 2013 OSFramework Project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.holiday.index;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.apache.commons.lang.Validate;
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.definition.WeekendSchedule;
+import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.osframework.contract.date.fincal.holiday.HolidayBlock;
+import org.osframework.contract.date.fincal.holiday.producer.HolidayProducer;
+import org.osframework.contract.date.fincal.holiday.producer.SingleFinancialCalendarProducer;
+import org.osframework.contract.date.util.DateMath;
+
+/**
+ * Builder of immutable <code>HolidayIndex</code> objects. Holidays may be
+ * added directly, as produced by any <code>HolidayProducer</code>, or
+ * produced on demand for a <code>FinancialCalendar</code>.
+ * <p>Weekend pseudo-holidays (see
+ * {@link HolidayProducer#WEEKEND_HOLIDAY_DEFINITION}) are ignored, since
+ * weekends are derived by the index from each calendar's
+ * {@link WeekendSchedule}. Holidays outside the
+ * builder's range of years are ignored.</p>
+ * <p>Instances of this class are <em>not</em> thread-safe.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class HolidayIndexBuilder {
+
+	private final int firstYear;
+	private final int lastYear;
+	private final int firstDay;
+	private final int lastDay;
+	private final Map<String, long[]> words;
+	private final Map<String, WeekendSchedule> weekends;
+
+	/**
+	 * Construct a builder of indexes covering the specified years.
+	 *
+	 * @param firstYear first year to be indexed
+	 * @param lastYear last year to be indexed
+	 * @throws IllegalArgumentException if firstYear is after lastYear
+	 */
+	public HolidayIndexBuilder(final int firstYear, final int lastYear) {
+		Validate.isTrue(firstYear <= lastYear, "First year cannot be after last year");
+		this.firstYear = firstYear;
+		this.lastYear = lastYear;
+		this.firstDay = DateMath.toEpochDay(DateMath.of(firstYear, 1, 1));
+		this.lastDay = DateMath.toEpochDay(DateMath.of(lastYear, 12, 31));
+		this.words = new HashMap<String, long[]>();
+		this.weekends = new HashMap<String, WeekendSchedule>();
+	}
+
+	/**
+	 * Add the specified holidays to the index.
+	 *
+	 * @param holidays holidays to be indexed
+	 * @return this builder
+	 * @throws IllegalArgumentException if holidays is <code>null</code>
+	 */
+	public HolidayIndexBuilder add(final Holiday... holidays) {
+		Validate.notNull(holidays, "Holiday array argument cannot be null");
+		for (Holiday holiday : holidays) {
+			addHoliday(holiday);
+		}
+		return this;
+	}
+
+	/**
+	 * Add all holidays of the specified block to the index, without creating
+	 * <code>Holiday</code> objects.
+	 *
+	 * @param block holidays to be indexed
+	 * @return this builder
+	 * @throws IllegalArgumentException if block is <code>null</code>
+	 */
+	public HolidayIndexBuilder add(final HolidayBlock block) {
+		Validate.notNull(block, "HolidayBlock argument cannot be null");
+		final long[][] calendarWords = new long[block.getCalendarCount()][];
+		for (int i = 0; i < block.size(); i++) {
+			final int c = block.getCalendarOrdinal(i);
+			if (null == calendarWords[c]) {
+				calendarWords[c] = wordsOf(block.getCalendar(c));
+			}
+			if (!HolidayProducer.WEEKEND_HOLIDAY_DEFINITION.equals(block.getDefinition(block.getDefinitionOrdinal(i)))) {
+				setBit(calendarWords[c], block.getDate(i));
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Produce and add the holidays of the specified financial calendar for
+	 * all years covered by this builder. A calendar with no holidays is
+	 * still indexed.
+	 *
+	 * @param calendar financial calendar to be indexed
+	 * @return this builder
+	 * @throws IllegalArgumentException if calendar is <code>null</code>
+	 */
+	public HolidayIndexBuilder addCalendar(final FinancialCalendar calendar) {
+		Validate.notNull(calendar, "FinancialCalendar argument cannot be null");
+		wordsOf(calendar);
+		Iterator<Holiday> it = new SingleFinancialCalendarProducer(calendar).iterator(firstYear, lastYear);
+		while (it.hasNext()) {
+			addHoliday(it.next());
+		}
+		return this;
+	}
+
+	/**
+	 * Build an index of all holidays added so far. The builder may continue
+	 * to be used afterwards without affecting the returned index.
+	 *
+	 * @return new holiday index
+	 */
+	public HolidayIndex build() {
+		final Map<String, CalendarBitmap> calendars = new HashMap<String, CalendarBitmap>();
+		for (Map.Entry<String, long[]> entry : words.entrySet()) {
+			calendars.put(entry.getKey(),
+			              new CalendarBitmap(entry.getKey(), firstYear, lastYear, entry.getValue().clone(),
+			                                 weekends.get(entry.getKey())));
+		}
+		return new HolidayIndex(firstYear, lastYear, calendars);
+	}
+
+	private void addHoliday(final Holiday holiday) {
+		final long[] w = wordsOf(holiday.getFinancialCalendar());
+		if (HolidayProducer.WEEKEND_HOLIDAY_DEFINITION.equals(holiday.getHolidayDefinition())) {
+			return;
+		}
+		setBit(w, holiday.getDate());
+	}
+
+	private void setBit(final long[] w, final int date) {
+		final int day = DateMath.toEpochDay(date);
+		if (day < firstDay || day > lastDay) {
+			return;
+		}
+		final int i = day - firstDay;
+		w[i >>> 6] |= (1L << i);
+	}
+
+	private long[] wordsOf(final FinancialCalendar calendar) {
+		long[] w = words.get(calendar.getId());
+		if (null == w) {
+			w = CalendarBitmap.newWords(firstYear, lastYear);
+			words.put(calendar.getId(), w);
+			weekends.put(calendar.getId(), calendar.getWeekendSchedule());
+		}
+		return w;
+	}
+
+}
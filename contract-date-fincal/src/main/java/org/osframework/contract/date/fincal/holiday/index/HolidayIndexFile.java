@@ -0,0 +1,279 @@
+/*
+ * File: HolidayIndexFile.java
+ *
+ * Copyright 2013 OSFramework Project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.holiday.index;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * Static methods which write a <code>HolidayIndex</code> to a compact binary
+ * file and map such a file back into an index, so that services may load
+ * holidays at startup without parsing definitions or producing
+ * <code>Holiday</code> objects.
+ * <p>All values are big-endian. A file consists of:</p>
+ * <ol>
+ * <li>header: magic number <code>HIDX</code>, format version, first year,
+ * last year, number of calendars and number of words per calendar bitset,
+ * each as an <code>int</code>;</li>
+ * <li>calendar ID table: for each calendar in ID order, an unsigned
+ * <code>short</code> byte length followed by the UTF-8 encoded ID;</li>
+ * <li>zero padding to a multiple of 8 bytes;</li>
+ * <li>bitsets: for each calendar in table order, its holiday words
+ * followed by its non-business day words, as <code>long</code> values with
+ * one bit per day from January 1 of the first year;</li>
+ * <li>trailer: the CRC32 checksum of all preceding bytes, as a
+ * <code>long</code>.</li>
+ * </ol>
+ * <p>Joint calendars are not written; they are rebuilt on demand by the
+ * mapped index.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public final class HolidayIndexFile {
+
+	/**
+	 * Magic number at the start of every holiday index file.
+	 */
+	public static final int MAGIC = 0x48494458;
+
+	/**
+	 * Format version written by this class. Files of any other version are
+	 * rejected.
+	 */
+	public static final int FORMAT_VERSION = 2;
+
+	private static final int HEADER_LENGTH = 24;
+	private static final int TRAILER_LENGTH = 8;
+	private static final int CHECKSUM_CHUNK = 8192;
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * Private constructor - prevents instantiation.
+	 */
+	private HolidayIndexFile() {}
+
+	/**
+	 * Write the specified index to a file, replacing any existing file. The
+	 * index is written to a temporary file in the same directory, which is
+	 * then renamed to the destination; a reader never sees a partly written
+	 * file, and if writing fails the existing file is left unchanged.
+	 *
+	 * @param index holiday index to be written
+	 * @param file destination file
+	 * @throws IOException if file cannot be written
+	 * @throws IllegalArgumentException if any argument is <code>null</code>
+	 */
+	public static void write(final HolidayIndex index, final File file) throws IOException {
+		Validate.notNull(file, "File argument cannot be null");
+		final File dir = file.getAbsoluteFile().getParentFile();
+		final File temp = File.createTempFile(file.getName() + ".", ".tmp", dir);
+		boolean renamed = false;
+		try {
+			final FileOutputStream out = new FileOutputStream(temp);
+			try {
+				write(index, out);
+				out.getFD().sync();
+			} finally {
+				out.close();
+			}
+			// Rename does not replace an existing file on all platforms
+			renamed = temp.renameTo(file) || (file.delete() && temp.renameTo(file));
+			if (!renamed) {
+				throw new IOException("Cannot rename " + temp + " to " + file);
+			}
+		} finally {
+			if (!renamed) {
+				temp.delete();
+			}
+		}
+	}
+
+	/**
+	 * Write the specified index to an output stream. The stream is flushed
+	 * but not closed.
+	 *
+	 * @param index holiday index to be written
+	 * @param out destination stream
+	 * @throws IOException if stream cannot be written
+	 * @throws IllegalArgumentException if any argument is <code>null</code>
+	 */
+	public static void write(final HolidayIndex index, final OutputStream out) throws IOException {
+		Validate.notNull(index, "HolidayIndex argument cannot be null");
+		Validate.notNull(out, "OutputStream argument cannot be null");
+		final SortedSet<String> ids = new TreeSet<String>(index.getCalendarIds());
+		final int wordCount = CalendarBitmap.newWords(index.getFirstYear(), index.getLastYear()).length;
+		final BufferedOutputStream buffered = new BufferedOutputStream(out);
+		final CRC32 crc = new CRC32();
+		final DataOutputStream data = new DataOutputStream(new CheckedOutputStream(buffered, crc));
+		data.writeInt(MAGIC);
+		data.writeInt(FORMAT_VERSION);
+		data.writeInt(index.getFirstYear());
+		data.writeInt(index.getLastYear());
+		data.writeInt(ids.size());
+		data.writeInt(wordCount);
+		for (String id : ids) {
+			final byte[] bytes = id.getBytes(UTF_8);
+			if (bytes.length > 0xFFFF) {
+				throw new IOException("Financial calendar ID is too long: " + id);
+			}
+			data.writeShort(bytes.length);
+			data.write(bytes);
+		}
+		while (0 != (data.size() & 7)) {
+			data.writeByte(0);
+		}
+		for (String id : ids) {
+			final CalendarBitmap bitmap = index.getCalendar(id);
+			for (long word : bitmap.holidayWords()) {
+				data.writeLong(word);
+			}
+			for (long word : bitmap.closedWords()) {
+				data.writeLong(word);
+			}
+		}
+		data.flush();
+		new DataOutputStream(buffered).writeLong(crc.getValue());
+		buffered.flush();
+	}
+
+	/**
+	 * Map a holiday index file into memory and build an index from it. The
+	 * checksum is verified before any content is used; bitset words are
+	 * then copied in bulk from the mapped region, so loading allocates two
+	 * bitsets per calendar and nothing per holiday.
+	 *
+	 * @param file holiday index file
+	 * @return holiday index read from file
+	 * @throws IOException if file cannot be read, is not a holiday index
+	 *         file, is of an unsupported format version, or fails checksum
+	 *         verification
+	 * @throws IllegalArgumentException if file is <code>null</code>
+	 */
+	public static HolidayIndex map(final File file) throws IOException {
+		Validate.notNull(file, "File argument cannot be null");
+		final MappedByteBuffer buffer;
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = raf.getChannel();
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("File is too large to be a holiday index: " + file);
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+		} finally {
+			raf.close();
+		}
+		try {
+			return read(buffer);
+		} catch (IOException ioe) {
+			throw new IOException("Failed to read holiday index file " + file + ": " + ioe.getMessage(), ioe);
+		}
+	}
+
+	/**
+	 * Build an index from the bytes of a holiday index file, from the
+	 * buffer's position to its limit.
+	 *
+	 * @param buffer buffer containing a holiday index file
+	 * @return holiday index
+	 * @throws IOException if buffer does not contain a valid holiday index
+	 *         file of a supported format version
+	 */
+	static HolidayIndex read(final ByteBuffer buffer) throws IOException {
+		final ByteBuffer b = buffer.slice();
+		final int length = b.remaining();
+		if (length < HEADER_LENGTH + TRAILER_LENGTH || MAGIC != b.getInt(0)) {
+			throw new IOException("Not a holiday index file");
+		}
+		final int version = b.getInt(4);
+		if (FORMAT_VERSION != version) {
+			throw new IOException("Unsupported holiday index format version " + version +
+			                      "; expected " + FORMAT_VERSION);
+		}
+		if (checksum(b, length - TRAILER_LENGTH) != b.getLong(length - TRAILER_LENGTH)) {
+			throw new IOException("Holiday index checksum mismatch");
+		}
+		b.position(8);
+		final int firstYear = b.getInt();
+		final int lastYear = b.getInt();
+		final int calendarCount = b.getInt();
+		final int wordCount = b.getInt();
+		if (firstYear > lastYear || calendarCount < 0 || calendarCount > length ||
+		    wordCount != CalendarBitmap.newWords(firstYear, lastYear).length) {
+			throw new IOException("Invalid holiday index header");
+		}
+		final String[] ids = new String[calendarCount];
+		try {
+			for (int c = 0; c < calendarCount; c++) {
+				final byte[] bytes = new byte[b.getShort() & 0xFFFF];
+				b.get(bytes);
+				ids[c] = new String(bytes, UTF_8);
+			}
+		} catch (BufferUnderflowException bue) {
+			throw new IOException("Truncated calendar ID table", bue);
+		}
+		final int dataStart = (b.position() + 7) & ~7;
+		if ((long)dataStart + 16L * calendarCount * wordCount != length - TRAILER_LENGTH) {
+			throw new IOException("Holiday index length does not match header");
+		}
+		b.position(dataStart);
+		final LongBuffer words = b.asLongBuffer();
+		final Map<String, CalendarBitmap> calendars = new HashMap<String, CalendarBitmap>();
+		for (String id : ids) {
+			final long[] holidays = new long[wordCount];
+			final long[] closed = new long[wordCount];
+			words.get(holidays);
+			words.get(closed);
+			calendars.put(id, new CalendarBitmap(id, firstYear, lastYear, holidays, closed));
+		}
+		return new HolidayIndex(firstYear, lastYear, calendars);
+	}
+
+	private static long checksum(final ByteBuffer buffer, final int length) {
+		final CRC32 crc = new CRC32();
+		final ByteBuffer b = buffer.duplicate();
+		b.position(0);
+		final byte[] chunk = new byte[Math.min(CHECKSUM_CHUNK, length)];
+		for (int remaining = length; remaining > 0; ) {
+			final int n = Math.min(chunk.length, remaining);
+			b.get(chunk, 0, n);
+			crc.update(chunk, 0, n);
+			remaining -= n;
+		}
+		return crc.getValue();
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * File: JointCalendarRule.java
+ *
+ * Copyright 2013 OSFramework Project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.holiday.index;
+
+/**
+ * Enumeration of rules by which the bitmaps of several financial calendars
+ * are combined into a single joint calendar.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ * @see HolidayIndex#getJointCalendar(JointCalendarRule, String...)
+ */
+public enum JointCalendarRule {
+
+	/**
+	 * A day is a holiday if it is a holiday on <em>any</em> member calendar;
+	 * a business day must be a business day on every member calendar.
+	 * Typical for settlement of cross-currency trades.
+	 */
+	UNION {
+		long combine(final long a, final long b) {
+			return a | b;
+		}
+	},
+
+	/**
+	 * A day is a holiday only if it is a holiday on <em>every</em> member
+	 * calendar; a business day need only be a business day on one member
+	 * calendar.
+	 */
+	INTERSECTION {
+		long combine(final long a, final long b) {
+			return a & b;
+		}
+	};
+
+	/**
+	 * Combine one word of member calendar bits.
+	 *
+	 * @param a bits of first calendar(s)
+	 * @param b bits of next calendar
+	 * @return combined bits
+	 */
+	abstract long combine(long a, long b);
+
+}
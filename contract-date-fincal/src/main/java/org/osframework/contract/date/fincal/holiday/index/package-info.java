@@ -0,0 +1,27 @@
+/*
+ * File: package-info.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Immutable, allocation-free query structures built from produced
+ * {@link org.osframework.contract.date.fincal.holiday.Holiday} objects.
+ * Dates are represented as <code>int</code> values in <code>yyyymmdd</code>
+ * format, as returned by
+ * {@link org.osframework.contract.date.fincal.holiday.HolidayId#getDate()}.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+package org.osframework.contract.date.fincal.holiday.index;
\ No newline at end of file
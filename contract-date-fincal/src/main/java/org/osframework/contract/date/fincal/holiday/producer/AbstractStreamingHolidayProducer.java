@@ -0,0 +1,129 @@
+/*
+ * File: AbstractStreamingHolidayProducer.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.holiday.producer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.lang.Validate;
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.osframework.contract.date.fincal.holiday.HolidayBlock;
+import org.osframework.contract.date.fincal.holiday.HolidayBlockBuilder;
+
+/**
+ * Abstract superclass of <code>StreamingHolidayProducer</code> objects. The
+ * array form {@link #produce(Object...)} drains the iterator, as does the
+ * block form {@link #produceBlock(Object...)} unless overridden by a
+ * subclass which can fill a block directly.
+ *
+ * @param <T> type of argument(s)
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public abstract class AbstractStreamingHolidayProducer<T>
+	implements StreamingHolidayProducer<T>, HolidayBlockProducer<T> {
+
+	public Holiday[] produce(T... args) {
+		final List<Holiday> holidays = new ArrayList<Holiday>();
+		for (Iterator<Holiday> it = iterator(args); it.hasNext(); ) {
+			holidays.add(it.next());
+		}
+		return holidays.toArray(EMPTY_ARRAY);
+	}
+
+	public HolidayBlock produceBlock(T... args) {
+		final HolidayBlockBuilder builder = new HolidayBlockBuilder();
+		for (Iterator<Holiday> it = iterator(args); it.hasNext(); ) {
+			builder.add(it.next());
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Copy and sort calendars alphabetically by ID.
+	 */
+	protected static FinancialCalendar[] sortById(final FinancialCalendar... calendars) {
+		Validate.notNull(calendars, "FinancialCalendar array argument cannot be null");
+		final FinancialCalendar[] sorted = calendars.clone();
+		Arrays.sort(sorted, new Comparator<FinancialCalendar>() {
+			public int compare(FinancialCalendar c1, FinancialCalendar c2) {
+				return c1.getId().compareTo(c2.getId());
+			}
+		});
+		return sorted;
+	}
+
+	/**
+	 * Iterator which generates holidays one batch at a time, typically the
+	 * holidays of one calendar for one year, so that at most one batch is
+	 * held in memory.
+	 */
+	protected static abstract class BatchIterator implements Iterator<Holiday> {
+
+		private final List<Holiday> batch = new ArrayList<Holiday>();
+		private int position = 0;
+
+		/**
+		 * Generate the next batch of holidays.
+		 * 
+		 * @param holidays empty list to which generated holidays are added
+		 * @return <code>false</code> if there are no more batches,
+		 *         <code>true</code> otherwise
+		 */
+		protected abstract boolean nextBatch(List<Holiday> holidays);
+
+		public boolean hasNext() {
+			while (position == batch.size()) {
+				batch.clear();
+				position = 0;
+				if (!nextBatch(batch)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		public Holiday next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return batch.get(position++);
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException("Produced holidays cannot be removed");
+		}
+
+		/**
+		 * Add all weekend days of the specified year, according to the
+		 * weekend schedule of a financial calendar, to a batch in date order
+		 * as weekend holidays of that calendar.
+		 */
+		protected void addWeekends(final FinancialCalendar calendar, final int year, final List<Holiday> holidays) {
+			for (int date : calendar.getWeekendSchedule().getWeekendDates(year)) {
+				holidays.add(new Holiday(calendar, date, WEEKEND_HOLIDAY_DEFINITION));
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,43 @@
+/*
+ * File: HolidayBlockProducer.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.holiday.producer;
+
+import org.osframework.contract.date.fincal.holiday.HolidayBlock;
+
+/**
+ * Behavior of holiday producers which can generate holidays directly into a
+ * columnar {@link HolidayBlock}, without creating a <code>Holiday</code>
+ * object per holiday. The block holds exactly the elements, in exactly the
+ * order, of the array returned by {@link #produce(Object...)} for the same
+ * arguments.
+ *
+ * @param <T> type of argument(s)
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public interface HolidayBlockProducer<T> extends HolidayProducer<T> {
+
+	/**
+	 * Produce a block of holidays for the specified arguments.
+	 * 
+	 * @param args one or more objects which define limits of holidays to be
+	 *             produced
+	 * @return block of produced holidays
+	 */
+	public HolidayBlock produceBlock(T... args);
+
+}
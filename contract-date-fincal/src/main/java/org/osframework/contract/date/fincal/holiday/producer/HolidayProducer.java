@@ -34,6 +34,10 @@ public interface HolidayProducer<T> {
 	 * elements in the returned array. It is the responsibility of an
 	 * implementor and/or its client to define whether the produced array is
 	 * sorted or unsorted.
+	 * <p>Implementations should keep all state of a call local to that
+	 * call, and must not modify the argument array, so that one instance
+	 * may serve concurrent callers. The producers of this package do
+	 * so.</p>
 	 * 
 	 * @param args one or more objects which define limits of holidays to be
 	 *             produced
@@ -42,8 +46,10 @@ public interface HolidayProducer<T> {
 	public Holiday[] produce(T... args);
 
 	/**
-	 * Determine if this holiday producer includes weekend days (Saturday,
-	 * Sunday) as holidays.
+	 * Determine if this holiday producer includes weekend days, as given by
+	 * each financial calendar's
+	 * {@link org.osframework.contract.date.fincal.definition.WeekendSchedule},
+	 * as holidays.
 	 * 
 	 * @return <code>true</code> if weekend days are included as holidays,
 	 *         <code>false</code> otherwise
@@ -51,9 +57,9 @@ public interface HolidayProducer<T> {
 	public boolean includesWeekends();
 
 	/**
-	 * Special holiday definition for weekend "holidays".
+	 * Special immutable holiday definition for weekend "holidays".
 	 */
-	public static final HolidayDefinition WEEKEND_HOLIDAY_DEFINITION = new HolidayDefinition("weekend", "Weekend", "Weekend", null, null);
+	public static final HolidayDefinition WEEKEND_HOLIDAY_DEFINITION = new HolidayDefinition("weekend", "Weekend", "Weekend", null, null).toImmutable();
 
 	/**
 	 * Empty <code>Holiday</code> array. Used in conversion of collections
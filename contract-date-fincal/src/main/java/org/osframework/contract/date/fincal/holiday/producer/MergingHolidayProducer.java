@@ -0,0 +1,199 @@
+/*
+ * File: MergingHolidayProducer.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.holiday.producer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import org.apache.commons.lang.Validate;
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.osframework.contract.date.fincal.holiday.HolidayBlock;
+import org.osframework.contract.date.fincal.holiday.HolidayBlockBuilder;
+
+/**
+ * Produces holidays for several financial calendars over a range of years,
+ * in ascending <code>HolidayId</code> order: by date, then by calendar ID.
+ * Holidays which compare equal keep their production order, so the result
+ * is identical to a stable sort of the concatenated output of one
+ * <code>SingleFinancialCalendarProducer</code> per calendar, taken in order
+ * of calendar ID.
+ * <p>Each (calendar, year) chunk is sorted locally and the chunks are
+ * combined by a k-way heap merge. Chunks are produced lazily: those of a
+ * year are opened only when the merge reaches the preceding year, so at
+ * most about three years of holidays are held in memory at once. This
+ * relies on the holidays produced for a year falling within that year or an
+ * adjacent one; an iterator detects a violation and throws
+ * <code>IllegalStateException</code> rather than yield holidays out of
+ * order.</p>
+ * <p>Instances of this class are immutable and thread-safe. The array of
+ * calendars passed to a call is copied, never reordered in place.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class MergingHolidayProducer extends AbstractStreamingHolidayProducer<FinancialCalendar> {
+
+	private final int firstYear;
+	private final int lastYear;
+	private final boolean weekendsAsHolidays;
+
+	/**
+	 * Construct a <code>MergingHolidayProducer</code> for the specified
+	 * years, enabling or disabling inclusion of weekend days as holidays.
+	 *
+	 * @param firstYear first year for which to produce holidays
+	 * @param lastYear last year for which to produce holidays
+	 * @param weekendsAsHolidays flag indicating inclusion/exclusion of weekend
+	 *                           days as holidays
+	 * @throws IllegalArgumentException if firstYear is after lastYear
+	 */
+	public MergingHolidayProducer(final int firstYear, final int lastYear, final boolean weekendsAsHolidays) {
+		Validate.isTrue(firstYear <= lastYear, "First year cannot be after last year");
+		this.firstYear = firstYear;
+		this.lastYear = lastYear;
+		this.weekendsAsHolidays = weekendsAsHolidays;
+	}
+
+	public boolean includesWeekends() {
+		return weekendsAsHolidays;
+	}
+
+	public Iterator<Holiday> iterator(FinancialCalendar... calendars) {
+		final FinancialCalendar[] sorted = sortById(calendars);
+		final BatchIterator[] sources = new BatchIterator[sorted.length];
+		for (int i = 0; i < sorted.length; i++) {
+			sources[i] = new SingleFinancialCalendarProducer(sorted[i], weekendsAsHolidays).batches(firstYear, lastYear);
+		}
+		return new MergeIterator(sources);
+	}
+
+	/**
+	 * Fills a block with the holidays of each calendar in turn, in order of
+	 * calendar ID, then applies a stable sort by <code>HolidayId</code>;
+	 * this yields the merge order without creating <code>Holiday</code>
+	 * objects or a heap.
+	 */
+	@Override
+	public HolidayBlock produceBlock(FinancialCalendar... calendars) {
+		final FinancialCalendar[] sorted = sortById(calendars);
+		final HolidayBlockBuilder builder = new HolidayBlockBuilder();
+		for (FinancialCalendar calendar : sorted) {
+			final SingleFinancialCalendarProducer producer = new SingleFinancialCalendarProducer(calendar, weekendsAsHolidays);
+			for (int year = firstYear; year <= lastYear; year++) {
+				producer.addTo(builder, year);
+			}
+		}
+		return builder.sort().build();
+	}
+
+	/**
+	 * K-way merge of locally sorted (calendar, year) chunks.
+	 */
+	private final class MergeIterator implements Iterator<Holiday> {
+
+		private final BatchIterator[] sources;
+		private final PriorityQueue<Chunk> heap;
+		private int nextYear = firstYear;
+		private Holiday last = null;
+
+		MergeIterator(final BatchIterator[] sources) {
+			this.sources = sources;
+			this.heap = new PriorityQueue<Chunk>(Math.max(1, 3 * sources.length));
+		}
+
+		public boolean hasNext() {
+			// Open next year's chunks before anything they could precede
+			while (nextYear <= lastYear && (heap.isEmpty() || heap.peek().head().getDate() / 10000 >= nextYear - 1)) {
+				for (int i = 0; i < sources.length; i++) {
+					List<Holiday> holidays = new ArrayList<Holiday>();
+					if (sources[i].nextBatch(holidays) && !holidays.isEmpty()) {
+						Collections.sort(holidays);
+						Chunk chunk = new Chunk(holidays, nextYear);
+						if (null != last && chunk.head().compareTo(last) < 0) {
+							throw new IllegalStateException("Holiday " + chunk.head() + " produced for year " +
+							                                nextYear + " falls outside merge window");
+						}
+						heap.add(chunk);
+					}
+				}
+				nextYear++;
+			}
+			return !heap.isEmpty();
+		}
+
+		public Holiday next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Chunk chunk = heap.poll();
+			last = chunk.next();
+			if (chunk.hasNext()) {
+				heap.add(chunk);
+			}
+			return last;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException("Produced holidays cannot be removed");
+		}
+
+	}
+
+	/**
+	 * Cursor over the sorted holidays of one calendar for one year. Chunks
+	 * order by head holiday; equal heads belong to the same calendar, and
+	 * are ordered by year.
+	 */
+	private static final class Chunk implements Comparable<Chunk> {
+
+		private final List<Holiday> holidays;
+		private final int year;
+		private int position = 0;
+
+		Chunk(final List<Holiday> holidays, final int year) {
+			this.holidays = holidays;
+			this.year = year;
+		}
+
+		Holiday head() {
+			return holidays.get(position);
+		}
+
+		Holiday next() {
+			return holidays.get(position++);
+		}
+
+		boolean hasNext() {
+			return position < holidays.size();
+		}
+
+		public int compareTo(Chunk o) {
+			int result = head().compareTo(o.head());
+			if (0 == result) {
+				result = (year < o.year) ? -1 : ((year == o.year) ? 0 : 1);
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -17,31 +17,41 @@
  */
 package org.osframework.contract.date.fincal.holiday.producer;
 
-import java.util.Arrays;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.lang.Validate;
-import org.apache.commons.lang.math.IntRange;
-import org.apache.commons.lang.math.Range;
 import org.osframework.contract.date.fincal.definition.FinancialCalendar;
 import org.osframework.contract.date.fincal.definition.HolidayDefinition;
 import org.osframework.contract.date.fincal.definition.HolidayExpression;
+import org.osframework.contract.date.fincal.definition.HolidayExpressions;
 import org.osframework.contract.date.fincal.definition.expression.centralbank.CentralBankDecoratorLocator;
 import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.osframework.contract.date.fincal.holiday.HolidayBlock;
+import org.osframework.contract.date.fincal.holiday.HolidayBlockBuilder;
 
 /**
- * Produces holidays for a single financial calendar.
+ * Produces holidays for a single financial calendar. Holidays are produced
+ * year by year, from the earliest to the latest of the given years
+ * inclusive; within a year, in calendar definition order followed by
+ * weekends, if included. Iterators hold one year of holidays at a time.
+ * Holiday dates are computed as <code>int</code> values, without
+ * <code>Date</code> objects, by expressions which support it; see
+ * {@link HolidayExpressions#evaluatePacked(HolidayExpression, int)}.
+ * <p>The calendar's holiday definitions are resolved to central bank
+ * decorated expressions once, at construction; later changes to the
+ * calendar's definitions are not seen by the producer. Instances of this
+ * class are immutable and thread-safe, and all state of a call is local to
+ * that call and its iterator.</p>
  *
  * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
  */
-public class SingleFinancialCalendarProducer implements HolidayProducer<Integer> {
+public class SingleFinancialCalendarProducer extends AbstractStreamingHolidayProducer<Integer> {
 
 	private final FinancialCalendar calendar;
 	private final boolean weekendsAsHolidays;
-	private final Calendar c;
+	private final HolidayDefinition[] definitions;
+	private final HolidayExpression[] expressions;
 
 	/**
 	 * Construct a <code>SingleFinancialCalendarProducer</code> for the
@@ -58,7 +68,12 @@ public class SingleFinancialCalendarProducer implements HolidayProducer<Integer>
 		Validate.notNull(calendar, "FinancialCalendar argument cannot be null");
 		this.calendar = calendar;
 		this.weekendsAsHolidays = weekendsAsHolidays;
-		this.c = Calendar.getInstance();
+		// Decoration depends only on calendar, not year: resolve once
+		this.definitions = calendar.getHolidayDefinitions().toArray(new HolidayDefinition[calendar.size()]);
+		this.expressions = new HolidayExpression[definitions.length];
+		for (int i = 0; i < definitions.length; i++) {
+			expressions[i] = CentralBankDecoratorLocator.decorate(definitions[i], calendar.getCentralBank());
+		}
 	}
 
 	/**
@@ -77,33 +92,70 @@ public class SingleFinancialCalendarProducer implements HolidayProducer<Integer>
 		return weekendsAsHolidays;
 	}
 
-	public Holiday[] produce(Integer... years) {
-		Arrays.sort(years);
-		Range yearRange = new IntRange(years[0], years[years.length - 1]); 
-		List<Holiday> holidays = new LinkedList<Holiday>();
-		for (int year = yearRange.getMinimumInteger(); yearRange.containsInteger(year); year++) {
-			for (HolidayDefinition hd : calendar) {
-				HolidayExpression expr = CentralBankDecoratorLocator.decorate(hd, calendar.getCentralBank());
-				Date date = expr.evaluate(year);
-				holidays.add(new Holiday(calendar, date, hd));
-			}
-			if (weekendsAsHolidays) {
-				this.addWeekends(year, holidays);
-			}
+	public Iterator<Holiday> iterator(Integer... years) {
+		final int[] range = yearRange(years);
+		return batches(range[0], range[1]);
+	}
+
+	@Override
+	public HolidayBlock produceBlock(Integer... years) {
+		final int[] range = yearRange(years);
+		final HolidayBlockBuilder builder = new HolidayBlockBuilder();
+		for (int year = range[0]; year <= range[1]; year++) {
+			addTo(builder, year);
 		}
-		return holidays.toArray(EMPTY_ARRAY);
+		return builder.build();
 	}
 
-	private void addWeekends(int year, List<Holiday> holidays) {
-		c.clear();
-		c.set(year, Calendar.JANUARY, 1);
-		while (c.get(Calendar.YEAR) == year) {
-			if (Calendar.SATURDAY == c.get(Calendar.DAY_OF_WEEK) ||
-				Calendar.SUNDAY == c.get(Calendar.DAY_OF_WEEK)) {
-				holidays.add(new Holiday(calendar, c.getTime(), WEEKEND_HOLIDAY_DEFINITION));
+	/**
+	 * Append the holidays of one year to a block, in the same order as
+	 * {@link #batches(int, int)}, without creating <code>Holiday</code>
+	 * objects.
+	 */
+	void addTo(final HolidayBlockBuilder builder, final int year) {
+		for (int i = 0; i < definitions.length; i++) {
+			builder.add(calendar, HolidayExpressions.evaluatePacked(expressions[i], year), definitions[i]);
+		}
+		if (weekendsAsHolidays) {
+			for (int date : calendar.getWeekendSchedule().getWeekendDates(year)) {
+				builder.add(calendar, date, WEEKEND_HOLIDAY_DEFINITION);
 			}
-			c.add(Calendar.DAY_OF_MONTH, 1);
 		}
 	}
 
+	private static int[] yearRange(final Integer... years) {
+		Validate.notEmpty(years, "Integer year array argument cannot be empty");
+		int first = years[0].intValue(), last = first;
+		for (Integer year : years) {
+			first = Math.min(first, year.intValue());
+			last = Math.max(last, year.intValue());
+		}
+		return new int[] { first, last };
+	}
+
+	/**
+	 * Create an iterator whose batches are the holidays of one year each,
+	 * from <code>firstYear</code> through <code>lastYear</code>.
+	 */
+	BatchIterator batches(final int firstYear, final int lastYear) {
+		return new BatchIterator() {
+			private int year = firstYear;
+			@Override
+			protected boolean nextBatch(List<Holiday> holidays) {
+				if (year > lastYear) {
+					return false;
+				}
+				for (int i = 0; i < definitions.length; i++) {
+					int date = HolidayExpressions.evaluatePacked(expressions[i], year);
+					holidays.add(new Holiday(calendar, date, definitions[i]));
+				}
+				if (weekendsAsHolidays) {
+					addWeekends(calendar, year, holidays);
+				}
+				year++;
+				return true;
+			}
+		};
+	}
+
 }
@@ -17,30 +17,33 @@
  */
 package org.osframework.contract.date.fincal.holiday.producer;
 
-import java.util.Arrays;
-import java.util.Calendar;
-import java.util.Comparator;
-import java.util.Date;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.lang.Validate;
 import org.osframework.contract.date.fincal.definition.FinancialCalendar;
 import org.osframework.contract.date.fincal.definition.HolidayDefinition;
 import org.osframework.contract.date.fincal.definition.HolidayExpression;
+import org.osframework.contract.date.fincal.definition.HolidayExpressions;
 import org.osframework.contract.date.fincal.definition.expression.centralbank.CentralBankDecoratorLocator;
 import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.osframework.contract.date.fincal.holiday.HolidayBlock;
+import org.osframework.contract.date.fincal.holiday.HolidayBlockBuilder;
 
 /**
- * Produces holidays for a single year.
+ * Produces holidays for a single year. Holidays are produced calendar by
+ * calendar, in order of calendar ID; within a calendar, in definition order
+ * followed by weekends, if included. Iterators hold the holidays of one
+ * calendar at a time.
+ * <p>Instances of this class are immutable and thread-safe. The array of
+ * calendars passed to a call is copied, never reordered in place.</p>
  *
  * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
  */
-public class SingleYearProducer implements HolidayProducer<FinancialCalendar> {
+public class SingleYearProducer extends AbstractStreamingHolidayProducer<FinancialCalendar> {
 
 	private final int year;
 	private final boolean weekendsAsHolidays;
-	private final Calendar c;
 
 	/**
 	 * Construct a <code>SingleYearCalendarProducer</code> for the
@@ -56,7 +59,6 @@ public class SingleYearProducer implements HolidayProducer<FinancialCalendar> {
 		Validate.notNull(year, "Integer year argument cannot be null");
 		this.year = year.intValue();
 		this.weekendsAsHolidays = weekendsAsHolidays;
-		this.c = Calendar.getInstance();
 	}
 
 	/**
@@ -74,37 +76,36 @@ public class SingleYearProducer implements HolidayProducer<FinancialCalendar> {
 		return weekendsAsHolidays;
 	}
 
-	public Holiday[] produce(FinancialCalendar... calendars) {
-		// Sort calendars alphabetically by ID
-		Arrays.sort(calendars, new Comparator<FinancialCalendar>() {
-			public int compare(FinancialCalendar c1, FinancialCalendar c2) {
-				return c1.getId().compareTo(c2.getId());
+	public Iterator<Holiday> iterator(FinancialCalendar... calendars) {
+		final FinancialCalendar[] sorted = sortById(calendars);
+		return new BatchIterator() {
+			private int index = 0;
+			@Override
+			protected boolean nextBatch(List<Holiday> holidays) {
+				if (index >= sorted.length) {
+					return false;
+				}
+				FinancialCalendar calendar = sorted[index++];
+				for (HolidayDefinition hd : calendar) {
+					HolidayExpression expr = CentralBankDecoratorLocator.decorate(hd, calendar.getCentralBank());
+					int date = HolidayExpressions.evaluatePacked(expr, year);
+					holidays.add(new Holiday(calendar, date, hd));
+				}
+				if (weekendsAsHolidays) {
+					addWeekends(calendar, year, holidays);
+				}
+				return true;
 			}
-		});
-		LinkedList<Holiday> holidays = new LinkedList<Holiday>();
-		for (FinancialCalendar calendar : calendars) {
-			for (HolidayDefinition hd : calendar) {
-				HolidayExpression expr = CentralBankDecoratorLocator.decorate(hd, calendar.getCentralBank());
-				Date date = expr.evaluate(year);
-				holidays.add(new Holiday(calendar, date, hd));
-			}
-			if (weekendsAsHolidays) {
-				addWeekends(calendar, holidays);
-			}
-		}
-		return holidays.toArray(EMPTY_ARRAY);
+		};
 	}
 
-	private void addWeekends(FinancialCalendar calendar, List<Holiday> holidays) {
-		c.clear();
-		c.set(year, Calendar.JANUARY, 1);
-		while (c.get(Calendar.YEAR) == year) {
-			if (Calendar.SATURDAY == c.get(Calendar.DAY_OF_WEEK) ||
-				Calendar.SUNDAY == c.get(Calendar.DAY_OF_WEEK)) {
-				holidays.add(new Holiday(calendar, c.getTime(), WEEKEND_HOLIDAY_DEFINITION));
-			}
-			c.add(Calendar.DAY_OF_MONTH, 1);
+	@Override
+	public HolidayBlock produceBlock(FinancialCalendar... calendars) {
+		final HolidayBlockBuilder builder = new HolidayBlockBuilder();
+		for (FinancialCalendar calendar : sortById(calendars)) {
+			new SingleFinancialCalendarProducer(calendar, weekendsAsHolidays).addTo(builder, year);
 		}
+		return builder.build();
 	}
 
 }
@@ -0,0 +1,46 @@
+/*
+ * File: StreamingHolidayProducer.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.holiday.producer;
+
+import java.util.Iterator;
+
+import org.osframework.contract.date.fincal.holiday.Holiday;
+
+/**
+ * Behavior of holiday producers which can generate holidays lazily, on
+ * demand, rather than materializing them all at once. The iterator yields
+ * exactly the elements, in exactly the order, of the array returned by
+ * {@link #produce(Object...)} for the same arguments.
+ *
+ * @param <T> type of argument(s)
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public interface StreamingHolidayProducer<T> extends HolidayProducer<T> {
+
+	/**
+	 * Create an iterator over the <code>Holiday</code> objects for the
+	 * specified arguments. Holidays are generated as the iterator advances.
+	 * The returned iterator does not support removal.
+	 * 
+	 * @param args one or more objects which define limits of holidays to be
+	 *             produced
+	 * @return iterator over produced holidays
+	 */
+	public Iterator<Holiday> iterator(T... args);
+
+}
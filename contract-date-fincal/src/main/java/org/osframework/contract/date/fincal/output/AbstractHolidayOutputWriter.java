@@ -19,16 +19,23 @@ package org.osframework.contract.date.fincal.output;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
 
 import org.osframework.contract.date.fincal.definition.FinancialCalendar;
 import org.osframework.contract.date.fincal.definition.source.DefinitionSource;
 import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.osframework.contract.date.fincal.holiday.producer.MergingHolidayProducer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Abstract superclass of configurable <tt>HolidayOutputWriter</tt> objects.
+ * <p>When the output is a <tt>ResumableHolidayOutput</tt> with a recorded
+ * checkpoint, subclasses resume after it: production starts one year before
+ * that of the checkpoint, since holidays observed early in a year may be
+ * produced from the definitions of the previous year, and holidays up to and
+ * including the checkpoint are skipped.</p>
  *
  * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
  */
@@ -108,4 +115,173 @@ public abstract class AbstractHolidayOutputWriter implements HolidayOutputWriter
 		return years;
 	}
 
+	/**
+	 * Read the checkpoint of the specified output. A checkpoint can only have
+	 * been recorded by a run over the same calendars and years: its calendar
+	 * must be one of the configured calendars, and its year must lie between
+	 * the year before the first year and the year after the last year, since
+	 * holidays produced for a year may be observed late in the previous year
+	 * or early in the following year.
+	 * 
+	 * @param output holiday output
+	 * @return last checkpoint, or <code>null</code> if the output is not
+	 *         resumable or has no checkpoint
+	 * @throws HolidayOutputException if the checkpoint does not belong to the
+	 *                                configured calendars and years
+	 * @throws Exception if checkpoint cannot be read
+	 */
+	protected final HolidayCheckpoint readCheckpoint(HolidayOutput<?, ?> output) throws Exception {
+		HolidayCheckpoint checkpoint = null;
+		if (output instanceof ResumableHolidayOutput) {
+			checkpoint = ((ResumableHolidayOutput<?, ?>)output).getCheckpoint();
+			if (null != checkpoint) {
+				if (!calendarIds.contains(checkpoint.getFinancialCalendarId())) {
+					throw new HolidayOutputException("Checkpoint " + checkpoint + " is for financial calendar '" +
+					                                 checkpoint.getFinancialCalendarId() +
+					                                 "', which is not among the calendars to be written");
+				}
+				if (checkpoint.getYear() < firstYear - 1 || checkpoint.getYear() > lastYear + 1) {
+					throw new HolidayOutputException("Checkpoint " + checkpoint + " lies outside the years " +
+					                                 firstYear + " to " + lastYear + " to be written");
+				}
+				logger.info("Resuming holiday output after checkpoint {}", checkpoint);
+			}
+		}
+		return checkpoint;
+	}
+
+	/**
+	 * Begin a run of the specified output before any holidays are stored.
+	 * 
+	 * @param output holiday output
+	 * @throws Exception if a run cannot be begun
+	 */
+	protected final void begin(HolidayOutput<?, ?> output) throws Exception {
+		if (output instanceof CommittableHolidayOutput) {
+			((CommittableHolidayOutput<?, ?>)output).begin();
+		}
+	}
+
+	/**
+	 * Commit the specified output after all holidays have been stored.
+	 * 
+	 * @param output holiday output
+	 * @throws Exception if output cannot be committed
+	 */
+	protected final void commit(HolidayOutput<?, ?> output) throws Exception {
+		if (output instanceof CommittableHolidayOutput) {
+			((CommittableHolidayOutput<?, ?>)output).commit();
+		}
+	}
+
+	/**
+	 * Clear the checkpoint of the specified output after all holidays have
+	 * been stored.
+	 * 
+	 * @param output holiday output
+	 * @throws Exception if checkpoint cannot be cleared
+	 */
+	protected final void clearCheckpoint(HolidayOutput<?, ?> output) throws Exception {
+		if (output instanceof ResumableHolidayOutput) {
+			((ResumableHolidayOutput<?, ?>)output).clearCheckpoint();
+		}
+	}
+
+	/**
+	 * Determine the first year from which holidays must be produced to
+	 * resume after a checkpoint.
+	 * 
+	 * @param checkpoint last checkpoint; may be null
+	 * @return first year of production
+	 */
+	protected final int resumeYear(HolidayCheckpoint checkpoint) {
+		return (null == checkpoint) ? firstYear : Math.max(firstYear, checkpoint.getYear() - 1);
+	}
+
+	/**
+	 * Create an iterator over the holidays of the specified calendars, in
+	 * sorted order, which resumes after a checkpoint.
+	 * 
+	 * @param calendars financial calendars, sorted by ID
+	 * @param weekends whether weekend days are produced as holidays
+	 * @param checkpoint last checkpoint; may be null
+	 * @return iterator over holidays remaining to be stored
+	 */
+	protected final Iterator<Holiday> sortedHolidays(FinancialCalendar[] calendars, boolean weekends,
+	                                                 HolidayCheckpoint checkpoint) {
+		final Iterator<Holiday> it = new MergingHolidayProducer(resumeYear(checkpoint), lastYear, weekends).iterator(calendars);
+		if (null == checkpoint) {
+			return it;
+		}
+		int stored = 0;
+		while (it.hasNext()) {
+			final Holiday h = it.next();
+			if (!isStored(h, checkpoint, checkpoint.isAt(h) ? ++stored : 0)) {
+				return new PushbackIterator(h, it);
+			}
+		}
+		return it;
+	}
+
+	/**
+	 * Find the index of the first holiday of a sorted array which follows a
+	 * checkpoint.
+	 * 
+	 * @param sorted holidays in sorted order
+	 * @param checkpoint last checkpoint; may be null
+	 * @return index of first holiday remaining to be stored
+	 */
+	protected static int resumeIndex(Holiday[] sorted, HolidayCheckpoint checkpoint) {
+		int i = 0;
+		if (null != checkpoint) {
+			int stored = 0;
+			while (i < sorted.length && isStored(sorted[i], checkpoint, checkpoint.isAt(sorted[i]) ? ++stored : 0)) {
+				i++;
+			}
+		}
+		return i;
+	}
+
+	/**
+	 * @param ordinal position of holiday among those at the checkpoint,
+	 *                counting from one; ignored if not at the checkpoint
+	 */
+	private static boolean isStored(Holiday h, HolidayCheckpoint checkpoint, int ordinal) {
+		final int c = checkpoint.compareTo(h);
+		return (0 < c || (0 == c && ordinal <= checkpoint.getCount()));
+	}
+
+	/**
+	 * Iterator which returns one holiday already taken from an underlying
+	 * iterator before the remainder of that iterator.
+	 */
+	private static final class PushbackIterator implements Iterator<Holiday> {
+
+		private Holiday first;
+		private final Iterator<Holiday> rest;
+
+		PushbackIterator(final Holiday first, final Iterator<Holiday> rest) {
+			this.first = first;
+			this.rest = rest;
+		}
+
+		public boolean hasNext() {
+			return (null != first || rest.hasNext());
+		}
+
+		public Holiday next() {
+			if (null == first) {
+				return rest.next();
+			}
+			final Holiday h = first;
+			first = null;
+			return h;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
 }
@@ -0,0 +1,51 @@
+/*
+ * File: CommittableHolidayOutput.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output;
+
+/**
+ * Defines behavior of <code>HolidayOutput</code> objects which publish stored
+ * holidays only when committed. A <tt>HolidayOutputWriter</tt> begins such
+ * an output before storing any holidays, and commits it after all holidays
+ * have been stored, immediately before closing it. An output closed without
+ * a commit, as after a failed run, discards the holidays stored to it since
+ * it was begun and leaves its destination unchanged.
+ *
+ * @param <T> Output destination type
+ * @param <E> Base exception class thrown by operations on output
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public interface CommittableHolidayOutput<T, E extends Exception>
+	extends HolidayOutput<T, E> {
+
+	/**
+	 * Begin a run: holidays stored from now on are published together by
+	 * the next commit.
+	 * 
+	 * @throws E if a run cannot be begun
+	 */
+	public void begin() throws E;
+
+	/**
+	 * Publish all holidays stored to this output. No holidays may be stored
+	 * after a commit.
+	 * 
+	 * @throws E if holidays cannot be published
+	 */
+	public void commit() throws E;
+
+}
@@ -0,0 +1,44 @@
+/*
+ * File: DifferentialHolidayOutput.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output;
+
+import org.osframework.contract.date.fincal.holiday.Holiday;
+
+/**
+ * Defines behavior of <code>HolidayOutput</code> objects to which changes
+ * may be written as a delta: holidays added by {@link #store(Object...)}
+ * and holidays removed by {@link #delete(Holiday...)}.
+ *
+ * @param <T> Output destination type
+ * @param <E> Base exception class thrown by operations on output
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ * @see DifferentialHolidayOutputWriter
+ */
+public interface DifferentialHolidayOutput<T, E extends Exception>
+	extends HolidayOutput<T, E> {
+
+	/**
+	 * Remove previously stored holidays. A holiday is identified by its
+	 * financial calendar ID, date and holiday definition ID.
+	 * 
+	 * @param holidays holidays to be removed
+	 * @throws E if holidays cannot be removed
+	 */
+	public void delete(Holiday... holidays) throws E;
+
+}
@@ -0,0 +1,275 @@
+/*
+ * File: DifferentialHolidayOutputWriter.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.commons.lang.Validate;
+import org.osframework.contract.date.fincal.definition.CentralBank;
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.definition.HolidayDefinition;
+import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.osframework.contract.date.fincal.holiday.producer.SingleFinancialCalendarProducer;
+import org.osframework.contract.date.fincal.output.HolidaySnapshot.CalendarCells;
+
+/**
+ * Provides writing of the changes in generated holidays since a previous
+ * run, given the {@link HolidaySnapshot} taken after that run. Holidays are
+ * regenerated only for cells of one financial calendar and one year which
+ * are not in the previous snapshot, or whose calendar definition has
+ * changed: any field of the calendar, its central bank or its holiday
+ * definitions which an output may write, or the inclusion of weekends.
+ * Regenerated cells are compared with their previous holidays, and only
+ * holidays added or removed are written; a holiday whose definition has
+ * changed in any such field is removed and added again. Cells of calendars
+ * or years no longer selected are removed.
+ * <p>Removals are written before additions, each in sorted order. Without
+ * a previous snapshot all holidays are added, and any
+ * <tt>HolidayOutput</tt> may be used; otherwise the output must be a
+ * {@link DifferentialHolidayOutput}. After a successful run the new snapshot
+ * is available from {@link #getSnapshot()}.</p>
+ * <p>If the output is a <tt>CommittableHolidayOutput</tt>, all removals and
+ * additions are applied by a single commit, so a failed run leaves the
+ * output as it was and may be repeated from the same snapshot. Other
+ * outputs must make stores idempotent, for example with an upsert, for a
+ * failed run to be repeatable.</p>
+ * <p>The result of applying the changes to the output of the previous run
+ * is the output a full run of <tt>SequentialHolidayOutputWriter</tt> would
+ * produce, provided the previous output has not been otherwise modified.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class DifferentialHolidayOutputWriter extends AbstractHolidayOutputWriter {
+
+	/**
+	 * Default maximum number of holidays passed to each
+	 * <tt>HolidayOutput.store</tt> or <tt>delete</tt> call.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private HolidaySnapshot previousSnapshot = null;
+	private HolidaySnapshot snapshot = null;
+
+	/**
+	 * Constructor.
+	 */
+	public DifferentialHolidayOutputWriter() {
+		super();
+	}
+
+	/**
+	 * @param batchSize maximum number of holidays passed to each store or
+	 *                  delete call
+	 * @throws IllegalArgumentException if batchSize is less than 1
+	 */
+	public void setBatchSize(int batchSize) {
+		Validate.isTrue(batchSize > 0, "Batch size must be positive");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * @param previousSnapshot snapshot taken after the previous run; null to
+	 *                         write all holidays
+	 */
+	public void setPreviousSnapshot(HolidaySnapshot previousSnapshot) {
+		this.previousSnapshot = previousSnapshot;
+	}
+
+	/**
+	 * @return snapshot taken after the last successful run, or
+	 *         <code>null</code> if none
+	 */
+	public HolidaySnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	public void writeHolidays(HolidayOutput<?, ?> output) throws HolidayOutputException {
+		FinancialCalendar[] calendars = null;
+		Integer[] years = null;
+		final boolean weekends = includeWeekends;
+		final HolidaySnapshot previous = previousSnapshot;
+		try {
+			calendars = getFinancialCalendars();
+			years = getYearRange();
+			if (null == calendars || 0 == calendars.length) {
+				throw new NullPointerException("Missing specified calendars");
+			}
+			if (null == years || 0 == years.length) {
+				throw new NullPointerException("Missing required year range");
+			}
+			if (null != previous && !(output instanceof DifferentialHolidayOutput)) {
+				throw new IllegalArgumentException("Output must be a DifferentialHolidayOutput to apply changes");
+			}
+		} catch (Exception e) {
+			throw new HolidayOutputException("Missing required parameters prior to holiday output", e);
+		}
+		
+		final List<Holiday> added = new ArrayList<Holiday>();
+		final List<Holiday> removed = new ArrayList<Holiday>();
+		final Map<String, CalendarCells> cells = new LinkedHashMap<String, CalendarCells>();
+		int regenerated = 0;
+		for (FinancialCalendar calendar : calendars) {
+			final String fingerprint = fingerprint(calendar, weekends);
+			final CalendarCells before = (null == previous) ? null : previous.get(calendar.getId());
+			final boolean unchanged = (null != before && fingerprint.equals(before.fingerprint));
+			final SortedMap<Integer, Holiday[]> after = new TreeMap<Integer, Holiday[]>();
+			final SingleFinancialCalendarProducer producer = new SingleFinancialCalendarProducer(calendar, weekends);
+			for (Integer year : years) {
+				final Holiday[] old = (null == before) ? null : before.years.get(year);
+				if (unchanged && null != old) {
+					after.put(year, old);
+				} else {
+					final Holiday[] current = producer.produce(year);
+					compare(old, current, added, removed);
+					after.put(year, current);
+					regenerated++;
+				}
+			}
+			if (null != before) {
+				for (Map.Entry<Integer, Holiday[]> e : before.years.entrySet()) {
+					if (!after.containsKey(e.getKey())) {
+						removed.addAll(Arrays.asList(e.getValue()));
+					}
+				}
+			}
+			cells.put(calendar.getId(), new CalendarCells(fingerprint, after));
+		}
+		if (null != previous) {
+			for (String calendarId : previous.getFinancialCalendarIds()) {
+				if (!cells.containsKey(calendarId)) {
+					for (Holiday[] holidays : previous.get(calendarId).years.values()) {
+						removed.addAll(Arrays.asList(holidays));
+					}
+				}
+			}
+		}
+		logger.debug("Regenerated {} of {} calendar years",
+		             String.valueOf(regenerated), String.valueOf(calendars.length * years.length));
+		
+		try {
+			begin(output);
+			if (!removed.isEmpty()) {
+				delete((DifferentialHolidayOutput<?, ?>)output, sorted(removed));
+			}
+			store(output, sorted(added));
+			logger.info("Removed {} and added {} holidays; closing output",
+			            String.valueOf(removed.size()), String.valueOf(added.size()));
+			commit(output);
+			output.close();
+		} catch (Exception e) {
+			throw new HolidayOutputException(e.getMessage(), e);
+		}
+		snapshot = new HolidaySnapshot(cells);
+	}
+
+	private void store(HolidayOutput<?, ?> output, Holiday[] holidays) throws Exception {
+		for (int from = 0; from < holidays.length; from += batchSize) {
+			output.store(Arrays.copyOfRange(holidays, from, Math.min(from + batchSize, holidays.length)));
+		}
+	}
+
+	private void delete(DifferentialHolidayOutput<?, ?> output, Holiday[] holidays) throws Exception {
+		for (int from = 0; from < holidays.length; from += batchSize) {
+			output.delete(Arrays.copyOfRange(holidays, from, Math.min(from + batchSize, holidays.length)));
+		}
+	}
+
+	private static Holiday[] sorted(final List<Holiday> holidays) {
+		final Holiday[] array = holidays.toArray(EMPTY_HOLIDAY_ARRAY);
+		Arrays.sort(array);
+		return array;
+	}
+
+	/**
+	 * Compare the previous and current holidays of a cell by date and
+	 * holiday definition, collecting those added and removed.
+	 */
+	private static void compare(final Holiday[] previous, final Holiday[] current,
+	                            final List<Holiday> added, final List<Holiday> removed) {
+		if (null == previous) {
+			added.addAll(Arrays.asList(current));
+			return;
+		}
+		final Map<String, Holiday> remaining = new HashMap<String, Holiday>(previous.length * 2);
+		for (Holiday h : previous) {
+			remaining.put(key(h), h);
+		}
+		for (Holiday h : current) {
+			if (null == remaining.remove(key(h))) {
+				added.add(h);
+			}
+		}
+		removed.addAll(remaining.values());
+	}
+
+	private static String key(final Holiday h) {
+		return appendDefinition(new StringBuilder().append(h.getDate()).append('|'), h.getHolidayDefinition()).toString();
+	}
+
+	/**
+	 * Describe everything about a financial calendar from which its holidays
+	 * are generated, in a canonical form.
+	 */
+	static String fingerprint(final FinancialCalendar calendar, final boolean weekends) {
+		final CentralBank cb = calendar.getCentralBank();
+		final StringBuilder sb = new StringBuilder();
+		sb.append(weekends ? calendar.getWeekendSchedule().format() : "-").append('|')
+		  .append(calendar.getDescription()).append('|')
+		  .append(cb.getId()).append('|')
+		  .append(cb.getName()).append('|')
+		  .append(cb.getCountry()).append('|')
+		  .append(cb.getCurrency());
+		final List<HolidayDefinition> definitions = new ArrayList<HolidayDefinition>();
+		for (HolidayDefinition hd : calendar) {
+			definitions.add(hd);
+		}
+		Collections.sort(definitions, DEFINITION_ID_ORDER);
+		for (HolidayDefinition hd : definitions) {
+			appendDefinition(sb.append('|'), hd);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Append every field of a holiday definition which an output may write.
+	 */
+	private static StringBuilder appendDefinition(final StringBuilder sb, final HolidayDefinition hd) {
+		return sb.append(hd.getId())
+		         .append('=').append(hd.getObservance())
+		         .append(':').append(hd.getExpression())
+		         .append(':').append(hd.getName())
+		         .append(':').append(hd.getDescription());
+	}
+
+	private static final Comparator<HolidayDefinition> DEFINITION_ID_ORDER = new Comparator<HolidayDefinition>() {
+		public int compare(HolidayDefinition hd1, HolidayDefinition hd2) {
+			return hd1.getId().compareTo(hd2.getId());
+		}
+	};
+
+}
@@ -0,0 +1,43 @@
+/*
+ * File: HolidayBlockOutput.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output;
+
+import org.osframework.contract.date.fincal.holiday.HolidayBlock;
+
+/**
+ * Defines behavior of <code>HolidayOutput</code> objects which can also
+ * store holidays in columnar {@link HolidayBlock} form, without a
+ * <code>Holiday</code> object per holiday.
+ *
+ * @param <T> Output destination type
+ * @param <E> Base exception class thrown by operations on output
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public interface HolidayBlockOutput<T, E extends Exception>
+	extends HolidayOutput<T, E> {
+
+	/**
+	 * Store all holidays of the specified block. Equivalent to storing
+	 * <code>block.asList()</code>, in order.
+	 *
+	 * @param block holidays to be stored
+	 * @throws E if holidays cannot be stored
+	 */
+	public void storeBlock(HolidayBlock block) throws E;
+
+}
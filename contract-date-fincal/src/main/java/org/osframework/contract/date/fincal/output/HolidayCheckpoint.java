@@ -0,0 +1,142 @@
+/*
+ * File: HolidayCheckpoint.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output;
+
+import java.io.Serializable;
+
+import org.apache.commons.lang.Validate;
+import org.osframework.contract.date.fincal.holiday.HolidayId;
+
+/**
+ * Position in the sorted sequence of holidays written by a
+ * <tt>HolidayOutputWriter</tt>, up to and including which holidays have
+ * been durably stored. A checkpoint identifies the last
+ * <tt>HolidayId</tt> stored, together with the number of holidays sharing
+ * that ID which were stored, since two holiday definitions of a calendar
+ * may be observed on the same day.
+ * <p>Instances of this class are immutable and thread-safe.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ * @see ResumableHolidayOutput
+ */
+public final class HolidayCheckpoint implements Serializable {
+
+	private static final long serialVersionUID = -3402738569871452137L;
+
+	private final String financialCalendarId;
+	private final int date;
+	private final int count;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param financialCalendarId ID of financial calendar of last holiday stored
+	 * @param date date of last holiday stored, in <code>yyyymmdd</code> format
+	 * @param count number of holidays stored with this calendar ID and date
+	 * @throws IllegalArgumentException if financialCalendarId is empty or
+	 *         count is less than 1
+	 */
+	public HolidayCheckpoint(final String financialCalendarId, final int date, final int count) {
+		Validate.notEmpty(financialCalendarId, "Financial calendar ID cannot be null or empty");
+		Validate.isTrue(count > 0, "Holiday count must be positive");
+		this.financialCalendarId = financialCalendarId;
+		this.date = date;
+		this.count = count;
+	}
+
+	/**
+	 * @return ID of financial calendar of last holiday stored
+	 */
+	public String getFinancialCalendarId() {
+		return financialCalendarId;
+	}
+
+	/**
+	 * @return date of last holiday stored, in <code>yyyymmdd</code> format
+	 */
+	public int getDate() {
+		return date;
+	}
+
+	/**
+	 * @return year of last holiday stored
+	 */
+	public int getYear() {
+		return date / 10000;
+	}
+
+	/**
+	 * @return number of holidays stored with this calendar ID and date
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Determine if a holiday ID has the same calendar and date as this
+	 * checkpoint.
+	 * 
+	 * @param id holiday ID
+	 * @return <code>true</code> if ID is at this checkpoint,
+	 *         <code>false</code> otherwise
+	 */
+	public boolean isAt(HolidayId id) {
+		return (date == id.getDate() &&
+		        financialCalendarId.equals(id.getFinancialCalendar().getId()));
+	}
+
+	/**
+	 * Compare the position of this checkpoint with a holiday ID, in the
+	 * natural order of <tt>HolidayId</tt>.
+	 * 
+	 * @param id holiday ID
+	 * @return negative, zero or positive if this checkpoint is before, at or
+	 *         after the ID
+	 */
+	public int compareTo(HolidayId id) {
+		int result = date - id.getDate();
+		if (0 == result) {
+			result = financialCalendarId.compareTo(id.getFinancialCalendar().getId());
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "" + date + "|" + financialCalendarId + "#" + count;
+	}
+
+	@Override
+	public int hashCode() {
+		return (31 * (31 * date + financialCalendarId.hashCode())) + count;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof HolidayCheckpoint)) {
+			return false;
+		}
+		final HolidayCheckpoint other = (HolidayCheckpoint)obj;
+		return (date == other.date && count == other.count &&
+		        financialCalendarId.equals(other.financialCalendarId));
+	}
+
+}
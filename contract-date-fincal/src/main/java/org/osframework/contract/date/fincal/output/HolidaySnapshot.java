@@ -0,0 +1,106 @@
+/*
+ * File: HolidaySnapshot.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+import org.osframework.contract.date.fincal.holiday.Holiday;
+
+/**
+ * Holidays generated by a <tt>DifferentialHolidayOutputWriter</tt>, by
+ * financial calendar and year of production, together with a fingerprint
+ * of the definitions from which each calendar's holidays were generated.
+ * A snapshot taken after one run is the previous state of the next, and
+ * may be kept between runs by serialization.
+ * <p>Instances of this class are immutable.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public final class HolidaySnapshot implements Serializable {
+
+	private static final long serialVersionUID = 5284629375591436472L;
+
+	private final Map<String, CalendarCells> calendars;
+
+	/**
+	 * @param calendars cells by financial calendar ID; owned by the new
+	 *                  instance
+	 */
+	HolidaySnapshot(final Map<String, CalendarCells> calendars) {
+		this.calendars = Collections.unmodifiableMap(calendars);
+	}
+
+	/**
+	 * @return IDs of financial calendars in this snapshot
+	 */
+	public Set<String> getFinancialCalendarIds() {
+		return calendars.keySet();
+	}
+
+	/**
+	 * Get the holidays produced for a financial calendar and year.
+	 * 
+	 * @param financialCalendarId financial calendar ID
+	 * @param year year of production
+	 * @return holidays, or <code>null</code> if not in this snapshot
+	 */
+	public Holiday[] getHolidays(String financialCalendarId, int year) {
+		final CalendarCells cells = calendars.get(financialCalendarId);
+		final Holiday[] holidays = (null == cells) ? null : cells.years.get(Integer.valueOf(year));
+		return (null == holidays) ? null : holidays.clone();
+	}
+
+	/**
+	 * @return total number of holidays in this snapshot
+	 */
+	public int size() {
+		int size = 0;
+		for (CalendarCells cells : calendars.values()) {
+			for (Holiday[] holidays : cells.years.values()) {
+				size += holidays.length;
+			}
+		}
+		return size;
+	}
+
+	CalendarCells get(final String financialCalendarId) {
+		return calendars.get(financialCalendarId);
+	}
+
+	/**
+	 * Holidays of one financial calendar, by year of production.
+	 */
+	static final class CalendarCells implements Serializable {
+
+		private static final long serialVersionUID = -1902742869208143511L;
+
+		final String fingerprint;
+		final SortedMap<Integer, Holiday[]> years;
+
+		CalendarCells(final String fingerprint, final SortedMap<Integer, Holiday[]> years) {
+			this.fingerprint = fingerprint;
+			this.years = years;
+		}
+
+	}
+
+}
@@ -0,0 +1,212 @@
+/*
+ * File: ParallelHolidayOutputWriter.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang.Validate;
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.osframework.contract.date.fincal.holiday.producer.SingleFinancialCalendarProducer;
+
+/**
+ * Provides writing of holidays produced in parallel from an array of
+ * selected <tt>FinancialCalendar</tt> objects. Production is split into
+ * tasks of one calendar and a block of consecutive years, executed on a
+ * fixed pool of worker threads; storage is performed by the calling thread.
+ * <p>Task results are concatenated in the order in which the sequential
+ * writer produces them and then stably sorted, so that output is identical
+ * to that of <tt>SequentialHolidayOutputWriter</tt>.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ * @see SequentialHolidayOutputWriter
+ */
+public class ParallelHolidayOutputWriter extends AbstractHolidayOutputWriter {
+
+	/**
+	 * Default number of consecutive years produced by each task.
+	 */
+	public static final int DEFAULT_YEARS_PER_TASK = 10;
+
+	private final int parallelism;
+	private final int yearsPerTask;
+
+	/**
+	 * Constructor. Uses one worker thread per available processor.
+	 */
+	public ParallelHolidayOutputWriter() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param parallelism number of worker threads
+	 * @throws IllegalArgumentException if parallelism is less than 1
+	 */
+	public ParallelHolidayOutputWriter(final int parallelism) {
+		this(parallelism, DEFAULT_YEARS_PER_TASK);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param parallelism number of worker threads
+	 * @param yearsPerTask number of consecutive years produced by each task
+	 * @throws IllegalArgumentException if either argument is less than 1
+	 */
+	public ParallelHolidayOutputWriter(final int parallelism, final int yearsPerTask) {
+		super();
+		Validate.isTrue(parallelism > 0, "Parallelism must be positive");
+		Validate.isTrue(yearsPerTask > 0, "Years per task must be positive");
+		this.parallelism = parallelism;
+		this.yearsPerTask = yearsPerTask;
+	}
+
+	/**
+	 * @return number of worker threads
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * @return number of consecutive years produced by each task
+	 */
+	public int getYearsPerTask() {
+		return yearsPerTask;
+	}
+
+	public void writeHolidays(HolidayOutput<?, ?> output) throws HolidayOutputException {
+		FinancialCalendar[] calendars = null;
+		Integer[] years = null;
+		final boolean weekends = includeWeekends;
+		try {
+			calendars = getFinancialCalendars();
+			years = getYearRange();
+			if (null == calendars || 0 == calendars.length) {
+				throw new NullPointerException("Missing specified calendars");
+			}
+			if (null == years || 0 == years.length) {
+				throw new NullPointerException("Missing required year range");
+			}
+		} catch (Exception e) {
+			throw new HolidayOutputException("Missing required parameters prior to holiday output", e);
+		}
+		
+		HolidayCheckpoint checkpoint = null;
+		try {
+			checkpoint = readCheckpoint(output);
+		} catch (Exception e) {
+			throw new HolidayOutputException(e.getMessage(), e);
+		}
+		years = Arrays.copyOfRange(years, resumeYear(checkpoint) - firstYear, years.length);
+		Holiday[] allSorted = produceAll(calendars, years, weekends);
+		int start = resumeIndex(allSorted, checkpoint);
+		if (0 < start) {
+			allSorted = Arrays.copyOfRange(allSorted, start, allSorted.length);
+		}
+		
+		logger.debug("Storing {} total holidays generated for {} financial calendars",
+			         String.valueOf(allSorted.length), String.valueOf(calendars.length));
+		try {
+			int totalSize = allSorted.length;
+			begin(output);
+			output.store(allSorted);
+			logger.info("Stored {} total holidays; closing output", String.valueOf(totalSize));
+			commit(output);
+			clearCheckpoint(output);
+			output.close();
+		} catch (Exception e) {
+			throw new HolidayOutputException(e.getMessage(), e);
+		}
+	}
+
+	private Holiday[] produceAll(final FinancialCalendar[] calendars, final Integer[] years, final boolean weekends)
+		throws HolidayOutputException {
+		final List<Callable<Holiday[]>> tasks = new ArrayList<Callable<Holiday[]>>();
+		for (FinancialCalendar calendar : calendars) {
+			final SingleFinancialCalendarProducer producer;
+			try {
+				producer = new SingleFinancialCalendarProducer(calendar, weekends);
+			} catch (RuntimeException re) {
+				throw new HolidayOutputException("Holiday production failed", re);
+			}
+			for (int from = 0; from < years.length; from += yearsPerTask) {
+				int to = Math.min(from + yearsPerTask, years.length);
+				tasks.add(new ProductionTask(producer, Arrays.copyOfRange(years, from, to)));
+			}
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, tasks.size()));
+		try {
+			final List<Future<Holiday[]>> results = executor.invokeAll(tasks);
+			final List<Holiday[]> produced = new ArrayList<Holiday[]>(results.size());
+			int total = 0;
+			for (Future<Holiday[]> result : results) {
+				Holiday[] holidays = result.get();
+				produced.add(holidays);
+				total += holidays.length;
+			}
+			final Holiday[] all = new Holiday[total];
+			int offset = 0;
+			for (Holiday[] holidays : produced) {
+				System.arraycopy(holidays, 0, all, offset, holidays.length);
+				offset += holidays.length;
+			}
+			// Object sort is stable: equal holidays keep production order
+			Arrays.sort(all);
+			return all;
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new HolidayOutputException("Interrupted during holiday production", ie);
+		} catch (ExecutionException ee) {
+			throw new HolidayOutputException("Holiday production failed", ee.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Produces the holidays of one financial calendar for a block of years.
+	 * Producers are thread-safe, so all tasks of a calendar share one and its
+	 * holiday expressions are parsed only once.
+	 */
+	private static final class ProductionTask implements Callable<Holiday[]> {
+
+		private final SingleFinancialCalendarProducer producer;
+		private final Integer[] years;
+
+		ProductionTask(final SingleFinancialCalendarProducer producer, final Integer[] years) {
+			this.producer = producer;
+			this.years = years;
+		}
+
+		public Holiday[] call() {
+			return producer.produce(years);
+		}
+
+	}
+
+}
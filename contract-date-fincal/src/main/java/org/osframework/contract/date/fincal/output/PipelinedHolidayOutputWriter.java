@@ -0,0 +1,251 @@
+/*
+ * File: PipelinedHolidayOutputWriter.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang.Validate;
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.holiday.Holiday;
+
+/**
+ * Provides writing of holidays with production and storage overlapped. A
+ * producer thread generates holidays in sorted order, as
+ * <tt>SequentialHolidayOutputWriter</tt> does, and passes them in batches
+ * through a bounded queue; the calling thread stores each batch to the
+ * output as it arrives. When the queue is full, production waits for
+ * storage to catch up.
+ * <p>Storage is performed by a single consumer, the calling thread, since
+ * <tt>HolidayOutput</tt> implementations are not thread-safe and holidays
+ * must be stored in order. Output is identical to that of
+ * <tt>SequentialHolidayOutputWriter</tt>, including resumption after the
+ * checkpoint of a <tt>ResumableHolidayOutput</tt>.</p>
+ * <p>If production or storage fails, the other side is stopped, the output
+ * is closed without being committed and the failure is thrown as a
+ * <tt>HolidayOutputException</tt>. A stopped producer never waits on the
+ * queue, so its thread ends even if the queue is full.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ * @see SequentialHolidayOutputWriter
+ */
+public class PipelinedHolidayOutputWriter extends AbstractHolidayOutputWriter {
+
+	/**
+	 * Default maximum number of holidays passed to each
+	 * <tt>HolidayOutput.store</tt> call.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/**
+	 * Default maximum number of produced batches awaiting storage.
+	 */
+	public static final int DEFAULT_QUEUE_DEPTH = 16;
+
+	/**
+	 * Marks the end of production in the queue.
+	 */
+	private static final Holiday[] END_OF_PRODUCTION = new Holiday[0];
+
+	/**
+	 * Milliseconds the consumer waits for a batch before checking whether
+	 * production has failed.
+	 */
+	private static final long POLL_INTERVAL_MILLIS = 100L;
+
+	private final int batchSize;
+	private final int queueDepth;
+
+	/**
+	 * Constructor. Uses default batch size and queue depth.
+	 */
+	public PipelinedHolidayOutputWriter() {
+		this(DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_DEPTH);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param batchSize maximum number of holidays passed to each
+	 *                  <tt>HolidayOutput.store</tt> call
+	 * @param queueDepth maximum number of produced batches awaiting storage
+	 * @throws IllegalArgumentException if either argument is less than 1
+	 */
+	public PipelinedHolidayOutputWriter(final int batchSize, final int queueDepth) {
+		super();
+		Validate.isTrue(batchSize > 0, "Batch size must be positive");
+		Validate.isTrue(queueDepth > 0, "Queue depth must be positive");
+		this.batchSize = batchSize;
+		this.queueDepth = queueDepth;
+	}
+
+	/**
+	 * @return maximum number of holidays passed to each store call
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * @return maximum number of produced batches awaiting storage
+	 */
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	public void writeHolidays(HolidayOutput<?, ?> output) throws HolidayOutputException {
+		FinancialCalendar[] calendars = null;
+		Integer[] years = null;
+		final boolean weekends = includeWeekends;
+		try {
+			calendars = getFinancialCalendars();
+			years = getYearRange();
+			if (null == calendars || 0 == calendars.length) {
+				throw new NullPointerException("Missing specified calendars");
+			}
+			if (null == years || 0 == years.length) {
+				throw new NullPointerException("Missing required year range");
+			}
+		} catch (Exception e) {
+			throw new HolidayOutputException("Missing required parameters prior to holiday output", e);
+		}
+		
+		logger.debug("Storing holidays generated for {} financial calendars", String.valueOf(calendars.length));
+		final BlockingQueue<Holiday[]> queue = new ArrayBlockingQueue<Holiday[]>(queueDepth);
+		final Iterator<Holiday> it;
+		try {
+			it = sortedHolidays(calendars, weekends, readCheckpoint(output));
+		} catch (Exception e) {
+			throw new HolidayOutputException(e.getMessage(), e);
+		}
+		final ExecutorService executor = Executors.newSingleThreadExecutor(new ProducerThreadFactory());
+		final Future<Integer> production = executor.submit(new Callable<Integer>() {
+			public Integer call() throws InterruptedException {
+				int produced = 0;
+				boolean completed = false;
+				try {
+					Holiday[] batch = new Holiday[batchSize];
+					int count = 0;
+					while (it.hasNext()) {
+						batch[count++] = it.next();
+						if (batchSize == count) {
+							queue.put(batch);
+							produced += count;
+							batch = new Holiday[batchSize];
+							count = 0;
+						}
+					}
+					if (0 < count) {
+						queue.put(Arrays.copyOf(batch, count));
+						produced += count;
+					}
+					queue.put(END_OF_PRODUCTION);
+					completed = true;
+				} finally {
+					if (!completed) {
+						// Never blocks on a full queue; the consumer also
+						// polls for failure
+						queue.offer(END_OF_PRODUCTION);
+					}
+				}
+				return Integer.valueOf(produced);
+			}
+		});
+		
+		boolean stored = false;
+		try {
+			int totalSize = 0;
+			begin(output);
+			for (Holiday[] batch = nextBatch(queue, production); END_OF_PRODUCTION != batch;
+			     batch = nextBatch(queue, production)) {
+				output.store(batch);
+				totalSize += batch.length;
+			}
+			// Surfaces any production failure
+			production.get();
+			logger.info("Stored {} total holidays; closing output", String.valueOf(totalSize));
+			commit(output);
+			clearCheckpoint(output);
+			stored = true;
+			output.close();
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new HolidayOutputException("Interrupted during holiday output", ie);
+		} catch (ExecutionException ee) {
+			throw new HolidayOutputException("Holiday production failed", ee.getCause());
+		} catch (Exception e) {
+			throw new HolidayOutputException(e.getMessage(), e);
+		} finally {
+			if (!production.isDone()) {
+				production.cancel(true);
+			}
+			executor.shutdownNow();
+			if (!stored) {
+				closeQuietly(output);
+			}
+		}
+	}
+
+	/**
+	 * Take the next batch from the queue, waiting for it only as long as
+	 * production has not failed.
+	 * 
+	 * @throws ExecutionException if production failed
+	 */
+	private static Holiday[] nextBatch(final BlockingQueue<Holiday[]> queue, final Future<Integer> production)
+		throws InterruptedException, ExecutionException {
+		Holiday[] batch;
+		while (null == (batch = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS))) {
+			if (production.isDone()) {
+				// Throws if production failed; otherwise the end marker has
+				// been queued since the poll
+				production.get();
+			}
+		}
+		return batch;
+	}
+
+	private void closeQuietly(HolidayOutput<?, ?> output) {
+		try {
+			output.close();
+		} catch (Exception e) {
+			logger.warn("Cannot close output after failure", e);
+		}
+	}
+
+	/**
+	 * Creates the daemon thread on which holidays are produced.
+	 */
+	private static final class ProducerThreadFactory implements ThreadFactory {
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, "holiday-producer");
+			t.setDaemon(true);
+			return t;
+		}
+	}
+
+}
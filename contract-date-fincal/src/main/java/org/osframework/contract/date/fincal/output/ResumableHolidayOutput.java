@@ -0,0 +1,54 @@
+/*
+ * File: ResumableHolidayOutput.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output;
+
+/**
+ * Defines behavior of <code>HolidayOutput</code> objects which record a
+ * {@link HolidayCheckpoint} as holidays are durably stored. A
+ * <tt>HolidayOutputWriter</tt> writing to such an output skips holidays up
+ * to and including its checkpoint, so that a run which failed part way may
+ * be restarted without storing any holiday twice. Upon successful
+ * completion the writer clears the checkpoint, so that the next run starts
+ * from the beginning.
+ * <p>A checkpoint is meaningful only to a run with the same financial
+ * calendars, year range and weekend setting as the run which recorded
+ * it.</p>
+ *
+ * @param <T> Output destination type
+ * @param <E> Base exception class thrown by operations on output
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public interface ResumableHolidayOutput<T, E extends Exception>
+	extends HolidayOutput<T, E> {
+
+	/**
+	 * Get the last recorded checkpoint.
+	 * 
+	 * @return last checkpoint, or <code>null</code> if none is recorded
+	 * @throws E if checkpoint cannot be read
+	 */
+	public HolidayCheckpoint getCheckpoint() throws E;
+
+	/**
+	 * Remove the recorded checkpoint, if any.
+	 * 
+	 * @throws E if checkpoint cannot be removed
+	 */
+	public void clearCheckpoint() throws E;
+
+}
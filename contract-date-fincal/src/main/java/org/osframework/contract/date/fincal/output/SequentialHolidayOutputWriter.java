@@ -18,23 +18,39 @@
 package org.osframework.contract.date.fincal.output;
 
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Iterator;
 
+import org.apache.commons.lang.Validate;
 import org.osframework.contract.date.fincal.definition.FinancialCalendar;
 import org.osframework.contract.date.fincal.holiday.Holiday;
-import org.osframework.contract.date.fincal.holiday.producer.SingleFinancialCalendarProducer;
+import org.osframework.contract.date.fincal.holiday.HolidayBlockBuilder;
 
 /**
  * Provides writing of holidays produced in sequence from an array of selected
  * <tt>FinancialCalendar</tt> objects. Instances of this class perform holiday
  * production and storage in a single thread.
+ * <p>Holidays are produced in sorted order by a
+ * <tt>MergingHolidayProducer</tt> and stored in batches as they are
+ * produced; the full set of holidays is never held in memory. Batches are
+ * stored as <tt>HolidayBlock</tt> objects if the output is a
+ * <tt>HolidayBlockOutput</tt>.</p>
+ * <p>Writing to a <tt>ResumableHolidayOutput</tt> resumes after its
+ * checkpoint, if any. A <tt>CommittableHolidayOutput</tt> is begun before
+ * the first batch and committed after the last, so that all batches are
+ * published together.</p>
  *
  * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
  */
 public class SequentialHolidayOutputWriter extends AbstractHolidayOutputWriter {
 
+	/**
+	 * Default maximum number of holidays passed to each
+	 * <tt>HolidayOutput.store</tt> call.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
 	/**
 	 * Constructor.
 	 */
@@ -42,8 +58,17 @@ public class SequentialHolidayOutputWriter extends AbstractHolidayOutputWriter {
 		super();
 	}
 
+	/**
+	 * @param batchSize maximum number of holidays passed to each
+	 *                  <tt>HolidayOutput.store</tt> call
+	 * @throws IllegalArgumentException if batchSize is less than 1
+	 */
+	public void setBatchSize(int batchSize) {
+		Validate.isTrue(batchSize > 0, "Batch size must be positive");
+		this.batchSize = batchSize;
+	}
+
 	public void writeHolidays(HolidayOutput<?, ?> output) throws HolidayOutputException {
-		final List<Holiday> holidayQueue = new LinkedList<Holiday>();
 		FinancialCalendar[] calendars = null;
 		Integer[] years = null;
 		final boolean weekends = includeWeekends;
@@ -60,26 +85,67 @@ public class SequentialHolidayOutputWriter extends AbstractHolidayOutputWriter {
 			throw new HolidayOutputException("Missing required parameters prior to holiday output", e);
 		}
 		
-		for (FinancialCalendar calendar : calendars) {
-			holidayQueue.addAll(
-				Arrays.asList(
-					new SingleFinancialCalendarProducer(calendar, weekends).produce(years)
-				)
-			);
-		}
-		Collections.sort(holidayQueue);
-		
-		logger.debug("Storing {} total holidays generated for {} financial calendars",
-			         String.valueOf(holidayQueue.size()), String.valueOf(calendars.length));
+		logger.debug("Storing holidays generated for {} financial calendars", String.valueOf(calendars.length));
 		try {
-			Holiday[] allSorted = holidayQueue.toArray(EMPTY_HOLIDAY_ARRAY);
-			int totalSize = allSorted.length;
-			output.store(allSorted);
+			Iterator<Holiday> it = sortedHolidays(calendars, weekends, readCheckpoint(output));
+			begin(output);
+			final int totalSize = (output instanceof HolidayBlockOutput)
+			                      ? storeBlocks((HolidayBlockOutput<?, ?>)output, it)
+			                      : storeBatches(output, it);
 			logger.info("Stored {} total holidays; closing output", String.valueOf(totalSize));
+			commit(output);
+			clearCheckpoint(output);
 			output.close();
 		} catch (Exception e) {
 			throw new HolidayOutputException(e.getMessage(), e);
 		}
 	}
 
+	/**
+	 * Store holidays in arrays of at most <code>batchSize</code> holidays.
+	 * 
+	 * @return number of holidays stored
+	 */
+	private int storeBatches(HolidayOutput<?, ?> output, Iterator<Holiday> it) throws Exception {
+		Holiday[] batch = new Holiday[batchSize];
+		int count = 0, totalSize = 0;
+		while (it.hasNext()) {
+			batch[count++] = it.next();
+			if (batchSize == count) {
+				output.store(batch);
+				totalSize += count;
+				batch = new Holiday[batchSize];
+				count = 0;
+			}
+		}
+		if (0 < count) {
+			output.store(Arrays.copyOf(batch, count));
+			totalSize += count;
+		}
+		return totalSize;
+	}
+
+	/**
+	 * Store holidays in blocks of at most <code>batchSize</code> holidays.
+	 * 
+	 * @return number of holidays stored
+	 */
+	private int storeBlocks(HolidayBlockOutput<?, ?> output, Iterator<Holiday> it) throws Exception {
+		HolidayBlockBuilder builder = new HolidayBlockBuilder(batchSize);
+		int totalSize = 0;
+		while (it.hasNext()) {
+			builder.add(it.next());
+			if (batchSize == builder.size()) {
+				output.storeBlock(builder.build());
+				totalSize += batchSize;
+				builder = new HolidayBlockBuilder(batchSize);
+			}
+		}
+		if (0 < builder.size()) {
+			output.storeBlock(builder.build());
+			totalSize += builder.size();
+		}
+		return totalSize;
+	}
+
 }
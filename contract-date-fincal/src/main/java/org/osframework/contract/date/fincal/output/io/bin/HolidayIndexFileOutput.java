@@ -0,0 +1,126 @@
+/*
+ * File: TriColTabOutput.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output.io.bin;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.lang.Validate;
+import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.osframework.contract.date.fincal.holiday.HolidayBlock;
+import org.osframework.contract.date.fincal.holiday.index.HolidayIndexBuilder;
+import org.osframework.contract.date.fincal.holiday.index.HolidayIndexFile;
+import org.osframework.contract.date.fincal.output.AbstractOutput;
+import org.osframework.contract.date.fincal.output.CommittableHolidayOutput;
+import org.osframework.contract.date.fincal.output.HolidayBlockOutput;
+
+/**
+ * Stores <tt>Holiday</tt> data to a binary holiday index file, which may be
+ * loaded with {@link HolidayIndexFile#map(File)}. Stored holidays are
+ * accumulated in a {@link HolidayIndexBuilder}; the file is written when
+ * this output is committed, replacing any existing file in one step. If this
+ * output is closed without a commit, as after a failed run, the stored
+ * holidays are discarded and any existing file is left unchanged. Holidays
+ * outside the years given at construction, and weekend pseudo-holidays, are
+ * ignored.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class HolidayIndexFileOutput extends AbstractOutput<Holiday, File, IOException>
+	implements HolidayBlockOutput<File, IOException>, CommittableHolidayOutput<File, IOException> {
+
+	private final File file;
+	private final HolidayIndexBuilder builder;
+	private boolean committed;
+	private boolean closed;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param file destination file
+	 * @param firstYear first year to be written
+	 * @param lastYear last year to be written
+	 * @throws IllegalArgumentException if file is <code>null</code> or
+	 *         firstYear is after lastYear
+	 */
+	public HolidayIndexFileOutput(final File file, final int firstYear, final int lastYear) {
+		super();
+		Validate.notNull(file, "File argument cannot be null");
+		this.file = file;
+		this.builder = new HolidayIndexBuilder(firstYear, lastYear);
+		this.committed = false;
+		this.closed = false;
+	}
+
+	public synchronized void store(Holiday... holidays) throws IOException {
+		checkOpen();
+		builder.add(holidays);
+	}
+
+	public synchronized void storeBlock(HolidayBlock block) throws IOException {
+		checkOpen();
+		builder.add(block);
+	}
+
+	/**
+	 * Begin a run. Stored holidays are always held until commit, so this
+	 * method only checks that the output is still open.
+	 * 
+	 * @throws IOException if this output is already committed or closed
+	 */
+	public synchronized void begin() throws IOException {
+		checkOpen();
+	}
+
+	/**
+	 * Write all stored holidays to the destination file.
+	 * 
+	 * @throws IOException if the file cannot be written, or if this output
+	 *                     is already committed or closed
+	 */
+	public synchronized void commit() throws IOException {
+		checkOpen();
+		HolidayIndexFile.write(builder.build(), file);
+		committed = true;
+		logger.debug("Wrote holiday index to file {}", file);
+	}
+
+	/**
+	 * Close this output. If it has not been committed, stored holidays are
+	 * discarded. Subsequent calls have no effect.
+	 */
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		if (!committed) {
+			logger.debug("Closed uncommitted output; holiday index file {} not written", file);
+		}
+	}
+
+	private void checkOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Output is closed");
+		}
+		if (committed) {
+			throw new IOException("Output is committed");
+		}
+	}
+
+}
@@ -22,17 +22,32 @@ import java.sql.SQLException;
 
 import javax.sql.DataSource;
 
+import org.apache.commons.lang.Validate;
 import org.osframework.contract.date.fincal.output.AbstractOutput;
 
 /**
  * Abstract superclass of objects which store definition or generated
  * <tt>Holiday</tt> objects to a JDBC <tt>DataSource</tt>.
+ * <p>Objects are sent to the database in batches of
+ * {@link #setBatchSize(int) batchSize} rows per table. By default each
+ * transaction is committed only once, when it ends: for most subclasses, at
+ * the end of each call to <code>store</code>. A positive
+ * {@link #setCommitInterval(int) commitInterval} also commits whenever at
+ * least that many rows have been executed since the previous commit, in
+ * which case a failure rolls back only the rows stored since then.</p>
  *
  * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
  */
 public abstract class AbstractJdbcOutput<M> extends AbstractOutput<M, DataSource, SQLException> {
 
+	/**
+	 * Default number of rows sent to the database per batch.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
 	protected DataSource dataSource;
+	protected int batchSize = DEFAULT_BATCH_SIZE;
+	protected int commitInterval = 0;
 	private volatile boolean closed;
 
 	public AbstractJdbcOutput() {
@@ -52,6 +67,26 @@ public abstract class AbstractJdbcOutput<M> extends AbstractOutput<M, DataSource
 		this.dataSource = dataSource;
 	}
 
+	/**
+	 * @param batchSize number of rows sent to the database per batch
+	 * @throws IllegalArgumentException if batchSize is less than 1
+	 */
+	public void setBatchSize(int batchSize) {
+		Validate.isTrue(batchSize > 0, "Property 'batchSize' must be positive");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * @param commitInterval minimum number of rows executed between commits;
+	 *                       zero to commit only at the end of each
+	 *                       transaction
+	 * @throws IllegalArgumentException if commitInterval is negative
+	 */
+	public void setCommitInterval(int commitInterval) {
+		Validate.isTrue(commitInterval >= 0, "Property 'commitInterval' cannot be negative");
+		this.commitInterval = commitInterval;
+	}
+
 	public void close() throws SQLException {
 		closed = true;
 	}
@@ -65,4 +100,48 @@ public abstract class AbstractJdbcOutput<M> extends AbstractOutput<M, DataSource
 		return c;
 	}
 
+	/**
+	 * Commit the connection if the commit interval has been reached.
+	 * 
+	 * @param connection JDBC connection
+	 * @param uncommitted number of rows executed since the previous commit
+	 * @return number of rows executed since the commit, if any
+	 * @throws SQLException if commit fails
+	 */
+	protected int commitIfDue(Connection connection, int uncommitted) throws SQLException {
+		if (0 < commitInterval && uncommitted >= commitInterval) {
+			commit(connection);
+			logger.debug("Committed {} rows", Integer.valueOf(uncommitted));
+			return 0;
+		}
+		return uncommitted;
+	}
+
+	/**
+	 * Commit the connection. Subclasses which store additional state with
+	 * each commit override this method.
+	 * 
+	 * @param connection JDBC connection
+	 * @throws SQLException if commit fails
+	 */
+	protected void commit(Connection connection) throws SQLException {
+		connection.commit();
+	}
+
+	/**
+	 * Close a batch, logging rather than throwing any failure so that the
+	 * original cause of an unsuccessful store is not masked.
+	 * 
+	 * @param batch batch to be closed; may be null
+	 */
+	protected void closeQuietly(JdbcBatch<?> batch) {
+		if (null != batch) {
+			try {
+				batch.close();
+			} catch (SQLException se) {
+				logger.warn("Could not close JDBC batch", se);
+			}
+		}
+	}
+
 }
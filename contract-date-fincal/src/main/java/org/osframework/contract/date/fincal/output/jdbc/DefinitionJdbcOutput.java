@@ -19,6 +19,8 @@ package org.osframework.contract.date.fincal.output.jdbc;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
@@ -30,16 +32,37 @@ import org.osframework.contract.date.fincal.output.DefinitionOutput;
 
 /**
  * Provides storage of <tt>FinancialCalendar</tt> definitions to a JDBC
- * <tt>DataSource</tt>.
+ * <tt>DataSource</tt>. Central banks, holiday definitions and financial
+ * calendars are each stored in batches via a {@link JdbcBatchHandler}, one
+ * per table; single-row {@link JdbcOutputHandler} objects are wrapped in a
+ * {@link JdbcOutputHandlerAdapter}. Batches are executed in that order, so
+ * that referenced rows are always stored before the rows referring to them.
+ * <p>Central banks and holiday definitions are commonly shared by several
+ * calendars. Each is stored only once per instance of this class, identified
+ * by its ID: entities committed by earlier calls to <code>store</code>, or
+ * already added within the current call, are not stored again. Entities
+ * added but rolled back on failure are forgotten, and are stored again by
+ * the next call.</p>
+ * <p>A calendar's weekend schedule is part of its row; financial calendar
+ * handlers should store it in the text form given by
+ * {@link org.osframework.contract.date.fincal.definition.WeekendSchedule#format()
+ * WeekendSchedule.format()}, which
+ * {@link org.osframework.contract.date.fincal.definition.WeekendSchedule#parse(String)
+ * WeekendSchedule.parse} reads back.</p>
  *
  * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
  */
 public class DefinitionJdbcOutput extends AbstractJdbcOutput<FinancialCalendar>
 	implements DefinitionOutput<DataSource, SQLException> {
 
-	protected JdbcOutputHandler<CentralBank> centralBankHandler = null;
-	protected JdbcOutputHandler<FinancialCalendar> financialCalendarHandler = null;
-	protected JdbcOutputHandler<HolidayDefinition> holidayDefinitionHandler = null;
+	protected JdbcBatchHandler<CentralBank> centralBankHandler = null;
+	protected JdbcBatchHandler<FinancialCalendar> financialCalendarHandler = null;
+	protected JdbcBatchHandler<HolidayDefinition> holidayDefinitionHandler = null;
+
+	private final Set<String> storedCentralBankIds = new HashSet<String>();
+	private final Set<String> storedHolidayDefinitionIds = new HashSet<String>();
+	private final Set<String> uncommittedCentralBankIds = new HashSet<String>();
+	private final Set<String> uncommittedHolidayDefinitionIds = new HashSet<String>();
 
 	/**
 	 * 
@@ -62,53 +85,146 @@ public class DefinitionJdbcOutput extends AbstractJdbcOutput<FinancialCalendar>
 	}
 
 	/**
-	 * @param centralBankHandler the centralBankHandler to set
+	 * @param dataSource
+	 */
+	public DefinitionJdbcOutput(final DataSource dataSource,
+			                    final JdbcBatchHandler<CentralBank> centralBankHandler,
+			                    final JdbcBatchHandler<FinancialCalendar> financialCalendarHandler,
+			                    final JdbcBatchHandler<HolidayDefinition> holidayDefinitionHandler) {
+		super(dataSource);
+		setCentralBankBatchHandler(centralBankHandler);
+		setFinancialCalendarBatchHandler(financialCalendarHandler);
+		setHolidayDefinitionBatchHandler(holidayDefinitionHandler);
+	}
+
+	/**
+	 * @param centralBankHandler the single-row centralBankHandler to set
 	 */
 	public void setCentralBankHandler(JdbcOutputHandler<CentralBank> centralBankHandler) {
+		Validate.notNull(centralBankHandler, "Property 'centralBankHandler' cannot be set to null");
+		setCentralBankBatchHandler(JdbcOutputHandlerAdapter.adapt(centralBankHandler));
+	}
+
+	/**
+	 * @param centralBankHandler the centralBankHandler to set
+	 */
+	public void setCentralBankBatchHandler(JdbcBatchHandler<CentralBank> centralBankHandler) {
 		Validate.notNull(centralBankHandler, "Property 'centralBankHandler' cannot be set to null");
 		this.centralBankHandler = centralBankHandler;
 		logger.debug("centralBankHandler set to: {}", centralBankHandler.getClass().getName());
 	}
 
 	/**
-	 * @param financialCalendarHandler the financialCalendarHandler to set
+	 * @param financialCalendarHandler the single-row financialCalendarHandler to set
 	 */
 	public void setFinancialCalendarHandler(JdbcOutputHandler<FinancialCalendar> financialCalendarHandler) {
+		Validate.notNull(financialCalendarHandler, "Property 'financialCalendarHandler' cannot be set to null");
+		setFinancialCalendarBatchHandler(JdbcOutputHandlerAdapter.adapt(financialCalendarHandler));
+	}
+
+	/**
+	 * @param financialCalendarHandler the financialCalendarHandler to set
+	 */
+	public void setFinancialCalendarBatchHandler(JdbcBatchHandler<FinancialCalendar> financialCalendarHandler) {
 		Validate.notNull(financialCalendarHandler, "Property 'financialCalendarHandler' cannot be set to null");
 		this.financialCalendarHandler = financialCalendarHandler;
 	}
 
 	/**
-	 * @param holidayDefinitionHandler the holidayDefinitionHandler to set
+	 * @param holidayDefinitionHandler the single-row holidayDefinitionHandler to set
 	 */
 	public void setHolidayDefinitionHandler(JdbcOutputHandler<HolidayDefinition> holidayDefinitionHandler) {
+		Validate.notNull(holidayDefinitionHandler, "Property 'holidayDefinitionHandler' cannot be set to null");
+		setHolidayDefinitionBatchHandler(JdbcOutputHandlerAdapter.adapt(holidayDefinitionHandler));
+	}
+
+	/**
+	 * @param holidayDefinitionHandler the holidayDefinitionHandler to set
+	 */
+	public void setHolidayDefinitionBatchHandler(JdbcBatchHandler<HolidayDefinition> holidayDefinitionHandler) {
 		Validate.notNull(holidayDefinitionHandler, "Property 'holidayDefinitionHandler' cannot be set to null");
 		this.holidayDefinitionHandler = holidayDefinitionHandler;
 	}
 
 	public void store(FinancialCalendar... calendars) throws SQLException {
 		Connection connection = getConnection();
+		JdbcBatch<CentralBank> centralBanks = null;
+		JdbcBatch<HolidayDefinition> holidayDefinitions = null;
+		JdbcBatch<FinancialCalendar> financialCalendars = null;
 		try {
+			centralBanks = centralBankHandler.openBatch(connection);
+			holidayDefinitions = holidayDefinitionHandler.openBatch(connection);
+			financialCalendars = financialCalendarHandler.openBatch(connection);
+			int pending = 0, uncommitted = 0;
 			for (FinancialCalendar fc : calendars) {
-				centralBankHandler.storeInConnection(connection, fc.getCentralBank());
+				final CentralBank cb = fc.getCentralBank();
+				if (isNew(cb.getId(), storedCentralBankIds, uncommittedCentralBankIds)) {
+					centralBanks.add(cb);
+					pending++;
+				}
 				for (HolidayDefinition hd : fc) {
-					holidayDefinitionHandler.storeInConnection(connection, hd);
+					if (isNew(hd.getId(), storedHolidayDefinitionIds, uncommittedHolidayDefinitionIds)) {
+						holidayDefinitions.add(hd);
+						pending++;
+					}
 				}
-				financialCalendarHandler.storeInConnection(connection, fc);
-				logger.debug("Stored financial calendar '{}'", fc.getId());
+				financialCalendars.add(fc);
+				pending++;
+				logger.debug("Added financial calendar '{}'", fc.getId());
+				if (pending >= batchSize) {
+					uncommitted += centralBanks.execute();
+					uncommitted += holidayDefinitions.execute();
+					uncommitted += financialCalendars.execute();
+					uncommitted = commitIfDue(connection, uncommitted);
+					pending = 0;
+				}
+			}
+			if (0 < pending) {
+				centralBanks.execute();
+				holidayDefinitions.execute();
+				financialCalendars.execute();
 			}
-			connection.commit();
+			commit(connection);
 			logger.info("Stored {} total financial calendar definitions", Integer.valueOf(calendars.length));
 		} catch (SQLException se) {
 			if (null != connection) {
 				connection.rollback();
 			}
+			uncommittedCentralBankIds.clear();
+			uncommittedHolidayDefinitionIds.clear();
 			throw se;
 		} finally {
+			closeQuietly(financialCalendars);
+			closeQuietly(holidayDefinitions);
+			closeQuietly(centralBanks);
 			if (null != connection) {
 				connection.close();
 			}
 		}
 	}
 
+	/**
+	 * Record the IDs of central banks and holiday definitions as stored once
+	 * they are committed.
+	 */
+	@Override
+	protected void commit(Connection connection) throws SQLException {
+		super.commit(connection);
+		storedCentralBankIds.addAll(uncommittedCentralBankIds);
+		storedHolidayDefinitionIds.addAll(uncommittedHolidayDefinitionIds);
+		logger.debug("Committed {} new central banks and {} new holiday definitions",
+		             Integer.valueOf(uncommittedCentralBankIds.size()),
+		             Integer.valueOf(uncommittedHolidayDefinitionIds.size()));
+		uncommittedCentralBankIds.clear();
+		uncommittedHolidayDefinitionIds.clear();
+	}
+
+	/**
+	 * Determine if an entity has been neither committed nor added since the
+	 * last commit, marking it as added if so.
+	 */
+	private static boolean isNew(final String id, final Set<String> stored, final Set<String> uncommitted) {
+		return (!stored.contains(id) && uncommitted.add(id));
+	}
+
 }
@@ -24,17 +24,69 @@ import javax.sql.DataSource;
 
 import org.apache.commons.lang.Validate;
 import org.osframework.contract.date.fincal.holiday.Holiday;
-import org.osframework.contract.date.fincal.output.HolidayOutput;
+import org.osframework.contract.date.fincal.output.CommittableHolidayOutput;
+import org.osframework.contract.date.fincal.output.DifferentialHolidayOutput;
+import org.osframework.contract.date.fincal.output.HolidayCheckpoint;
+import org.osframework.contract.date.fincal.output.ResumableHolidayOutput;
 
 /**
  * Provides storage of <tt>Holiday</tt> objects to a JDBC <tt>DataSource</tt>.
+ * Holidays are stored in batches via a {@link JdbcBatchHandler}; a
+ * single-row {@link JdbcOutputHandler} is wrapped in a
+ * {@link JdbcOutputHandlerAdapter}.
+ * <p>Between {@link #begin()} and {@link #commit()}, as during a run of a
+ * <tt>HolidayOutputWriter</tt>, all holidays stored are held in a single
+ * transaction on one connection, so that a failed run leaves no holidays
+ * behind; closing this output without a commit rolls the run back. Outside
+ * a run, each call to <code>store</code> is committed as a single
+ * transaction.</p>
+ * <p>If a {@link JdbcCheckpointHandler} is set, a <tt>HolidayCheckpoint</tt>
+ * identifying the last holiday stored is written with every commit. Together
+ * with a positive commit interval, this allows a failed load to be resumed
+ * by a <tt>HolidayOutputWriter</tt> from its last commit. Holidays must then
+ * be stored in sorted order, as they are by the writers.</p>
+ * <p>If a holiday delete handler is set, holidays may also be removed, so
+ * that the changes written by a <tt>DifferentialHolidayOutputWriter</tt> can
+ * be applied. Within a run, deletions join the run's transaction, so that
+ * all changes are applied by one commit; outside a run, each call to
+ * {@link #delete(Holiday...)} is committed as a single transaction.</p>
+ * <p>Stored holidays may be made idempotent with an
+ * {@link UpsertBatchHandler}, keyed for example on financial calendar ID and
+ * date. Alternatively, if a {@link JdbcRangeDeleteHandler} is set,
+ * {@link #replace(String, int, int, Holiday...)} replaces the holidays of
+ * one calendar over a range of years in a single transaction, so that
+ * readers at read committed isolation see either the old or the new
+ * holidays of that range, without the table ever being emptied.</p>
  *
  * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
  */
 public class HolidayJdbcOutput extends AbstractJdbcOutput<Holiday>
-	implements HolidayOutput<DataSource, SQLException> {
+	implements ResumableHolidayOutput<DataSource, SQLException>, DifferentialHolidayOutput<DataSource, SQLException>,
+	           CommittableHolidayOutput<DataSource, SQLException> {
 
-	protected JdbcOutputHandler<Holiday> holidayHandler = null;
+	protected JdbcBatchHandler<Holiday> holidayHandler = null;
+	protected JdbcBatchHandler<Holiday> holidayDeleteHandler = null;
+	protected JdbcRangeDeleteHandler rangeDeleteHandler = null;
+	protected JdbcCheckpointHandler checkpointHandler = null;
+
+	/**
+	 * Position of the last holiday added, valid once positioned from the
+	 * recorded checkpoint.
+	 */
+	private boolean positioned = false;
+	private String lastCalendarId = null;
+	private int lastDate, lastCount;
+
+	/**
+	 * Connection of the run in progress, from <code>begin</code> until
+	 * <code>commit</code>, <code>close</code> or a failure; otherwise null.
+	 */
+	private Connection runConnection = null;
+
+	/**
+	 * Number of rows executed since the previous commit.
+	 */
+	private int uncommitted = 0;
 
 	public HolidayJdbcOutput() {
 		super();
@@ -43,36 +95,326 @@ public class HolidayJdbcOutput extends AbstractJdbcOutput<Holiday>
 	public HolidayJdbcOutput(final DataSource dataSource,
 			                 final JdbcOutputHandler<Holiday> holidayHandler) {
 		super(dataSource);
-		
+		setHolidayHandler(holidayHandler);
+	}
+
+	public HolidayJdbcOutput(final DataSource dataSource,
+			                 final JdbcBatchHandler<Holiday> holidayHandler) {
+		super(dataSource);
+		setHolidayBatchHandler(holidayHandler);
 	}
 
 	/**
-	 * @param holidayHandler the holidayHandler to set
+	 * @param holidayHandler the single-row holidayHandler to set
 	 */
 	public void setHolidayHandler(JdbcOutputHandler<Holiday> holidayHandler) {
+		Validate.notNull(holidayHandler, "Property 'holidayHandler' cannot be set to null");
+		setHolidayBatchHandler(JdbcOutputHandlerAdapter.adapt(holidayHandler));
+	}
+
+	/**
+	 * @param holidayHandler the holidayHandler to set
+	 */
+	public void setHolidayBatchHandler(JdbcBatchHandler<Holiday> holidayHandler) {
 		Validate.notNull(holidayHandler, "Property 'holidayHandler' cannot be set to null");
 		this.holidayHandler = holidayHandler;
 	}
 
+	/**
+	 * @param holidayDeleteHandler the handler by which holidays are removed
+	 */
+	public void setHolidayDeleteHandler(JdbcBatchHandler<Holiday> holidayDeleteHandler) {
+		Validate.notNull(holidayDeleteHandler, "Property 'holidayDeleteHandler' cannot be set to null");
+		this.holidayDeleteHandler = holidayDeleteHandler;
+	}
+
+	/**
+	 * @param rangeDeleteHandler the handler by which holidays of a calendar
+	 *                           and range of years are removed
+	 */
+	public void setRangeDeleteHandler(JdbcRangeDeleteHandler rangeDeleteHandler) {
+		Validate.notNull(rangeDeleteHandler, "Property 'rangeDeleteHandler' cannot be set to null");
+		this.rangeDeleteHandler = rangeDeleteHandler;
+	}
+
+	/**
+	 * @param checkpointHandler the checkpointHandler to set
+	 */
+	public void setCheckpointHandler(JdbcCheckpointHandler checkpointHandler) {
+		Validate.notNull(checkpointHandler, "Property 'checkpointHandler' cannot be set to null");
+		this.checkpointHandler = checkpointHandler;
+	}
+
+	public HolidayCheckpoint getCheckpoint() throws SQLException {
+		if (null == checkpointHandler) {
+			return null;
+		}
+		Connection connection = getConnection();
+		try {
+			return checkpointHandler.readCheckpoint(connection);
+		} finally {
+			connection.close();
+		}
+	}
+
+	public void clearCheckpoint() throws SQLException {
+		if (null == checkpointHandler) {
+			return;
+		}
+		Connection connection = getConnection();
+		try {
+			checkpointHandler.clearCheckpoint(connection);
+			connection.commit();
+			positioned = false;
+		} catch (SQLException se) {
+			connection.rollback();
+			throw se;
+		} finally {
+			connection.close();
+		}
+	}
+
+	/**
+	 * Begin a run: holidays stored until the next commit are held in one
+	 * transaction.
+	 * 
+	 * @throws SQLException if a run is already in progress, or a connection
+	 *         cannot be obtained
+	 */
+	public void begin() throws SQLException {
+		if (null != runConnection) {
+			throw new SQLException("A run is already in progress");
+		}
+		runConnection = getConnection();
+		uncommitted = 0;
+	}
+
+	/**
+	 * Commit the run in progress, if any, together with its checkpoint.
+	 * 
+	 * @throws SQLException if the run cannot be committed; it is then
+	 *         rolled back
+	 */
+	public void commit() throws SQLException {
+		final Connection connection = runConnection;
+		if (null == connection) {
+			return;
+		}
+		runConnection = null;
+		try {
+			commit(connection);
+			logger.debug("Committed run of {} rows", Integer.valueOf(uncommitted));
+		} catch (SQLException se) {
+			connection.rollback();
+			positioned = false;
+			throw se;
+		} finally {
+			connection.close();
+		}
+	}
+
+	/**
+	 * Close this output, rolling back any run not yet committed.
+	 */
+	@Override
+	public void close() throws SQLException {
+		final Connection connection = runConnection;
+		runConnection = null;
+		try {
+			if (null != connection) {
+				try {
+					connection.rollback();
+					positioned = false;
+					logger.info("Closed output with uncommitted run; holidays rolled back");
+				} finally {
+					connection.close();
+				}
+			}
+		} finally {
+			super.close();
+		}
+	}
+
 	public void store(Holiday... holidays) throws SQLException {
+		final boolean inRun = (null != runConnection);
+		final Connection connection = inRun ? runConnection : getConnection();
+		JdbcBatch<Holiday> batch = null;
+		try {
+			if (null != checkpointHandler && !positioned) {
+				position(checkpointHandler.readCheckpoint(connection));
+			}
+			batch = holidayHandler.openBatch(connection);
+			int pending = 0;
+			if (!inRun) {
+				uncommitted = 0;
+			}
+			for (Holiday h : holidays) {
+				batch.add(h);
+				if (null != checkpointHandler) {
+					advance(h);
+				}
+				if (++pending == batchSize) {
+					uncommitted = commitIfDue(connection, uncommitted + batch.execute());
+					logger.debug("Executed batch of {} holidays", Integer.valueOf(pending));
+					pending = 0;
+				}
+			}
+			if (0 < pending) {
+				uncommitted += batch.execute();
+			}
+			if (!inRun) {
+				commit(connection);
+			}
+			logger.info("Stored {} total holidays", Integer.valueOf(holidays.length));
+		} catch (SQLException se) {
+			connection.rollback();
+			// Position is re-read from the last committed checkpoint
+			positioned = false;
+			// Failure ends any run in progress
+			runConnection = null;
+			throw se;
+		} finally {
+			closeQuietly(batch);
+			if (connection != runConnection) {
+				connection.close();
+			}
+		}
+	}
+
+	/**
+	 * @throws SQLException if no holiday delete handler is set, or if
+	 *         holidays cannot be removed
+	 */
+	public void delete(Holiday... holidays) throws SQLException {
+		if (null == holidayDeleteHandler) {
+			throw new SQLException("Property 'holidayDeleteHandler' must be set to delete holidays");
+		}
+		final boolean inRun = (null != runConnection);
+		final Connection connection = inRun ? runConnection : getConnection();
+		JdbcBatch<Holiday> batch = null;
+		try {
+			batch = holidayDeleteHandler.openBatch(connection);
+			int pending = 0;
+			for (Holiday h : holidays) {
+				batch.add(h);
+				if (++pending == batchSize) {
+					batch.execute();
+					pending = 0;
+				}
+			}
+			if (0 < pending) {
+				batch.execute();
+			}
+			if (!inRun) {
+				connection.commit();
+			}
+			logger.info("Deleted {} total holidays", Integer.valueOf(holidays.length));
+		} catch (SQLException se) {
+			connection.rollback();
+			// Failure ends any run in progress
+			runConnection = null;
+			throw se;
+		} finally {
+			closeQuietly(batch);
+			if (connection != runConnection) {
+				connection.close();
+			}
+		}
+	}
+
+	/**
+	 * Replace the stored holidays of a financial calendar dated within a
+	 * range of years by the specified holidays, in a single transaction. The
+	 * commit interval does not apply, and no checkpoint is written.
+	 * 
+	 * @param financialCalendarId financial calendar ID
+	 * @param firstYear first year of range
+	 * @param lastYear last year of range
+	 * @param holidays new holidays of the calendar within the range
+	 * @throws IllegalArgumentException if the range is empty, or any holiday
+	 *         is of another calendar or dated outside the range
+	 * @throws SQLException if no range delete handler is set, or if holidays
+	 *         cannot be replaced
+	 */
+	public void replace(String financialCalendarId, int firstYear, int lastYear, Holiday... holidays)
+		throws SQLException {
+		Validate.notEmpty(financialCalendarId, "Financial calendar ID cannot be null or empty");
+		Validate.isTrue(firstYear <= lastYear, "First year cannot be after last year");
+		final int fromDate = firstYear * 10000 + 101, toDate = lastYear * 10000 + 1231;
+		for (Holiday h : holidays) {
+			if (!financialCalendarId.equals(h.getFinancialCalendar().getId()) ||
+			    h.getDate() < fromDate || h.getDate() > toDate) {
+				throw new IllegalArgumentException("Holiday " + h.getId() + " is outside range " +
+				                                   financialCalendarId + " " + firstYear + "-" + lastYear);
+			}
+		}
+		if (null == rangeDeleteHandler) {
+			throw new SQLException("Property 'rangeDeleteHandler' must be set to replace holidays");
+		}
 		Connection connection = getConnection();
+		JdbcBatch<Holiday> batch = null;
 		try {
+			final int deleted = rangeDeleteHandler.deleteRange(connection, financialCalendarId, fromDate, toDate);
+			batch = holidayHandler.openBatch(connection);
+			int pending = 0;
 			for (Holiday h : holidays) {
-				holidayHandler.storeInConnection(connection, h);
-				logger.debug("Stored holiday '{}'", h.getId());
+				batch.add(h);
+				if (++pending == batchSize) {
+					batch.execute();
+					pending = 0;
+				}
+			}
+			if (0 < pending) {
+				batch.execute();
 			}
 			connection.commit();
-			logger.info("Stored {} total holidays", Integer.valueOf(holidays.length));
+			logger.info("Replaced {} holidays of '{}' with {}",
+			            new Object[] { Integer.valueOf(deleted), financialCalendarId, Integer.valueOf(holidays.length) });
 		} catch (SQLException se) {
 			if (null != connection) {
 				connection.rollback();
 			}
 			throw se;
 		} finally {
+			closeQuietly(batch);
 			if (null != connection) {
 				connection.close();
 			}
 		}
 	}
 
+	/**
+	 * Write the checkpoint of the last holiday added before committing.
+	 */
+	@Override
+	protected void commit(Connection connection) throws SQLException {
+		if (null != checkpointHandler && null != lastCalendarId) {
+			checkpointHandler.writeCheckpoint(connection, new HolidayCheckpoint(lastCalendarId, lastDate, lastCount));
+		}
+		super.commit(connection);
+	}
+
+	private void position(final HolidayCheckpoint checkpoint) {
+		if (null == checkpoint) {
+			lastCalendarId = null;
+			lastDate = lastCount = 0;
+		} else {
+			lastCalendarId = checkpoint.getFinancialCalendarId();
+			lastDate = checkpoint.getDate();
+			lastCount = checkpoint.getCount();
+		}
+		positioned = true;
+	}
+
+	private void advance(final Holiday h) {
+		final String calendarId = h.getFinancialCalendar().getId();
+		if (lastDate == h.getDate() && calendarId.equals(lastCalendarId)) {
+			lastCount++;
+		} else {
+			lastCalendarId = calendarId;
+			lastDate = h.getDate();
+			lastCount = 1;
+		}
+	}
+
 }
@@ -0,0 +1,57 @@
+/*
+ * File: JdbcBatch.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output.jdbc;
+
+import java.sql.SQLException;
+
+/**
+ * Accumulates objects to be stored to a single table of a JDBC connection,
+ * and sends them to the database as one batch. A batch is opened by a
+ * {@link JdbcBatchHandler} and is valid only for the connection on which it
+ * was opened.
+ * <p>Instances of this interface are not thread-safe.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public interface JdbcBatch<M> {
+
+	/**
+	 * Add an object to this batch.
+	 * 
+	 * @param objToStore object to be stored
+	 * @throws SQLException if object cannot be added
+	 */
+	public void add(M objToStore) throws SQLException;
+
+	/**
+	 * Send all objects added since the last execution to the database.
+	 * 
+	 * @return number of rows stored
+	 * @throws SQLException if batch execution fails
+	 */
+	public int execute() throws SQLException;
+
+	/**
+	 * Release resources held by this batch. Objects added but not executed
+	 * are discarded.
+	 * 
+	 * @throws SQLException if resources cannot be released
+	 */
+	public void close() throws SQLException;
+
+}
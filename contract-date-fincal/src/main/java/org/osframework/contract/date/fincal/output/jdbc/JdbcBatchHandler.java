@@ -0,0 +1,45 @@
+/*
+ * File: JdbcBatchHandler.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Batched counterpart of {@link JdbcOutputHandler}. Rather than storing each
+ * object with its own statement execution, a handler opens a
+ * {@link JdbcBatch} on a connection, typically holding a single
+ * <code>PreparedStatement</code> reused for every object stored to its
+ * table. Existing single-row handlers may be used where a batch handler is
+ * expected by wrapping them in a {@link JdbcOutputHandlerAdapter}.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public interface JdbcBatchHandler<M> {
+
+	/**
+	 * Open a batch on the specified connection. The caller is responsible
+	 * for closing the batch, and for committing the connection.
+	 * 
+	 * @param connection JDBC connection to which objects are stored
+	 * @return new batch
+	 * @throws SQLException if batch cannot be opened
+	 */
+	public JdbcBatch<M> openBatch(Connection connection) throws SQLException;
+
+}
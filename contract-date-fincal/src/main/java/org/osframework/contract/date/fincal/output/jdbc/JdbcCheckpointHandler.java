@@ -0,0 +1,62 @@
+/*
+ * File: JdbcCheckpointHandler.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.osframework.contract.date.fincal.output.HolidayCheckpoint;
+
+/**
+ * Reads and writes the <code>HolidayCheckpoint</code> of a
+ * {@link HolidayJdbcOutput}. The checkpoint is written on the same
+ * connection as the holidays it describes, immediately before each commit,
+ * so that it is committed or rolled back together with them. The handler
+ * must not commit or roll back the connection itself.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public interface JdbcCheckpointHandler {
+
+	/**
+	 * Read the recorded checkpoint.
+	 * 
+	 * @param connection JDBC connection
+	 * @return recorded checkpoint, or <code>null</code> if none
+	 * @throws SQLException if checkpoint cannot be read
+	 */
+	public HolidayCheckpoint readCheckpoint(Connection connection) throws SQLException;
+
+	/**
+	 * Record a checkpoint, replacing any previously recorded.
+	 * 
+	 * @param connection JDBC connection
+	 * @param checkpoint checkpoint to record
+	 * @throws SQLException if checkpoint cannot be written
+	 */
+	public void writeCheckpoint(Connection connection, HolidayCheckpoint checkpoint) throws SQLException;
+
+	/**
+	 * Remove the recorded checkpoint, if any.
+	 * 
+	 * @param connection JDBC connection
+	 * @throws SQLException if checkpoint cannot be removed
+	 */
+	public void clearCheckpoint(Connection connection) throws SQLException;
+
+}
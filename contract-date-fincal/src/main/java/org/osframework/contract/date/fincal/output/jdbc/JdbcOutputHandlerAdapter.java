@@ -0,0 +1,83 @@
+/*
+ * File: JdbcOutputHandlerAdapter.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * Adapts a single-row <code>JdbcOutputHandler</code> to the
+ * <code>JdbcBatchHandler</code> interface. Each object is stored as soon as
+ * it is added to a batch, so the adapted handler gains no performance
+ * benefit; it is provided so that existing handlers continue to work with
+ * batching outputs.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class JdbcOutputHandlerAdapter<M> implements JdbcBatchHandler<M> {
+
+	private final JdbcOutputHandler<M> handler;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param handler single-row handler to which storage is delegated
+	 * @throws IllegalArgumentException if handler is null
+	 */
+	public JdbcOutputHandlerAdapter(final JdbcOutputHandler<M> handler) {
+		Validate.notNull(handler, "JdbcOutputHandler argument cannot be null");
+		this.handler = handler;
+	}
+
+	/**
+	 * @return adapted single-row handler
+	 */
+	public JdbcOutputHandler<M> getHandler() {
+		return handler;
+	}
+
+	public JdbcBatch<M> openBatch(final Connection connection) throws SQLException {
+		return new JdbcBatch<M>() {
+			private int rows = 0;
+			public void add(M objToStore) throws SQLException {
+				handler.storeInConnection(connection, objToStore);
+				rows++;
+			}
+			public int execute() {
+				int executed = rows;
+				rows = 0;
+				return executed;
+			}
+			public void close() {}
+		};
+	}
+
+	/**
+	 * Wrap a single-row handler in an adapter.
+	 * 
+	 * @param handler single-row handler
+	 * @return batch handler
+	 * @throws IllegalArgumentException if handler is null
+	 */
+	public static <M> JdbcBatchHandler<M> adapt(JdbcOutputHandler<M> handler) {
+		return new JdbcOutputHandlerAdapter<M>(handler);
+	}
+
+}
@@ -0,0 +1,46 @@
+/*
+ * File: JdbcRangeDeleteHandler.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Removes the stored holidays of one financial calendar within a range of
+ * dates, for {@link HolidayJdbcOutput#replace(String, int, int, org.osframework.contract.date.fincal.holiday.Holiday...)}.
+ * The handler must not commit or roll back the connection.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public interface JdbcRangeDeleteHandler {
+
+	/**
+	 * Delete holidays of a financial calendar dated from one date through
+	 * another, inclusive.
+	 * 
+	 * @param connection JDBC connection
+	 * @param financialCalendarId financial calendar ID
+	 * @param fromDate first date in <code>yyyymmdd</code> format
+	 * @param toDate last date in <code>yyyymmdd</code> format
+	 * @return number of rows deleted
+	 * @throws SQLException if holidays cannot be deleted
+	 */
+	public int deleteRange(Connection connection, String financialCalendarId, int fromDate, int toDate)
+		throws SQLException;
+
+}
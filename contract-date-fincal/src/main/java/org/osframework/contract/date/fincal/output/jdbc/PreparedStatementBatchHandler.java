@@ -0,0 +1,99 @@
+/*
+ * File: PreparedStatementBatchHandler.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * Base class of <code>JdbcBatchHandler</code> implementations which store
+ * each object with a single parameterized SQL statement. Each batch prepares
+ * the statement once, binds the parameters of each object added to it, and
+ * sends them to the database with <code>executeBatch</code>. Subclasses need
+ * only implement {@link #setParameters(PreparedStatement, Object)}.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public abstract class PreparedStatementBatchHandler<M> implements JdbcBatchHandler<M> {
+
+	private final String sql;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param sql parameterized SQL statement by which one object is stored
+	 * @throws IllegalArgumentException if sql is null or empty
+	 */
+	public PreparedStatementBatchHandler(final String sql) {
+		Validate.notEmpty(sql, "SQL statement cannot be null or empty");
+		this.sql = sql;
+	}
+
+	/**
+	 * @return SQL statement by which one object is stored
+	 */
+	public String getSql() {
+		return sql;
+	}
+
+	public JdbcBatch<M> openBatch(Connection connection) throws SQLException {
+		return new PreparedStatementBatch(connection.prepareStatement(sql));
+	}
+
+	/**
+	 * Bind the parameters of the SQL statement to the values of an object.
+	 * 
+	 * @param statement prepared statement
+	 * @param objToStore object to be stored
+	 * @throws SQLException if parameters cannot be set
+	 */
+	protected abstract void setParameters(PreparedStatement statement, M objToStore) throws SQLException;
+
+	private class PreparedStatementBatch implements JdbcBatch<M> {
+
+		private final PreparedStatement statement;
+
+		PreparedStatementBatch(final PreparedStatement statement) {
+			this.statement = statement;
+		}
+
+		public void add(M objToStore) throws SQLException {
+			setParameters(statement, objToStore);
+			statement.addBatch();
+		}
+
+		public int execute() throws SQLException {
+			int rows = 0;
+			for (int count : statement.executeBatch()) {
+				// Drivers may report success without a row count
+				rows += (Statement.SUCCESS_NO_INFO == count) ? 1 : count;
+			}
+			return rows;
+		}
+
+		public void close() throws SQLException {
+			statement.close();
+		}
+
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * File: TableJdbcCheckpointHandler.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.commons.lang.Validate;
+import org.osframework.contract.date.fincal.output.HolidayCheckpoint;
+
+/**
+ * Records holiday checkpoints in a database table, one row per load job.
+ * The table must have the following columns:
+ * <pre>
+ * JOB_ID        VARCHAR  -- identifies the load job; unique
+ * CALENDAR_ID   VARCHAR  -- financial calendar ID of last holiday stored
+ * HOLIDAY_DATE  INTEGER  -- date of last holiday stored, yyyymmdd
+ * HOLIDAY_COUNT INTEGER  -- number of holidays stored with that ID and date
+ * </pre>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class TableJdbcCheckpointHandler implements JdbcCheckpointHandler {
+
+	private final String selectSql;
+	private final String updateSql;
+	private final String insertSql;
+	private final String deleteSql;
+	private final String jobId;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param tableName name of checkpoint table
+	 * @param jobId identifier of load job whose checkpoint is handled
+	 * @throws IllegalArgumentException if any argument is null or empty
+	 */
+	public TableJdbcCheckpointHandler(final String tableName, final String jobId) {
+		Validate.notEmpty(tableName, "Table name cannot be null or empty");
+		Validate.notEmpty(jobId, "Job ID cannot be null or empty");
+		this.selectSql = "SELECT CALENDAR_ID, HOLIDAY_DATE, HOLIDAY_COUNT FROM " + tableName + " WHERE JOB_ID = ?";
+		this.updateSql = "UPDATE " + tableName + " SET CALENDAR_ID = ?, HOLIDAY_DATE = ?, HOLIDAY_COUNT = ? WHERE JOB_ID = ?";
+		this.insertSql = "INSERT INTO " + tableName + " (CALENDAR_ID, HOLIDAY_DATE, HOLIDAY_COUNT, JOB_ID) VALUES (?, ?, ?, ?)";
+		this.deleteSql = "DELETE FROM " + tableName + " WHERE JOB_ID = ?";
+		this.jobId = jobId;
+	}
+
+	/**
+	 * @return identifier of load job whose checkpoint is handled
+	 */
+	public String getJobId() {
+		return jobId;
+	}
+
+	public HolidayCheckpoint readCheckpoint(Connection connection) throws SQLException {
+		PreparedStatement ps = connection.prepareStatement(selectSql);
+		try {
+			ps.setString(1, jobId);
+			ResultSet rs = ps.executeQuery();
+			return rs.next() ? new HolidayCheckpoint(rs.getString(1), rs.getInt(2), rs.getInt(3)) : null;
+		} finally {
+			ps.close();
+		}
+	}
+
+	public void writeCheckpoint(Connection connection, HolidayCheckpoint checkpoint) throws SQLException {
+		if (0 == executeUpdate(connection, updateSql, checkpoint)) {
+			executeUpdate(connection, insertSql, checkpoint);
+		}
+	}
+
+	public void clearCheckpoint(Connection connection) throws SQLException {
+		PreparedStatement ps = connection.prepareStatement(deleteSql);
+		try {
+			ps.setString(1, jobId);
+			ps.executeUpdate();
+		} finally {
+			ps.close();
+		}
+	}
+
+	private int executeUpdate(Connection connection, String sql, HolidayCheckpoint checkpoint) throws SQLException {
+		PreparedStatement ps = connection.prepareStatement(sql);
+		try {
+			ps.setString(1, checkpoint.getFinancialCalendarId());
+			ps.setInt(2, checkpoint.getDate());
+			ps.setInt(3, checkpoint.getCount());
+			ps.setString(4, jobId);
+			return ps.executeUpdate();
+		} finally {
+			ps.close();
+		}
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * File: UpsertBatchHandler.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.Validate;
+
+/**
+ * Base class of <code>JdbcBatchHandler</code> implementations which insert
+ * or update each object, so that storing an object again is harmless. Each
+ * batch prepares two statements once: an <code>UPDATE</code> of the row
+ * with the key of an object, and an <code>INSERT</code> of a new row. Both
+ * statements must take the same parameters, in the same order, so that a
+ * single implementation of {@link #setParameters(PreparedStatement, Object)}
+ * serves both. Objects are updated as a batch, and those which updated no
+ * row are then inserted as a batch.
+ * <p>Objects with equal keys added to the same batch are stored once: the
+ * object added last replaces those before it.</p>
+ * <p>The JDBC driver must report the number of rows updated by each
+ * statement of a batch. Where a database supports a single-statement
+ * <code>MERGE</code>, a {@link PreparedStatementBatchHandler} executing it
+ * is an alternative which requires one round trip per batch rather than
+ * two.</p>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public abstract class UpsertBatchHandler<M> implements JdbcBatchHandler<M> {
+
+	private final String updateSql;
+	private final String insertSql;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param updateSql parameterized SQL statement by which the row with the
+	 *                  key of one object is updated
+	 * @param insertSql parameterized SQL statement by which one object is
+	 *                  inserted
+	 * @throws IllegalArgumentException if either statement is null or empty
+	 */
+	public UpsertBatchHandler(final String updateSql, final String insertSql) {
+		Validate.notEmpty(updateSql, "Update SQL statement cannot be null or empty");
+		Validate.notEmpty(insertSql, "Insert SQL statement cannot be null or empty");
+		this.updateSql = updateSql;
+		this.insertSql = insertSql;
+	}
+
+	public JdbcBatch<M> openBatch(Connection connection) throws SQLException {
+		final PreparedStatement update = connection.prepareStatement(updateSql);
+		try {
+			return new UpsertBatch(update, connection.prepareStatement(insertSql));
+		} catch (SQLException se) {
+			update.close();
+			throw se;
+		}
+	}
+
+	/**
+	 * Get the key identifying the row to which an object is stored.
+	 * 
+	 * @param objToStore object to be stored
+	 * @return key object, with value semantics
+	 */
+	protected abstract Object getKey(M objToStore);
+
+	/**
+	 * Bind the parameters of the update or insert statement to the values of
+	 * an object.
+	 * 
+	 * @param statement prepared update or insert statement
+	 * @param objToStore object to be stored
+	 * @throws SQLException if parameters cannot be set
+	 */
+	protected abstract void setParameters(PreparedStatement statement, M objToStore) throws SQLException;
+
+	private class UpsertBatch implements JdbcBatch<M> {
+
+		private final PreparedStatement update;
+		private final PreparedStatement insert;
+		private final Map<Object, M> pending = new LinkedHashMap<Object, M>();
+
+		UpsertBatch(final PreparedStatement update, final PreparedStatement insert) {
+			this.update = update;
+			this.insert = insert;
+		}
+
+		public void add(M objToStore) {
+			final Object key = getKey(objToStore);
+			// Re-insert so that the map is in order of last addition
+			pending.remove(key);
+			pending.put(key, objToStore);
+		}
+
+		public int execute() throws SQLException {
+			if (pending.isEmpty()) {
+				return 0;
+			}
+			final List<M> objects = new ArrayList<M>(pending.values());
+			pending.clear();
+			for (M obj : objects) {
+				setParameters(update, obj);
+				update.addBatch();
+			}
+			final int[] counts = update.executeBatch();
+			int missing = 0;
+			for (int i = 0; i < counts.length; i++) {
+				if (0 > counts[i]) {
+					throw new SQLException("JDBC driver did not report rows updated by batch statement " + i);
+				}
+				if (0 == counts[i]) {
+					setParameters(insert, objects.get(i));
+					insert.addBatch();
+					missing++;
+				}
+			}
+			if (0 < missing) {
+				insert.executeBatch();
+			}
+			return objects.size();
+		}
+
+		public void close() throws SQLException {
+			try {
+				update.close();
+			} finally {
+				insert.close();
+			}
+		}
+
+	}
+
+}
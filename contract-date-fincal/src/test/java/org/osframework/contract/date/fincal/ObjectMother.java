@@ -18,14 +18,19 @@
 package org.osframework.contract.date.fincal;
 
 import java.net.URL;
+import java.util.Collections;
 import java.util.Currency;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 import org.osframework.contract.date.fincal.definition.CentralBank;
 import org.osframework.contract.date.fincal.definition.FinancialCalendar;
 import org.osframework.contract.date.fincal.definition.HolidayDefinition;
 import org.osframework.contract.date.fincal.definition.HolidayType;
+import org.osframework.contract.date.fincal.definition.source.DefinitionSource;
 import org.osframework.contract.date.fincal.holiday.Holiday;
 import org.osframework.contract.date.fincal.holiday.HolidayId;
 import org.osframework.contract.date.fincal.output.HolidayOutput;
@@ -117,6 +122,47 @@ public final class ObjectMother {
 		return new FinancialCalendar("NYB", "New York bank holidays", createCentralBank(), createHolidayDefinitions());
 	}
 
+	public static FinancialCalendar createFinancialCalendar(String calId, String cbId) {
+		return new FinancialCalendar(calId, calId + " holidays", createCentralBank(cbId), createHolidayDefinitions());
+	}
+
+	/**
+	 * Create a read-only definition source serving the specified financial
+	 * calendars, their central banks and holiday definitions.
+	 */
+	public static DefinitionSource createDefinitionSource(FinancialCalendar... calendars) {
+		final Map<String, CentralBank> banks = new LinkedHashMap<String, CentralBank>();
+		final Map<String, HolidayDefinition> definitions = new LinkedHashMap<String, HolidayDefinition>();
+		final Map<String, FinancialCalendar> fcs = new LinkedHashMap<String, FinancialCalendar>();
+		for (FinancialCalendar fc : calendars) {
+			fcs.put(fc.getId(), fc);
+			banks.put(fc.getCentralBank().getId(), fc.getCentralBank());
+			for (HolidayDefinition hd : fc) {
+				definitions.put(hd.getId(), hd);
+			}
+		}
+		return new DefinitionSource() {
+			public CentralBank getCentralBank(String centralBankId) {
+				return banks.get(centralBankId);
+			}
+			public Iterator<CentralBank> centralBankIterator() {
+				return Collections.unmodifiableCollection(banks.values()).iterator();
+			}
+			public HolidayDefinition getHolidayDefinition(String holidayDefinitionId) {
+				return definitions.get(holidayDefinitionId);
+			}
+			public Iterator<HolidayDefinition> holidayDefinitionIterator() {
+				return Collections.unmodifiableCollection(definitions.values()).iterator();
+			}
+			public FinancialCalendar getFinancialCalendar(String financialCalendarId) {
+				return fcs.get(financialCalendarId);
+			}
+			public Iterator<FinancialCalendar> financialCalendarIterator() {
+				return Collections.unmodifiableCollection(fcs.values()).iterator();
+			}
+		};
+	}
+
 	public static HolidayOutput<Logger, Exception> createLoggerHolidayOutput(final Logger logger) {
 		return new HolidayOutput<Logger, Exception>() {
 			public void store(Holiday... holidays) throws Exception {
@@ -22,6 +22,7 @@ import static org.osframework.contract.date.fincal.ObjectMother.createCentralBan
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -108,6 +109,22 @@ public class CentralBankTest {
 		} catch (UnsupportedOperationException uoe) {}
 	}
 
+	@Test(groups = {"definition"})
+	public void testToImmutableCanonical() {
+		CentralBank mutable = createCentralBank(CENTRAL_BANK_ID_USFR);
+		CentralBank immutable = mutable.toImmutable();
+		assertSame(createCentralBank(CENTRAL_BANK_ID_USFR).toImmutable(), immutable);
+		assertSame(immutable.toImmutable(), immutable);
+		assertEquals(immutable.hashCode(), mutable.hashCode());
+		
+		// Hash and equality reflect the immutable's own state, not its source
+		mutable.setName("Some other name");
+		assertEquals(immutable.hashCode(), createCentralBank(CENTRAL_BANK_ID_USFR).hashCode());
+		assertFalse(immutable.equals(mutable));
+		assertFalse(immutable.equals(mutable.toImmutable()));
+		assertNotSame(mutable.toImmutable(), immutable);
+	}
+
 	@Test(groups = {"definition"})
 	public void testIsImmutable() {
 		CentralBank mutable = createCentralBank(CENTRAL_BANK_ID_USFR);
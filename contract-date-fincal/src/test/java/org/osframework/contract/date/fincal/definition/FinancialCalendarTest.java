@@ -30,6 +30,10 @@ import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Collections;
 import java.util.Currency;
 import java.util.Iterator;
@@ -172,6 +176,40 @@ public class FinancialCalendarTest {
 		} catch (UnsupportedOperationException uoe) {}
 	}
 
+	@Test(groups = {"definition"})
+	public void testToImmutableCanonical() {
+		FinancialCalendar mutable = createFinancialCalendar();
+		FinancialCalendar immutable = mutable.toImmutable();
+		assertSame(createFinancialCalendar().toImmutable(), immutable);
+		assertSame(immutable.toImmutable(), immutable);
+		assertEquals(immutable.hashCode(), mutable.hashCode());
+		
+		// Central bank and holiday definitions are canonical immutables
+		assertSame(immutable.getCentralBank(), mutable.getCentralBank().toImmutable());
+		for (HolidayDefinition hd : immutable) {
+			assertTrue(hd.isImmutable());
+			assertSame(hd.toImmutable(), hd);
+		}
+		
+		// Hash and equality reflect the immutable's own state, not its source
+		mutable.setDescription("XYZ bank holidays");
+		assertEquals(immutable.hashCode(), createFinancialCalendar().hashCode());
+		assertFalse(immutable.equals(mutable));
+		assertFalse(immutable.equals(mutable.toImmutable()));
+	}
+
+	@Test(groups = {"definition"})
+	public void testImmutableSerialization() throws Exception {
+		FinancialCalendar immutable = createFinancialCalendar().toImmutable();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(immutable);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		assertSame(in.readObject(), immutable);
+		in.close();
+	}
+
 	@Test(groups = {"definition"})
 	public void testIsImmutable() {
 		FinancialCalendar mutable = createFinancialCalendar();
@@ -0,0 +1,96 @@
+/*
+ * File: HolidayDefinitionBenchmark.java
+ *
+ * Copyright 2013 OSFramework Project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.definition;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Date;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Compares the cost of <code>HolidayDefinition.evaluate(int)</code> with a
+ * compiled, cached expression against parsing the expression string on every
+ * evaluation. Not run by the default build; execute explicitly with:
+ * <pre>
+ * mvn test -Dtest=HolidayDefinitionBenchmark
+ * </pre>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class HolidayDefinitionBenchmark {
+
+	private static final int WARMUP_ITERATIONS = 2;
+	private static final int FIRST_YEAR = 1950, LAST_YEAR = 2050;
+	private static final int ROUNDS = 200;
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Test(groups = "benchmark")
+	public void benchmarkEvaluate() {
+		HolidayDefinition[] definitions = {
+			new HolidayDefinition("NewYearsDay", "New Year's Day", null, HolidayType.FIXED, "JANUARY/01"),
+			new HolidayDefinition("MLKDay", "Martin Luther King Day", null, HolidayType.RELATIVE, "JANUARY/MONDAY/3"),
+			new HolidayDefinition("MemorialDay", "Memorial Day", null, HolidayType.RELATIVE, "MAY/MONDAY/L"),
+			new HolidayDefinition("GoodFriday", "Good Friday", null, HolidayType.CALCULATED, "EASTER-2")
+		};
+		long parsed = 0L, compiled = 0L;
+		for (int i = 0; i <= WARMUP_ITERATIONS; i++) {
+			parsed = timeParsedEvaluation(definitions);
+			compiled = timeCompiledEvaluation(definitions);
+		}
+		int evaluations = definitions.length * ROUNDS * (LAST_YEAR - FIRST_YEAR + 1);
+		logger.info("{} evaluations: parsed per call = {} ms, compiled = {} ms",
+				    new Object[] { Integer.valueOf(evaluations), Long.valueOf(parsed / 1000000L), Long.valueOf(compiled / 1000000L) });
+
+		// Both paths must produce identical dates
+		for (HolidayDefinition hd : definitions) {
+			for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+				Date expected = hd.getObservance().toExpression(hd.getExpression()).evaluate(year);
+				assertEquals(hd.evaluate(year).getTime() / 86400000L, expected.getTime() / 86400000L);
+			}
+		}
+	}
+
+	private long timeParsedEvaluation(HolidayDefinition[] definitions) {
+		long start = System.nanoTime();
+		for (int r = 0; r < ROUNDS; r++) {
+			for (HolidayDefinition hd : definitions) {
+				for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+					hd.getObservance().toExpression(hd.getExpression()).evaluate(year);
+				}
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+	private long timeCompiledEvaluation(HolidayDefinition[] definitions) {
+		long start = System.nanoTime();
+		for (int r = 0; r < ROUNDS; r++) {
+			for (HolidayDefinition hd : definitions) {
+				for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+					hd.evaluate(year);
+				}
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+}
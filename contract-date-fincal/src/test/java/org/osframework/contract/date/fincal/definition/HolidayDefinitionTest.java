@@ -26,12 +26,16 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
 import java.util.Calendar;
 import java.util.Date;
 
+import org.osframework.contract.date.fincal.definition.expression.centralbank.BankOfEnglandDecorator;
+import org.osframework.contract.date.fincal.definition.expression.centralbank.USFederalReserveDecorator;
+import org.osframework.util.DateUtil;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -77,6 +81,35 @@ public class HolidayDefinitionTest {
 		fail("Expected IllegalStateException to be thrown");
 	}
 
+	@Test(groups = {"definition"})
+	public void testToHolidayExpressionCached() {
+		HolidayDefinition hd = createHolidayDefinition(HOLIDAY_DEF_ID_THANKSGIVING);
+		HolidayExpression expr = hd.toHolidayExpression();
+		assertSame(hd.toHolidayExpression(), expr);
+		
+		HolidayDefinition immutable = hd.toImmutable();
+		assertSame(immutable.toHolidayExpression(), immutable.toHolidayExpression());
+	}
+
+	@Test(groups = {"definition"})
+	public void testToHolidayExpressionInvalidatedBySetters() {
+		HolidayDefinition hd = createHolidayDefinition(HOLIDAY_DEF_ID_THANKSGIVING);
+		HolidayExpression expr = hd.toHolidayExpression();
+		
+		hd.setExpression("NOVEMBER/THURSDAY/3");
+		HolidayExpression changed = hd.toHolidayExpression();
+		assertNotSame(changed, expr);
+		Calendar c = Calendar.getInstance();
+		c.set(2013, Calendar.NOVEMBER, 21);
+		assertSameDay(hd.evaluate(2013), c.getTime());
+		
+		hd.setObservance(HolidayType.FIXED);
+		hd.setExpression("DECEMBER/25");
+		assertNotSame(hd.toHolidayExpression(), changed);
+		c.set(2013, Calendar.DECEMBER, 25);
+		assertSameDay(hd.evaluate(2013), c.getTime());
+	}
+
 	@Test(groups = {"definition"})
 	public void testToImmutable() {
 		HolidayDefinition mutable = createHolidayDefinition(HOLIDAY_DEF_ID_NEW_YEARS_DAY);
@@ -131,6 +164,35 @@ public class HolidayDefinitionTest {
 		} catch (UnsupportedOperationException uoe) {}
 	}
 
+	@Test(groups = {"definition"})
+	public void testToImmutableCanonical() {
+		HolidayDefinition mutable = createHolidayDefinition(HOLIDAY_DEF_ID_NEW_YEARS_DAY);
+		HolidayDefinition immutable = mutable.toImmutable();
+		assertSame(createHolidayDefinition(HOLIDAY_DEF_ID_NEW_YEARS_DAY).toImmutable(), immutable);
+		assertSame(immutable.toImmutable(), immutable);
+		assertEquals(immutable.hashCode(), mutable.hashCode());
+		
+		// Hash and equality reflect the immutable's own state, not its source
+		mutable.setName("Some other name");
+		assertEquals(immutable.hashCode(), createHolidayDefinition(HOLIDAY_DEF_ID_NEW_YEARS_DAY).hashCode());
+		assertFalse(immutable.equals(mutable));
+		assertFalse(immutable.equals(mutable.toImmutable()));
+		assertFalse(immutable.equals(createHolidayDefinition(HOLIDAY_DEF_ID_MLK_DAY).toImmutable()));
+	}
+
+	@Test(groups = {"definition"}, dataProvider="packedData")
+	public void testEvaluatePacked(HolidayType observance, String expression) {
+		HolidayDefinition hd = new HolidayDefinition("Packed", "Packed", null, observance, expression);
+		HolidayExpression[] exprs = { hd, new USFederalReserveDecorator(hd), new BankOfEnglandDecorator(hd) };
+		for (int year = 1950; year <= 2050; year++) {
+			for (HolidayExpression expr : exprs) {
+				Date date = expr.evaluate(year);
+				int expected = (null == date) ? 0 : DateUtil.formatDateToInt(date);
+				assertEquals(HolidayExpressions.evaluatePacked(expr, year), expected, expression + " " + year);
+			}
+		}
+	}
+
 	@Test(groups = {"definition"})
 	public void testIsImmutable() {
 		HolidayDefinition mutable = createHolidayDefinition(HOLIDAY_DEF_ID_NEW_YEARS_DAY);
@@ -155,4 +217,18 @@ public class HolidayDefinitionTest {
 		};
 	}
 
+	@DataProvider
+	private Object[][] packedData() {
+		return new Object[][] {
+			{ HolidayType.FIXED, "JANUARY/1" },
+			{ HolidayType.FIXED, "FEBRUARY/29" },
+			{ HolidayType.FIXED, "DECEMBER/31" },
+			{ HolidayType.RELATIVE, "NOVEMBER/THURSDAY/4" },
+			{ HolidayType.RELATIVE, "SEPTEMBER/MONDAY/1" },
+			{ HolidayType.RELATIVE, "MAY/MONDAY/L" },
+			{ HolidayType.CALCULATED, "EASTER-2" },
+			{ HolidayType.ONETIME, "2011-04-29" }
+		};
+	}
+
 }
@@ -0,0 +1,158 @@
+/*
+ * File: WeekendScheduleTest.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.definition;
+
+import static org.osframework.contract.date.fincal.ObjectMother.createCentralBank;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Calendar;
+
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for <code>WeekendSchedule</code> and <code>WeekendMask</code>.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class WeekendScheduleTest {
+
+	@Test(groups = {"definition"})
+	public void testMatchesCalendar() {
+		WeekendMask[] masks = { WeekendMask.SATURDAY_SUNDAY, WeekendMask.FRIDAY_SATURDAY, WeekendMask.SUNDAY };
+		for (WeekendMask mask : masks) {
+			WeekendSchedule schedule = new WeekendSchedule(mask);
+			for (int year = 1899; year <= 2101; year++) {
+				assertEquals(schedule.getWeekendDates(year), calendarWeekendDates(mask, year), mask + " " + year);
+			}
+		}
+	}
+
+	@Test(groups = {"definition"})
+	public void testMasks() {
+		assertTrue(WeekendMask.FRIDAY_SATURDAY.isWeekend(Calendar.FRIDAY));
+		assertFalse(WeekendMask.FRIDAY_SATURDAY.isWeekend(Calendar.SUNDAY));
+		assertEquals(WeekendMask.of(Calendar.SUNDAY, Calendar.SATURDAY), WeekendMask.SATURDAY_SUNDAY);
+		assertEquals(WeekendMask.SATURDAY_SUNDAY.toString(), "[Sun,Sat]");
+		assertEquals(new WeekendSchedule(WeekendMask.NONE).getWeekendDates(2013).length, 0);
+		// 2012 begins on a Sunday and is a leap year
+		assertEquals(new WeekendSchedule(WeekendMask.SUNDAY).getWeekendDates(2012).length, 53);
+	}
+
+	@Test(groups = {"definition"})
+	public void testChangeOn() {
+		// Saudi Arabia moved from Thursday/Friday to Friday/Saturday on 2013-06-29
+		WeekendSchedule saudi = new WeekendSchedule(WeekendMask.THURSDAY_FRIDAY)
+		                            .changeOn(20130629, WeekendMask.FRIDAY_SATURDAY);
+		assertSame(saudi.getMask(20130628), WeekendMask.THURSDAY_FRIDAY);
+		assertSame(saudi.getMask(20130629), WeekendMask.FRIDAY_SATURDAY);
+		assertTrue(saudi.isWeekend(20130627));   // Thursday
+		assertTrue(saudi.isWeekend(20130629));   // Saturday
+		assertFalse(saudi.isWeekend(20130704));  // Thursday
+		int[] dates = saudi.getWeekendDates(2013);
+		assertTrue(Arrays.binarySearch(dates, 20130627) >= 0);
+		assertTrue(Arrays.binarySearch(dates, 20130628) >= 0);
+		assertTrue(Arrays.binarySearch(dates, 20130629) >= 0);
+		assertTrue(Arrays.binarySearch(dates, 20130704) < 0);
+		assertTrue(Arrays.binarySearch(dates, 20130706) >= 0);
+		for (int i = 1; i < dates.length; i++) {
+			assertTrue(dates[i - 1] < dates[i]);
+		}
+		assertEquals(saudi.getWeekendDates(2014), new WeekendSchedule(WeekendMask.FRIDAY_SATURDAY).getWeekendDates(2014));
+		assertEquals(saudi.getWeekendDates(2012), new WeekendSchedule(WeekendMask.THURSDAY_FRIDAY).getWeekendDates(2012));
+		assertEquals(saudi, new WeekendSchedule(WeekendMask.THURSDAY_FRIDAY).changeOn(20130629, WeekendMask.FRIDAY_SATURDAY));
+		try {
+			saudi.changeOn(20130629, WeekendMask.SATURDAY_SUNDAY);
+			fail("Expected IllegalArgumentException to be thrown");
+		} catch (IllegalArgumentException expected) {}
+	}
+
+	@Test(groups = {"definition"},
+		  expectedExceptions = IllegalArgumentException.class)
+	public void testInvalidDayOfWeek() {
+		WeekendMask.of(8);
+	}
+
+	@Test(groups = {"definition"})
+	public void testFormatParse() {
+		assertEquals(WeekendMask.SATURDAY_SUNDAY.format(), "Sun,Sat");
+		assertEquals(WeekendMask.NONE.format(), "None");
+		assertEquals(WeekendMask.parse("sat, SUN"), WeekendMask.SATURDAY_SUNDAY);
+		assertEquals(WeekendMask.parse("none"), WeekendMask.NONE);
+		WeekendSchedule saudi = new WeekendSchedule(WeekendMask.THURSDAY_FRIDAY)
+		                            .changeOn(20130629, WeekendMask.FRIDAY_SATURDAY);
+		assertEquals(saudi.format(), "Thu,Fri;20130629:Fri,Sat");
+		assertEquals(WeekendSchedule.parse(saudi.format()), saudi);
+		assertEquals(WeekendSchedule.parse("Sun,Sat"), WeekendSchedule.SATURDAY_SUNDAY);
+		String[] invalid = { "", "Sun,Funday", "Thu,Fri;Fri,Sat", "Thu,Fri;2013x629:Fri,Sat", "Thu,Fri;20130629:Fri;20130101:Sun" };
+		for (String text : invalid) {
+			try {
+				WeekendSchedule.parse(text);
+				fail("Expected IllegalArgumentException to be thrown: " + text);
+			} catch (IllegalArgumentException expected) {}
+		}
+	}
+
+	@Test(groups = {"definition"})
+	public void testAdapter() throws Exception {
+		WeekendScheduleAdapter adapter = new WeekendScheduleAdapter();
+		WeekendSchedule gulf = new WeekendSchedule(WeekendMask.FRIDAY_SATURDAY);
+		// Default schedule is omitted from XML, and restored when absent
+		assertNull(adapter.marshal(WeekendSchedule.SATURDAY_SUNDAY));
+		assertSame(adapter.unmarshal(null), WeekendSchedule.SATURDAY_SUNDAY);
+		assertSame(adapter.unmarshal(" "), WeekendSchedule.SATURDAY_SUNDAY);
+		assertEquals(adapter.marshal(gulf), "Fri,Sat");
+		assertEquals(adapter.unmarshal(adapter.marshal(gulf)), gulf);
+	}
+
+	@Test(groups = {"definition"})
+	public void testFinancialCalendarWeekends() {
+		FinancialCalendar fc = new FinancialCalendar();
+		assertSame(fc.getWeekendSchedule(), WeekendSchedule.SATURDAY_SUNDAY);
+		WeekendSchedule gulf = new WeekendSchedule(WeekendMask.FRIDAY_SATURDAY);
+		fc.setWeekendSchedule(gulf);
+		fc.setCentralBank(createCentralBank());
+		FinancialCalendar immutable = fc.toImmutable();
+		assertSame(immutable.getWeekendSchedule(), gulf);
+		try {
+			immutable.setWeekendSchedule(WeekendSchedule.SATURDAY_SUNDAY);
+			fail("Expected UnsupportedOperationException to be thrown");
+		} catch (UnsupportedOperationException expected) {}
+	}
+
+	private static int[] calendarWeekendDates(WeekendMask mask, int year) {
+		int[] dates = new int[366];
+		int count = 0;
+		Calendar c = Calendar.getInstance();
+		c.clear();
+		c.set(year, Calendar.JANUARY, 1);
+		while (c.get(Calendar.YEAR) == year) {
+			if (mask.isWeekend(c.get(Calendar.DAY_OF_WEEK))) {
+				dates[count++] = c.get(Calendar.YEAR) * 10000 + (c.get(Calendar.MONTH) + 1) * 100 + c.get(Calendar.DAY_OF_MONTH);
+			}
+			c.add(Calendar.DAY_OF_MONTH, 1);
+		}
+		return Arrays.copyOf(dates, count);
+	}
+
+}
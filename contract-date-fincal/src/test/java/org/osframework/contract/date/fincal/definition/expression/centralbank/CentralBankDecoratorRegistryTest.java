@@ -0,0 +1,94 @@
+/*
+ * File: CentralBankDecoratorRegistryTest.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.definition.expression.centralbank;
+
+import static org.osframework.contract.date.fincal.ObjectMother.CENTRAL_BANK_ID_BOE;
+import static org.osframework.contract.date.fincal.ObjectMother.CENTRAL_BANK_ID_CBOA;
+import static org.osframework.contract.date.fincal.ObjectMother.CENTRAL_BANK_ID_USFR;
+import static org.osframework.contract.date.fincal.ObjectMother.HOLIDAY_DEF_ID_NEW_YEARS_DAY;
+import static org.osframework.contract.date.fincal.ObjectMother.createCentralBank;
+import static org.osframework.contract.date.fincal.ObjectMother.createHolidayDefinition;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.osframework.contract.date.fincal.definition.CentralBank;
+import org.osframework.contract.date.fincal.definition.HolidayDefinition;
+import org.osframework.contract.date.fincal.definition.HolidayExpression;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for <code>CentralBankDecoratorRegistry</code>.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class CentralBankDecoratorRegistryTest {
+
+	@Test(groups = "centralbank",
+		  dependsOnGroups = "expression")
+	public void testDecorate() {
+		CentralBankDecoratorRegistry registry = builtInRegistry();
+		HolidayDefinition nydDef = createHolidayDefinition(HOLIDAY_DEF_ID_NEW_YEARS_DAY);
+		CentralBank boe = createCentralBank(CENTRAL_BANK_ID_BOE);
+		HolidayExpression first = registry.decorate(nydDef, boe);
+		HolidayExpression second = registry.decorate(nydDef, boe);
+		assertTrue(first instanceof BankOfEnglandDecorator);
+		assertTrue(second instanceof BankOfEnglandDecorator);
+		// Each call decorates afresh; only resolution is cached
+		assertNotSame(first, second);
+		assertEquals(first.evaluate(2012), new BankOfEnglandDecorator(nydDef).evaluate(2012));
+		assertTrue(registry.decorate(nydDef, createCentralBank(CENTRAL_BANK_ID_USFR)) instanceof USFederalReserveDecorator);
+	}
+
+	@Test(groups = "centralbank",
+		  dependsOnGroups = "expression")
+	public void testDecorateUnsupported() {
+		CentralBankDecoratorRegistry registry = builtInRegistry();
+		HolidayDefinition nydDef = createHolidayDefinition(HOLIDAY_DEF_ID_NEW_YEARS_DAY);
+		CentralBank cboa = createCentralBank(CENTRAL_BANK_ID_CBOA);
+		assertSame(registry.decorate(nydDef, cboa), nydDef);
+		assertFalse(registry.supports(cboa));
+		// Cached negative resolution
+		assertSame(registry.decorate(nydDef, cboa), nydDef);
+		assertSame(registry.decorate(nydDef, null), nydDef);
+	}
+
+	@Test(groups = "centralbank",
+		  dependsOnGroups = "expression")
+	public void testReload() {
+		CentralBankDecoratorRegistry registry = builtInRegistry();
+		CentralBank boe = createCentralBank(CENTRAL_BANK_ID_BOE);
+		assertTrue(registry.supports(boe));
+		registry.reload();
+		assertTrue(registry.supports(boe));
+		assertTrue(registry.decorate(createHolidayDefinition(HOLIDAY_DEF_ID_NEW_YEARS_DAY), boe) instanceof BankOfEnglandDecorator);
+	}
+
+	private static CentralBankDecoratorRegistry builtInRegistry() {
+		List<Class<? extends CentralBankDecorator>> providerClasses = new ArrayList<Class<? extends CentralBankDecorator>>();
+		providerClasses.add(BankOfEnglandDecorator.class);
+		providerClasses.add(USFederalReserveDecorator.class);
+		return new CentralBankDecoratorRegistry(providerClasses);
+	}
+
+}
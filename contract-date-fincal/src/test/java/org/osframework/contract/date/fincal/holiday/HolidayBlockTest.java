@@ -0,0 +1,120 @@
+/*
+ * File: HolidayBlockTest.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.holiday;
+
+import static org.osframework.contract.date.fincal.ObjectMother.CENTRAL_BANK_ID_BOE;
+import static org.osframework.contract.date.fincal.ObjectMother.CENTRAL_BANK_ID_CBOA;
+import static org.osframework.contract.date.fincal.ObjectMother.CENTRAL_BANK_ID_USFR;
+import static org.osframework.contract.date.fincal.ObjectMother.createFinancialCalendar;
+import static org.osframework.contract.date.fincal.ObjectMother.createHolidayDefinition;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.osframework.contract.date.fincal.ObjectMother;
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.definition.HolidayDefinition;
+import org.osframework.contract.date.fincal.holiday.producer.MergingHolidayProducer;
+import org.osframework.contract.date.fincal.holiday.producer.SingleFinancialCalendarProducer;
+import org.osframework.contract.date.fincal.holiday.producer.SingleYearProducer;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for <code>HolidayBlock</code>, <code>HolidayBlockBuilder</code>
+ * and block production.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class HolidayBlockTest {
+
+	private static final FinancialCalendar[] CALENDARS = {
+		createFinancialCalendar("NYB", CENTRAL_BANK_ID_USFR),
+		createFinancialCalendar("LNB", CENTRAL_BANK_ID_BOE),
+		createFinancialCalendar("BAB", CENTRAL_BANK_ID_CBOA)
+	};
+
+	@Test(groups="producer",
+		  dependsOnGroups={"model","centralbank"})
+	public void testProduceBlockMatchesProduce() {
+		MergingHolidayProducer merging = new MergingHolidayProducer(1990, 2040, true);
+		assertEquals(merging.produceBlock(CALENDARS).asList(), Arrays.asList(merging.produce(CALENDARS)));
+		SingleYearProducer year = new SingleYearProducer(Integer.valueOf(2013), true);
+		assertEquals(year.produceBlock(CALENDARS).asList(), Arrays.asList(year.produce(CALENDARS)));
+		SingleFinancialCalendarProducer single = new SingleFinancialCalendarProducer(CALENDARS[0], true);
+		Integer[] years = { Integer.valueOf(2014), Integer.valueOf(2010) };
+		assertEquals(single.produceBlock(years).asList(), Arrays.asList(single.produce(years)));
+	}
+
+	@Test(groups="producer",
+		  dependsOnGroups={"model","centralbank"})
+	public void testSharedLookupTables() {
+		HolidayBlock block = new MergingHolidayProducer(1990, 2040, true).produceBlock(CALENDARS);
+		assertEquals(block.getCalendarCount(), CALENDARS.length);
+		// Each calendar's own definitions, plus the shared weekend definition
+		assertEquals(block.getDefinitionCount(), 3 * CALENDARS[0].size() + 1);
+		for (int i = 0; i < block.size(); i++) {
+			Holiday h = block.getHoliday(i);
+			assertSame(h.getFinancialCalendar(), block.getCalendar(block.getCalendarOrdinal(i)));
+			assertEquals(h.getDate(), block.getDate(i));
+		}
+	}
+
+	@Test(groups="producer",
+		  dependsOnGroups={"model","centralbank"})
+	public void testBuilder() {
+		Holiday[] holidays = new MergingHolidayProducer(2010, 2012, false).produce(CALENDARS);
+		HolidayBlockBuilder builder = new HolidayBlockBuilder(0).add(holidays);
+		HolidayBlock block = builder.build();
+		assertEquals(block.size(), holidays.length);
+		assertEquals(block.asList(), Arrays.asList(holidays));
+		// Builder remains usable; earlier block unaffected
+		builder.add(block);
+		assertEquals(builder.size(), 2 * holidays.length);
+		assertEquals(block.size(), holidays.length);
+		assertEquals(builder.build().getCalendarCount(), CALENDARS.length);
+	}
+
+	@Test(groups="producer",
+		  dependsOnGroups={"model","centralbank"})
+	public void testStableSort() {
+		FinancialCalendar nyb = CALENDARS[0], lnb = CALENDARS[1];
+		HolidayDefinition newYear = createHolidayDefinition(ObjectMother.HOLIDAY_DEF_ID_NEW_YEARS_DAY);
+		HolidayDefinition mlk = createHolidayDefinition(ObjectMother.HOLIDAY_DEF_ID_MLK_DAY);
+		List<Holiday> sorted = new HolidayBlockBuilder()
+		                           .add(nyb, 20130102, newYear)
+		                           .add(nyb, 20130101, mlk)
+		                           .add(lnb, 20130101, newYear)
+		                           .add(nyb, 20130101, newYear)
+		                           .sort()
+		                           .build()
+		                           .asList();
+		assertEquals(sorted, Arrays.asList(new Holiday(lnb, 20130101, newYear),
+		                                   new Holiday(nyb, 20130101, mlk),
+		                                   new Holiday(nyb, 20130101, newYear),
+		                                   new Holiday(nyb, 20130102, newYear)));
+	}
+
+	@Test(groups="producer",
+		  expectedExceptions=UnsupportedOperationException.class)
+	public void testListViewUnmodifiable() {
+		new HolidayBlockBuilder().build().asList().add(null);
+	}
+
+}
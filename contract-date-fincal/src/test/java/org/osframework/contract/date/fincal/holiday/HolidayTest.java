@@ -20,10 +20,20 @@ package org.osframework.contract.date.fincal.holiday;
 import static org.osframework.contract.date.fincal.ObjectMother.HOLIDAY_DEF_ID_MLK_DAY;
 import static org.osframework.contract.date.fincal.ObjectMother.createFinancialCalendar;
 import static org.osframework.contract.date.fincal.ObjectMother.createHolidayDefinition;
+import static org.osframework.contract.date.fincal.ObjectMother.CENTRAL_BANK_ID_BOE;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotSame;
 import static org.testng.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.util.Arrays;
+
 import org.osframework.contract.date.fincal.definition.FinancialCalendar;
 import org.osframework.contract.date.fincal.definition.HolidayDefinition;
 import org.testng.annotations.Test;
@@ -86,6 +96,64 @@ public class HolidayTest {
 		assertTrue(c > 0);
 	}
 
+	@Test(groups = {"model"})
+	public void testIdentityByCalendarId() {
+		FinancialCalendar fc1 = createFinancialCalendar("NYB", CENTRAL_BANK_ID_BOE);
+		FinancialCalendar fc2 = createFinancialCalendar("NYB", CENTRAL_BANK_ID_BOE);
+		fc2.setDescription("Different definitions, same calendar ID");
+		fc2.removeHolidayDefinition(createHolidayDefinition(HOLIDAY_DEF_ID_MLK_DAY));
+		HolidayId k1 = new HolidayId(fc1, 20130121), k2 = new HolidayId(fc2, 20130121);
+		assertEquals(k1, k2);
+		assertEquals(k1.hashCode(), k2.hashCode());
+		assertEquals(k1.compareTo(k2), 0);
+		assertFalse(k1.equals(new HolidayId(fc1, 20130122)));
+		assertFalse(k1.equals(new HolidayId(createFinancialCalendar("LNB", CENTRAL_BANK_ID_BOE), 20130121)));
+	}
+
+	@Test(groups = {"model"})
+	public void testCompareToMatchesCalendarIdOrder() {
+		String[] ids = { "NYB", "LNB", "NY", "NYBX", "NYBA", "", "\u0100A", "\u0101", "\u00FFZ", "\u00FF\u00FF\u00FF\u00FF", "zzzzz", "NYC" };
+		HolidayId[] keys = new HolidayId[2 * ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			keys[2 * i] = new HolidayId(createFinancialCalendar(ids[i], CENTRAL_BANK_ID_BOE), 20130101);
+			keys[2 * i + 1] = new HolidayId(createFinancialCalendar(ids[i], CENTRAL_BANK_ID_BOE), 20121231);
+		}
+		for (HolidayId a : keys) {
+			for (HolidayId b : keys) {
+				int expected = (a.getDate() != b.getDate()) ? a.getDate() - b.getDate()
+				               : a.getFinancialCalendar().getId().compareTo(b.getFinancialCalendar().getId());
+				assertEquals(Integer.signum(a.compareTo(b)), Integer.signum(expected), a + " vs " + b);
+			}
+		}
+		HolidayId[] sorted = keys.clone();
+		Arrays.sort(sorted);
+		for (int i = 1; i < sorted.length; i++) {
+			assertTrue(sorted[i - 1].compareTo(sorted[i]) <= 0);
+		}
+	}
+
+	@Test(groups = {"model"})
+	public void testIdSerialization() throws Exception {
+		// Serialized form holds only the calendar and date, as it always has
+		ObjectStreamField[] fields = ObjectStreamClass.lookup(HolidayId.class).getFields();
+		assertEquals(fields.length, 2);
+		assertEquals(fields[0].getName(), "date");
+		assertEquals(fields[1].getName(), "financialCalendar");
+
+		HolidayId id = new HolidayId(createFinancialCalendar(), 20120116);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(id);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		HolidayId copy = (HolidayId)in.readObject();
+		in.close();
+		assertEquals(copy, id);
+		assertEquals(copy.hashCode(), id.hashCode());
+		assertEquals(copy.compareTo(id), 0);
+		assertTrue(copy.compareTo(new HolidayId(createFinancialCalendar(), 20120117)) < 0);
+	}
+
 	@Test(groups = {"model"},
 		  expectedExceptions = IllegalArgumentException.class)
 	public void testConstructorNullFinancialCalendar() {
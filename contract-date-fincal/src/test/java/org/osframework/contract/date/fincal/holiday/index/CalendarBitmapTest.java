@@ -0,0 +1,140 @@
+/*
+ * File: CalendarBitmapTest.java
+ *
+ * Copyright 2013 OSFramework Project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.holiday.index;
+
+import static org.osframework.contract.date.fincal.ObjectMother.createFinancialCalendar;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.util.Random;
+
+import org.osframework.contract.date.util.DateMath;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for business day arithmetic of <code>CalendarBitmap</code>.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class CalendarBitmapTest {
+
+	private static final int FIRST_YEAR = 2000, LAST_YEAR = 2040;
+
+	private CalendarBitmap bitmap;
+
+	@BeforeClass
+	public void setUp() {
+		bitmap = new HolidayIndexBuilder(FIRST_YEAR, LAST_YEAR)
+		             .addCalendar(createFinancialCalendar())
+		             .build()
+		             .getCalendar("NYB");
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer",
+		  dataProvider="dp")
+	public void testAddBusinessDays(int date, int n, int expected) {
+		assertEquals(bitmap.addBusinessDays(date, n), expected);
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer",
+		  dataProvider="between")
+	public void testBusinessDaysBetween(int from, int to, int expected) {
+		assertEquals(bitmap.businessDaysBetween(from, to), expected);
+		assertEquals(bitmap.businessDaysBetween(to, from), -expected);
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer")
+	public void testAgainstDayByDayWalk() {
+		Random random = new Random(20130101L);
+		int firstDay = DateMath.toEpochDay(DateMath.of(FIRST_YEAR, 1, 1));
+		int span = DateMath.toEpochDay(DateMath.of(LAST_YEAR, 12, 31)) - firstDay + 1;
+		for (int t = 0; t < 500; t++) {
+			int start = firstDay + 30 + random.nextInt(span - 60);
+			int n = random.nextInt(31) - 15;
+			int day = start;
+			for (int remaining = Math.abs(n); remaining > 0; ) {
+				day += (n > 0) ? 1 : -1;
+				if (bitmap.isBusinessDay(DateMath.fromEpochDay(day))) {
+					remaining--;
+				}
+			}
+			int date = DateMath.fromEpochDay(start);
+			assertEquals(bitmap.addBusinessDays(date, n), DateMath.fromEpochDay(day), date + " + " + n);
+		}
+		// Full span: 30 years of business days in one step
+		int count = bitmap.businessDaysBetween(20050103, 20350102);
+		assertEquals(bitmap.addBusinessDays(20050103, count), 20350102);
+		assertEquals(bitmap.addBusinessDays(20350102, -count), 20050103);
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer",
+		  dataProvider="outOfRange")
+	public void testAddBusinessDaysOutOfRange(int date, int n) {
+		try {
+			bitmap.addBusinessDays(date, n);
+			fail("Expected IllegalArgumentException to be thrown");
+		} catch (IllegalArgumentException expected) {}
+	}
+
+	@DataProvider
+	public Object[][] dp() {
+		return new Object[][] {
+			// Friday before MLK Day 2013 -> Tuesday
+			{ 20130118, 1, 20130122 },
+			{ 20130122, -1, 20130118 },
+			// From a holiday
+			{ 20130121, 1, 20130122 },
+			{ 20130121, -1, 20130118 },
+			// From a Saturday
+			{ 20130105, 1, 20130107 },
+			{ 20130105, -1, 20130104 },
+			{ 20130107, 0, 20130107 },
+			// Across Thanksgiving 2013
+			{ 20131125, 5, 20131203 }
+		};
+	}
+
+	@DataProvider
+	public Object[][] between() {
+		return new Object[][] {
+			{ 20130118, 20130122, 1 },
+			{ 20130118, 20130121, 0 },
+			{ 20130105, 20130107, 1 },
+			{ 20130107, 20130107, 0 },
+			{ 20131125, 20131203, 5 },
+			{ 20130101, 20131231, 257 }
+		};
+	}
+
+	@DataProvider
+	public Object[][] outOfRange() {
+		return new Object[][] {
+			{ 20401231, 1 },
+			{ 20000103, -2 },
+			{ 20130107, Integer.MAX_VALUE },
+			{ 20130107, Integer.MIN_VALUE }
+		};
+	}
+
+}
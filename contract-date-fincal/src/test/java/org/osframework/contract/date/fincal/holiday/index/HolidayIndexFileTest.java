@@ -0,0 +1,186 @@
+/*
+ * File: HolidayIndexFileTest.java
+ *
+ * Copyright 2013 OSFramework Project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.holiday.index;
+
+import static org.osframework.contract.date.fincal.ObjectMother.CENTRAL_BANK_ID_BOE;
+import static org.osframework.contract.date.fincal.ObjectMother.CENTRAL_BANK_ID_USFR;
+import static org.osframework.contract.date.fincal.ObjectMother.createDefinitionSource;
+import static org.osframework.contract.date.fincal.ObjectMother.createFinancialCalendar;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.definition.WeekendMask;
+import org.osframework.contract.date.fincal.definition.WeekendSchedule;
+import org.osframework.contract.date.fincal.holiday.producer.MergingHolidayProducer;
+import org.osframework.contract.date.fincal.output.SequentialHolidayOutputWriter;
+import org.osframework.contract.date.fincal.output.io.bin.HolidayIndexFileOutput;
+import org.osframework.contract.date.util.DateMath;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for <code>HolidayIndexFile</code> and
+ * <code>HolidayIndexFileOutput</code>.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class HolidayIndexFileTest {
+
+	private FinancialCalendar nyb, lnb;
+	private HolidayIndex index;
+
+	@BeforeClass
+	public void setUp() {
+		nyb = createFinancialCalendar("NYB", CENTRAL_BANK_ID_USFR);
+		lnb = createFinancialCalendar("LNB", CENTRAL_BANK_ID_BOE);
+		lnb.setWeekendSchedule(new WeekendSchedule(WeekendMask.FRIDAY_SATURDAY));
+		index = new HolidayIndexBuilder(1990, 2050).addCalendar(nyb).addCalendar(lnb).build();
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer")
+	public void testOutputAndMap() throws Exception {
+		File file = File.createTempFile("holidays", ".idx");
+		file.deleteOnExit();
+		HolidayIndexFileOutput output = new HolidayIndexFileOutput(file, 1990, 2050);
+		output.store(new MergingHolidayProducer(1990, 2050, true).produce(nyb, lnb));
+		output.commit();
+		output.close();
+		assertSameHolidays(HolidayIndexFile.map(file), index);
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer")
+	public void testWriterCommits() throws Exception {
+		File file = File.createTempFile("holidays", ".idx");
+		file.deleteOnExit();
+		SequentialHolidayOutputWriter writer = new SequentialHolidayOutputWriter();
+		writer.setDefinitionSource(createDefinitionSource(nyb, lnb));
+		writer.setCalendarIds("NYB", "LNB");
+		writer.setFirstYear(1990);
+		writer.setLastYear(2050);
+		writer.writeHolidays(new HolidayIndexFileOutput(file, 1990, 2050));
+		assertSameHolidays(HolidayIndexFile.map(file), index);
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer")
+	public void testUncommittedOutputKeepsFile() throws Exception {
+		File dir = File.createTempFile("holidays", "");
+		assertTrue(dir.delete() && dir.mkdir());
+		File file = new File(dir, "holidays.idx");
+		try {
+			HolidayIndexFile.write(index, file);
+			// A failed run stores some holidays, then closes without committing
+			HolidayIndexFileOutput output = new HolidayIndexFileOutput(file, 1990, 2050);
+			output.store(new MergingHolidayProducer(1990, 1995, true).produce(nyb, lnb));
+			output.close();
+			assertSameHolidays(HolidayIndexFile.map(file), index);
+			// Replacement leaves no temporary file behind
+			HolidayIndexFile.write(index, file);
+			assertEquals(dir.list(), new String[] { "holidays.idx" });
+			try {
+				output.store(new MergingHolidayProducer(1990, 1990, true).produce(nyb));
+				fail("Expected IOException to be thrown");
+			} catch (IOException expected) {}
+		} finally {
+			for (File f : dir.listFiles()) {
+				f.delete();
+			}
+			dir.delete();
+		}
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer")
+	public void testStoreBlock() throws Exception {
+		File file = File.createTempFile("holidays", ".idx");
+		file.deleteOnExit();
+		HolidayIndexFileOutput output = new HolidayIndexFileOutput(file, 1990, 2050);
+		output.storeBlock(new MergingHolidayProducer(1990, 2050, true).produceBlock(nyb, lnb));
+		output.commit();
+		output.close();
+		assertSameHolidays(HolidayIndexFile.map(file), index);
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer")
+	public void testEmptyIndex() throws Exception {
+		HolidayIndex empty = new HolidayIndexBuilder(2013, 2013).build();
+		HolidayIndex read = HolidayIndexFile.read(ByteBuffer.wrap(toBytes(empty)));
+		assertEquals(read.getFirstYear(), 2013);
+		assertEquals(read.getCalendarIds().size(), 0);
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer")
+	public void testCorruptionDetected() throws Exception {
+		byte[] bytes = toBytes(index);
+		bytes[bytes.length / 2] ^= 0x10;
+		assertRejected(bytes, "checksum");
+		assertRejected(Arrays.copyOf(toBytes(index), 100), "checksum");
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer")
+	public void testVersionChecked() throws Exception {
+		byte[] bytes = toBytes(index);
+		bytes[7] = (byte)(HolidayIndexFile.FORMAT_VERSION + 1);
+		assertRejected(bytes, "version");
+		bytes[0] = 0;
+		assertRejected(bytes, "Not a holiday index");
+	}
+
+	private static void assertSameHolidays(HolidayIndex actual, HolidayIndex expected) {
+		assertEquals(actual.getFirstYear(), expected.getFirstYear());
+		assertEquals(actual.getLastYear(), expected.getLastYear());
+		assertEquals(actual.getCalendarIds(), expected.getCalendarIds());
+		int lastDay = DateMath.toEpochDay(DateMath.of(expected.getLastYear(), 12, 31));
+		for (String id : expected.getCalendarIds()) {
+			for (int day = DateMath.toEpochDay(DateMath.of(expected.getFirstYear(), 1, 1)); day <= lastDay; day++) {
+				int date = DateMath.fromEpochDay(day);
+				assertEquals(actual.isHoliday(id, date), expected.isHoliday(id, date), id + " " + date);
+				assertEquals(actual.isBusinessDay(id, date), expected.isBusinessDay(id, date), id + " " + date);
+			}
+		}
+	}
+
+	private static void assertRejected(byte[] bytes, String reason) {
+		try {
+			HolidayIndexFile.read(ByteBuffer.wrap(bytes));
+			fail("Expected IOException for " + reason);
+		} catch (IOException expected) {
+			assertTrue(expected.getMessage().contains(reason), expected.getMessage());
+		}
+	}
+
+	private static byte[] toBytes(HolidayIndex index) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		HolidayIndexFile.write(index, out);
+		return out.toByteArray();
+	}
+
+}
@@ -0,0 +1,193 @@
+/*
+ * File: HolidayIndexTest.java
+ *
+ * Copyright 2013 OSFramework Project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.holiday.index;
+
+import static org.osframework.contract.date.fincal.ObjectMother.CENTRAL_BANK_ID_BOE;
+import static org.osframework.contract.date.fincal.ObjectMother.HOLIDAY_DEF_ID_MLK_DAY;
+import static org.osframework.contract.date.fincal.ObjectMother.HOLIDAY_DEF_ID_NEW_YEARS_DAY;
+import static org.osframework.contract.date.fincal.ObjectMother.createCentralBank;
+import static org.osframework.contract.date.fincal.ObjectMother.createFinancialCalendar;
+import static org.osframework.contract.date.fincal.ObjectMother.createHolidayDefinition;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.definition.HolidayDefinition;
+import org.osframework.contract.date.fincal.definition.WeekendMask;
+import org.osframework.contract.date.fincal.definition.WeekendSchedule;
+import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.osframework.contract.date.fincal.holiday.producer.SingleFinancialCalendarProducer;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for <code>HolidayIndex</code> and
+ * <code>HolidayIndexBuilder</code>.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class HolidayIndexTest {
+
+	private FinancialCalendar fc, lnb;
+	private HolidayIndex index;
+
+	@BeforeClass
+	public void setUp() {
+		fc = createFinancialCalendar();
+		Set<HolidayDefinition> hds = new HashSet<HolidayDefinition>();
+		hds.add(createHolidayDefinition(HOLIDAY_DEF_ID_NEW_YEARS_DAY));
+		hds.add(createHolidayDefinition(HOLIDAY_DEF_ID_MLK_DAY));
+		lnb = new FinancialCalendar("LNB", "London bank holidays", createCentralBank(CENTRAL_BANK_ID_BOE), hds);
+		index = new HolidayIndexBuilder(2010, 2014).addCalendar(fc).addCalendar(lnb).build();
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer",
+		  expectedExceptions=IllegalArgumentException.class)
+	public void testBuilderInvalidYears() {
+		new HolidayIndexBuilder(2014, 2010);
+		fail("Expected IllegalArgumentException to be thrown");
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer")
+	public void testMatchesProducer() {
+		Holiday[] holidays = new SingleFinancialCalendarProducer(fc, true).produce(2010, 2014);
+		int observed = 0;
+		for (Holiday h : holidays) {
+			assertFalse(index.isBusinessDay(fc.getId(), h.getDate()), h.toString());
+			if (index.isHoliday(fc.getId(), h.getDate())) {
+				observed++;
+			}
+		}
+		assertEquals(observed, fc.size() * 5);
+		assertEquals(index.holidaysBetween(fc.getId(), 20100101, 20141231), fc.size() * 5);
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer")
+	public void testQueries() {
+		String id = fc.getId();
+		assertTrue(index.contains(id));
+		assertEquals(index.getFirstYear(), 2010);
+		assertEquals(index.getLastYear(), 2014);
+		// Martin Luther King Day 2013: Monday, January 21
+		assertTrue(index.isHoliday(id, 20130121));
+		assertFalse(index.isBusinessDay(id, 20130121));
+		assertFalse(index.isHoliday(id, 20130122));
+		assertTrue(index.isBusinessDay(id, 20130122));
+		// Weekend
+		assertFalse(index.isHoliday(id, 20130126));
+		assertFalse(index.isBusinessDay(id, 20130126));
+		// Thanksgiving 2013: November 28
+		assertEquals(index.holidaysBetween(id, 20130101, 20131231), fc.size());
+		assertEquals(index.holidaysBetween(id, 20131128, 20131128), 1);
+		assertEquals(index.holidaysBetween(id, 20131129, 20131231), 0);
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer")
+	public void testIgnoresWeekendHolidays() {
+		Holiday[] holidays = new SingleFinancialCalendarProducer(fc, true).produce(2013);
+		HolidayIndex idx = new HolidayIndexBuilder(2013, 2013).add(holidays).build();
+		assertEquals(idx.holidaysBetween(fc.getId(), 20130101, 20131231), fc.size());
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer")
+	public void testWeekendSchedule() {
+		FinancialCalendar gulf = createFinancialCalendar("DUB", CENTRAL_BANK_ID_BOE);
+		gulf.setWeekendSchedule(new WeekendSchedule(WeekendMask.FRIDAY_SATURDAY)
+		                            .changeOn(20130701, WeekendMask.SATURDAY_SUNDAY));
+		HolidayIndex idx = new HolidayIndexBuilder(2013, 2013).addCalendar(gulf).build();
+		// Friday 2013-01-04, Sunday 2013-01-06
+		assertFalse(idx.isBusinessDay("DUB", 20130104));
+		assertTrue(idx.isBusinessDay("DUB", 20130106));
+		// Friday 2013-07-05, Sunday 2013-07-07
+		assertTrue(idx.isBusinessDay("DUB", 20130705));
+		assertFalse(idx.isBusinessDay("DUB", 20130707));
+		assertFalse(idx.isHoliday("DUB", 20130707));
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer",
+		  expectedExceptions=IllegalArgumentException.class)
+	public void testDateNotCovered() {
+		index.isHoliday(fc.getId(), 20150101);
+		fail("Expected IllegalArgumentException to be thrown");
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer",
+		  expectedExceptions=IllegalArgumentException.class)
+	public void testCalendarNotIndexed() {
+		index.isBusinessDay("XXX", 20130102);
+		fail("Expected IllegalArgumentException to be thrown");
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer")
+	public void testJointCalendarUnion() {
+		CalendarBitmap joint = index.getJointCalendar(JointCalendarRule.UNION, fc.getId(), lnb.getId());
+		assertEquals(joint.getId(), "UNION(LNB,NYB)");
+		// Cached regardless of member order and duplicates
+		assertSame(index.getJointCalendar(JointCalendarRule.UNION, lnb.getId(), fc.getId(), lnb.getId()), joint);
+		// New Year's Day 2013 on LNB only; Thanksgiving on NYB only; MLK Day on both
+		assertTrue(joint.isHoliday(20130101));
+		assertFalse(joint.isBusinessDay(20130101));
+		assertTrue(joint.isHoliday(20131128));
+		assertTrue(joint.isHoliday(20130121));
+		assertTrue(joint.isBusinessDay(20130102));
+		assertFalse(joint.isBusinessDay(20130105));
+		assertEquals(joint.holidaysBetween(20130101, 20131231), fc.size() + 1);
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer")
+	public void testJointCalendarIntersection() {
+		CalendarBitmap joint = index.getJointCalendar(JointCalendarRule.INTERSECTION, fc.getId(), lnb.getId());
+		assertEquals(joint.getId(), "INTERSECTION(LNB,NYB)");
+		assertFalse(joint.isHoliday(20130101));
+		assertTrue(joint.isBusinessDay(20130101));
+		assertTrue(joint.isHoliday(20130121));
+		assertFalse(joint.isBusinessDay(20130121));
+		assertFalse(joint.isBusinessDay(20130105));
+		assertEquals(joint.holidaysBetween(20130101, 20131231), 1);
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer")
+	public void testJointCalendarSingleMember() {
+		assertSame(index.getJointCalendar(JointCalendarRule.UNION, fc.getId(), fc.getId()), index.getCalendar(fc.getId()));
+	}
+
+	@Test(groups="index",
+		  dependsOnGroups="producer",
+		  expectedExceptions=IllegalArgumentException.class)
+	public void testJointCalendarNotIndexed() {
+		index.getJointCalendar(JointCalendarRule.UNION, fc.getId(), "XXX");
+		fail("Expected IllegalArgumentException to be thrown");
+	}
+
+}
@@ -0,0 +1,105 @@
+/*
+ * File: MergingHolidayProducerTest.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.holiday.producer;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.osframework.contract.date.fincal.ObjectMother;
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.definition.HolidayDefinition;
+import org.osframework.contract.date.fincal.definition.HolidayType;
+import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for <code>MergingHolidayProducer</code>.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class MergingHolidayProducerTest {
+
+	@Test(groups="producer",
+		  dependsOnGroups={"model","centralbank"},
+		  dataProvider="weekends")
+	public void testMatchesStableSort(boolean weekends) {
+		FinancialCalendar[] calendars = createCalendars();
+		List<Holiday> expected = new ArrayList<Holiday>();
+		// Concatenate in calendar ID order, then stable sort
+		for (FinancialCalendar fc : new FinancialCalendar[] { calendars[2], calendars[1], calendars[0] }) {
+			expected.addAll(Arrays.asList(new SingleFinancialCalendarProducer(fc, weekends).produce(1995, 2035)));
+		}
+		Collections.sort(expected);
+
+		MergingHolidayProducer mhp = new MergingHolidayProducer(1995, 2035, weekends);
+		List<Holiday> actual = new ArrayList<Holiday>();
+		for (Iterator<Holiday> it = mhp.iterator(calendars); it.hasNext(); ) {
+			actual.add(it.next());
+		}
+		assertEquals(actual, expected);
+		assertEquals(Arrays.asList(mhp.produce(calendars)), expected);
+	}
+
+	@Test(groups="producer",
+		  dependsOnGroups={"model","centralbank"})
+	public void testNoCalendars() {
+		assertFalse(new MergingHolidayProducer(2012, 2013, true).iterator().hasNext());
+	}
+
+	@Test(groups="producer",
+		  dependsOnGroups={"model","centralbank"},
+		  expectedExceptions=IllegalArgumentException.class)
+	public void testInvalidYears() {
+		new MergingHolidayProducer(2013, 2012, false);
+	}
+
+	@DataProvider
+	public Object[][] weekends() {
+		return new Object[][] {
+			new Object[] { true },
+			new Object[] { false }
+		};
+	}
+
+	/**
+	 * Create calendars in reverse ID order. The LNB calendar observes New
+	 * Year's Eve falling on a Saturday on the following Monday, in the next
+	 * year.
+	 */
+	private FinancialCalendar[] createCalendars() {
+		Set<HolidayDefinition> lnbDefs = new HashSet<HolidayDefinition>(ObjectMother.createHolidayDefinitions());
+		lnbDefs.add(ObjectMother.createHolidayDefinition(ObjectMother.HOLIDAY_DEF_ID_NEW_YEARS_DAY));
+		lnbDefs.add(new HolidayDefinition("NewYearsEve", "New Year's Eve", null, HolidayType.FIXED, "DECEMBER/31"));
+		return new FinancialCalendar[] {
+			ObjectMother.createFinancialCalendar("NYB", ObjectMother.CENTRAL_BANK_ID_USFR),
+			new FinancialCalendar("LNB", "London bank holidays",
+			                      ObjectMother.createCentralBank(ObjectMother.CENTRAL_BANK_ID_BOE), lnbDefs),
+			ObjectMother.createFinancialCalendar("BAB", ObjectMother.CENTRAL_BANK_ID_CBOA)
+		};
+	}
+
+}
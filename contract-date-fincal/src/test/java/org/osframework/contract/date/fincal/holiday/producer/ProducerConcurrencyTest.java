@@ -0,0 +1,111 @@
+/*
+ * File: ProducerConcurrencyTest.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.holiday.producer;
+
+import static org.osframework.contract.date.fincal.ObjectMother.CENTRAL_BANK_ID_BOE;
+import static org.osframework.contract.date.fincal.ObjectMother.CENTRAL_BANK_ID_CBOA;
+import static org.osframework.contract.date.fincal.ObjectMother.CENTRAL_BANK_ID_USFR;
+import static org.osframework.contract.date.fincal.ObjectMother.createFinancialCalendar;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.testng.annotations.Test;
+
+/**
+ * Stress test of producer instances shared by concurrent callers: every
+ * call on every thread must match single-threaded output, and must leave
+ * the caller's argument array untouched.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class ProducerConcurrencyTest {
+
+	private static final int THREADS = 8;
+	private static final int ITERATIONS = 25;
+
+	@Test(groups="producer",
+		  dependsOnGroups={"model","centralbank"})
+	public void testSharedProducers() throws Exception {
+		// Deliberately not in calendar ID order, and shared by all threads
+		final FinancialCalendar[] calendars = {
+			createFinancialCalendar("NYB", CENTRAL_BANK_ID_USFR),
+			createFinancialCalendar("BAB", CENTRAL_BANK_ID_CBOA),
+			createFinancialCalendar("LNB", CENTRAL_BANK_ID_BOE)
+		};
+		final FinancialCalendar[] original = calendars.clone();
+		final Integer[] years = { Integer.valueOf(2020), Integer.valueOf(1990), Integer.valueOf(2005) };
+		final Integer[] originalYears = years.clone();
+
+		final SingleFinancialCalendarProducer single = new SingleFinancialCalendarProducer(calendars[0], true);
+		final SingleYearProducer year = new SingleYearProducer(Integer.valueOf(2013), true);
+		final MergingHolidayProducer merging = new MergingHolidayProducer(1990, 2020, true);
+		final Holiday[] expectedSingle = single.produce(years);
+		final Holiday[] expectedYear = year.produce(calendars);
+		final Holiday[] expectedMerging = merging.produce(calendars);
+
+		final CountDownLatch start = new CountDownLatch(1);
+		final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			final List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+			for (int t = 0; t < THREADS; t++) {
+				final int offset = t;
+				results.add(executor.submit(new Callable<Integer>() {
+					public Integer call() throws Exception {
+						start.await();
+						int mismatches = 0;
+						for (int i = 0; i < ITERATIONS; i++) {
+							switch ((offset + i) % 3) {
+							case 0:
+								mismatches += Arrays.equals(single.produce(years), expectedSingle) ? 0 : 1;
+								break;
+							case 1:
+								mismatches += Arrays.equals(year.produce(calendars), expectedYear) ? 0 : 1;
+								break;
+							default:
+								mismatches += Arrays.equals(merging.produce(calendars), expectedMerging) ? 0 : 1;
+								break;
+							}
+						}
+						return Integer.valueOf(mismatches);
+					}
+				}));
+			}
+			start.countDown();
+			for (Future<Integer> result : results) {
+				assertEquals(result.get(60L, TimeUnit.SECONDS).intValue(), 0);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertTrue(Arrays.equals(calendars, original));
+		assertTrue(Arrays.equals(years, originalYears));
+	}
+
+}
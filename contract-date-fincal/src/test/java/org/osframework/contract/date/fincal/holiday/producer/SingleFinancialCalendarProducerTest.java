@@ -17,11 +17,24 @@
  */
 package org.osframework.contract.date.fincal.holiday.producer;
 
+import static org.osframework.contract.date.fincal.ObjectMother.CENTRAL_BANK_ID_BOE;
+import static org.osframework.contract.date.fincal.ObjectMother.CENTRAL_BANK_ID_CBOA;
+import static org.osframework.contract.date.fincal.ObjectMother.CENTRAL_BANK_ID_USFR;
+import static org.osframework.contract.date.fincal.ObjectMother.HOLIDAY_DEF_ID_NEW_YEARS_DAY;
 import static org.osframework.contract.date.fincal.ObjectMother.createFinancialCalendar;
+import static org.osframework.contract.date.fincal.ObjectMother.createHolidayDefinition;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.definition.WeekendMask;
+import org.osframework.contract.date.fincal.definition.WeekendSchedule;
 import org.osframework.contract.date.fincal.holiday.Holiday;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -58,6 +71,69 @@ public class SingleFinancialCalendarProducerTest {
 		assertEquals(results.length, expectedCount);
 	}
 
+	@Test(groups="producer",
+		  dependsOnGroups={"model","centralbank"},
+		  dataProvider="weekends")
+	public void testIteratorMatchesProduce(FinancialCalendar fc, boolean weekends) {
+		SingleFinancialCalendarProducer sfcp = new SingleFinancialCalendarProducer(fc, weekends);
+		Holiday[] expected = sfcp.produce(2014, 2010, 2012);
+		Iterator<Holiday> it = sfcp.iterator(2014, 2010, 2012);
+		for (Holiday holiday : expected) {
+			assertTrue(it.hasNext());
+			assertEquals(it.next(), holiday);
+		}
+		assertFalse(it.hasNext());
+		assertEquals(expected[0].getDate() / 10000, 2010);
+		assertEquals(expected[expected.length - 1].getDate() / 10000, 2014);
+		try {
+			it.next();
+			fail("Expected NoSuchElementException to be thrown");
+		} catch (NoSuchElementException expectedException) {}
+	}
+
+	@Test(groups="producer",
+		  dependsOnGroups={"model","centralbank"})
+	public void testWeekendSchedule() {
+		FinancialCalendar fc = createFinancialCalendar();
+		fc.setWeekendSchedule(new WeekendSchedule(WeekendMask.FRIDAY_SATURDAY));
+		Calendar c = Calendar.getInstance();
+		int weekends = 0;
+		for (Holiday h : new SingleFinancialCalendarProducer(fc, true).produce(2013)) {
+			if (HolidayProducer.WEEKEND_HOLIDAY_DEFINITION.equals(h.getHolidayDefinition())) {
+				c.clear();
+				c.set(h.getDate() / 10000, (h.getDate() / 100) % 100 - 1, h.getDate() % 100);
+				assertTrue(WeekendMask.FRIDAY_SATURDAY.isWeekend(c.get(Calendar.DAY_OF_WEEK)), h.toString());
+				weekends++;
+			}
+		}
+		// 2013 begins on a Tuesday
+		assertEquals(weekends, 104);
+	}
+
+	@Test(groups="producer",
+		  dependsOnGroups={"model","centralbank"},
+		  dataProvider="observance")
+	public void testCentralBankObservance(String cbId, int year, int expectedDate) {
+		FinancialCalendar fc = createFinancialCalendar(cbId + "CAL", cbId);
+		fc.addHolidayDefinition(createHolidayDefinition(HOLIDAY_DEF_ID_NEW_YEARS_DAY));
+		int actualDate = 0;
+		for (Holiday h : new SingleFinancialCalendarProducer(fc).produce(year)) {
+			if (HOLIDAY_DEF_ID_NEW_YEARS_DAY.equals(h.getHolidayDefinition().getId())) {
+				actualDate = h.getDate();
+			}
+		}
+		assertEquals(actualDate, expectedDate);
+	}
+
+	@Test(groups="producer",
+		  dependsOnGroups={"model","centralbank"},
+		  expectedExceptions=UnsupportedOperationException.class)
+	public void testIteratorRemove() {
+		Iterator<Holiday> it = new SingleFinancialCalendarProducer(createFinancialCalendar()).iterator(2012);
+		it.next();
+		it.remove();
+	}
+
 	@DataProvider
 	public Object[][] dp() {
 		FinancialCalendar fc = createFinancialCalendar();
@@ -69,6 +145,19 @@ public class SingleFinancialCalendarProducerTest {
 		};
 	}
 
+	@DataProvider
+	public Object[][] observance() {
+		// New Year's Day 2011 falls on a Saturday, 2012 on a Sunday
+		return new Object[][] {
+			{ CENTRAL_BANK_ID_USFR, 2011, 20110101 },
+			{ CENTRAL_BANK_ID_USFR, 2012, 20120102 },
+			{ CENTRAL_BANK_ID_BOE, 2011, 20110103 },
+			{ CENTRAL_BANK_ID_BOE, 2012, 20120102 },
+			{ CENTRAL_BANK_ID_CBOA, 2011, 20110101 },
+			{ CENTRAL_BANK_ID_CBOA, 2012, 20120101 }
+		};
+	}
+
 	@DataProvider
 	public Object[][] weekends() {
 		FinancialCalendar fc = createFinancialCalendar();
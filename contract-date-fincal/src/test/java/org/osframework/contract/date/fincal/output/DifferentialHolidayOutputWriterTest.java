@@ -0,0 +1,226 @@
+/*
+ * File: DifferentialHolidayOutputWriterTest.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.osframework.contract.date.fincal.ObjectMother;
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.definition.HolidayDefinition;
+import org.osframework.contract.date.fincal.definition.HolidayType;
+import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for <code>DifferentialHolidayOutputWriter</code>.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class DifferentialHolidayOutputWriterTest {
+
+	private static final FinancialCalendar NYB = ObjectMother.createFinancialCalendar("NYB", ObjectMother.CENTRAL_BANK_ID_USFR);
+	private static final FinancialCalendar LNB = ObjectMother.createFinancialCalendar("LNB", ObjectMother.CENTRAL_BANK_ID_BOE);
+	private static final FinancialCalendar BAB = ObjectMother.createFinancialCalendar("BAB", ObjectMother.CENTRAL_BANK_ID_CBOA);
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testInitialRunWritesAll() throws Exception {
+		DifferentialHolidayOutputWriter writer = new DifferentialHolidayOutputWriter();
+		configure(writer, 1990, 2040, true, NYB, LNB, BAB);
+		DeltaOutput output = new DeltaOutput();
+		writer.writeHolidays(output);
+		assertEquals(output.rows, fullRows(1990, 2040, true, NYB, LNB, BAB));
+		assertTrue(output.closed);
+		assertNotNull(writer.getSnapshot());
+		assertEquals(writer.getSnapshot().size(), output.rows.size());
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testUnchangedRunWritesNothing() throws Exception {
+		DeltaOutput output = new DeltaOutput();
+		DifferentialHolidayOutputWriter writer = initialRun(output, 1990, 2040, true, NYB, LNB, BAB);
+		output.reset();
+		writer.setPreviousSnapshot(writer.getSnapshot());
+		writer.writeHolidays(output);
+		assertEquals(output.added, 0);
+		assertEquals(output.removed, 0);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testChangedDefinition() throws Exception {
+		DeltaOutput output = new DeltaOutput();
+		DifferentialHolidayOutputWriter writer = initialRun(output, 1990, 2040, false, NYB, LNB, BAB);
+		Set<HolidayDefinition> definitions = ObjectMother.createHolidayDefinitions();
+		definitions.remove(ObjectMother.createHolidayDefinition(ObjectMother.HOLIDAY_DEF_ID_THANKSGIVING));
+		definitions.add(new HolidayDefinition(ObjectMother.HOLIDAY_DEF_ID_THANKSGIVING, "Thanksgiving", "Thanksgiving (US)",
+		                                      HolidayType.RELATIVE, "NOVEMBER/THURSDAY/3"));
+		FinancialCalendar changed = new FinancialCalendar("NYB", "NYB holidays", ObjectMother.createCentralBank(), definitions);
+
+		output.reset();
+		writer.setPreviousSnapshot(writer.getSnapshot());
+		configure(writer, 1990, 2040, false, changed, LNB, BAB);
+		writer.writeHolidays(output);
+		assertEquals(output.rows, fullRows(1990, 2040, false, changed, LNB, BAB));
+		// One Thanksgiving moved per year
+		assertEquals(output.added, 51);
+		assertEquals(output.removed, 51);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testRenamedDefinition() throws Exception {
+		DeltaOutput output = new DeltaOutput();
+		DifferentialHolidayOutputWriter writer = initialRun(output, 1990, 2040, false, NYB, LNB, BAB);
+		HolidayDefinition thanksgiving = ObjectMother.createHolidayDefinition(ObjectMother.HOLIDAY_DEF_ID_THANKSGIVING);
+		Set<HolidayDefinition> definitions = ObjectMother.createHolidayDefinitions();
+		definitions.remove(thanksgiving);
+		// Same date and ID; only the name written by text outputs changes
+		definitions.add(new HolidayDefinition(thanksgiving.getId(), "Thanksgiving Day", thanksgiving.getDescription(),
+		                                      thanksgiving.getObservance(), thanksgiving.getExpression()));
+		FinancialCalendar renamed = new FinancialCalendar("NYB", "NYB holidays", ObjectMother.createCentralBank(), definitions);
+
+		output.reset();
+		writer.setPreviousSnapshot(writer.getSnapshot());
+		configure(writer, 1990, 2040, false, renamed, LNB, BAB);
+		writer.writeHolidays(output);
+		assertEquals(output.rows, fullRows(1990, 2040, false, renamed, LNB, BAB));
+		// Every Thanksgiving rewritten under its new name
+		assertEquals(output.added, 51);
+		assertEquals(output.removed, 51);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testChangedYearsAndCalendars() throws Exception {
+		DeltaOutput output = new DeltaOutput();
+		DifferentialHolidayOutputWriter writer = initialRun(output, 1990, 2040, true, NYB, LNB, BAB);
+		int previousSize = output.rows.size();
+
+		output.reset();
+		writer.setPreviousSnapshot(writer.getSnapshot());
+		configure(writer, 1995, 2041, true, NYB, LNB);
+		writer.writeHolidays(output);
+		assertEquals(output.rows, fullRows(1995, 2041, true, NYB, LNB));
+		assertEquals(output.rows.size(), previousSize + output.added - output.removed);
+		assertTrue(output.added < output.rows.size() / 10);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testChangedWeekends() throws Exception {
+		DeltaOutput output = new DeltaOutput();
+		DifferentialHolidayOutputWriter writer = initialRun(output, 2000, 2010, false, NYB, LNB);
+		output.reset();
+		writer.setPreviousSnapshot(writer.getSnapshot());
+		configure(writer, 2000, 2010, true, NYB, LNB);
+		writer.writeHolidays(output);
+		assertEquals(output.rows, fullRows(2000, 2010, true, NYB, LNB));
+		assertEquals(output.removed, 0);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model",
+		  expectedExceptions = HolidayOutputException.class)
+	public void testPreviousSnapshotRequiresDifferentialOutput() throws Exception {
+		DifferentialHolidayOutputWriter writer = initialRun(new DeltaOutput(), 2000, 2001, false, NYB);
+		writer.setPreviousSnapshot(writer.getSnapshot());
+		writer.writeHolidays(new ParallelHolidayOutputWriterTest.CollectingOutput());
+	}
+
+	private static DifferentialHolidayOutputWriter initialRun(DeltaOutput output, int firstYear, int lastYear,
+	                                                          boolean weekends, FinancialCalendar... calendars) {
+		DifferentialHolidayOutputWriter writer = new DifferentialHolidayOutputWriter();
+		configure(writer, firstYear, lastYear, weekends, calendars);
+		writer.writeHolidays(output);
+		return writer;
+	}
+
+	private static void configure(AbstractHolidayOutputWriter writer, int firstYear, int lastYear,
+	                              boolean weekends, FinancialCalendar... calendars) {
+		writer.setDefinitionSource(ObjectMother.createDefinitionSource(calendars));
+		writer.calendarIds.clear();
+		for (FinancialCalendar fc : calendars) {
+			writer.addCalendarId(fc.getId());
+		}
+		writer.setFirstYear(firstYear);
+		writer.setLastYear(lastYear);
+		if (weekends) {
+			writer.includeWeekends();
+		} else {
+			writer.ignoreWeekends();
+		}
+	}
+
+	private static Set<String> fullRows(int firstYear, int lastYear, boolean weekends, FinancialCalendar... calendars) {
+		SequentialHolidayOutputWriter writer = new SequentialHolidayOutputWriter();
+		configure(writer, firstYear, lastYear, weekends, calendars);
+		ParallelHolidayOutputWriterTest.CollectingOutput output = new ParallelHolidayOutputWriterTest.CollectingOutput();
+		writer.writeHolidays(output);
+		return rows(output.holidays);
+	}
+
+	private static Set<String> rows(List<Holiday> holidays) {
+		Set<String> rows = new HashSet<String>();
+		for (Holiday h : holidays) {
+			assertTrue(rows.add(row(h)), "Duplicate row " + row(h));
+		}
+		return rows;
+	}
+
+	private static String row(Holiday h) {
+		return h.getFinancialCalendar().getId() + "|" + h.getDate() + "|" + h.getHolidayDefinition().getId();
+	}
+
+	/**
+	 * Differential output which applies changes to a set of rows, identified
+	 * as they would be by a database.
+	 */
+	static class DeltaOutput implements DifferentialHolidayOutput<Set<String>, Exception> {
+		final Set<String> rows = new HashSet<String>();
+		int added = 0, removed = 0;
+		boolean closed = false;
+		public void store(Holiday... holidays) {
+			for (Holiday h : holidays) {
+				assertTrue(rows.add(row(h)), "Row already stored: " + row(h));
+				added++;
+			}
+		}
+		public void delete(Holiday... holidays) {
+			for (Holiday h : holidays) {
+				assertTrue(rows.remove(row(h)), "Row not stored: " + row(h));
+				removed++;
+			}
+		}
+		public void close() {
+			closed = true;
+		}
+		void reset() {
+			added = removed = 0;
+			closed = false;
+		}
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * File: HolidayOutputWriterBenchmark.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output;
+
+import static org.testng.Assert.assertEquals;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Compares the throughput of <code>SequentialHolidayOutputWriter</code>,
+ * <code>ParallelHolidayOutputWriter</code> and
+ * <code>PipelinedHolidayOutputWriter</code> producing holidays, including
+ * weekends, for several calendars over a century. Not run by the default
+ * build; execute explicitly with:
+ * <pre>
+ * mvn test -Dtest=HolidayOutputWriterBenchmark
+ * </pre>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class HolidayOutputWriterBenchmark {
+
+	private static final int WARMUP_ITERATIONS = 2;
+	private static final int FIRST_YEAR = 1950, LAST_YEAR = 2050;
+	private static final int ROUNDS = 5;
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Test(groups = "benchmark")
+	public void benchmarkWriteHolidays() throws Exception {
+		long sequential = 0L, parallel = 0L, pipelined = 0L;
+		int count = 0;
+		for (int i = 0; i <= WARMUP_ITERATIONS; i++) {
+			sequential = 0L;
+			parallel = 0L;
+			pipelined = 0L;
+			for (int r = 0; r < ROUNDS; r++) {
+				ParallelHolidayOutputWriterTest.CollectingOutput expected = new ParallelHolidayOutputWriterTest.CollectingOutput();
+				sequential += time(new SequentialHolidayOutputWriter(), expected);
+				ParallelHolidayOutputWriterTest.CollectingOutput actual = new ParallelHolidayOutputWriterTest.CollectingOutput();
+				parallel += time(new ParallelHolidayOutputWriter(), actual);
+				assertEquals(actual.holidays, expected.holidays);
+				actual = new ParallelHolidayOutputWriterTest.CollectingOutput();
+				pipelined += time(new PipelinedHolidayOutputWriter(), actual);
+				assertEquals(actual.holidays, expected.holidays);
+				count = actual.holidays.size();
+			}
+		}
+		logger.info("{} holidays x {} rounds: sequential = {} ms, parallel ({} threads) = {} ms, pipelined = {} ms",
+				    new Object[] { Integer.valueOf(count), Integer.valueOf(ROUNDS),
+				                   Long.valueOf(sequential / 1000000L),
+				                   Integer.valueOf(Runtime.getRuntime().availableProcessors()),
+				                   Long.valueOf(parallel / 1000000L),
+				                   Long.valueOf(pipelined / 1000000L) });
+	}
+
+	private long time(AbstractHolidayOutputWriter writer, HolidayOutput<?, ?> output) throws Exception {
+		ParallelHolidayOutputWriterTest.configure(writer, FIRST_YEAR, LAST_YEAR, true);
+		long start = System.nanoTime();
+		((HolidayOutputWriter)writer).writeHolidays(output);
+		return System.nanoTime() - start;
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+ * File: ParallelHolidayOutputWriterTest.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.osframework.contract.date.fincal.ObjectMother;
+import org.osframework.contract.date.fincal.definition.source.DefinitionSource;
+import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for <code>ParallelHolidayOutputWriter</code>.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class ParallelHolidayOutputWriterTest {
+
+	static final String[] CALENDAR_IDS = { "NYB", "LNB", "BAB" };
+
+	static DefinitionSource createDefinitionSource() {
+		return ObjectMother.createDefinitionSource(
+			ObjectMother.createFinancialCalendar("NYB", ObjectMother.CENTRAL_BANK_ID_USFR),
+			ObjectMother.createFinancialCalendar("LNB", ObjectMother.CENTRAL_BANK_ID_BOE),
+			ObjectMother.createFinancialCalendar("BAB", ObjectMother.CENTRAL_BANK_ID_CBOA)
+		);
+	}
+
+	static void configure(AbstractHolidayOutputWriter writer, int firstYear, int lastYear, boolean weekends) {
+		writer.setDefinitionSource(createDefinitionSource());
+		writer.setCalendarIds(CALENDAR_IDS);
+		writer.setFirstYear(firstYear);
+		writer.setLastYear(lastYear);
+		if (weekends) {
+			writer.includeWeekends();
+		}
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model",
+		  dataProvider = "configurations")
+	public void testSameOutputAsSequential(int parallelism, int yearsPerTask, boolean weekends) throws Exception {
+		SequentialHolidayOutputWriter sequential = new SequentialHolidayOutputWriter();
+		configure(sequential, 1990, 2040, weekends);
+		CollectingOutput expected = new CollectingOutput();
+		sequential.writeHolidays(expected);
+
+		ParallelHolidayOutputWriter parallel = new ParallelHolidayOutputWriter(parallelism, yearsPerTask);
+		configure(parallel, 1990, 2040, weekends);
+		CollectingOutput actual = new CollectingOutput();
+		parallel.writeHolidays(actual);
+
+		assertTrue(actual.closed);
+		assertTrue(actual.holidays.size() > 0);
+		assertEquals(actual.holidays, expected.holidays);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model",
+		  expectedExceptions = HolidayOutputException.class)
+	public void testMissingCalendars() throws Exception {
+		ParallelHolidayOutputWriter parallel = new ParallelHolidayOutputWriter(2);
+		parallel.setDefinitionSource(createDefinitionSource());
+		parallel.setFirstYear(2013);
+		parallel.setLastYear(2013);
+		parallel.writeHolidays(new CollectingOutput());
+	}
+
+	@Test(groups="data",
+		  expectedExceptions = IllegalArgumentException.class)
+	public void testInvalidParallelism() {
+		new ParallelHolidayOutputWriter(0);
+	}
+
+	@DataProvider
+	public Object[][] configurations() {
+		return new Object[][] {
+			new Object[] { 1, ParallelHolidayOutputWriter.DEFAULT_YEARS_PER_TASK, false },
+			new Object[] { 4, 7, false },
+			new Object[] { 4, 7, true },
+			new Object[] { 16, 1, true },
+		};
+	}
+
+	/**
+	 * Holiday output which retains stored holidays in memory.
+	 */
+	static class CollectingOutput implements HolidayOutput<List<Holiday>, Exception> {
+		final List<Holiday> holidays = new ArrayList<Holiday>();
+		boolean closed = false;
+		public void store(Holiday... h) {
+			holidays.addAll(Arrays.asList(h));
+		}
+		public void close() {
+			closed = true;
+		}
+	}
+
+}
@@ -0,0 +1,178 @@
+/*
+ * File: PipelinedHolidayOutputWriterTest.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+
+import org.osframework.contract.date.fincal.ObjectMother;
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.definition.HolidayDefinition;
+import org.osframework.contract.date.fincal.definition.HolidayType;
+import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.osframework.contract.date.fincal.output.ParallelHolidayOutputWriterTest.CollectingOutput;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for <code>PipelinedHolidayOutputWriter</code>.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class PipelinedHolidayOutputWriterTest {
+
+	@Test(groups="data",
+		  dependsOnGroups="model",
+		  dataProvider = "configurations")
+	public void testSameOutputAsSequential(int batchSize, int queueDepth, boolean weekends) throws Exception {
+		SequentialHolidayOutputWriter sequential = new SequentialHolidayOutputWriter();
+		ParallelHolidayOutputWriterTest.configure(sequential, 1990, 2040, weekends);
+		CollectingOutput expected = new CollectingOutput();
+		sequential.writeHolidays(expected);
+
+		PipelinedHolidayOutputWriter pipelined = new PipelinedHolidayOutputWriter(batchSize, queueDepth);
+		ParallelHolidayOutputWriterTest.configure(pipelined, 1990, 2040, weekends);
+		CollectingOutput actual = new CollectingOutput();
+		pipelined.writeHolidays(actual);
+
+		assertTrue(actual.closed);
+		assertEquals(actual.holidays, expected.holidays);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testStoreFailure() {
+		PipelinedHolidayOutputWriter pipelined = new PipelinedHolidayOutputWriter(10, 1);
+		ParallelHolidayOutputWriterTest.configure(pipelined, 1990, 2040, true);
+		CollectingOutput output = new CollectingOutput() {
+			@Override
+			public void store(Holiday... h) {
+				if (holidays.size() > 100) {
+					throw new IllegalStateException("Output failed");
+				}
+				super.store(h);
+			}
+		};
+		try {
+			pipelined.writeHolidays(output);
+			fail("Expected HolidayOutputException to be thrown");
+		} catch (HolidayOutputException hoe) {
+			assertTrue(hoe.getCause() instanceof IllegalStateException);
+		}
+		assertTrue(output.closed);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testStoreFailureWithFullQueueEndsProducer() throws Exception {
+		// Each holiday takes 200ms to produce, and its producer is not
+		// waiting on the queue when it is stopped
+		HolidayDefinition slow = new HolidayDefinition("Slow", "Slow", null, HolidayType.FIXED, "JULY/01") {
+			private static final long serialVersionUID = 1L;
+			@Override
+			public int evaluatePacked(int year) {
+				final long until = System.nanoTime() + 200000000L;
+				while (System.nanoTime() < until) {}
+				return super.evaluatePacked(year);
+			}
+		};
+		FinancialCalendar fc = new FinancialCalendar();
+		fc.setId("SLO");
+		fc.setCentralBank(ObjectMother.createCentralBank(ObjectMother.CENTRAL_BANK_ID_CBOA));
+		fc.addHolidayDefinition(slow);
+		PipelinedHolidayOutputWriter pipelined = new PipelinedHolidayOutputWriter(1, 1);
+		pipelined.setDefinitionSource(ObjectMother.createDefinitionSource(fc));
+		pipelined.setCalendarIds("SLO");
+		pipelined.setFirstYear(2000);
+		pipelined.setLastYear(2040);
+		// Fails while the queue holds the second holiday and the third is
+		// being produced
+		CollectingOutput output = new CollectingOutput() {
+			@Override
+			public void store(Holiday... h) {
+				try {
+					Thread.sleep(300L);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+				}
+				throw new IllegalStateException("Output failed");
+			}
+		};
+		try {
+			pipelined.writeHolidays(output);
+			fail("Expected HolidayOutputException to be thrown");
+		} catch (HolidayOutputException hoe) {
+			assertTrue(hoe.getCause() instanceof IllegalStateException);
+		}
+		for (Thread t : Thread.getAllStackTraces().keySet()) {
+			if ("holiday-producer".equals(t.getName())) {
+				t.join(5000L);
+				assertFalse(t.isAlive(), "Producer thread still running");
+			}
+		}
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testProductionFailure() {
+		HolidayDefinition failing = new HolidayDefinition("Failing", "Failing", null, HolidayType.FIXED, "JULY/01") {
+			private static final long serialVersionUID = 1L;
+			@Override
+			public int evaluatePacked(int year) {
+				if (2030 == year) {
+					throw new UnsupportedOperationException("Cannot evaluate " + year);
+				}
+				return super.evaluatePacked(year);
+			}
+		};
+		FinancialCalendar fc = ObjectMother.createFinancialCalendar("BAB", ObjectMother.CENTRAL_BANK_ID_CBOA);
+		fc.addHolidayDefinition(failing);
+		PipelinedHolidayOutputWriter pipelined = new PipelinedHolidayOutputWriter(10, 2);
+		pipelined.setDefinitionSource(ObjectMother.createDefinitionSource(fc));
+		pipelined.setCalendarIds("BAB");
+		pipelined.setFirstYear(2000);
+		pipelined.setLastYear(2040);
+		CollectingOutput output = new CollectingOutput();
+		try {
+			pipelined.writeHolidays(output);
+			fail("Expected HolidayOutputException to be thrown");
+		} catch (HolidayOutputException hoe) {
+			assertTrue(hoe.getCause() instanceof UnsupportedOperationException);
+		}
+		assertTrue(output.closed);
+	}
+
+	@Test(groups="data",
+		  expectedExceptions = IllegalArgumentException.class)
+	public void testInvalidQueueDepth() {
+		new PipelinedHolidayOutputWriter(100, 0);
+	}
+
+	@DataProvider
+	public Object[][] configurations() {
+		return new Object[][] {
+			new Object[] { PipelinedHolidayOutputWriter.DEFAULT_BATCH_SIZE, PipelinedHolidayOutputWriter.DEFAULT_QUEUE_DEPTH, false },
+			new Object[] { 7, 1, true },
+			new Object[] { 1, 3, false },
+		};
+	}
+
+}
@@ -0,0 +1,194 @@
+/*
+ * File: ResumableHolidayOutputTest.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.osframework.contract.date.fincal.ObjectMother;
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.definition.HolidayDefinition;
+import org.osframework.contract.date.fincal.definition.HolidayType;
+import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for resumption of <code>HolidayOutputWriter</code> objects after
+ * the checkpoint of a <code>ResumableHolidayOutput</code>.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class ResumableHolidayOutputTest {
+
+	/**
+	 * Configure a writer for calendars one of which observes two holidays on
+	 * New Year's Day, so that some holidays share an ID, and a holiday 120
+	 * days before Easter, which falls in the year before it is produced.
+	 */
+	static void configure(AbstractHolidayOutputWriter writer) {
+		Set<HolidayDefinition> definitions = ObjectMother.createHolidayDefinitions();
+		definitions.add(new HolidayDefinition("BankHoliday", "Bank Holiday", "Bank Holiday", HolidayType.FIXED, "JANUARY/01"));
+		definitions.add(new HolidayDefinition("PreEaster", "Pre-Easter", "Pre-Easter", HolidayType.CALCULATED, "EASTER-120"));
+		writer.setDefinitionSource(ObjectMother.createDefinitionSource(
+			new FinancialCalendar("NYB", "NYB holidays", ObjectMother.createCentralBank(), definitions),
+			ObjectMother.createFinancialCalendar("LNB", ObjectMother.CENTRAL_BANK_ID_BOE)
+		));
+		writer.setCalendarIds("NYB", "LNB");
+		writer.setFirstYear(1990);
+		writer.setLastYear(2040);
+		writer.includeWeekends();
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model",
+		  dataProvider = "writers")
+	public void testResumeAfterCheckpoint(AbstractHolidayOutputWriter writer) throws Exception {
+		List<Holiday> all = writeAll();
+		// Resume within the holidays sharing an ID, then at various points
+		int tie = firstTie(all);
+		int[] positions = { tie, tie + 1, 0, all.size() / 2, all.size() - 1 };
+		for (int i : positions) {
+			Holiday last = all.get(i);
+			int count = 1;
+			for (int j = i - 1; j >= 0 && 0 == last.compareTo(all.get(j)); j--) {
+				count++;
+			}
+			HolidayCheckpoint checkpoint = new HolidayCheckpoint(last.getFinancialCalendar().getId(), last.getDate(), count);
+			configure(writer);
+			ResumingOutput output = new ResumingOutput(checkpoint);
+			writer.writeHolidays(output);
+			assertEquals(output.holidays, all.subList(i + 1, all.size()), "Resumed after " + checkpoint);
+			assertTrue(output.cleared);
+		}
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model",
+		  dataProvider = "writers")
+	public void testRejectForeignCheckpoint(AbstractHolidayOutputWriter writer) throws Exception {
+		// Another calendar; two years past the last year; two years before
+		// the first year
+		HolidayCheckpoint[] checkpoints = {
+			new HolidayCheckpoint("XYZ", 20000103, 1),
+			new HolidayCheckpoint("NYB", 20420101, 1),
+			new HolidayCheckpoint("LNB", 19881225, 1)
+		};
+		for (HolidayCheckpoint checkpoint : checkpoints) {
+			configure(writer);
+			ResumingOutput output = new ResumingOutput(checkpoint);
+			try {
+				writer.writeHolidays(output);
+				fail("Expected HolidayOutputException for " + checkpoint);
+			} catch (HolidayOutputException expected) {}
+			assertTrue(output.holidays.isEmpty());
+			assertFalse(output.cleared);
+		}
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model",
+		  dataProvider = "writers")
+	public void testResumeBeforeFirstYear(AbstractHolidayOutputWriter writer) throws Exception {
+		List<Holiday> all = writeAll();
+		// Produced for the first year, but observed in the year before
+		Holiday first = all.get(0);
+		assertTrue(first.getDate() < 19900101, "Expected a holiday before the first year: " + first);
+		HolidayCheckpoint checkpoint = new HolidayCheckpoint(first.getFinancialCalendar().getId(), first.getDate(), 1);
+		configure(writer);
+		ResumingOutput output = new ResumingOutput(checkpoint);
+		writer.writeHolidays(output);
+		assertEquals(output.holidays, all.subList(1, all.size()));
+		assertTrue(output.cleared);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testNoCheckpoint() throws Exception {
+		ResumingOutput output = new ResumingOutput(null);
+		SequentialHolidayOutputWriter writer = new SequentialHolidayOutputWriter();
+		configure(writer);
+		writer.writeHolidays(output);
+		assertEquals(output.holidays, writeAll());
+		assertTrue(output.cleared);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testResumeIndex() throws Exception {
+		Holiday[] all = writeAll().toArray(new Holiday[0]);
+		int tie = firstTie(Arrays.asList(all));
+		HolidayCheckpoint checkpoint = new HolidayCheckpoint(all[tie].getFinancialCalendar().getId(), all[tie].getDate(), 1);
+		assertEquals(AbstractHolidayOutputWriter.resumeIndex(all, checkpoint), tie + 1);
+		assertEquals(AbstractHolidayOutputWriter.resumeIndex(all, null), 0);
+	}
+
+	@DataProvider
+	public Object[][] writers() {
+		return new Object[][] {
+			new Object[] { new SequentialHolidayOutputWriter() },
+			new Object[] { new ParallelHolidayOutputWriter(2, 7) },
+			new Object[] { new PipelinedHolidayOutputWriter(100, 2) },
+		};
+	}
+
+	private static List<Holiday> writeAll() {
+		SequentialHolidayOutputWriter writer = new SequentialHolidayOutputWriter();
+		configure(writer);
+		ParallelHolidayOutputWriterTest.CollectingOutput output = new ParallelHolidayOutputWriterTest.CollectingOutput();
+		writer.writeHolidays(output);
+		return output.holidays;
+	}
+
+	/**
+	 * Find the index of the first of two adjacent holidays with equal IDs.
+	 */
+	private static int firstTie(List<Holiday> holidays) {
+		for (int i = 1; i < holidays.size(); i++) {
+			if (0 == holidays.get(i - 1).compareTo(holidays.get(i))) {
+				return i - 1;
+			}
+		}
+		throw new IllegalStateException("No holidays share an ID");
+	}
+
+	/**
+	 * Resumable holiday output with a fixed checkpoint.
+	 */
+	static class ResumingOutput extends ParallelHolidayOutputWriterTest.CollectingOutput
+		implements ResumableHolidayOutput<List<Holiday>, Exception> {
+		final HolidayCheckpoint checkpoint;
+		boolean cleared = false;
+		ResumingOutput(HolidayCheckpoint checkpoint) {
+			this.checkpoint = checkpoint;
+		}
+		public HolidayCheckpoint getCheckpoint() {
+			return checkpoint;
+		}
+		public void clearCheckpoint() {
+			cleared = true;
+		}
+	}
+
+}
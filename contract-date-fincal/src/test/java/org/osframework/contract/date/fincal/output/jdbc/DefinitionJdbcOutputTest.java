@@ -0,0 +1,118 @@
+/*
+ * File: DefinitionJdbcOutputTest.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output.jdbc;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.osframework.contract.date.fincal.ObjectMother;
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.definition.WeekendMask;
+import org.osframework.contract.date.fincal.definition.WeekendSchedule;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for <code>DefinitionJdbcOutput</code>, run against an embedded
+ * in-memory database.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class DefinitionJdbcOutputTest {
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testStore() throws Exception {
+		FinancialCalendar[] calendars = {
+			ObjectMother.createFinancialCalendar("NYB", ObjectMother.CENTRAL_BANK_ID_USFR),
+			ObjectMother.createFinancialCalendar("LNB", ObjectMother.CENTRAL_BANK_ID_BOE),
+			ObjectMother.createFinancialCalendar("BAB", ObjectMother.CENTRAL_BANK_ID_CBOA)
+		};
+		DataSource ds = JdbcTestSupport.createDataSource("definitions");
+		DefinitionJdbcOutput output = createOutput(ds);
+		output.setBatchSize(4);
+		output.store(calendars);
+		output.close();
+
+		// Shared holiday definitions are stored once
+		assertEquals(JdbcTestSupport.count(ds, "CENTRAL_BANK"), calendars.length);
+		assertEquals(JdbcTestSupport.count(ds, "FINANCIAL_CALENDAR"), calendars.length);
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY_DEFINITION"), ObjectMother.HOLIDAY_DEF_IDS.length);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testStoreSharedAcrossCalls() throws Exception {
+		DataSource ds = JdbcTestSupport.createDataSource("sharedDefinitions");
+		DefinitionJdbcOutput output = createOutput(ds);
+		output.store(ObjectMother.createFinancialCalendar("NYB", ObjectMother.CENTRAL_BANK_ID_USFR));
+		output.store(ObjectMother.createFinancialCalendar("NYF", ObjectMother.CENTRAL_BANK_ID_USFR),
+		             ObjectMother.createFinancialCalendar("LNB", ObjectMother.CENTRAL_BANK_ID_BOE));
+
+		assertEquals(JdbcTestSupport.count(ds, "CENTRAL_BANK"), 2);
+		assertEquals(JdbcTestSupport.count(ds, "FINANCIAL_CALENDAR"), 3);
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY_DEFINITION"), ObjectMother.HOLIDAY_DEF_IDS.length);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testRolledBackDefinitionsStoredAgain() throws Exception {
+		DataSource ds = JdbcTestSupport.createDataSource("rolledBackDefinitions");
+		DefinitionJdbcOutput output = createOutput(ds);
+		FinancialCalendar nyb = ObjectMother.createFinancialCalendar("NYB", ObjectMother.CENTRAL_BANK_ID_USFR);
+		try {
+			// Duplicate calendar fails after its bank and definitions are added
+			output.store(nyb, nyb);
+			fail("Expected SQLException on duplicate financial calendar");
+		} catch (SQLException expected) {}
+		assertEquals(JdbcTestSupport.count(ds, "CENTRAL_BANK"), 0);
+
+		output.store(nyb);
+		assertEquals(JdbcTestSupport.count(ds, "CENTRAL_BANK"), 1);
+		assertEquals(JdbcTestSupport.count(ds, "FINANCIAL_CALENDAR"), 1);
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY_DEFINITION"), ObjectMother.HOLIDAY_DEF_IDS.length);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testStoreWeekendSchedule() throws Exception {
+		DataSource ds = JdbcTestSupport.createDataSource("weekendDefinitions");
+		FinancialCalendar nyb = ObjectMother.createFinancialCalendar("NYB", ObjectMother.CENTRAL_BANK_ID_USFR);
+		FinancialCalendar dxb = ObjectMother.createFinancialCalendar("DXB", ObjectMother.CENTRAL_BANK_ID_USFR);
+		WeekendSchedule gulf = new WeekendSchedule(WeekendMask.THURSDAY_FRIDAY).changeOn(20060901, WeekendMask.FRIDAY_SATURDAY);
+		dxb.setWeekendSchedule(gulf);
+		createOutput(ds).store(nyb, dxb);
+
+		assertEquals(WeekendSchedule.parse(JdbcTestSupport.weekendOf(ds, "NYB")), WeekendSchedule.SATURDAY_SUNDAY);
+		assertEquals(WeekendSchedule.parse(JdbcTestSupport.weekendOf(ds, "DXB")), gulf);
+	}
+
+	private static DefinitionJdbcOutput createOutput(DataSource ds) {
+		DefinitionJdbcOutput output = new DefinitionJdbcOutput();
+		output.setDataSource(ds);
+		output.setCentralBankBatchHandler(JdbcTestSupport.centralBankBatchHandler());
+		output.setHolidayDefinitionBatchHandler(JdbcTestSupport.holidayDefinitionBatchHandler());
+		// Single-row handler mixed with batch handlers via adapter
+		output.setFinancialCalendarHandler(JdbcTestSupport.financialCalendarHandler());
+		return output;
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * File: HolidayJdbcOutputBenchmark.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output.jdbc;
+
+import static org.testng.Assert.assertEquals;
+
+import javax.sql.DataSource;
+
+import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Compares the time taken by <code>HolidayJdbcOutput</code> to store
+ * generated holidays, including weekends, to an embedded in-memory database
+ * with a batch handler and with an adapted single-row handler. Not run by
+ * the default build; execute explicitly with:
+ * <pre>
+ * mvn test -Dtest=HolidayJdbcOutputBenchmark
+ * </pre>
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class HolidayJdbcOutputBenchmark {
+
+	private static final int FIRST_YEAR = 1900, LAST_YEAR = 2200;
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Test(groups = "benchmark")
+	public void benchmarkStore() throws Exception {
+		Holiday[] holidays = HolidayJdbcOutputTest.produceHolidays(FIRST_YEAR, LAST_YEAR);
+		long singleRow = 0L, batched = 0L;
+		for (int i = 0; i < 2; i++) {
+			singleRow = time(new HolidayJdbcOutput(JdbcTestSupport.createDataSource("benchmark"),
+			                                       JdbcTestSupport.holidayHandler()), holidays);
+			batched = time(new HolidayJdbcOutput(JdbcTestSupport.createDataSource("benchmark"),
+			                                     JdbcTestSupport.holidayBatchHandler()), holidays);
+		}
+		logger.info("{} holidays: single-row = {} ms, batched = {} ms",
+		            new Object[] { Integer.valueOf(holidays.length),
+		                           Long.valueOf(singleRow / 1000000L),
+		                           Long.valueOf(batched / 1000000L) });
+	}
+
+	private long time(HolidayJdbcOutput output, Holiday[] holidays) throws Exception {
+		long start = System.nanoTime();
+		output.store(holidays);
+		long elapsed = System.nanoTime() - start;
+		assertEquals(JdbcTestSupport.count(output.dataSource, "HOLIDAY"), holidays.length);
+		output.close();
+		return elapsed;
+	}
+
+}
@@ -0,0 +1,342 @@
+/*
+ * File: HolidayJdbcOutputTest.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output.jdbc;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import javax.sql.DataSource;
+
+import org.osframework.contract.date.fincal.ObjectMother;
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.osframework.contract.date.fincal.holiday.producer.MergingHolidayProducer;
+import org.osframework.contract.date.fincal.output.AbstractHolidayOutputWriter;
+import org.osframework.contract.date.fincal.output.DifferentialHolidayOutputWriter;
+import org.osframework.contract.date.fincal.output.HolidayCheckpoint;
+import org.osframework.contract.date.fincal.output.HolidayOutputException;
+import org.osframework.contract.date.fincal.output.HolidayOutputWriter;
+import org.osframework.contract.date.fincal.output.ParallelHolidayOutputWriter;
+import org.osframework.contract.date.fincal.output.PipelinedHolidayOutputWriter;
+import org.osframework.contract.date.fincal.output.SequentialHolidayOutputWriter;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for <code>HolidayJdbcOutput</code>, run against an embedded
+ * in-memory database.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class HolidayJdbcOutputTest {
+
+	static final FinancialCalendar[] CALENDARS = {
+		ObjectMother.createFinancialCalendar("NYB", ObjectMother.CENTRAL_BANK_ID_USFR),
+		ObjectMother.createFinancialCalendar("LNB", ObjectMother.CENTRAL_BANK_ID_BOE),
+		ObjectMother.createFinancialCalendar("BAB", ObjectMother.CENTRAL_BANK_ID_CBOA)
+	};
+
+	static Holiday[] produceHolidays(int firstYear, int lastYear) {
+		return new MergingHolidayProducer(firstYear, lastYear, true).produce(CALENDARS);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model",
+		  dataProvider = "batchConfigurations")
+	public void testBatchedStore(int batchSize, int commitInterval) throws Exception {
+		Holiday[] holidays = produceHolidays(1990, 2040);
+		DataSource ds = JdbcTestSupport.createDataSource("batchedStore");
+		HolidayJdbcOutput output = new HolidayJdbcOutput(ds, JdbcTestSupport.holidayBatchHandler());
+		output.setBatchSize(batchSize);
+		output.setCommitInterval(commitInterval);
+		output.store(holidays);
+		output.close();
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY"), holidays.length);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testSingleRowHandler() throws Exception {
+		Holiday[] holidays = produceHolidays(2010, 2015);
+		DataSource ds = JdbcTestSupport.createDataSource("singleRowHandler");
+		HolidayJdbcOutput output = new HolidayJdbcOutput(ds, JdbcTestSupport.holidayHandler());
+		output.setBatchSize(7);
+		output.store(holidays);
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY"), holidays.length);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model",
+		  dataProvider = "commitIntervals")
+	public void testFailureRollsBackUncommittedRows(int commitInterval) throws Exception {
+		Holiday[] unique = produceHolidays(2000, 2005);
+		// Duplicate primary key fails the batch containing the last row
+		Holiday[] holidays = Arrays.copyOf(unique, unique.length + 1);
+		holidays[unique.length] = unique[0];
+		DataSource ds = JdbcTestSupport.createDataSource("rollback");
+		HolidayJdbcOutput output = new HolidayJdbcOutput(ds, JdbcTestSupport.holidayBatchHandler());
+		output.setBatchSize(100);
+		output.setCommitInterval(commitInterval);
+		try {
+			output.store(holidays);
+			fail("Expected SQLException on duplicate holiday");
+		} catch (SQLException expected) {}
+		int committed = (0 == commitInterval) ? 0 : (unique.length / 100) * 100;
+		assertTrue(unique.length > 100);
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY"), committed);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model",
+		  dataProvider = "writers")
+	public void testResumeFromCheckpoint(AbstractHolidayOutputWriter writer) throws Exception {
+		int expected = produceHolidays(1990, 2040).length;
+		DataSource ds = JdbcTestSupport.createDataSource("resume");
+		HolidayJdbcOutput failing = checkpointedOutput(ds, JdbcTestSupport.failingHolidayBatchHandler(expected / 2));
+		try {
+			configure(writer).writeHolidays(failing);
+			fail("Expected HolidayOutputException on simulated failure");
+		} catch (HolidayOutputException expectedException) {}
+		// Writers may close the output after failure
+		HolidayCheckpoint checkpoint = checkpointedOutput(ds, JdbcTestSupport.holidayBatchHandler()).getCheckpoint();
+		assertNotNull(checkpoint);
+		int committed = JdbcTestSupport.count(ds, "HOLIDAY");
+		assertTrue(committed > 0 && committed <= expected / 2);
+
+		// Duplicate holidays would violate the primary key
+		HolidayJdbcOutput output = checkpointedOutput(ds, JdbcTestSupport.holidayBatchHandler());
+		configure(writer).writeHolidays(output);
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY"), expected);
+		assertNull(checkpointedOutput(ds, JdbcTestSupport.holidayBatchHandler()).getCheckpoint());
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model",
+		  dataProvider = "writers")
+	public void testFailedRunLeavesNoHolidays(AbstractHolidayOutputWriter writer) throws Exception {
+		int expected = produceHolidays(1990, 2040).length;
+		DataSource ds = JdbcTestSupport.createDataSource("failedRun");
+		// Default output: no commit interval and no checkpoint handler
+		HolidayJdbcOutput failing = new HolidayJdbcOutput(ds, JdbcTestSupport.failingHolidayBatchHandler(expected / 2));
+		try {
+			configure(writer).writeHolidays(failing);
+			fail("Expected HolidayOutputException on simulated failure");
+		} catch (HolidayOutputException expectedException) {}
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY"), 0);
+
+		// Nothing was left behind to collide with a rerun
+		configure(writer).writeHolidays(new HolidayJdbcOutput(ds, JdbcTestSupport.holidayBatchHandler()));
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY"), expected);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testCloseRollsBackUncommittedRun() throws Exception {
+		Holiday[] holidays = produceHolidays(2010, 2015);
+		DataSource ds = JdbcTestSupport.createDataSource("uncommittedRun");
+		HolidayJdbcOutput output = new HolidayJdbcOutput(ds, JdbcTestSupport.holidayBatchHandler());
+		output.begin();
+		output.store(Arrays.copyOfRange(holidays, 0, 100));
+		output.store(Arrays.copyOfRange(holidays, 100, holidays.length));
+		output.close();
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY"), 0);
+
+		output = new HolidayJdbcOutput(ds, JdbcTestSupport.holidayBatchHandler());
+		output.begin();
+		output.store(holidays);
+		output.commit();
+		output.close();
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY"), holidays.length);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testApplyDifferences() throws Exception {
+		DataSource ds = JdbcTestSupport.createDataSource("differences");
+		DifferentialHolidayOutputWriter writer = new DifferentialHolidayOutputWriter();
+		configure(writer).writeHolidays(differentialOutput(ds));
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY"), produceHolidays(1990, 2040).length);
+
+		writer.setPreviousSnapshot(writer.getSnapshot());
+		writer.setFirstYear(2000);
+		writer.setLastYear(2045);
+		writer.writeHolidays(differentialOutput(ds));
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY"), produceHolidays(2000, 2045).length);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testFailedDifferencesLeaveHolidays() throws Exception {
+		DataSource ds = JdbcTestSupport.createDataSource("failedDifferences");
+		DifferentialHolidayOutputWriter writer = new DifferentialHolidayOutputWriter();
+		configure(writer).writeHolidays(differentialOutput(ds));
+		int previous = JdbcTestSupport.count(ds, "HOLIDAY");
+
+		// Fails on the first store, after all removals
+		writer.setPreviousSnapshot(writer.getSnapshot());
+		writer.setFirstYear(2000);
+		writer.setLastYear(2045);
+		HolidayJdbcOutput failing = new HolidayJdbcOutput(ds, JdbcTestSupport.failingHolidayBatchHandler(0));
+		failing.setHolidayDeleteHandler(JdbcTestSupport.holidayDeleteBatchHandler());
+		try {
+			writer.writeHolidays(failing);
+			fail("Expected HolidayOutputException on simulated failure");
+		} catch (HolidayOutputException expectedException) {}
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY"), previous);
+
+		// Same changes applied again from the same snapshot
+		writer.writeHolidays(differentialOutput(ds));
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY"), produceHolidays(2000, 2045).length);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testReplaceRange() throws Exception {
+		DataSource ds = JdbcTestSupport.createDataSource("replace");
+		HolidayJdbcOutput output = new HolidayJdbcOutput(ds, JdbcTestSupport.holidayBatchHandler());
+		output.setRangeDeleteHandler(JdbcTestSupport.rangeDeleteHandler());
+		Holiday[] holidays = produceHolidays(2000, 2020);
+		output.store(holidays);
+
+		Holiday[] slice = nybHolidays(2005, 2009);
+		output.replace("NYB", 2005, 2009, slice);
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY"), holidays.length);
+		output.replace("NYB", 2005, 2009);
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY"), holidays.length - slice.length);
+		output.replace("NYB", 2005, 2009, slice);
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY"), holidays.length);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testReplaceRangeFailureKeepsOldHolidays() throws Exception {
+		DataSource ds = JdbcTestSupport.createDataSource("replaceFailure");
+		HolidayJdbcOutput output = new HolidayJdbcOutput(ds, JdbcTestSupport.holidayBatchHandler());
+		output.setRangeDeleteHandler(JdbcTestSupport.rangeDeleteHandler());
+		Holiday[] holidays = produceHolidays(2000, 2020);
+		output.store(holidays);
+
+		Holiday[] slice = nybHolidays(2005, 2009);
+		Holiday[] duplicated = Arrays.copyOf(slice, slice.length + 1);
+		duplicated[slice.length] = slice[0];
+		try {
+			output.replace("NYB", 2005, 2009, duplicated);
+			fail("Expected SQLException on duplicate holiday");
+		} catch (SQLException expected) {}
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY"), holidays.length);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model",
+		  expectedExceptions = IllegalArgumentException.class)
+	public void testReplaceRangeOutOfRange() throws Exception {
+		HolidayJdbcOutput output = new HolidayJdbcOutput(JdbcTestSupport.createDataSource("replaceRange"),
+		                                                 JdbcTestSupport.holidayBatchHandler());
+		output.setRangeDeleteHandler(JdbcTestSupport.rangeDeleteHandler());
+		output.replace("NYB", 2005, 2006, nybHolidays(2005, 2007));
+	}
+
+	@Test(groups="data",
+		  expectedExceptions = SQLException.class)
+	public void testReplaceWithoutHandler() throws Exception {
+		new HolidayJdbcOutput(JdbcTestSupport.createDataSource("noReplace"), JdbcTestSupport.holidayBatchHandler())
+			.replace("NYB", 2013, 2013);
+	}
+
+	@Test(groups="data",
+		  expectedExceptions = SQLException.class)
+	public void testDeleteWithoutHandler() throws Exception {
+		new HolidayJdbcOutput(JdbcTestSupport.createDataSource("noDelete"), JdbcTestSupport.holidayBatchHandler())
+			.delete(produceHolidays(2013, 2013));
+	}
+
+	@Test(groups="data",
+		  expectedExceptions = SQLException.class)
+	public void testStoreAfterClose() throws Exception {
+		HolidayJdbcOutput output = new HolidayJdbcOutput(JdbcTestSupport.createDataSource("closed"),
+		                                                 JdbcTestSupport.holidayBatchHandler());
+		output.close();
+		output.store(new Holiday[0]);
+	}
+
+	@Test(groups="data",
+		  expectedExceptions = IllegalArgumentException.class)
+	public void testInvalidBatchSize() {
+		new HolidayJdbcOutput().setBatchSize(0);
+	}
+
+	private static Holiday[] nybHolidays(int firstYear, int lastYear) {
+		return new MergingHolidayProducer(firstYear, lastYear, true).produce(CALENDARS[0]);
+	}
+
+	private static HolidayJdbcOutput checkpointedOutput(DataSource ds, JdbcBatchHandler<Holiday> handler) {
+		HolidayJdbcOutput output = new HolidayJdbcOutput(ds, handler);
+		output.setBatchSize(100);
+		output.setCommitInterval(1000);
+		output.setCheckpointHandler(new TableJdbcCheckpointHandler("LOAD_CHECKPOINT", "test"));
+		return output;
+	}
+
+	private static HolidayJdbcOutput differentialOutput(DataSource ds) {
+		HolidayJdbcOutput output = new HolidayJdbcOutput(ds, JdbcTestSupport.holidayBatchHandler());
+		output.setHolidayDeleteHandler(JdbcTestSupport.holidayDeleteBatchHandler());
+		return output;
+	}
+
+	private static HolidayOutputWriter configure(AbstractHolidayOutputWriter writer) {
+		writer.setDefinitionSource(ObjectMother.createDefinitionSource(CALENDARS));
+		writer.setCalendarIds("NYB", "LNB", "BAB");
+		writer.setFirstYear(1990);
+		writer.setLastYear(2040);
+		writer.includeWeekends();
+		return (HolidayOutputWriter)writer;
+	}
+
+	@DataProvider
+	public Object[][] writers() {
+		return new Object[][] {
+			new Object[] { new SequentialHolidayOutputWriter() },
+			new Object[] { new ParallelHolidayOutputWriter(2) },
+			new Object[] { new PipelinedHolidayOutputWriter(100, 4) },
+		};
+	}
+
+	@DataProvider
+	public Object[][] batchConfigurations() {
+		return new Object[][] {
+			new Object[] { HolidayJdbcOutput.DEFAULT_BATCH_SIZE, 0 },
+			new Object[] { 1, 0 },
+			new Object[] { 250, 1000 },
+		};
+	}
+
+	@DataProvider
+	public Object[][] commitIntervals() {
+		return new Object[][] {
+			new Object[] { 0 },
+			new Object[] { 100 },
+		};
+	}
+
+}
@@ -0,0 +1,276 @@
+/*
+ * File: JdbcTestSupport.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.osframework.contract.date.fincal.definition.CentralBank;
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.definition.HolidayDefinition;
+import org.osframework.contract.date.fincal.holiday.Holiday;
+
+/**
+ * Embedded in-memory database schema and handlers shared by JDBC output
+ * tests.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+final class JdbcTestSupport {
+
+	static final String INSERT_HOLIDAY_SQL =
+		"INSERT INTO HOLIDAY (CALENDAR_ID, HOLIDAY_DATE, DEFINITION_ID) VALUES (?, ?, ?)";
+
+	private JdbcTestSupport() {}
+
+	/**
+	 * Create a new, empty in-memory database which lives until the JVM exits.
+	 */
+	static DataSource createDataSource(String name) throws SQLException {
+		JdbcDataSource ds = new JdbcDataSource();
+		ds.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+		execute(ds,
+			"DROP ALL OBJECTS",
+			"CREATE TABLE CENTRAL_BANK (ID VARCHAR(32) PRIMARY KEY, NAME VARCHAR(128), COUNTRY VARCHAR(2), CURRENCY VARCHAR(3))",
+			"CREATE TABLE HOLIDAY_DEFINITION (ID VARCHAR(64) PRIMARY KEY, NAME VARCHAR(128), OBSERVANCE VARCHAR(16), EXPRESSION VARCHAR(128))",
+			"CREATE TABLE FINANCIAL_CALENDAR (ID VARCHAR(32) PRIMARY KEY, DESCRIPTION VARCHAR(128), CENTRAL_BANK_ID VARCHAR(32), " +
+				"WEEKEND VARCHAR(128) NOT NULL)",
+			"CREATE TABLE HOLIDAY (CALENDAR_ID VARCHAR(32) NOT NULL, HOLIDAY_DATE INT NOT NULL, DEFINITION_ID VARCHAR(64) NOT NULL, " +
+				"PRIMARY KEY (CALENDAR_ID, HOLIDAY_DATE, DEFINITION_ID))",
+			"CREATE TABLE HOLIDAY_BY_ID (CALENDAR_ID VARCHAR(32) NOT NULL, HOLIDAY_DATE INT NOT NULL, DEFINITION_ID VARCHAR(64), " +
+				"PRIMARY KEY (CALENDAR_ID, HOLIDAY_DATE))",
+			"CREATE TABLE LOAD_CHECKPOINT (JOB_ID VARCHAR(32) PRIMARY KEY, CALENDAR_ID VARCHAR(32), " +
+				"HOLIDAY_DATE INT, HOLIDAY_COUNT INT)");
+		return ds;
+	}
+
+	static void execute(DataSource ds, String... sql) throws SQLException {
+		Connection c = ds.getConnection();
+		try {
+			Statement s = c.createStatement();
+			for (String stmt : sql) {
+				s.execute(stmt);
+			}
+			s.close();
+		} finally {
+			c.close();
+		}
+	}
+
+	static int count(DataSource ds, String table) throws SQLException {
+		Connection c = ds.getConnection();
+		try {
+			Statement s = c.createStatement();
+			ResultSet rs = s.executeQuery("SELECT COUNT(*) FROM " + table);
+			rs.next();
+			int count = rs.getInt(1);
+			s.close();
+			return count;
+		} finally {
+			c.close();
+		}
+	}
+
+	static String weekendOf(DataSource ds, String calendarId) throws SQLException {
+		Connection c = ds.getConnection();
+		try {
+			PreparedStatement ps = c.prepareStatement("SELECT WEEKEND FROM FINANCIAL_CALENDAR WHERE ID = ?");
+			ps.setString(1, calendarId);
+			ResultSet rs = ps.executeQuery();
+			String weekend = rs.next() ? rs.getString(1) : null;
+			ps.close();
+			return weekend;
+		} finally {
+			c.close();
+		}
+	}
+
+	static PreparedStatementBatchHandler<Holiday> holidayBatchHandler() {
+		return new PreparedStatementBatchHandler<Holiday>(INSERT_HOLIDAY_SQL) {
+			@Override
+			protected void setParameters(PreparedStatement ps, Holiday h) throws SQLException {
+				ps.setString(1, h.getFinancialCalendar().getId());
+				ps.setInt(2, h.getDate());
+				ps.setString(3, h.getHolidayDefinition().getId());
+			}
+		};
+	}
+
+	static PreparedStatementBatchHandler<Holiday> holidayDeleteBatchHandler() {
+		return new PreparedStatementBatchHandler<Holiday>(
+				"DELETE FROM HOLIDAY WHERE CALENDAR_ID = ? AND HOLIDAY_DATE = ? AND DEFINITION_ID = ?") {
+			@Override
+			protected void setParameters(PreparedStatement ps, Holiday h) throws SQLException {
+				ps.setString(1, h.getFinancialCalendar().getId());
+				ps.setInt(2, h.getDate());
+				ps.setString(3, h.getHolidayDefinition().getId());
+			}
+		};
+	}
+
+	/**
+	 * Upsert handler keyed on holiday ID: financial calendar ID and date.
+	 */
+	static UpsertBatchHandler<Holiday> holidayUpsertHandler() {
+		return new UpsertBatchHandler<Holiday>(
+				"UPDATE HOLIDAY_BY_ID SET DEFINITION_ID = ? WHERE CALENDAR_ID = ? AND HOLIDAY_DATE = ?",
+				"INSERT INTO HOLIDAY_BY_ID (DEFINITION_ID, CALENDAR_ID, HOLIDAY_DATE) VALUES (?, ?, ?)") {
+			@Override
+			protected Object getKey(Holiday h) {
+				return h.getFinancialCalendar().getId() + "|" + h.getDate();
+			}
+			@Override
+			protected void setParameters(PreparedStatement ps, Holiday h) throws SQLException {
+				ps.setString(1, h.getHolidayDefinition().getId());
+				ps.setString(2, h.getFinancialCalendar().getId());
+				ps.setInt(3, h.getDate());
+			}
+		};
+	}
+
+	static JdbcRangeDeleteHandler rangeDeleteHandler() {
+		return new JdbcRangeDeleteHandler() {
+			public int deleteRange(Connection connection, String calendarId, int fromDate, int toDate) throws SQLException {
+				PreparedStatement ps = connection.prepareStatement(
+					"DELETE FROM HOLIDAY WHERE CALENDAR_ID = ? AND HOLIDAY_DATE BETWEEN ? AND ?");
+				try {
+					ps.setString(1, calendarId);
+					ps.setInt(2, fromDate);
+					ps.setInt(3, toDate);
+					return ps.executeUpdate();
+				} finally {
+					ps.close();
+				}
+			}
+		};
+	}
+
+	static String definitionIdAt(DataSource ds, String table, String calendarId, int date) throws SQLException {
+		Connection c = ds.getConnection();
+		try {
+			PreparedStatement ps = c.prepareStatement(
+				"SELECT DEFINITION_ID FROM " + table + " WHERE CALENDAR_ID = ? AND HOLIDAY_DATE = ?");
+			ps.setString(1, calendarId);
+			ps.setInt(2, date);
+			ResultSet rs = ps.executeQuery();
+			String id = rs.next() ? rs.getString(1) : null;
+			ps.close();
+			return id;
+		} finally {
+			c.close();
+		}
+	}
+
+	/**
+	 * Batch holiday handler which fails once the specified number of holidays
+	 * have been added to its batches.
+	 */
+	static JdbcBatchHandler<Holiday> failingHolidayBatchHandler(final int failAfter) {
+		final JdbcBatchHandler<Holiday> handler = holidayBatchHandler();
+		return new JdbcBatchHandler<Holiday>() {
+			private int added = 0;
+			public JdbcBatch<Holiday> openBatch(Connection connection) throws SQLException {
+				final JdbcBatch<Holiday> batch = handler.openBatch(connection);
+				return new JdbcBatch<Holiday>() {
+					public void add(Holiday h) throws SQLException {
+						if (++added > failAfter) {
+							throw new SQLException("Simulated failure after " + failAfter + " holidays");
+						}
+						batch.add(h);
+					}
+					public int execute() throws SQLException {
+						return batch.execute();
+					}
+					public void close() throws SQLException {
+						batch.close();
+					}
+				};
+			}
+		};
+	}
+
+	/**
+	 * Single-row holiday handler which prepares a statement per holiday.
+	 */
+	static JdbcOutputHandler<Holiday> holidayHandler() {
+		return new JdbcOutputHandler<Holiday>() {
+			public Integer storeInConnection(Connection connection, Holiday h) throws SQLException {
+				PreparedStatement ps = connection.prepareStatement(INSERT_HOLIDAY_SQL);
+				try {
+					ps.setString(1, h.getFinancialCalendar().getId());
+					ps.setInt(2, h.getDate());
+					ps.setString(3, h.getHolidayDefinition().getId());
+					return Integer.valueOf(ps.executeUpdate());
+				} finally {
+					ps.close();
+				}
+			}
+		};
+	}
+
+	static PreparedStatementBatchHandler<CentralBank> centralBankBatchHandler() {
+		return new PreparedStatementBatchHandler<CentralBank>(
+				"INSERT INTO CENTRAL_BANK (ID, NAME, COUNTRY, CURRENCY) VALUES (?, ?, ?, ?)") {
+			@Override
+			protected void setParameters(PreparedStatement ps, CentralBank cb) throws SQLException {
+				ps.setString(1, cb.getId());
+				ps.setString(2, cb.getName());
+				ps.setString(3, cb.getCountry());
+				ps.setString(4, cb.getCurrency().getCurrencyCode());
+			}
+		};
+	}
+
+	static PreparedStatementBatchHandler<HolidayDefinition> holidayDefinitionBatchHandler() {
+		return new PreparedStatementBatchHandler<HolidayDefinition>(
+				"INSERT INTO HOLIDAY_DEFINITION (ID, NAME, OBSERVANCE, EXPRESSION) VALUES (?, ?, ?, ?)") {
+			@Override
+			protected void setParameters(PreparedStatement ps, HolidayDefinition hd) throws SQLException {
+				ps.setString(1, hd.getId());
+				ps.setString(2, hd.getName());
+				ps.setString(3, hd.getObservance().name());
+				ps.setString(4, hd.getExpression());
+			}
+		};
+	}
+
+	static JdbcOutputHandler<FinancialCalendar> financialCalendarHandler() {
+		return new JdbcOutputHandler<FinancialCalendar>() {
+			public Integer storeInConnection(Connection connection, FinancialCalendar fc) throws SQLException {
+				PreparedStatement ps = connection.prepareStatement(
+					"INSERT INTO FINANCIAL_CALENDAR (ID, DESCRIPTION, CENTRAL_BANK_ID, WEEKEND) VALUES (?, ?, ?, ?)");
+				try {
+					ps.setString(1, fc.getId());
+					ps.setString(2, fc.getDescription());
+					ps.setString(3, fc.getCentralBank().getId());
+					ps.setString(4, fc.getWeekendSchedule().format());
+					return Integer.valueOf(ps.executeUpdate());
+				} finally {
+					ps.close();
+				}
+			}
+		};
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * File: UpsertBatchHandlerTest.java
+ * 
+ * Copyright 2013 OSFramework Project.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.osframework.contract.date.fincal.output.jdbc;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.osframework.contract.date.fincal.ObjectMother;
+import org.osframework.contract.date.fincal.definition.FinancialCalendar;
+import org.osframework.contract.date.fincal.definition.HolidayDefinition;
+import org.osframework.contract.date.fincal.definition.HolidayType;
+import org.osframework.contract.date.fincal.holiday.Holiday;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for <code>UpsertBatchHandler</code>, run against an embedded
+ * in-memory database.
+ *
+ * @author <a href="mailto:dave@osframework.org">Dave Joyce</a>
+ */
+public class UpsertBatchHandlerTest {
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testStoreTwice() throws Exception {
+		Holiday[] holidays = HolidayJdbcOutputTest.produceHolidays(2000, 2020);
+		DataSource ds = JdbcTestSupport.createDataSource("upsertTwice");
+		HolidayJdbcOutput output = new HolidayJdbcOutput(ds, JdbcTestSupport.holidayUpsertHandler());
+		output.setBatchSize(250);
+		output.store(holidays);
+		int expected = JdbcTestSupport.count(ds, "HOLIDAY_BY_ID");
+		assertEquals(expected, distinctIds(holidays));
+
+		output.store(holidays);
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY_BY_ID"), expected);
+	}
+
+	@Test(groups="data",
+		  dependsOnGroups="model")
+	public void testLastHolidayWithSameIdWins() throws Exception {
+		FinancialCalendar nyb = ObjectMother.createFinancialCalendar("NYB", ObjectMother.CENTRAL_BANK_ID_USFR);
+		HolidayDefinition newYear = ObjectMother.createHolidayDefinition(ObjectMother.HOLIDAY_DEF_ID_NEW_YEARS_DAY);
+		HolidayDefinition bank = new HolidayDefinition("BankHoliday", "Bank Holiday", "Bank Holiday", HolidayType.FIXED, "JANUARY/01");
+		DataSource ds = JdbcTestSupport.createDataSource("upsertSameId");
+		HolidayJdbcOutput output = new HolidayJdbcOutput(ds, JdbcTestSupport.holidayUpsertHandler());
+
+		// Within one batch
+		output.store(new Holiday(nyb, 20130101, newYear), new Holiday(nyb, 20130101, bank));
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY_BY_ID"), 1);
+		assertEquals(JdbcTestSupport.definitionIdAt(ds, "HOLIDAY_BY_ID", "NYB", 20130101), "BankHoliday");
+
+		// Across calls, by update
+		output.store(new Holiday(nyb, 20130101, newYear));
+		assertEquals(JdbcTestSupport.count(ds, "HOLIDAY_BY_ID"), 1);
+		assertEquals(JdbcTestSupport.definitionIdAt(ds, "HOLIDAY_BY_ID", "NYB", 20130101), "NewYearsDay");
+	}
+
+	private static int distinctIds(Holiday[] holidays) {
+		Set<String> ids = new HashSet<String>();
+		for (Holiday h : holidays) {
+			ids.add(h.getFinancialCalendar().getId() + "|" + h.getDate());
+		}
+		return ids.size();
+	}
+
+}